@@ -0,0 +1,86 @@
+/**
+ * CalendarMutationBenchmark.java
+ * Purpose: Benchmarks adding events to and removing them from a Calendar
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.Calendar;
+import com.adalyia.calendar.Event;
+import com.adalyia.calendar.EventInterface;
+import com.adalyia.calendar.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding an event to a calendar of the given size and removing it again, which keeps
+ * the size steady across iterations. Each operation updates the interval tree, the tag index and
+ * the search index, so this is the cost of one edit of a large calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarMutationBenchmark
+{
+    private static final int SPARES = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Calendar calendar;
+    private Event[] spares;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        ArrayList<Tag> tags = EventData.tags(32);
+        this.calendar = (Calendar) EventData.calendar("Calendar", this.size, EventData.SEED, tags);
+        this.spares = new Event[SPARES];
+        Random random = new Random(EventData.SEED + 1);
+        for (int i = 0; i < SPARES; i++)
+        {
+            this.spares[i] = EventData.event(random, tags);
+        }
+    }
+
+    @Benchmark
+    public Calendar addAndRemove()
+    {
+        Event event = this.spares[this.next++ & (SPARES - 1)];
+        this.calendar.addEvent(event);
+        this.calendar.removeEvent(event);
+        return this.calendar;
+    }
+
+    @Benchmark
+    public EventInterface addAndRemoveById()
+    {
+        Event event = this.spares[this.next++ & (SPARES - 1)];
+        this.calendar.addEvent(event);
+        return this.calendar.removeEvent(event.getId());
+    }
+
+    @Benchmark
+    public EventInterface getById()
+    {
+        return this.calendar.getEvent(this.spares[this.next++ & (SPARES - 1)].getId());
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * EventData.java
+ * Purpose: Reproducible synthetic Calendar data for the benchmarks
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.Calendar;
+import com.adalyia.calendar.CalendarInterface;
+import com.adalyia.calendar.ColumnarCalendar;
+import com.adalyia.calendar.Event;
+import com.adalyia.calendar.EventInterface;
+import com.adalyia.calendar.Tag;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates calendars of synthetic events. Every generator takes a seed, so the same seed always
+ * produces the same titles, times and tags, and runs on different builds measure the same data.
+ * <p>
+ * Events start at random minutes within one year from {@link #BASE} and last 15 minutes to four
+ * hours. Each has up to three tags drawn from a fixed pool, with the first tags in the pool far
+ * more common than the last, as tags such as work or personal are in real calendars.
+ */
+final class EventData
+{
+    /**
+     * The earliest start time of any generated event
+     */
+    static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * The number of minutes over which generated events are spread
+     */
+    static final int SPAN_MINUTES = 365 * 24 * 60;
+
+    /**
+     * The seed used by the benchmarks unless they need a second, independent stream
+     */
+    static final long SEED = 20240101L;
+
+    private static final String[] WORDS = {
+            "standup", "review", "lunch", "planning", "sync", "dentist", "gym", "retro", "demo",
+            "interview", "call", "design", "budget", "offsite", "training", "onboarding"
+    };
+    private static final String[] PLACES = {
+            "Room 101", "Room 204", "Cafeteria", "Online", "Main Office", "Downtown", ""
+    };
+
+    private EventData()
+    {
+    }
+
+    /**
+     * Returns a pool of tags named tag-0, tag-1 and so on.
+     *
+     * @param count the number of tags
+     * @return the tags
+     */
+    static ArrayList<Tag> tags(int count)
+    {
+        ArrayList<Tag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            tags.add(new Tag("tag-" + i, "Synthetic tag " + i));
+        }
+        return tags;
+    }
+
+    /**
+     * Returns a new random event.
+     *
+     * @param random the source of randomness
+     * @param tags the pool of tags to draw from
+     * @return the event
+     */
+    static Event event(Random random, ArrayList<Tag> tags)
+    {
+        LocalDateTime start = BASE.plusMinutes(random.nextInt(SPAN_MINUTES));
+        LocalDateTime end = start.plusMinutes(15L * (1 + random.nextInt(16)));
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        String description = "Generated " + WORDS[random.nextInt(WORDS.length)] + " number " + random.nextInt(1000);
+        Event event = new Event(title, description, PLACES[random.nextInt(PLACES.length)], start, end);
+
+        ArrayList<Tag> eventTags = new ArrayList<>(3);
+        for (int i = random.nextInt(4); i > 0; i--)
+        {
+            // Squaring skews the draw towards the start of the pool
+            double skew = random.nextDouble();
+            Tag tag = tags.get((int) (skew * skew * tags.size()));
+            if (!eventTags.contains(tag))
+            {
+                eventTags.add(tag);
+            }
+        }
+        event.setTags(eventTags);
+        return event;
+    }
+
+    /**
+     * Returns a list of random events.
+     *
+     * @param size the number of events
+     * @param seed the seed of the events
+     * @param tags the pool of tags to draw from
+     * @return the events
+     */
+    static ArrayList<EventInterface> events(int size, long seed, ArrayList<Tag> tags)
+    {
+        Random random = new Random(seed);
+        ArrayList<EventInterface> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            events.add(event(random, tags));
+        }
+        return events;
+    }
+
+    /**
+     * Returns a calendar of random events.
+     *
+     * @param kind the kind of calendar, either Calendar or ColumnarCalendar
+     * @param size the number of events
+     * @param seed the seed of the events
+     * @param tags the pool of tags to draw from
+     * @return the calendar
+     */
+    static CalendarInterface calendar(String kind, int size, long seed, ArrayList<Tag> tags)
+    {
+        CalendarInterface calendar = switch (kind)
+        {
+            case "Calendar" -> new Calendar("Benchmark", "Synthetic events");
+            case "ColumnarCalendar" -> new ColumnarCalendar("Benchmark", "Synthetic events");
+            default -> throw new IllegalArgumentException("Unknown calendar kind: " + kind);
+        };
+        calendar.setEvents(events(size, seed, tags));
+        return calendar;
+    }
+}
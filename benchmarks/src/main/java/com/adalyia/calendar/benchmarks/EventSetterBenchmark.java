@@ -0,0 +1,114 @@
+/**
+ * EventSetterBenchmark.java
+ * Purpose: Benchmarks the Event setters and their audit log
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.Calendar;
+import com.adalyia.calendar.Event;
+import com.adalyia.calendar.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the setters of an event held in a calendar of the given size. Every change records an
+ * audit entry and is reindexed by the calendar, so the cost grows with the calendar's indexes as
+ * well as with the event itself. The setters alternate between two values so that every call is
+ * a real change. The audit log benchmarks format an event's full log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSetterBenchmark
+{
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Event event;
+    private LocalDateTime start;
+    private ArrayList<Tag> firstTags;
+    private ArrayList<Tag> secondTags;
+    private boolean flip;
+
+    @Setup
+    public void setUp()
+    {
+        ArrayList<Tag> tags = EventData.tags(32);
+        Calendar calendar = (Calendar) EventData.calendar("Calendar", this.size, EventData.SEED, tags);
+        this.event = EventData.event(new Random(EventData.SEED + 1), tags);
+        calendar.addEvent(this.event);
+        this.start = this.event.getStart();
+        this.firstTags = new ArrayList<>(List.of(tags.get(0), tags.get(1)));
+        this.secondTags = new ArrayList<>(List.of(tags.get(2)));
+
+        // Fill the audit log so the formatting benchmarks see a full log
+        for (int i = 0; i < this.event.getAuditCapacity(); i++)
+        {
+            this.event.setLocation("Room " + i);
+        }
+    }
+
+    @Benchmark
+    public Event setTitle()
+    {
+        this.flip = !this.flip;
+        this.event.setTitle(this.flip ? "planning review" : "budget sync");
+        return this.event;
+    }
+
+    @Benchmark
+    public Event setDescription()
+    {
+        this.flip = !this.flip;
+        this.event.setDescription(this.flip ? "Quarterly numbers" : "Weekly numbers");
+        return this.event;
+    }
+
+    @Benchmark
+    public Event setStart()
+    {
+        this.flip = !this.flip;
+        this.event.setStart(this.flip ? this.start.plusMinutes(5) : this.start);
+        return this.event;
+    }
+
+    @Benchmark
+    public Event setTags()
+    {
+        this.flip = !this.flip;
+        this.event.setTags(this.flip ? this.firstTags : this.secondTags);
+        return this.event;
+    }
+
+    @Benchmark
+    public ArrayList<String> getAuditLog()
+    {
+        return this.event.getAuditLog();
+    }
+
+    @Benchmark
+    public Object getAuditEntries()
+    {
+        return this.event.getAuditEntries();
+    }
+}
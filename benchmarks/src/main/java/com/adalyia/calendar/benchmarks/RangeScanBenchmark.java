@@ -0,0 +1,91 @@
+/**
+ * RangeScanBenchmark.java
+ * Purpose: Benchmarks time-range queries over Calendars
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.CalendarInterface;
+import com.adalyia.calendar.EventInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures range queries over a day and a week at random points of the year, and reading only the
+ * first ten events of a month through the lazy iterator, as an agenda view would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeScanBenchmark
+{
+    private static final int WINDOWS = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"Calendar", "ColumnarCalendar"})
+    public String kind;
+
+    private CalendarInterface calendar;
+    private LocalDateTime[] windows;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        this.calendar = EventData.calendar(this.kind, this.size, EventData.SEED, EventData.tags(32));
+        this.windows = new LocalDateTime[WINDOWS];
+        Random random = new Random(EventData.SEED + 2);
+        for (int i = 0; i < WINDOWS; i++)
+        {
+            this.windows[i] = EventData.BASE.plusMinutes(random.nextInt(EventData.SPAN_MINUTES));
+        }
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> day()
+    {
+        LocalDateTime from = this.windows[this.next++ & (WINDOWS - 1)];
+        return this.calendar.getEventsBetween(from, from.plusDays(1));
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> week()
+    {
+        LocalDateTime from = this.windows[this.next++ & (WINDOWS - 1)];
+        return this.calendar.getEventsBetween(from, from.plusWeeks(1));
+    }
+
+    @Benchmark
+    public EventInterface firstTenOfMonth()
+    {
+        LocalDateTime from = this.windows[this.next++ & (WINDOWS - 1)];
+        Iterator<EventInterface> events = this.calendar.getEventIterator(from, from.plusMonths(1));
+        EventInterface last = null;
+        for (int i = 0; i < 10 && events.hasNext(); i++)
+        {
+            last = events.next();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * RenderBenchmark.java
+ * Purpose: Benchmarks rendering Calendars and Events as text
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.CalendarInterface;
+import com.adalyia.calendar.EventInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures toString on a single event and on a whole calendar. A calendar renders every event,
+ * so the sizes stop at 100k events, where the result is already tens of megabytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private CalendarInterface calendar;
+    private EventInterface event;
+
+    @Setup
+    public void setUp()
+    {
+        this.calendar = EventData.calendar("Calendar", this.size, EventData.SEED, EventData.tags(32));
+        this.event = this.calendar.getEvents().get(0);
+    }
+
+    @Benchmark
+    public String eventToString()
+    {
+        return this.event.toString();
+    }
+
+    @Benchmark
+    public String calendarToString()
+    {
+        return this.calendar.toString();
+    }
+}
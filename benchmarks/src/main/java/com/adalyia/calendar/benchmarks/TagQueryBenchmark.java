@@ -0,0 +1,86 @@
+/**
+ * TagQueryBenchmark.java
+ * Purpose: Benchmarks filtering Calendar events by tag
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.benchmarks;
+
+import com.adalyia.calendar.CalendarInterface;
+import com.adalyia.calendar.EventInterface;
+import com.adalyia.calendar.Tag;
+import com.adalyia.calendar.TagQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tag queries of increasing selectivity: a common tag, the intersection of a common and
+ * a rare tag, a difference, and a negation, which matches most of the calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagQueryBenchmark
+{
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"Calendar", "ColumnarCalendar"})
+    public String kind;
+
+    private CalendarInterface calendar;
+    private TagQuery common;
+    private TagQuery intersection;
+    private TagQuery difference;
+    private TagQuery negation;
+
+    @Setup
+    public void setUp()
+    {
+        ArrayList<Tag> tags = EventData.tags(32);
+        this.calendar = EventData.calendar(this.kind, this.size, EventData.SEED, tags);
+        this.common = TagQuery.tagged(tags.get(0));
+        this.intersection = TagQuery.all(tags.get(0), tags.get(20));
+        this.difference = TagQuery.tagged(tags.get(1)).andNot(TagQuery.any(tags.get(0), tags.get(2)));
+        this.negation = TagQuery.tagged(tags.get(0)).not();
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> common()
+    {
+        return this.calendar.getEventsTagged(this.common);
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> intersection()
+    {
+        return this.calendar.getEventsTagged(this.intersection);
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> difference()
+    {
+        return this.calendar.getEventsTagged(this.difference);
+    }
+
+    @Benchmark
+    public ArrayList<EventInterface> negation()
+    {
+        return this.calendar.getEventsTagged(this.negation);
+    }
+}
@@ -0,0 +1,667 @@
+/**
+ * CalendarHandler.java
+ * Purpose: HTTP handler exposing the Calendars of a CalendarStore as JSON
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.server;
+
+import com.adalyia.calendar.Calendar;
+import com.adalyia.calendar.CalendarBatch;
+import com.adalyia.calendar.CalendarStore;
+import com.adalyia.calendar.Event;
+import com.adalyia.calendar.EventInterface;
+import com.adalyia.calendar.RecurringEvent;
+import com.adalyia.calendar.Tag;
+import com.adalyia.calendar.TagInterface;
+import com.adalyia.calendar.TagQuery;
+import com.adalyia.calendar.Task;
+import com.adalyia.calendar.TaskInterface;
+import com.adalyia.calendar.TimeZoneView;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Serves the calendars of a store under /calendars:
+ * <pre>
+ * GET    /calendars                      the IDs of every calendar
+ * POST   /calendars                      create a calendar from {name, description}
+ * GET    /calendars/{id}                 a calendar's details and tags
+ * PUT    /calendars/{id}                 change a calendar's name or description
+ * DELETE /calendars/{id}                 delete a calendar
+ * GET    /calendars/{id}/tags            a calendar's tags
+ * POST   /calendars/{id}/tags            add a tag from {name, description}
+ * GET    /calendars/{id}/events          every event, or those in [from, to), or those tagged tag
+ * POST   /calendars/{id}/events          add an event or, with "type": "task", a task
+ * GET    /calendars/{id}/events/{event}  one event
+ * PUT    /calendars/{id}/events/{event}  change any of an event's fields at once
+ * DELETE /calendars/{id}/events/{event}  delete an event
+ * </pre>
+ * Times are ISO-8601 date-times in the form the calendar stores them (see TimeZoneView): local
+ * date-times, or UTC date-times written with a trailing Z in canonical UTC mode. Times read with
+ * an offset are converted to stored form, and times without one are taken as stored. Tags are
+ * referred to by ID. Event
+ * queries take the query parameters from and to, or one or more tag parameters, which match
+ * events with all of the tags, or any of them when match=any is also given. Errors are returned
+ * as {error}.
+ * <p>
+ * Response bodies are sent chunked and written straight to the exchange as JSON, never built in
+ * memory first. A response showing a calendar is written while the calendar's lock is still
+ * held, so it shows the calendar as it was at one moment.
+ */
+final class CalendarHandler implements HttpHandler
+{
+    private static final int MAX_BODY = 1 << 20;
+    private static final int BUFFER = 1 << 13;
+
+    /**
+     * A response waiting to be sent, whose body is written as it is sent. Responses without a
+     * body have a null one.
+     */
+    private record Response(int status, Body body)
+    {
+    }
+
+    /**
+     * Writes the body of a response.
+     */
+    @FunctionalInterface
+    private interface Body
+    {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * A request that cannot be served, with the status to answer it with.
+     */
+    private static final class RequestException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message)
+        {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Instance variables
+    private final CalendarStore store;
+
+    /**
+     * Constructs a new CalendarHandler.
+     *
+     * @param store the store holding the calendars to serve
+     */
+    CalendarHandler(CalendarStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            // The response starts as a server error so that one is still sent if handling the
+            // request fails with an Error
+            Response response = error(500, "Internal server error");
+            try
+            {
+                response = this.route(exchange);
+            }
+            catch (RequestException e)
+            {
+                response = error(e.status, e.getMessage());
+            }
+            catch (IllegalArgumentException | DateTimeParseException e)
+            {
+                // Malformed IDs, times and JSON, and times that end before they start
+                response = error(400, e.getMessage());
+            }
+            catch (IOException | RuntimeException e)
+            {
+                response = error(500, String.valueOf(e.getMessage()));
+            }
+            finally
+            {
+                // Responses showing a calendar have already been sent, and nothing can be sent
+                // once the headers have been
+                if (exchange.getResponseCode() == -1)
+                {
+                    send(exchange, response);
+                }
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (response.body == null)
+        {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+
+        // A length of zero sends the body chunked, as it is written
+        exchange.sendResponseHeaders(response.status, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BUFFER))
+        {
+            response.body.write(new JsonWriter(out));
+        }
+    }
+
+    /**
+     * Sends a response from within a calendar's lock, where only unchecked exceptions can be
+     * thrown.
+     */
+    private static Boolean sendHeld(HttpExchange exchange, Response response)
+    {
+        try
+        {
+            send(exchange, response);
+            return Boolean.TRUE;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException
+    {
+        String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+        String method = exchange.getRequestMethod();
+        if (!path[0].equals("calendars") || path.length > 4)
+        {
+            throw new RequestException(404, "Not found");
+        }
+        if (path.length == 1)
+        {
+            return switch (method)
+            {
+                case "GET" -> this.listCalendars();
+                case "POST" -> this.createCalendar(exchange, body(exchange));
+                default -> throw notAllowed(method);
+            };
+        }
+
+        UUID id = UUID.fromString(path[1]);
+        if (path.length == 2)
+        {
+            return switch (method)
+            {
+                case "GET" -> this.read(exchange, id, calendar -> ok(json -> writeCalendar(json, calendar)));
+                case "PUT" -> this.updateCalendar(exchange, id, body(exchange));
+                case "DELETE" -> this.store.remove(id) ? new Response(204, null) : calendarNotFound();
+                default -> throw notAllowed(method);
+            };
+        }
+        if (path[2].equals("tags") && path.length == 3)
+        {
+            return switch (method)
+            {
+                case "GET" -> this.read(exchange, id, calendar -> ok(json -> writeTags(json, calendar.getTags())));
+                case "POST" -> this.createTag(exchange, id, body(exchange));
+                default -> throw notAllowed(method);
+            };
+        }
+        if (!path[2].equals("events"))
+        {
+            throw new RequestException(404, "Not found");
+        }
+        if (path.length == 3)
+        {
+            return switch (method)
+            {
+                case "GET" -> this.queryEvents(exchange, id, parameters(exchange));
+                case "POST" -> this.createEvent(exchange, id, body(exchange));
+                default -> throw notAllowed(method);
+            };
+        }
+
+        UUID eventId = UUID.fromString(path[3]);
+        return switch (method)
+        {
+            case "GET" -> this.read(exchange, id, calendar ->
+            {
+                EventInterface event = findEvent(calendar, eventId);
+                return ok(json -> writeEvent(json, event));
+            });
+            case "PUT" -> this.updateEvent(exchange, id, eventId, body(exchange));
+            case "DELETE" -> this.write(exchange, id, calendar ->
+            {
+                if (calendar.removeEvent(eventId) == null)
+                {
+                    throw new RequestException(404, "No event " + eventId);
+                }
+                return new Response(204, null);
+            });
+            default -> throw notAllowed(method);
+        };
+    }
+
+    private Response listCalendars()
+    {
+        ArrayList<UUID> ids = this.store.getIds();
+        return ok(json ->
+        {
+            json.beginObject().name("calendars").beginArray();
+            for (UUID id : ids)
+            {
+                json.value(id.toString());
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private Response createCalendar(HttpExchange exchange, Map<String, Object> body) throws IOException
+    {
+        Calendar calendar = new Calendar(requireString(body, "name"), optionalString(body, "description", ""));
+        this.store.add(calendar);
+        return this.read(exchange, calendar.getId(), added -> new Response(201, json -> writeCalendar(json, added)));
+    }
+
+    private Response updateCalendar(HttpExchange exchange, UUID id, Map<String, Object> body) throws IOException
+    {
+        return this.write(exchange, id, calendar ->
+        {
+            if (body.containsKey("name"))
+            {
+                calendar.setName(requireString(body, "name"));
+            }
+            if (body.containsKey("description"))
+            {
+                calendar.setDescription(requireString(body, "description"));
+            }
+            return ok(json -> writeCalendar(json, calendar));
+        });
+    }
+
+    private Response createTag(HttpExchange exchange, UUID id, Map<String, Object> body) throws IOException
+    {
+        Tag tag = new Tag(requireString(body, "name"), optionalString(body, "description", ""));
+        return this.write(exchange, id, calendar ->
+        {
+            ArrayList<TagInterface> tags = new ArrayList<>(calendar.getTags());
+            tags.add(tag);
+            calendar.setTags(tags);
+            return new Response(201, json -> writeTag(json, tag));
+        });
+    }
+
+    private Response queryEvents(HttpExchange exchange, UUID id, Map<String, List<String>> parameters) throws IOException
+    {
+        List<String> from = parameters.get("from");
+        List<String> to = parameters.get("to");
+        List<String> tags = parameters.get("tag");
+        if ((from == null) != (to == null))
+        {
+            throw new RequestException(400, "A range needs both from and to");
+        }
+        if (from != null && tags != null)
+        {
+            throw new RequestException(400, "Query either a range or tags, not both");
+        }
+
+        return this.read(exchange, id, calendar ->
+        {
+            ArrayList<EventInterface> events;
+            if (from != null)
+            {
+                events = calendar.getEventsBetween(time(from.get(0)), time(to.get(0)));
+            }
+            else if (tags != null)
+            {
+                TagInterface[] matched = new TagInterface[tags.size()];
+                for (int i = 0; i < matched.length; i++)
+                {
+                    matched[i] = findTag(calendar, UUID.fromString(tags.get(i)));
+                }
+                boolean any = parameters.containsKey("match") && parameters.get("match").get(0).equals("any");
+                events = calendar.getEventsTagged(any ? TagQuery.any(matched) : TagQuery.all(matched));
+            }
+            else
+            {
+                events = calendar.getEvents();
+            }
+
+            return ok(json ->
+            {
+                json.beginObject().name("events").beginArray();
+                for (EventInterface event : events)
+                {
+                    writeEvent(json, event);
+                }
+                json.endArray().endObject();
+            });
+        });
+    }
+
+    private Response createEvent(HttpExchange exchange, UUID id, Map<String, Object> body) throws IOException
+    {
+        String type = optionalString(body, "type", "event");
+        String title = requireString(body, "title");
+        String description = optionalString(body, "description", "");
+        String location = optionalString(body, "location", "");
+        LocalDateTime start = time(requireString(body, "start"));
+        Event event = switch (type)
+        {
+            case "event" -> new Event(title, description, location, start, time(requireString(body, "end")));
+            case "task" -> new Task(title, description, location, start);
+            default -> throw new RequestException(400, "Unknown event type: " + type);
+        };
+        if (event instanceof Task task && body.get("completed") instanceof Boolean completed)
+        {
+            task.setCompleted(completed);
+        }
+
+        return this.write(exchange, id, calendar ->
+        {
+            if (body.containsKey("tags"))
+            {
+                event.setTags(findTags(calendar, body.get("tags")));
+            }
+            calendar.addEvent(event);
+            return new Response(201, json -> writeEvent(json, event));
+        });
+    }
+
+    private Response updateEvent(HttpExchange exchange, UUID id, UUID eventId, Map<String, Object> body) throws IOException
+    {
+        return this.write(exchange, id, calendar ->
+        {
+            if (!(findEvent(calendar, eventId) instanceof Event event))
+            {
+                throw new RequestException(400, "Event " + eventId + " cannot be changed");
+            }
+
+            CalendarBatch batch = calendar.batch();
+            if (body.containsKey("title"))
+            {
+                batch.setTitle(event, requireString(body, "title"));
+            }
+            if (body.containsKey("description"))
+            {
+                batch.setDescription(event, requireString(body, "description"));
+            }
+            if (body.containsKey("location"))
+            {
+                batch.setLocation(event, requireString(body, "location"));
+            }
+            if (body.containsKey("start"))
+            {
+                batch.setStart(event, time(requireString(body, "start")));
+            }
+            if (body.containsKey("end"))
+            {
+                batch.setEnd(event, time(requireString(body, "end")));
+            }
+            if (body.containsKey("tags"))
+            {
+                batch.setTags(event, findTags(calendar, body.get("tags")));
+            }
+            if (body.containsKey("completed"))
+            {
+                if (!(event instanceof Task task))
+                {
+                    throw new RequestException(400, "Only tasks can be completed");
+                }
+                if (!(body.get("completed") instanceof Boolean completed))
+                {
+                    throw new RequestException(400, "completed must be a boolean");
+                }
+                batch.setCompleted(task, completed);
+            }
+            batch.commit();
+            return ok(json -> writeEvent(json, event));
+        });
+    }
+
+    /**
+     * Reads a calendar of the store and sends the response while its lock is held, answering 404
+     * if there is no such calendar.
+     *
+     * @return the response still to be sent, or null if it has been sent
+     */
+    private Response read(HttpExchange exchange, UUID id, Function<Calendar, Response> reader) throws IOException
+    {
+        try
+        {
+            return this.store.read(id, calendar -> sendHeld(exchange, reader.apply(calendar))) == null ? calendarNotFound() : null;
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Modifies a calendar of the store and sends the response while its lock is held, answering
+     * 404 if there is no such calendar.
+     *
+     * @return the response still to be sent, or null if it has been sent
+     */
+    private Response write(HttpExchange exchange, UUID id, Function<Calendar, Response> writer) throws IOException
+    {
+        try
+        {
+            return this.store.write(id, calendar -> sendHeld(exchange, writer.apply(calendar))) ? null : calendarNotFound();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeCalendar(JsonWriter json, Calendar calendar) throws IOException
+    {
+        json.beginObject()
+                .name("id").value(calendar.getId().toString())
+                .name("name").value(calendar.getName())
+                .name("description").value(calendar.getDescription())
+                .name("created").value(calendar.getCreated())
+                .name("modified").value(calendar.getModified())
+                .name("tags");
+        writeTagArray(json, calendar.getTags());
+        json.endObject();
+    }
+
+    private static void writeTags(JsonWriter json, ArrayList<TagInterface> tags) throws IOException
+    {
+        json.beginObject().name("tags");
+        writeTagArray(json, tags);
+        json.endObject();
+    }
+
+    private static void writeTagArray(JsonWriter json, List<? extends TagInterface> tags) throws IOException
+    {
+        json.beginArray();
+        for (TagInterface tag : tags)
+        {
+            writeTag(json, tag);
+        }
+        json.endArray();
+    }
+
+    private static void writeTag(JsonWriter json, TagInterface tag) throws IOException
+    {
+        json.beginObject()
+                .name("id").value(tag.getId().toString())
+                .name("name").value(tag.getName())
+                .name("description").value(tag.getDescription())
+                .endObject();
+    }
+
+    private static void writeEvent(JsonWriter json, EventInterface event) throws IOException
+    {
+        json.beginObject()
+                .name("id").value(event.getId().toString())
+                .name("type").value(event instanceof TaskInterface ? "task" : event instanceof RecurringEvent ? "recurring" : "event")
+                .name("title").value(event.getTitle())
+                .name("description").value(event.getDescription())
+                .name("location").value(event.getLocation())
+                .name("start").value(event.getStart())
+                .name("end").value(event.getEnd())
+                .name("created").value(event.getCreated())
+                .name("modified").value(event.getModified());
+        if (event instanceof TaskInterface task)
+        {
+            json.name("completed").value(task.isCompleted());
+        }
+        json.name("tags").beginArray();
+        for (Tag tag : event.getTags())
+        {
+            json.value(tag.getId().toString());
+        }
+        json.endArray().endObject();
+    }
+
+    private static EventInterface findEvent(Calendar calendar, UUID id)
+    {
+        EventInterface event = calendar.getEvent(id);
+        if (event == null)
+        {
+            throw new RequestException(404, "No event " + id);
+        }
+        return event;
+    }
+
+    private static TagInterface findTag(Calendar calendar, UUID id)
+    {
+        for (TagInterface tag : calendar.getTags())
+        {
+            if (tag.getId().equals(id))
+            {
+                return tag;
+            }
+        }
+        throw new RequestException(400, "No tag " + id);
+    }
+
+    private static ArrayList<Tag> findTags(Calendar calendar, Object ids)
+    {
+        if (!(ids instanceof List<?> list))
+        {
+            throw new RequestException(400, "tags must be an array of tag IDs");
+        }
+        ArrayList<Tag> tags = new ArrayList<>(list.size());
+        for (Object id : list)
+        {
+            if (!(findTag(calendar, UUID.fromString(String.valueOf(id))) instanceof Tag tag))
+            {
+                throw new RequestException(400, "Tag " + id + " cannot be given to events");
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException
+    {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody())
+        {
+            bytes = in.readNBytes(MAX_BODY + 1);
+        }
+        if (bytes.length > MAX_BODY)
+        {
+            throw new RequestException(413, "Request body is too large");
+        }
+        if (!(JsonReader.parse(new String(bytes, StandardCharsets.UTF_8)) instanceof Map<?, ?> body))
+        {
+            throw new RequestException(400, "Request body must be a JSON object");
+        }
+        return (Map<String, Object>) body;
+    }
+
+    private static Map<String, List<String>> parameters(HttpExchange exchange)
+    {
+        LinkedHashMap<String, List<String>> parameters = new LinkedHashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty())
+        {
+            return parameters;
+        }
+        for (String pair : query.split("&"))
+        {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    private static String requireString(Map<String, Object> body, String name)
+    {
+        if (!(body.get(name) instanceof String value))
+        {
+            throw new RequestException(400, name + " must be a string");
+        }
+        return value;
+    }
+
+    private static String optionalString(Map<String, Object> body, String name, String otherwise)
+    {
+        return body.containsKey(name) ? requireString(body, name) : otherwise;
+    }
+
+    /**
+     * Parses an ISO-8601 date-time as a stored time, converting it if it has an offset.
+     */
+    private static LocalDateTime time(String value)
+    {
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from, LocalDateTime::from);
+        if (parsed instanceof OffsetDateTime offset)
+        {
+            return TimeZoneView.stored().toLocal(offset.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime());
+        }
+        return (LocalDateTime) parsed;
+    }
+
+    private static Response ok(Body body)
+    {
+        return new Response(200, body);
+    }
+
+    private static Response error(int status, String message)
+    {
+        return new Response(status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    private static Response calendarNotFound()
+    {
+        return error(404, "No such calendar");
+    }
+
+    private static RequestException notAllowed(String method)
+    {
+        return new RequestException(405, "Method " + method + " is not allowed");
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * CalendarServer.java
+ * Purpose: Embedded HTTP server exposing a CalendarStore as JSON
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.server;
+
+import com.adalyia.calendar.CalendarStore;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the calendars of a {@link CalendarStore} over HTTP, using the JDK's built-in server.
+ * The routes are described on {@link CalendarHandler}.
+ * <p>
+ * Each request is handled on its own virtual thread when the JVM supports them without preview
+ * flags, from Java 21, and on a cached pool of platform threads otherwise. Handlers block on the
+ * store's shard locks and files, which virtual threads make cheap.
+ */
+public class CalendarServer implements Closeable
+{
+    private static final int BACKLOG = 1024;
+
+    static
+    {
+        // The built-in server writes the headers and body of a response separately, and without
+        // TCP_NODELAY the body can wait for the client to acknowledge the headers
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+        {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Instance variables
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new CalendarServer. The server does not accept requests until started.
+     *
+     * @param store the store holding the calendars to serve
+     * @param address the address to listen on, with port 0 for any free port
+     * @throws IOException if the server cannot listen on the address
+     */
+    public CalendarServer(CalendarStore store, InetSocketAddress address) throws IOException
+    {
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newExecutor();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/calendars", new CalendarHandler(store));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start()
+    {
+        this.server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port the server is listening on
+     */
+    public int getPort()
+    {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for requests in progress to finish, and
+     * stops the threads handling them. The store is not closed.
+     */
+    @Override
+    public void close()
+    {
+        this.server.stop(1);
+        this.executor.shutdown();
+    }
+
+    /**
+     * Starts a server. The first argument is the port, 8080 by default, and the second, if
+     * given, the directory of a persistent store; without it calendars are kept in memory.
+     *
+     * @param args the port and the store directory
+     * @throws IOException if the store cannot be opened or the server cannot listen
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        CalendarStore store = args.length > 1
+                ? new CalendarStore(Path.of(args[1]), 64, Runtime.getRuntime().maxMemory() / 2)
+                : new CalendarStore();
+        CalendarServer server = new CalendarServer(store, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            server.close();
+            try
+            {
+                store.close();
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save the calendars: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Serving calendars on port " + server.getPort());
+    }
+
+    /**
+     * Returns an executor running each task on a new virtual thread, or a cached thread pool if
+     * virtual threads are not available. The virtual thread executor is looked up reflectively
+     * so the server still compiles and runs on Java 19, where it is a preview API.
+     */
+    private static ExecutorService newExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * JsonReader.java
+ * Purpose: Parser of small JSON documents such as request bodies
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Parses a JSON document into maps, lists, strings, numbers, booleans and nulls. Objects become
+ * LinkedHashMaps, arrays ArrayLists, whole numbers Longs and other numbers Doubles. Objects and
+ * arrays may be nested at most {@value #MAX_DEPTH} deep, so a hostile document cannot exhaust the
+ * stack of the recursive parser.
+ */
+final class JsonReader
+{
+    static final int MAX_DEPTH = 64;
+
+    // Instance variables
+    private final String text;
+    private int position;
+    private int depth;
+
+    private JsonReader(String text)
+    {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document.
+     *
+     * @param text the document
+     * @return the value of the document
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    static Object parse(String text)
+    {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.value();
+        reader.skipWhitespace();
+        if (reader.position != text.length())
+        {
+            throw reader.error("Unexpected text after the document");
+        }
+        return value;
+    }
+
+    private Object value()
+    {
+        this.skipWhitespace();
+        if (this.position == this.text.length())
+        {
+            throw this.error("Unexpected end of document");
+        }
+
+        char c = this.text.charAt(this.position);
+        return switch (c)
+        {
+            case '{', '[' ->
+            {
+                if (++this.depth > MAX_DEPTH)
+                {
+                    throw this.error("Nesting deeper than " + MAX_DEPTH);
+                }
+                Object nested = c == '{' ? this.object() : this.array();
+                this.depth--;
+                yield nested;
+            }
+            case '"' -> this.string();
+            case 't' -> this.literal("true", Boolean.TRUE);
+            case 'f' -> this.literal("false", Boolean.FALSE);
+            case 'n' -> this.literal("null", null);
+            default ->
+            {
+                if (c == '-' || (c >= '0' && c <= '9'))
+                {
+                    yield this.number();
+                }
+                throw this.error("Unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private LinkedHashMap<String, Object> object()
+    {
+        LinkedHashMap<String, Object> members = new LinkedHashMap<>();
+        this.position++;
+        this.skipWhitespace();
+        if (this.consume('}'))
+        {
+            return members;
+        }
+        do
+        {
+            this.skipWhitespace();
+            if (this.position == this.text.length() || this.text.charAt(this.position) != '"')
+            {
+                throw this.error("Expected a member name");
+            }
+            String name = this.string();
+            this.skipWhitespace();
+            if (!this.consume(':'))
+            {
+                throw this.error("Expected ':'");
+            }
+            members.put(name, this.value());
+            this.skipWhitespace();
+        }
+        while (this.consume(','));
+        if (!this.consume('}'))
+        {
+            throw this.error("Expected ',' or '}'");
+        }
+        return members;
+    }
+
+    private ArrayList<Object> array()
+    {
+        ArrayList<Object> elements = new ArrayList<>();
+        this.position++;
+        this.skipWhitespace();
+        if (this.consume(']'))
+        {
+            return elements;
+        }
+        do
+        {
+            elements.add(this.value());
+            this.skipWhitespace();
+        }
+        while (this.consume(','));
+        if (!this.consume(']'))
+        {
+            throw this.error("Expected ',' or ']'");
+        }
+        return elements;
+    }
+
+    private String string()
+    {
+        StringBuilder builder = new StringBuilder();
+        this.position++;
+        while (this.position < this.text.length())
+        {
+            char c = this.text.charAt(this.position++);
+            if (c == '"')
+            {
+                return builder.toString();
+            }
+            if (c != '\\')
+            {
+                builder.append(c);
+                continue;
+            }
+            if (this.position == this.text.length())
+            {
+                break;
+            }
+
+            char escaped = this.text.charAt(this.position++);
+            switch (escaped)
+            {
+                case '"', '\\', '/' -> builder.append(escaped);
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' ->
+                {
+                    if (this.position + 4 > this.text.length())
+                    {
+                        throw this.error("Incomplete unicode escape");
+                    }
+                    try
+                    {
+                        builder.append((char) Integer.parseInt(this.text, this.position, this.position + 4, 16));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        throw this.error("Invalid unicode escape");
+                    }
+                    this.position += 4;
+                }
+                default -> throw this.error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+        throw this.error("Unterminated string");
+    }
+
+    private Object number()
+    {
+        int start = this.position;
+        boolean whole = true;
+        while (this.position < this.text.length())
+        {
+            char c = this.text.charAt(this.position);
+            if (c == '.' || c == 'e' || c == 'E')
+            {
+                whole = false;
+            }
+            else if (c != '-' && c != '+' && (c < '0' || c > '9'))
+            {
+                break;
+            }
+            this.position++;
+        }
+
+        String number = this.text.substring(start, this.position);
+        try
+        {
+            return whole ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        }
+        catch (NumberFormatException e)
+        {
+            throw this.error("Invalid number '" + number + "'");
+        }
+    }
+
+    private Object literal(String literal, Object value)
+    {
+        if (!this.text.startsWith(literal, this.position))
+        {
+            throw this.error("Unexpected character '" + this.text.charAt(this.position) + "'");
+        }
+        this.position += literal.length();
+        return value;
+    }
+
+    private boolean consume(char c)
+    {
+        if (this.position < this.text.length() && this.text.charAt(this.position) == c)
+        {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace()
+    {
+        while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position)))
+        {
+            this.position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message)
+    {
+        return new IllegalArgumentException(message + " at position " + this.position);
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * JsonWriter.java
+ * Purpose: Streaming writer of JSON documents
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.server;
+
+import com.adalyia.calendar.TimeZoneView;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Writes a JSON document straight to an Appendable, one token at a time, without building the
+ * document in memory first. Commas and colons are written automatically, so
+ * <pre>
+ * json.beginObject().name("title").value("Standup").name("tags").beginArray().endArray().endObject();
+ * </pre>
+ * writes {"title":"Standup","tags":[]}. Times are written as ISO-8601 date-time strings, in
+ * UTC with a trailing Z in canonical UTC mode (see TimeZoneView) and as local date-times otherwise.
+ * The writer does not check that the document is well formed.
+ */
+public final class JsonWriter
+{
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Instance variables
+    private final Appendable out;
+    private boolean[] first;
+    private int depth;
+    private boolean named;
+
+    /**
+     * Constructs a new JsonWriter.
+     *
+     * @param out where to write the document
+     */
+    public JsonWriter(Appendable out)
+    {
+        this.out = out;
+        this.first = new boolean[16];
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter beginObject() throws IOException
+    {
+        return this.open('{');
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter endObject() throws IOException
+    {
+        return this.close('}');
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter beginArray() throws IOException
+    {
+        return this.open('[');
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter endArray() throws IOException
+    {
+        return this.close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name the name of the member
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter name(String name) throws IOException
+    {
+        this.separate();
+        this.string(name);
+        this.out.append(':');
+        this.named = true;
+        return this;
+    }
+
+    /**
+     * Writes a string, or null.
+     *
+     * @param value the string to write
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter value(String value) throws IOException
+    {
+        if (value == null)
+        {
+            return this.nullValue();
+        }
+        this.separate();
+        this.string(value);
+        return this;
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the number to write
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter value(long value) throws IOException
+    {
+        this.separate();
+        this.out.append(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the boolean to write
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter value(boolean value) throws IOException
+    {
+        this.separate();
+        this.out.append(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a stored time as an ISO-8601 date-time string, such as 2024-03-31T09:00:00, or
+     * 2024-03-31T07:00:00Z in canonical UTC mode, or null.
+     *
+     * @param value the time to write, in stored form
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter value(LocalDateTime value) throws IOException
+    {
+        if (value == null)
+        {
+            return this.nullValue();
+        }
+        this.separate();
+        this.out.append('"');
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, this.out);
+        this.out.append(TimeZoneView.isCanonicalUtc() ? "Z\"" : "\"");
+        return this;
+    }
+
+    /**
+     * Writes null.
+     *
+     * @return this writer
+     * @throws IOException if the document cannot be written
+     */
+    public JsonWriter nullValue() throws IOException
+    {
+        this.separate();
+        this.out.append("null");
+        return this;
+    }
+
+    private JsonWriter open(char bracket) throws IOException
+    {
+        this.separate();
+        this.out.append(bracket);
+        if (++this.depth == this.first.length)
+        {
+            this.first = Arrays.copyOf(this.first, this.depth * 2);
+        }
+        this.first[this.depth] = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException
+    {
+        this.depth--;
+        this.out.append(bracket);
+        return this;
+    }
+
+    /**
+     * Writes the comma before a value or member name, unless it is the first in its object or
+     * array or the value follows its name.
+     */
+    private void separate() throws IOException
+    {
+        if (this.named)
+        {
+            this.named = false;
+        }
+        else if (this.first[this.depth])
+        {
+            this.first[this.depth] = false;
+        }
+        else if (this.depth > 0)
+        {
+            this.out.append(',');
+        }
+    }
+
+    private void string(String value) throws IOException
+    {
+        this.out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\')
+            {
+                continue;
+            }
+
+            this.out.append(value, start, i);
+            start = i + 1;
+            switch (c)
+            {
+                case '"' -> this.out.append("\\\"");
+                case '\\' -> this.out.append("\\\\");
+                case '\n' -> this.out.append("\\n");
+                case '\r' -> this.out.append("\\r");
+                case '\t' -> this.out.append("\\t");
+                default -> this.out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+            }
+        }
+        this.out.append(value, start, value.length());
+        this.out.append('"');
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * LoadTest.java
+ * Purpose: Local load test harness for the CalendarServer
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar.server;
+
+import com.adalyia.calendar.Calendar;
+import com.adalyia.calendar.CalendarStore;
+import com.adalyia.calendar.Event;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends requests to a calendar server from many threads for a fixed time and reports the
+ * throughput and latency. Nine in ten requests are range queries over a random week of a random
+ * calendar, and the rest add an event.
+ * <p>
+ * Arguments: the URL of the server, the number of concurrent clients (64 by default) and the
+ * number of seconds to run for (30 by default). When the URL is "local" or left out, a server
+ * with an in-memory store of synthetic calendars is started in the same JVM and tested.
+ */
+public class LoadTest
+{
+    private static final int LOCAL_CALENDARS = 200;
+    private static final int LOCAL_EVENTS = 2000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * The latencies recorded by one client, in nanoseconds.
+     */
+    private static final class Latencies
+    {
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        private void add(long value)
+        {
+            if (this.size == this.values.length)
+            {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the URL of the server, the number of clients and the number of seconds
+     * @throws Exception if the local server cannot be started or the calendars cannot be listed
+     */
+    public static void main(String[] args) throws Exception
+    {
+        String url = args.length > 0 ? args[0] : "local";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        CalendarServer local = null;
+        if (url.equals("local"))
+        {
+            local = startLocal();
+            url = "http://localhost:" + local.getPort();
+        }
+
+        try
+        {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<String> calendars = listCalendars(client, url);
+            if (calendars.isEmpty())
+            {
+                System.err.println("The server has no calendars to query");
+                return;
+            }
+            run(client, url, calendars, clients, seconds);
+        }
+        finally
+        {
+            if (local != null)
+            {
+                local.close();
+            }
+        }
+    }
+
+    private static void run(HttpClient client, String url, List<String> calendars, int clients, int seconds) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        Latencies[] latencies = new Latencies[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++)
+        {
+            Latencies recorded = new Latencies();
+            Random random = new Random(i);
+            latencies[i] = recorded;
+            threads[i] = new Thread(() ->
+            {
+                while (System.nanoTime() < deadline)
+                {
+                    HttpRequest request = nextRequest(random, url, calendars);
+                    long started = System.nanoTime();
+                    try
+                    {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400)
+                        {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        errors.incrementAndGet();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                    recorded.add(System.nanoTime() - started);
+                }
+            }, "load-test-" + i);
+        }
+
+        long started = System.nanoTime();
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        int total = 0;
+        for (Latencies recorded : latencies)
+        {
+            total += recorded.size;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Latencies recorded : latencies)
+        {
+            System.arraycopy(recorded.values, 0, all, offset, recorded.size);
+            offset += recorded.size;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%d requests in %.1f s from %d clients: %.0f requests/s, %d errors%n",
+                total, elapsed, clients, total / elapsed, errors.get());
+        if (total > 0)
+        {
+            System.out.printf("latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), all[total - 1] / 1e6);
+        }
+    }
+
+    private static HttpRequest nextRequest(Random random, String url, List<String> calendars)
+    {
+        String calendar = url + "/calendars/" + calendars.get(random.nextInt(calendars.size())) + "/events";
+        LocalDateTime from = BASE.plusDays(random.nextInt(358));
+        if (random.nextInt(10) > 0)
+        {
+            return HttpRequest.newBuilder(URI.create(calendar + "?from=" + from + "&to=" + from.plusDays(7))).GET().build();
+        }
+
+        String body = "{\"title\":\"Load test\",\"start\":\"" + from + "\",\"end\":\"" + from.plusHours(1) + "\"}";
+        return HttpRequest.newBuilder(URI.create(calendar))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static List<String> listCalendars(HttpClient client, String url) throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/calendars")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+        {
+            throw new IOException("Listing the calendars failed with status " + response.statusCode());
+        }
+
+        ArrayList<String> ids = new ArrayList<>();
+        for (Object id : (List<?>) ((Map<?, ?>) JsonReader.parse(response.body())).get("calendars"))
+        {
+            ids.add((String) id);
+        }
+        return ids;
+    }
+
+    private static CalendarServer startLocal() throws IOException
+    {
+        CalendarStore store = new CalendarStore();
+        Random random = new Random(20240101L);
+        for (int i = 0; i < LOCAL_CALENDARS; i++)
+        {
+            Calendar calendar = new Calendar("Calendar " + i, "Synthetic calendar");
+            for (int j = 0; j < LOCAL_EVENTS; j++)
+            {
+                LocalDateTime start = BASE.plusMinutes(random.nextInt(365 * 24 * 60));
+                calendar.addEvent(new Event("Event " + j, "Synthetic event", "Room " + random.nextInt(50), start,
+                        start.plusMinutes(15L * (1 + random.nextInt(16)))));
+            }
+            store.add(calendar);
+        }
+
+        CalendarServer server = new CalendarServer(store, new InetSocketAddress("localhost", 0));
+        server.start();
+        return server;
+    }
+
+    private static double percentile(long[] sorted, double percentile)
+    {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+    }
+}
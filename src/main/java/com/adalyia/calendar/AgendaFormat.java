@@ -0,0 +1,14 @@
+/**
+ * AgendaFormat.java
+ * Purpose: The output formats of an AgendaRenderer
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public enum AgendaFormat
+{
+    TEXT,
+    CSV,
+    JSON
+}
@@ -0,0 +1,14 @@
+/**
+ * AgendaLayout.java
+ * Purpose: How an AgendaRenderer groups the events of an agenda
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public enum AgendaLayout
+{
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,551 @@
+/**
+ * AgendaRenderer.java
+ * Purpose: Streaming renderer of Calendar agendas as text, CSV or JSON
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Writes an agenda of events, grouped by day, week or month, as plain text, CSV or JSON.
+ * <p>
+ * Each line is built in a buffer that is reused for the whole agenda, with dates and times
+ * written digit by digit and period headings formatted by shared formatters, and is then written
+ * straight to the output. Rendering an agenda therefore allocates little per event and never
+ * holds more than one line of it in memory, however many events it has.
+ * <p>
+ * Events must be written in order of start time, as the render methods do. Each event is listed
+ * once, under the period it starts in; tasks are listed at their due time. Event times are
+ * converted from stored form (see {@link TimeZoneView}) and are shown, and grouped into periods,
+ * in the renderer's time zone.
+ */
+public class AgendaRenderer implements Flushable
+{
+    private static final DateTimeFormatter DAY_HEADING = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy", Locale.ENGLISH);
+    private static final DateTimeFormatter MONTH_HEADING = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+    private static final String[] WEEKDAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final String CSV_HEADER = "period,start,end,type,completed,title,location,description,tags";
+
+    // Instance variables
+    private final Appendable out;
+    private final Writer writer;
+    private final AgendaFormat format;
+    private final AgendaLayout layout;
+    private final TimeZoneView zone;
+    private final StringBuilder line;
+    private char[] chars;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+    private boolean periodEmpty;
+    private long written;
+
+    /**
+     * Constructs a new AgendaRenderer writing to the given output in the system time zone.
+     *
+     * @param out the output to write to
+     * @param format the format to write the agenda in
+     * @param layout how to group the events of the agenda
+     */
+    public AgendaRenderer(Appendable out, AgendaFormat format, AgendaLayout layout)
+    {
+        this(out, format, layout, TimeZoneView.systemDefault());
+    }
+
+    /**
+     * Constructs a new AgendaRenderer writing to the given output. Writers and print streams,
+     * such as System.out, are buffered, and are flushed when an agenda ends.
+     *
+     * @param out the output to write to
+     * @param format the format to write the agenda in
+     * @param layout how to group the events of the agenda
+     * @param zone the time zone to show times in
+     */
+    public AgendaRenderer(Appendable out, AgendaFormat format, AgendaLayout layout, TimeZoneView zone)
+    {
+        if (out instanceof PrintStream stream)
+        {
+            out = new OutputStreamWriter(stream, stream.charset());
+        }
+        if (out instanceof Writer writer)
+        {
+            this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, 1 << 16);
+            this.out = this.writer;
+        }
+        else
+        {
+            this.writer = null;
+            this.out = out;
+        }
+        this.format = format;
+        this.layout = layout;
+        this.zone = zone;
+        this.line = new StringBuilder(256);
+        this.chars = new char[256];
+    }
+
+    /**
+     * Writes an agenda of every event in a calendar, in the order the calendar's getEventIterator
+     * returns them. Recurring events are listed once, at their first occurrence.
+     *
+     * @param calendar the calendar to write the agenda of
+     * @throws IOException if the agenda cannot be written
+     */
+    public void render(CalendarInterface calendar) throws IOException
+    {
+        this.render(calendar.getEventIterator());
+    }
+
+    /**
+     * Writes an agenda of the events overlapping the half-open range [from, to), with one entry
+     * per occurrence of a recurring event. Events starting before the range are listed in its
+     * first period.
+     *
+     * @param calendar the calendar to write the agenda of
+     * @param from the inclusive start of the range, in stored form
+     * @param to the exclusive end of the range, in stored form
+     * @throws IOException if the agenda cannot be written
+     */
+    public void render(CalendarInterface calendar, LocalDateTime from, LocalDateTime to) throws IOException
+    {
+        this.begin();
+        Iterator<EventInterface> events = calendar.getEventIterator(from, to);
+        while (events.hasNext())
+        {
+            EventInterface event = events.next();
+            this.write(event, this.zone.fromStored(event.getStart().isBefore(from) ? from : event.getStart()));
+        }
+        this.end();
+    }
+
+    /**
+     * Writes an agenda of the events returned by an iterator, which must return them in order
+     * of start time.
+     *
+     * @param events the events to write
+     * @throws IOException if the agenda cannot be written
+     */
+    public void render(Iterator<? extends EventInterface> events) throws IOException
+    {
+        this.begin();
+        while (events.hasNext())
+        {
+            this.writeEvent(events.next());
+        }
+        this.end();
+    }
+
+    /**
+     * Starts an agenda. Events can then be written one at a time with writeEvent.
+     *
+     * @throws IOException if the opening of the agenda cannot be written
+     */
+    public void begin() throws IOException
+    {
+        this.periodStart = null;
+        this.periodEnd = null;
+        this.written = 0;
+        switch (this.format)
+        {
+            case CSV -> this.line.append(CSV_HEADER).append("\r\n");
+            case JSON -> this.line.append("{\"layout\":\"").append(this.layout.name().toLowerCase(Locale.ROOT)).append("\",\"periods\":[");
+            case TEXT -> { }
+        }
+        this.emit();
+    }
+
+    /**
+     * Writes an event of the agenda, under a new period heading if it starts after the current
+     * period.
+     *
+     * @param event the event to write
+     * @throws IOException if the event cannot be written
+     */
+    public void writeEvent(EventInterface event) throws IOException
+    {
+        this.write(event, this.zone.fromStored(event.getStart()));
+    }
+
+    /**
+     * Ends the agenda and flushes the output.
+     *
+     * @throws IOException if the end of the agenda cannot be written
+     */
+    public void end() throws IOException
+    {
+        switch (this.format)
+        {
+            case TEXT ->
+            {
+                if (this.written == 0)
+                {
+                    this.line.append("No events.\n");
+                }
+            }
+            case JSON ->
+            {
+                if (this.periodStart != null)
+                {
+                    this.line.append("]}");
+                }
+                this.line.append("]}\n");
+            }
+            case CSV -> { }
+        }
+        this.emit();
+        this.flush();
+    }
+
+    /**
+     * Flushes the output, if it can be flushed.
+     *
+     * @throws IOException if the output cannot be flushed
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        if (this.out instanceof Flushable flushable)
+        {
+            flushable.flush();
+        }
+    }
+
+    /**
+     * Writes an event under the period containing the given local time.
+     */
+    private void write(EventInterface event, LocalDateTime time) throws IOException
+    {
+        if (this.periodEnd == null || !time.isBefore(this.periodEnd) || time.isBefore(this.periodStart))
+        {
+            this.startPeriod(time);
+        }
+        switch (this.format)
+        {
+            case TEXT -> this.text(event);
+            case CSV -> this.csv(event);
+            case JSON -> this.json(event);
+        }
+        this.written++;
+        this.emit();
+    }
+
+    private void startPeriod(LocalDateTime time) throws IOException
+    {
+        LocalDate date = time.toLocalDate();
+        LocalDate end;
+        switch (this.layout)
+        {
+            case WEEK ->
+            {
+                date = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                end = date.plusWeeks(1);
+            }
+            case MONTH ->
+            {
+                date = date.withDayOfMonth(1);
+                end = date.plusMonths(1);
+            }
+            default -> end = date.plusDays(1);
+        }
+
+        boolean first = this.periodStart == null;
+        this.periodStart = date.atStartOfDay();
+        this.periodEnd = end.atStartOfDay();
+        this.periodEmpty = true;
+        switch (this.format)
+        {
+            case TEXT ->
+            {
+                if (!first)
+                {
+                    this.line.append('\n');
+                }
+                switch (this.layout)
+                {
+                    case DAY -> DAY_HEADING.formatTo(date, this.line);
+                    case WEEK -> DAY_HEADING.formatTo(date, this.line.append("Week of "));
+                    case MONTH -> MONTH_HEADING.formatTo(date, this.line);
+                }
+                this.line.append('\n');
+            }
+            case JSON ->
+            {
+                this.line.append(first ? "{\"period\":\"" : "]},{\"period\":\"");
+                date(this.line, this.periodStart);
+                this.line.append("\",\"events\":[");
+            }
+            case CSV -> { }
+        }
+    }
+
+    /**
+     * Appends an event as a line of text, such as "  09:00 - 09:30  Standup (Room 1) [work]".
+     */
+    private void text(EventInterface event)
+    {
+        StringBuilder line = this.line.append("  ");
+        LocalDateTime start = this.zone.fromStored(event.getStart());
+        LocalDateTime end = this.zone.fromStored(event.getEnd());
+        if (this.layout != AgendaLayout.DAY)
+        {
+            line.append(WEEKDAYS[start.getDayOfWeek().ordinal()]).append(' ');
+            pad(line, start.getDayOfMonth()).append("  ");
+        }
+        time(line, start);
+        if (event instanceof TaskInterface task)
+        {
+            line.append(task.isCompleted() ? "          [x] " : "          [ ] ");
+        }
+        else
+        {
+            line.append(" - ");
+            if (!end.toLocalDate().equals(start.toLocalDate()))
+            {
+                date(line, end).append(' ');
+            }
+            time(line, end).append("  ");
+        }
+
+        text(line, event.getTitle());
+        String location = event.getLocation();
+        if (location != null && !location.isEmpty())
+        {
+            text(line.append(" ("), location).append(')');
+        }
+        ArrayList<Tag> tags = event.getTags();
+        if (tags != null && !tags.isEmpty())
+        {
+            line.append(" [");
+            for (int i = 0; i < tags.size(); i++)
+            {
+                text(i == 0 ? line : line.append(", "), tags.get(i).getName());
+            }
+            line.append(']');
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Appends an event as a CSV record, quoting fields as RFC 4180 describes.
+     */
+    private void csv(EventInterface event)
+    {
+        StringBuilder line = this.line;
+        date(line, this.periodStart).append(',');
+        dateTime(line, this.zone.fromStored(event.getStart())).append(',');
+        dateTime(line, this.zone.fromStored(event.getEnd())).append(',');
+        if (event instanceof TaskInterface task)
+        {
+            line.append(task.isCompleted() ? "task,true," : "task,false,");
+        }
+        else
+        {
+            line.append("event,,");
+        }
+        csv(line, event.getTitle()).append(',');
+        csv(line, event.getLocation()).append(',');
+        csv(line, event.getDescription()).append(',');
+
+        ArrayList<Tag> tags = event.getTags();
+        int start = line.length();
+        line.append('"');
+        boolean quote = false;
+        for (int i = 0; tags != null && i < tags.size(); i++)
+        {
+            if (i > 0)
+            {
+                line.append(';');
+            }
+            quote |= csvContent(line, tags.get(i).getName());
+        }
+        if (quote)
+        {
+            line.append('"');
+        }
+        else
+        {
+            line.deleteCharAt(start);
+        }
+        line.append("\r\n");
+    }
+
+    /**
+     * Appends an event as a JSON object in the events of the current period.
+     */
+    private void json(EventInterface event)
+    {
+        StringBuilder line = this.line;
+        if (!this.periodEmpty)
+        {
+            line.append(',');
+        }
+        this.periodEmpty = false;
+        line.append("\n{\"id\":\"").append(event.getId()).append('"');
+        json(line.append(",\"title\":"), event.getTitle());
+        json(line.append(",\"description\":"), event.getDescription());
+        json(line.append(",\"location\":"), event.getLocation());
+        dateTime(line.append(",\"start\":\""), this.zone.fromStored(event.getStart())).append('"');
+        dateTime(line.append(",\"end\":\""), this.zone.fromStored(event.getEnd())).append('"');
+        if (event instanceof TaskInterface task)
+        {
+            line.append(",\"task\":true,\"completed\":").append(task.isCompleted());
+        }
+        line.append(",\"tags\":[");
+        ArrayList<Tag> tags = event.getTags();
+        for (int i = 0; tags != null && i < tags.size(); i++)
+        {
+            json(i == 0 ? line : line.append(','), tags.get(i).getName());
+        }
+        line.append("]}");
+    }
+
+    /**
+     * Writes the line built so far to the output and clears it for the next one.
+     */
+    private void emit() throws IOException
+    {
+        int length = this.line.length();
+        if (length == 0)
+        {
+            return;
+        }
+        if (this.writer != null)
+        {
+            if (this.chars.length < length)
+            {
+                this.chars = new char[Math.max(length, this.chars.length * 2)];
+            }
+            this.line.getChars(0, length, this.chars, 0);
+            this.writer.write(this.chars, 0, length);
+        }
+        else
+        {
+            this.out.append(this.line);
+        }
+        this.line.setLength(0);
+    }
+
+    private static StringBuilder pad(StringBuilder line, int value)
+    {
+        return (value < 10 ? line.append('0') : line).append(value);
+    }
+
+    private static StringBuilder date(StringBuilder line, LocalDateTime time)
+    {
+        int year = time.getYear();
+        if (year >= 0 && year < 1000)
+        {
+            line.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        pad(line.append(year).append('-'), time.getMonthValue()).append('-');
+        return pad(line, time.getDayOfMonth());
+    }
+
+    private static StringBuilder time(StringBuilder line, LocalDateTime time)
+    {
+        return pad(pad(line, time.getHour()).append(':'), time.getMinute());
+    }
+
+    private static StringBuilder dateTime(StringBuilder line, LocalDateTime time)
+    {
+        time(date(line, time).append('T'), time).append(':');
+        return pad(line, time.getSecond());
+    }
+
+    /**
+     * Appends text on a single line, replacing line breaks with spaces.
+     */
+    private static StringBuilder text(StringBuilder line, String text)
+    {
+        if (text == null)
+        {
+            return line;
+        }
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            line.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        return line;
+    }
+
+    private static StringBuilder csv(StringBuilder line, String text)
+    {
+        int start = line.length();
+        line.append('"');
+        if (text != null && csvContent(line, text))
+        {
+            return line.append('"');
+        }
+        return line.deleteCharAt(start);
+    }
+
+    /**
+     * Appends the content of a CSV field, doubling any quotes, and returns whether the field
+     * must be quoted.
+     */
+    private static boolean csvContent(StringBuilder line, String text)
+    {
+        boolean quote = false;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c == '"')
+            {
+                line.append('"');
+            }
+            quote |= c == '"' || c == ',' || c == '\n' || c == '\r';
+            line.append(c);
+        }
+        return quote;
+    }
+
+    private static void json(StringBuilder line, String text)
+    {
+        if (text == null)
+        {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            switch (c)
+            {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default ->
+                {
+                    if (c < 0x20)
+                    {
+                        line.append("\\u00");
+                        line.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+                    }
+                    else
+                    {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * AuditEntry.java
+ * Purpose: Record of a single change made to a Calendar Task or Event
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A change to one field of an event: when it happened, which field changed, and the values before
+ * and after. The values are the objects the event held, not copies, and the entry is only turned
+ * into text when toString is called.
+ * <p>
+ * Changes applied together by a {@link CalendarBatch} are recorded as a single entry covering
+ * several fields. For such entries getField, getOldValue and getNewValue describe the first field
+ * in the order of {@link EventField}, and getFields lists all of them.
+ */
+public class AuditEntry
+{
+    // Instance variables
+    private final long timestamp;
+    private final EventField field;
+    private final Object oldValue;
+    private final Object newValue;
+    private final EnumMap<EventField, Object> oldValues;
+    private final EnumMap<EventField, Object> newValues;
+
+    /**
+     * Constructs a new AuditEntry.
+     *
+     * @param timestamp the time of the change, in milliseconds since the epoch
+     * @param field the field that was changed
+     * @param oldValue the value of the field before the change
+     * @param newValue the value of the field after the change
+     */
+    public AuditEntry(long timestamp, EventField field, Object oldValue, Object newValue)
+    {
+        this.timestamp = timestamp;
+        this.field = field;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.oldValues = null;
+        this.newValues = null;
+    }
+
+    /**
+     * Constructs a new AuditEntry for changes to several fields made together.
+     *
+     * @param timestamp the time of the changes, in milliseconds since the epoch
+     * @param oldValues the values of the changed fields before the changes
+     * @param newValues the values of the changed fields after the changes
+     */
+    public AuditEntry(long timestamp, EnumMap<EventField, Object> oldValues, EnumMap<EventField, Object> newValues)
+    {
+        if (newValues.isEmpty())
+        {
+            throw new IllegalArgumentException("An audit entry must change at least one field");
+        }
+
+        this.timestamp = timestamp;
+        this.field = newValues.keySet().iterator().next();
+        this.oldValue = oldValues.get(this.field);
+        this.newValue = newValues.get(this.field);
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    /**
+     * Returns the time of the change, in milliseconds since the epoch.
+     *
+     * @return the time of the change, in milliseconds since the epoch
+     */
+    public long getTimestamp()
+    {
+        return this.timestamp;
+    }
+
+    /**
+     * Returns the time of the change in stored form: in the system time zone, or in UTC in
+     * canonical mode.
+     *
+     * @return the time of the change
+     */
+    public LocalDateTime getTime()
+    {
+        return TimeZoneView.stored().toLocal(this.timestamp);
+    }
+
+    /**
+     * Returns the field that was changed.
+     *
+     * @return the field that was changed
+     */
+    public EventField getField()
+    {
+        return this.field;
+    }
+
+    /**
+     * Returns every field changed by this entry.
+     *
+     * @return the fields changed
+     */
+    public Set<EventField> getFields()
+    {
+        return this.newValues == null ? EnumSet.of(this.field) : Collections.unmodifiableSet(this.newValues.keySet());
+    }
+
+    /**
+     * Returns the value of the field before the change.
+     *
+     * @return the value of the field before the change
+     */
+    public Object getOldValue()
+    {
+        return this.oldValue;
+    }
+
+    /**
+     * Returns the value of one of the changed fields before the change.
+     *
+     * @param field the field to look up
+     * @return the value of the field before the change, or null if it was not changed
+     */
+    public Object getOldValue(EventField field)
+    {
+        return this.oldValues == null ? (field == this.field ? this.oldValue : null) : this.oldValues.get(field);
+    }
+
+    /**
+     * Returns the value of one of the changed fields after the change.
+     *
+     * @param field the field to look up
+     * @return the value of the field after the change, or null if it was not changed
+     */
+    public Object getNewValue(EventField field)
+    {
+        return this.newValues == null ? (field == this.field ? this.newValue : null) : this.newValues.get(field);
+    }
+
+    /**
+     * Returns the value of the field after the change.
+     *
+     * @return the value of the field after the change
+     */
+    public Object getNewValue()
+    {
+        return this.newValue;
+    }
+
+    /**
+     * Returns the entry as a line of the audit log, such as "[2023-05-01T12:00:00] Title changed to Lunch".
+     * Entries covering several fields list each change, separated by commas.
+     *
+     * @return the entry as a line of the audit log
+     */
+    @Override
+    public String toString()
+    {
+        String time = this.getTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        if (this.newValues == null)
+        {
+            return String.format("[%s] %s changed to %s", time, label(this.field), text(this.newValue));
+        }
+
+        StringBuilder line = new StringBuilder().append('[').append(time).append(']');
+        String separator = " ";
+        for (Map.Entry<EventField, Object> change : this.newValues.entrySet())
+        {
+            line.append(separator).append(label(change.getKey())).append(" changed to ").append(text(change.getValue()));
+            separator = ", ";
+        }
+        return line.toString();
+    }
+
+    private static Object text(Object value)
+    {
+        return value instanceof LocalDateTime time ? time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : value;
+    }
+
+    private static String label(EventField field)
+    {
+        return switch (field)
+        {
+            case TITLE -> "Title";
+            case DESCRIPTION -> "Description";
+            case LOCATION -> "Location";
+            case START -> "Start time";
+            case END -> "End time";
+            case TAGS -> "Tags";
+            case RECURRENCE -> "Recurrence";
+            case COMPLETED -> "Completion status";
+        };
+    }
+}
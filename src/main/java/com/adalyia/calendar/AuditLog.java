@@ -0,0 +1,237 @@
+/**
+ * AuditLog.java
+ * Purpose: Bounded log of the changes made to a Calendar Task or Event
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+
+/**
+ * A ring buffer of changes kept in parallel arrays, so recording a change stores a long and three
+ * references without allocating. The arrays start small and grow up to the capacity; once full,
+ * each new change overwrites the oldest one. Entries and their text are only built when read.
+ */
+class AuditLog
+{
+    /**
+     * The number of changes kept per event unless configured otherwise
+     */
+    static final int DEFAULT_CAPACITY = 100;
+
+    private static final int INITIAL_SIZE = 4;
+
+    // Instance variables
+    private long[] timestamps;
+    private EventField[] fields;
+    private Object[] oldValues;
+    private Object[] newValues;
+    private int capacity;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs a new, empty AuditLog.
+     *
+     * @param capacity the maximum number of changes to keep
+     */
+    AuditLog(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        this.capacity = capacity;
+        this.timestamps = new long[0];
+        this.fields = new EventField[0];
+        this.oldValues = new Object[0];
+        this.newValues = new Object[0];
+    }
+
+    /**
+     * Returns the maximum number of changes kept.
+     *
+     * @return the maximum number of changes kept
+     */
+    int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Changes the maximum number of changes kept, discarding the oldest ones if there are more.
+     *
+     * @param capacity the maximum number of changes to keep
+     */
+    void setCapacity(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        int kept = Math.min(this.size, capacity);
+        this.resize(kept, this.size - kept);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the number of changes kept.
+     *
+     * @return the number of changes kept
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Records a change, overwriting the oldest one if the log is full.
+     *
+     * @param timestamp the time of the change, in milliseconds since the epoch
+     * @param field the field that was changed
+     * @param oldValue the value of the field before the change
+     * @param newValue the value of the field after the change
+     */
+    void record(long timestamp, EventField field, Object oldValue, Object newValue)
+    {
+        if (this.capacity == 0)
+        {
+            return;
+        }
+
+        int slot;
+        if (this.size < this.capacity)
+        {
+            if (this.size == this.timestamps.length)
+            {
+                this.resize(Math.min(this.capacity, Math.max(INITIAL_SIZE, this.size * 2)), 0);
+            }
+            slot = (this.head + this.size++) % this.timestamps.length;
+        }
+        else
+        {
+            slot = this.head;
+            this.head = (this.head + 1) % this.timestamps.length;
+        }
+
+        this.timestamps[slot] = timestamp;
+        this.fields[slot] = field;
+        this.oldValues[slot] = oldValue;
+        this.newValues[slot] = newValue;
+    }
+
+    /**
+     * Records changes to several fields made together as a single change.
+     *
+     * @param timestamp the time of the changes, in milliseconds since the epoch
+     * @param oldValues the values of the changed fields before the changes
+     * @param newValues the values of the changed fields after the changes
+     */
+    void record(long timestamp, EnumMap<EventField, Object> oldValues, EnumMap<EventField, Object> newValues)
+    {
+        if (newValues.size() == 1)
+        {
+            EventField field = newValues.keySet().iterator().next();
+            this.record(timestamp, field, oldValues.get(field), newValues.get(field));
+        }
+        else if (!newValues.isEmpty())
+        {
+            // A missing field marks the values as maps of several changed fields
+            this.record(timestamp, null, oldValues, newValues);
+        }
+    }
+
+    /**
+     * Returns the change at the given position, oldest first.
+     *
+     * @param index the position of the change
+     * @return the change at the given position
+     */
+    @SuppressWarnings("unchecked")
+    AuditEntry get(int index)
+    {
+        if (index < 0 || index >= this.size)
+        {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        int slot = (this.head + index) % this.timestamps.length;
+        if (this.fields[slot] == null)
+        {
+            return new AuditEntry(this.timestamps[slot], (EnumMap<EventField, Object>) this.oldValues[slot], (EnumMap<EventField, Object>) this.newValues[slot]);
+        }
+        return new AuditEntry(this.timestamps[slot], this.fields[slot], this.oldValues[slot], this.newValues[slot]);
+    }
+
+    /**
+     * Returns the changes kept, oldest first.
+     *
+     * @return the changes kept
+     */
+    ArrayList<AuditEntry> getEntries()
+    {
+        ArrayList<AuditEntry> entries = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            entries.add(this.get(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the changes kept as lines of text, oldest first.
+     *
+     * @return the changes kept as lines of text
+     */
+    ArrayList<String> render()
+    {
+        ArrayList<String> lines = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            lines.add(this.get(i).toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Copies the changes from the given position onwards into arrays of the given length.
+     */
+    private void resize(int length, int skip)
+    {
+        long[] timestamps = new long[length];
+        EventField[] fields = new EventField[length];
+        Object[] oldValues = new Object[length];
+        Object[] newValues = new Object[length];
+        int kept = Math.min(this.size - skip, length);
+        for (int i = 0; i < kept; i++)
+        {
+            int slot = (this.head + skip + i) % this.timestamps.length;
+            timestamps[i] = this.timestamps[slot];
+            fields[i] = this.fields[slot];
+            oldValues[i] = this.oldValues[slot];
+            newValues[i] = this.newValues[slot];
+        }
+
+        this.timestamps = timestamps;
+        this.fields = fields;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+        this.head = 0;
+        this.size = kept;
+    }
+
+    /**
+     * Returns the changes kept as text.
+     *
+     * @return the changes kept as text
+     */
+    @Override
+    public String toString()
+    {
+        return this.render().toString();
+    }
+}
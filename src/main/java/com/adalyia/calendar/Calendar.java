@@ -9,6 +9,12 @@ package com.adalyia.calendar;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -21,8 +27,18 @@ public class Calendar implements CalendarInterface
     private String description;
     private final LocalDateTime created;
     private LocalDateTime modified;
-    private ArrayList<EventInterface> events;
+    private final LinkedHashMap<UUID, EventInterface> events;
     private ArrayList<TagInterface> tags;
+    private final EventIntervalTree index;
+    private final TagIndex tagIndex;
+    private final SearchIndex searchIndex;
+    private final TaskIndex taskIndex;
+    private final ArrayList<RecurringEvent> recurring;
+    private final EventListener indexer;
+    private final ArrayList<CalendarListener> listeners;
+    private EventInterface committing;
+    private volatile CalendarSnapshot latest;
+    private long sequence;
 
     /**
      * Constructs a new Calendar object with the given name and description.
@@ -32,13 +48,39 @@ public class Calendar implements CalendarInterface
      * @param description the description of the calendar
      */
     public Calendar(String name, String description) {
+        this(UUID.randomUUID(), name, description, TimeZoneView.now(), null, new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Constructs a Calendar object restoring a previously saved calendar.
+     *
+     * @param id the unique ID of the calendar
+     * @param name the name of the calendar
+     * @param description the description of the calendar
+     * @param created the date and time the calendar was created
+     * @param modified the date and time the calendar was last modified, or null if it has not been modified
+     * @param events the events in the calendar
+     * @param tags the tags in the calendar
+     */
+    Calendar(UUID id, String name, String description, LocalDateTime created, LocalDateTime modified,
+             ArrayList<EventInterface> events, ArrayList<TagInterface> tags) {
         this.name = name;
         this.description = description;
-        this.created = LocalDateTime.now();
-        this.modified = this.created;
-        this.events = new ArrayList<>();
-        this.tags = new ArrayList<>();
-        this.id = UUID.randomUUID();
+        this.created = created;
+        this.modified = modified == null ? this.created : modified;
+        this.events = new LinkedHashMap<>();
+        this.tags = tags;
+        this.id = id;
+        this.index = new EventIntervalTree();
+        this.tagIndex = new TagIndex();
+        this.searchIndex = new SearchIndex();
+        this.taskIndex = new TaskIndex();
+        this.recurring = new ArrayList<>();
+        this.indexer = this::eventChanged;
+        this.listeners = new ArrayList<>();
+        for (EventInterface event : events) {
+            this.put(event);
+        }
     }
 
     /**
@@ -92,13 +134,44 @@ public class Calendar implements CalendarInterface
     }
 
     /**
-     * Returns the events in the calendar.
+     * Returns the events in the calendar, in the order they were added. Changes to the list
+     * returned do not affect the calendar.
      *
      * @return the events in the calendar
      */
     @Override
     public ArrayList<EventInterface> getEvents() {
-        return events;
+        return new ArrayList<>(this.events.values());
+    }
+
+    /**
+     * Returns the event with the given unique ID.
+     *
+     * @param id the unique ID of the event
+     * @return the event with the given ID, or null if there is none in the calendar
+     */
+    @Override
+    public EventInterface getEvent(UUID id) {
+        return this.events.get(id);
+    }
+
+    /**
+     * Returns an iterator over the events in the calendar, in the order they were added, without
+     * copying them. The calendar must not be modified while the iterator is in use.
+     *
+     * @return an iterator over the events in the calendar
+     */
+    Iterator<EventInterface> iterator() {
+        return this.events.values().iterator();
+    }
+
+    /**
+     * Returns the number of events in the calendar.
+     *
+     * @return the number of events in the calendar
+     */
+    int size() {
+        return this.events.size();
     }
 
     /**
@@ -111,6 +184,191 @@ public class Calendar implements CalendarInterface
         return tags;
     }
 
+    /**
+     * Returns the events overlapping the half-open range [from, to), ordered by start time.
+     * Zero-duration events such as tasks are included when their time lies within the range,
+     * and recurring events contribute one occurrence for each time they repeat within it.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> events;
+        if (this.recurring.isEmpty()) {
+            events = this.index.query(from, to);
+        } else {
+            events = new ArrayList<>();
+            this.getEventIterator(from, to).forEachRemaining(events::add);
+        }
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.RANGE_QUERY, started, this, this.events.size());
+        }
+        return events;
+    }
+
+    /**
+     * Returns a lazy iterator over the events overlapping the half-open range [from, to),
+     * ordered by start time. The calendar must not be modified while the iterator is in use.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the events overlapping the range
+     */
+    @Override
+    public Iterator<EventInterface> getEventIterator(LocalDateTime from, LocalDateTime to) {
+        if (this.recurring.isEmpty()) {
+            return this.index.iterator(from, to);
+        }
+
+        ArrayList<Iterator<EventInterface>> sources = new ArrayList<>(this.recurring.size() + 1);
+        sources.add(this.index.iterator(from, to));
+        for (RecurringEvent event : this.recurring) {
+            sources.add(event.getOccurrences(from, to));
+        }
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Returns a lazy iterator over every event in the calendar, ordered by start time, with each
+     * recurring event once, at its own start. The events are read from the range index in order,
+     * and only the recurring events are sorted. The calendar must not be modified while the
+     * iterator is in use.
+     *
+     * @return an iterator over every event in the calendar
+     */
+    @Override
+    public Iterator<EventInterface> getEventIterator() {
+        Iterator<EventInterface> timed = this.index.iterator(LocalDateTime.MIN, LocalDateTime.MAX);
+        if (this.recurring.isEmpty()) {
+            return timed;
+        }
+
+        ArrayList<EventInterface> series = new ArrayList<>(this.recurring);
+        series.sort(Comparator.comparing(EventInterface::getStart));
+        return new MergingIterator(List.of(timed, series.iterator()));
+    }
+
+    /**
+     * Returns the events matching a tag query, such as the events tagged work and urgent but
+     * not cancelled. The query is answered from an index of the events under each tag, which
+     * follows changes made through addEvent, removeEvent and setTags; changes made directly to
+     * the list returned by an event's getTags are not tracked.
+     *
+     * @param query the tag query to match
+     * @return the events matching the query
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsTagged(TagQuery query) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> events = this.tagIndex.query(query);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.TAG_QUERY, started, this, this.events.size());
+        }
+        return events;
+    }
+
+    /**
+     * Returns the events whose title, description or location contain every word of the query,
+     * best match first. Each query word matches the words it is a prefix of, and results are
+     * ranked by how often and how prominently the words appear and how rare they are.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events, best match first
+     */
+    @Override
+    public ArrayList<EventInterface> search(String query, int limit) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> events = this.searchIndex.search(query, limit);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.SEARCH, started, this, this.events.size());
+        }
+        return events;
+    }
+
+    /**
+     * Returns the pending tasks due at or after a time, soonest first, such as the next ten
+     * tasks due from now. The tasks are found in an index ordered by due time, which follows
+     * changes to their due times and completion.
+     *
+     * @param from the earliest due time to include
+     * @param limit the maximum number of tasks to return
+     * @return the pending tasks, soonest first
+     */
+    public ArrayList<EventInterface> getTasksDue(LocalDateTime from, int limit) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> tasks = this.taskIndex.due(from, limit);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.TASK_QUERY, started, this, this.events.size());
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the pending tasks due before a time, most overdue first.
+     *
+     * @param now the time the tasks were due before
+     * @param limit the maximum number of tasks to return
+     * @return the overdue tasks, most overdue first
+     */
+    public ArrayList<EventInterface> getOverdueTasks(LocalDateTime now, int limit) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> tasks = this.taskIndex.overdue(now, limit);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.TASK_QUERY, started, this, this.events.size());
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the completed tasks due in the half-open range [from, to), earliest first.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the completed tasks, earliest first
+     */
+    public ArrayList<EventInterface> getCompletedTasks(LocalDateTime from, LocalDateTime to) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> tasks = this.taskIndex.completed(from, to);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.TASK_QUERY, started, this, this.events.size());
+        }
+        return tasks;
+    }
+
+    /**
+     * Adds the number of events, and of events containing the words a search query matches, to
+     * frequencies counted across several calendars.
+     *
+     * @param query the words to search for
+     * @param frequencies the frequencies to add to
+     */
+    void countSearchTerms(String query, SearchIndex.Frequencies frequencies) {
+        this.searchIndex.count(query, frequencies);
+    }
+
+    /**
+     * Returns the events matching a search query with their scores, best match first, weighing
+     * each word by how rare it is across every calendar the frequencies were counted over.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @param frequencies the frequencies to weigh words by
+     * @return the matching events and their scores, best match first
+     */
+    ArrayList<SearchIndex.Hit> rank(String query, int limit, SearchIndex.Frequencies frequencies) {
+        return this.searchIndex.rank(query, limit, frequencies);
+    }
+
     /**
      * Sets the name of the calendar.
      *
@@ -119,7 +377,11 @@ public class Calendar implements CalendarInterface
     @Override
     public void setName(String name) {
         this.name = name;
-        this.modified = LocalDateTime.now();
+        this.modified = TimeZoneView.now();
+        this.snapshotDetails();
+        for (CalendarListener listener : this.listeners) {
+            listener.detailsChanged(this);
+        }
     }
 
     /**
@@ -130,40 +392,163 @@ public class Calendar implements CalendarInterface
     @Override
     public void setDescription(String description) {
         this.description = description;
-        this.modified = LocalDateTime.now();
+        this.modified = TimeZoneView.now();
+        this.snapshotDetails();
+        for (CalendarListener listener : this.listeners) {
+            listener.detailsChanged(this);
+        }
     }
 
     /**
      * Sets the events in the calendar.
      *
      * @param events the new events in the calendar
+     * @throws IllegalArgumentException if any event is an occurrence of a recurring event
      */
     @Override
     public void setEvents(ArrayList<EventInterface> events) {
-        this.events = events;
-        this.modified = LocalDateTime.now();
+        for (EventInterface event : events) {
+            EventOccurrence.checkAddable(event);
+        }
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        ArrayList<EventInterface> removed = this.getEvents();
+        for (EventInterface event : removed) {
+            event.removeListener(this.indexer);
+        }
+        this.events.clear();
+        this.index.clear();
+        this.recurring.clear();
+        this.tagIndex.clear();
+        this.searchIndex.clear();
+        this.taskIndex.clear();
+        for (EventInterface event : events) {
+            this.put(event);
+        }
+        this.modified = TimeZoneView.now();
+        if (this.latest != null) {
+            this.latest = this.freeze(new ArrayList<>(this.tags));
+        }
+        if (metrics != null) {
+            metrics.removed(removed.size());
+            metrics.added(this.events.size());
+            metrics.timed(CalendarOperation.SET_EVENTS, started, this, this.events.size());
+        }
+        for (CalendarListener listener : this.listeners) {
+            for (EventInterface event : removed) {
+                listener.eventRemoved(this, event);
+            }
+            for (EventInterface event : this.events.values()) {
+                listener.eventAdded(this, event);
+            }
+        }
     }
 
     /**
-     * Adds an event to the calendar.
+     * Adds an event to the calendar. An event already in the calendar with the same unique ID
+     * is replaced, and adding an event that is already in the calendar does nothing.
      *
      * @param event the event to add to the calendar
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring event
      */
     @Override
     public void addEvent(EventInterface event) {
-        this.events.add(event);
-        this.modified = LocalDateTime.now();
+        EventOccurrence.checkAddable(event);
+        EventInterface replaced = this.events.get(event.getId());
+        if (replaced == event) {
+            return;
+        }
+        if (replaced != null) {
+            this.removeEvent(replaced);
+        }
+
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        this.put(event);
+        this.modified = TimeZoneView.now();
+        this.snapshotEvent(event);
+        if (metrics != null) {
+            metrics.added(1);
+            metrics.timed(CalendarOperation.ADD_EVENT, started, this, this.events.size());
+        }
+        for (CalendarListener listener : this.listeners) {
+            listener.eventAdded(this, event);
+        }
     }
 
     /**
-     * Removes an event from the calendar.
+     * Removes an event from the calendar. The event held under its unique ID is removed if it is
+     * equal to the one given, and nothing is removed, or stamped as modified, otherwise.
      *
      * @param event the event to remove from the calendar
      */
     @Override
     public void removeEvent(EventInterface event) {
-        this.events.remove(event);
-        this.modified = LocalDateTime.now();
+        EventInterface stored = this.events.get(event.getId());
+        if (stored != null && stored.equals(event)) {
+            this.removeEvent(event.getId());
+        }
+    }
+
+    /**
+     * Removes the event with the given unique ID from the calendar. The calendar is only stamped
+     * as modified if there was such an event.
+     *
+     * @param id the unique ID of the event to remove
+     * @return the event removed, or null if there was none in the calendar
+     */
+    @Override
+    public EventInterface removeEvent(UUID id) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        EventInterface removed = this.events.remove(id);
+        if (removed != null) {
+            this.modified = TimeZoneView.now();
+            CalendarSnapshot snapshot = this.latest;
+            if (snapshot != null) {
+                this.latest = this.snapshot(snapshot.getEventMap().remove(id), snapshot.getTagList());
+            }
+            this.unindex(removed);
+            if (metrics != null) {
+                metrics.removed(1);
+                metrics.timed(CalendarOperation.REMOVE_EVENT, started, this, this.events.size());
+            }
+            for (CalendarListener listener : this.listeners) {
+                listener.eventRemoved(this, removed);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a new batch of changes to the calendar, applied together when committed.
+     *
+     * @return a new batch of changes to the calendar
+     */
+    public CalendarBatch batch() {
+        return new CalendarBatch(batch -> this.commit(batch, TimeZoneView.now()));
+    }
+
+    /**
+     * Returns a read-only view of the calendar as it is now, which later changes to the calendar
+     * do not affect, for long-running readers such as reports.
+     * <p>
+     * The first snapshot copies every event, and from then on the calendar keeps its latest
+     * snapshot up to date as it changes, copying only the event changed and a few small nodes of
+     * a tree shared with earlier snapshots. Each later snapshot is returned without copying
+     * anything, and may be taken from any thread, even while the calendar is being modified.
+     * Earlier versions are reclaimed once no snapshot refers to them. The first snapshot must be
+     * taken by the thread that modifies the calendar, or while it is not being modified.
+     *
+     * @return a snapshot of the calendar
+     */
+    public CalendarSnapshot snapshot() {
+        CalendarSnapshot snapshot = this.latest;
+        if (snapshot == null) {
+            snapshot = this.freeze(new ArrayList<>(this.tags));
+            this.latest = snapshot;
+        }
+        return snapshot;
     }
 
     /**
@@ -174,11 +559,312 @@ public class Calendar implements CalendarInterface
     @Override
     public void setTags(ArrayList<TagInterface> tags) {
         this.tags = tags;
-        this.modified = LocalDateTime.now();
+        this.modified = TimeZoneView.now();
+        CalendarSnapshot snapshot = this.latest;
+        if (snapshot != null) {
+            this.latest = this.snapshot(snapshot.getEventMap(), new ArrayList<>(tags));
+        }
+        for (CalendarListener listener : this.listeners) {
+            listener.tagsChanged(this);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified whenever the calendar or one of its events is modified.
+     *
+     * @param listener the listener to register
+     */
+    @Override
+    public void addListener(CalendarListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addListener.
+     *
+     * @param listener the listener to unregister
+     */
+    @Override
+    public void removeListener(CalendarListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Applies a batch of changes: removals, then additions, then field changes, stamping the
+     * calendar and every changed event as modified at the given time. Changes to events that are
+     * not in the calendar once the removals and additions are done are skipped, leaving those
+     * events as they were. The indexes are updated once per event, and listeners are only
+     * notified once everything has been applied.
+     *
+     * @param batch the batch to apply
+     * @param now the time of the changes
+     */
+    void commit(CalendarBatch batch, LocalDateTime now) {
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+
+        ArrayList<EventInterface> removed = new ArrayList<>();
+        for (UUID id : batch.getRemoved()) {
+            EventInterface event = this.events.remove(id);
+            if (event != null) {
+                this.unindex(event);
+                removed.add(event);
+            }
+        }
+
+        ArrayList<EventInterface> added = new ArrayList<>();
+        ArrayList<EventInterface> timed = new ArrayList<>();
+        for (EventInterface event : batch.getAdded()) {
+            EventInterface replaced = this.events.put(event.getId(), event);
+            if (replaced == event) {
+                continue;
+            }
+            if (replaced != null) {
+                this.unindex(replaced);
+                removed.add(replaced);
+            }
+            if (event instanceof RecurringEvent series) {
+                this.recurring.add(series);
+            } else {
+                timed.add(event);
+            }
+            this.tagIndex.add(event);
+            this.searchIndex.add(event);
+            this.taskIndex.add(event);
+            event.addListener(this.indexer);
+            added.add(event);
+        }
+        this.index.addAll(timed);
+
+        ArrayList<Event> edited = new ArrayList<>(batch.getEdited().size());
+        ArrayList<EnumMap<EventField, Object>> oldValues = new ArrayList<>(batch.getEdited().size());
+        for (Event event : batch.getEdited()) {
+            if (this.events.get(event.getId()) != event) {
+                continue;
+            }
+            EnumMap<EventField, Object> old = event.apply(batch.getChanges(event), now);
+            edited.add(event);
+            oldValues.add(old);
+            if (old.containsKey(EventField.START) || old.containsKey(EventField.END)) {
+                this.index.update(event);
+            }
+            if (old.containsKey(EventField.START) || old.containsKey(EventField.COMPLETED)) {
+                this.taskIndex.update(event);
+            }
+            if (old.containsKey(EventField.TAGS)) {
+                this.tagIndex.update(event);
+            }
+            for (EventField field : new EventField[] {EventField.TITLE, EventField.DESCRIPTION, EventField.LOCATION}) {
+                if (old.containsKey(field)) {
+                    this.searchIndex.update(event, field, (String) old.get(field));
+                }
+            }
+        }
+        this.modified = now;
+        CalendarSnapshot snapshot = this.latest;
+        if (snapshot != null) {
+            PersistentEventMap frozen = snapshot.getEventMap();
+            for (EventInterface event : removed) {
+                frozen = frozen.remove(event.getId());
+            }
+            for (EventInterface event : added) {
+                frozen = this.freeze(frozen, event);
+            }
+            for (Event event : edited) {
+                frozen = this.freeze(frozen, event);
+            }
+            this.latest = this.snapshot(frozen, snapshot.getTagList());
+        }
+        if (metrics != null) {
+            metrics.removed(removed.size());
+            metrics.added(added.size());
+            metrics.timed(CalendarOperation.BATCH, started, this, this.events.size());
+        }
+
+        for (CalendarListener listener : this.listeners) {
+            for (EventInterface event : removed) {
+                listener.eventRemoved(this, event);
+            }
+            for (EventInterface event : added) {
+                listener.eventAdded(this, event);
+            }
+        }
+
+        // The indexes are already up to date, so the changes are only passed on to listeners
+        try {
+            for (int i = 0; i < oldValues.size(); i++) {
+                Event event = edited.get(i);
+                this.committing = event;
+                for (Map.Entry<EventField, Object> change : oldValues.get(i).entrySet()) {
+                    event.fireChanged(change.getKey(), change.getValue());
+                }
+            }
+        } finally {
+            this.committing = null;
+        }
+    }
+
+    /**
+     * Restores the date and time the calendar was last modified, for use when replaying saved changes.
+     *
+     * @param modified the date and time the calendar was last modified
+     */
+    void setModified(LocalDateTime modified) {
+        this.modified = modified;
+        this.snapshotDetails();
+    }
+
+    /**
+     * Stores an event under its unique ID, replacing and unindexing any event already stored
+     * under it, and indexes it.
+     *
+     * @param event the event to store
+     */
+    private void put(EventInterface event) {
+        EventInterface replaced = this.events.put(event.getId(), event);
+        if (replaced == event) {
+            return;
+        }
+        if (replaced != null) {
+            this.unindex(replaced);
+        }
+        this.index(event);
+    }
+
+    /**
+     * Adds an event to the calendar's indexes and starts tracking its changes. Recurring events
+     * are kept aside as rules and expanded only when a range is queried.
+     *
+     * @param event the event to index
+     */
+    private void index(EventInterface event) {
+        if (event instanceof RecurringEvent series) {
+            this.recurring.add(series);
+        } else {
+            this.index.add(event);
+        }
+        this.tagIndex.add(event);
+        this.searchIndex.add(event);
+        this.taskIndex.add(event);
+        event.addListener(this.indexer);
+    }
+
+    /**
+     * Removes an event from the calendar's indexes and stops tracking its changes.
+     *
+     * @param event the event to remove from the indexes
+     */
+    private void unindex(EventInterface event) {
+        this.index.remove(event);
+        this.recurring.removeIf(series -> series == event);
+        this.tagIndex.remove(event);
+        this.searchIndex.remove(event);
+        this.taskIndex.remove(event);
+        event.removeListener(this.indexer);
     }
 
     /**
-     * Returns whether the given object is equal to this calendar.
+     * Returns a snapshot of the calendar's current details with the given events and tags.
+     *
+     * @param events the frozen copies of the events
+     * @param tags the tags, which must not be modified afterwards
+     * @return the snapshot
+     */
+    private CalendarSnapshot snapshot(PersistentEventMap events, ArrayList<TagInterface> tags) {
+        return new CalendarSnapshot(this.id, this.name, this.description, this.created, this.modified, tags, events);
+    }
+
+    /**
+     * Returns a snapshot of the calendar built by copying every event.
+     *
+     * @param tags the tags, which must not be modified afterwards
+     * @return the snapshot
+     */
+    private CalendarSnapshot freeze(ArrayList<TagInterface> tags) {
+        PersistentEventMap events = PersistentEventMap.EMPTY;
+        for (EventInterface event : this.events.values()) {
+            events = events.put(CalendarSnapshot.freeze(event), this.sequence++);
+        }
+        return this.snapshot(events, tags);
+    }
+
+    /**
+     * Returns the frozen events with a new copy of an event, which keeps its place in the order
+     * of events if it was already there.
+     *
+     * @param events the frozen copies of the events
+     * @param event the event to copy
+     * @return the frozen events including the copy
+     */
+    private PersistentEventMap freeze(PersistentEventMap events, EventInterface event) {
+        PersistentEventMap.Entry entry = events.get(event.getId());
+        return events.put(CalendarSnapshot.freeze(event), entry == null ? this.sequence++ : entry.sequence);
+    }
+
+    /**
+     * Brings the latest snapshot up to date with an added or changed event, if a snapshot has
+     * been taken.
+     *
+     * @param event the event added or changed
+     */
+    private void snapshotEvent(EventInterface event) {
+        CalendarSnapshot snapshot = this.latest;
+        if (snapshot != null) {
+            this.latest = this.snapshot(this.freeze(snapshot.getEventMap(), event), snapshot.getTagList());
+        }
+    }
+
+    /**
+     * Brings the latest snapshot up to date with the calendar's name, description and modified
+     * time, if a snapshot has been taken.
+     */
+    private void snapshotDetails() {
+        CalendarSnapshot snapshot = this.latest;
+        if (snapshot != null) {
+            this.latest = this.snapshot(snapshot.getEventMap(), snapshot.getTagList());
+        }
+    }
+
+    /**
+     * Keeps the calendar's indexes in sync when one of its events is modified, and passes
+     * the change on to the calendar's listeners.
+     *
+     * @param event the event that was changed
+     * @param field the field that was changed
+     * @param oldValue the value of the field before the change
+     */
+    private void eventChanged(EventInterface event, EventField field, Object oldValue) {
+        if (event == this.committing) {
+            for (CalendarListener listener : this.listeners) {
+                listener.eventChanged(this, event, field, oldValue);
+            }
+            return;
+        }
+
+        CalendarMetrics metrics = CalendarMetrics.active();
+        long started = metrics == null ? 0 : System.nanoTime();
+        if (field == EventField.START || field == EventField.END) {
+            this.index.update(event);
+            this.taskIndex.update(event);
+        } else if (field == EventField.COMPLETED) {
+            this.taskIndex.update(event);
+        } else if (field == EventField.TAGS) {
+            this.tagIndex.update(event);
+        } else if (field == EventField.TITLE || field == EventField.DESCRIPTION || field == EventField.LOCATION) {
+            this.searchIndex.update(event, field, (String) oldValue);
+        }
+        this.snapshotEvent(event);
+        if (metrics != null) {
+            metrics.timed(CalendarOperation.EVENT_CHANGE, started, this, this.events.size());
+        }
+        for (CalendarListener listener : this.listeners) {
+            listener.eventChanged(this, event, field, oldValue);
+        }
+    }
+
+    /**
+     * Returns whether the given object is equal to this calendar. Calendars are equal when their
+     * details, tags and events are, with the events in the same order.
      * @param o the object to compare to this calendar
      * @return whether the given object is equal to this calendar
      */
@@ -191,10 +877,21 @@ public class Calendar implements CalendarInterface
                 Objects.equals(description, calendar.description) &&
                 Objects.equals(created, calendar.created) &&
                 Objects.equals(modified, calendar.modified) &&
-                Objects.equals(events, calendar.events) &&
+                new ArrayList<>(events.values()).equals(new ArrayList<>(calendar.events.values())) &&
                 Objects.equals(tags, calendar.tags);
     }
 
+    /**
+     * Returns a hash code for this calendar, consistent with equals. Only the number of events is
+     * hashed, not the events themselves, so hashing does not visit every event.
+     *
+     * @return a hash code for this calendar
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, description, created, modified, events.size(), tags);
+    }
+
     /**
      * Returns a string representation of this calendar.
      * @return a string representation of this calendar
@@ -202,6 +899,6 @@ public class Calendar implements CalendarInterface
     @Override
     public String toString() {
         return String.format("{id: %s, name: %s, description: %s, created: %s, modified: %s, events: %s, tags: %s}",
-                this.id, this.name, this.description, this.created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.modified.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.events, this.tags);
+                this.id, this.name, this.description, this.created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.modified.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.events.values(), this.tags);
     }
 }
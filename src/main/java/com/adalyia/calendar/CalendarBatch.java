@@ -0,0 +1,320 @@
+/**
+ * CalendarBatch.java
+ * Purpose: Builder applying many changes to a Calendar in one operation
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collects additions, removals and field changes and applies them together when committed, such
+ * as when importing a day's worth of events. Nothing changes until {@link #commit()} is called.
+ * <p>
+ * A commit stamps the calendar as modified once, records all the changes to each event as a
+ * single audit entry, and updates the calendar's indexes once per event rather than once per
+ * change. Removals are applied first, then additions, then field changes. Field changes to an
+ * event that is not in the calendar by then are skipped. The new times of every changed event are
+ * checked before anything is applied, so a batch that would leave an event ending before it
+ * starts changes nothing. Listeners are notified of every addition, removal and field change once
+ * the whole batch has been applied.
+ * <p>
+ * A batch can only be committed once.
+ */
+public final class CalendarBatch
+{
+    // Instance variables
+    private final Consumer<CalendarBatch> committer;
+    private final ArrayList<EventInterface> added;
+    private final ArrayList<UUID> removed;
+    private final ArrayList<Event> edited;
+    private final IdentityHashMap<Event, EnumMap<EventField, Object>> changes;
+    private boolean committed;
+
+    /**
+     * Constructs a new, empty batch.
+     *
+     * @param committer applies the batch to its calendar
+     */
+    CalendarBatch(Consumer<CalendarBatch> committer)
+    {
+        this.committer = committer;
+        this.added = new ArrayList<>();
+        this.removed = new ArrayList<>();
+        this.edited = new ArrayList<>();
+        this.changes = new IdentityHashMap<>();
+    }
+
+    /**
+     * Adds an event to the calendar.
+     *
+     * @param event the event to add
+     * @return this batch
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring event
+     */
+    public CalendarBatch add(EventInterface event)
+    {
+        this.checkOpen();
+        EventOccurrence.checkAddable(event);
+        this.added.add(event);
+        return this;
+    }
+
+    /**
+     * Removes an event from the calendar.
+     *
+     * @param event the event to remove
+     * @return this batch
+     */
+    public CalendarBatch remove(EventInterface event)
+    {
+        return this.remove(event.getId());
+    }
+
+    /**
+     * Removes the event with the given unique ID from the calendar.
+     *
+     * @param id the unique ID of the event to remove
+     * @return this batch
+     */
+    public CalendarBatch remove(UUID id)
+    {
+        this.checkOpen();
+        this.removed.add(id);
+        return this;
+    }
+
+    /**
+     * Sets the title of an event.
+     *
+     * @param event the event to change
+     * @param title the new title
+     * @return this batch
+     */
+    public CalendarBatch setTitle(Event event, String title)
+    {
+        return this.set(event, EventField.TITLE, title);
+    }
+
+    /**
+     * Sets the description of an event.
+     *
+     * @param event the event to change
+     * @param description the new description
+     * @return this batch
+     */
+    public CalendarBatch setDescription(Event event, String description)
+    {
+        return this.set(event, EventField.DESCRIPTION, description);
+    }
+
+    /**
+     * Sets the location of an event.
+     *
+     * @param event the event to change
+     * @param location the new location
+     * @return this batch
+     */
+    public CalendarBatch setLocation(Event event, String location)
+    {
+        return this.set(event, EventField.LOCATION, location);
+    }
+
+    /**
+     * Sets the start time of an event. It is checked against the end time the event will have
+     * once the batch is applied. The end of a task moves with its start.
+     *
+     * @param event the event to change
+     * @param start the new start time
+     * @return this batch
+     */
+    public CalendarBatch setStart(Event event, LocalDateTime start)
+    {
+        return this.set(event, EventField.START, start);
+    }
+
+    /**
+     * Sets the end time of an event. It is checked against the start time the event will have
+     * once the batch is applied. Setting the end of a task moves the task, as setStart does.
+     *
+     * @param event the event to change
+     * @param end the new end time
+     * @return this batch
+     */
+    public CalendarBatch setEnd(Event event, LocalDateTime end)
+    {
+        // A task's end always equals its start, so moving either moves the task
+        return this.set(event, event instanceof Task ? EventField.START : EventField.END, end);
+    }
+
+    /**
+     * Sets the tags of an event.
+     *
+     * @param event the event to change
+     * @param tags the new tags
+     * @return this batch
+     */
+    public CalendarBatch setTags(Event event, ArrayList<Tag> tags)
+    {
+        return this.set(event, EventField.TAGS, tags);
+    }
+
+    /**
+     * Sets the completion status of a task.
+     *
+     * @param task the task to change
+     * @param completed the new completion status
+     * @return this batch
+     */
+    public CalendarBatch setCompleted(Task task, boolean completed)
+    {
+        return this.set(task, EventField.COMPLETED, completed);
+    }
+
+    /**
+     * Returns the number of additions, removals and changed events in the batch.
+     *
+     * @return the size of the batch
+     */
+    public int size()
+    {
+        return this.added.size() + this.removed.size() + this.edited.size();
+    }
+
+    /**
+     * Applies the batch to its calendar.
+     *
+     * @throws TimeBoundsException if a changed event would end before it starts
+     * @throws IllegalStateException if the batch has already been committed
+     */
+    public void commit()
+    {
+        this.checkOpen();
+        this.checkBounds();
+        this.committed = true;
+        this.committer.accept(this);
+    }
+
+    /**
+     * Checks that no changed event would end before it starts. Calendars shared between threads
+     * check again once they hold the locks of the events, which may have been changed since.
+     *
+     * @throws TimeBoundsException if a changed event would end before it starts
+     */
+    void checkBounds()
+    {
+        for (Event event : this.edited)
+        {
+            if (event instanceof Task)
+            {
+                // Tasks move their start and end together, so they cannot end before they start
+                continue;
+            }
+            EnumMap<EventField, Object> fields = this.changes.get(event);
+            LocalDateTime start = (LocalDateTime) fields.getOrDefault(EventField.START, event.getStart());
+            LocalDateTime end = (LocalDateTime) fields.getOrDefault(EventField.END, event.getEnd());
+            if (start.isAfter(end))
+            {
+                throw new TimeBoundsException("Start time cannot be after end time");
+            }
+        }
+    }
+
+    /**
+     * Returns the events to add, in the order they were added to the batch.
+     */
+    ArrayList<EventInterface> getAdded()
+    {
+        return this.added;
+    }
+
+    /**
+     * Returns the IDs of the events to remove.
+     */
+    ArrayList<UUID> getRemoved()
+    {
+        return this.removed;
+    }
+
+    /**
+     * Returns the events to change, in the order they were first changed in the batch.
+     */
+    ArrayList<Event> getEdited()
+    {
+        return this.edited;
+    }
+
+    /**
+     * Returns the new values of the fields to change on an event.
+     */
+    EnumMap<EventField, Object> getChanges(Event event)
+    {
+        return this.changes.get(event);
+    }
+
+    /**
+     * Splits the batch into one batch per part, by the part each event ID falls in. Parts with
+     * nothing to do are null.
+     *
+     * @param parts the number of parts
+     * @param partOf returns the part of an event ID
+     * @return the batch of each part
+     */
+    CalendarBatch[] split(int parts, ToIntFunction<UUID> partOf)
+    {
+        CalendarBatch[] split = new CalendarBatch[parts];
+        for (EventInterface event : this.added)
+        {
+            this.part(split, partOf.applyAsInt(event.getId())).added.add(event);
+        }
+        for (UUID id : this.removed)
+        {
+            this.part(split, partOf.applyAsInt(id)).removed.add(id);
+        }
+        for (Event event : this.edited)
+        {
+            CalendarBatch part = this.part(split, partOf.applyAsInt(event.getId()));
+            part.edited.add(event);
+            part.changes.put(event, this.changes.get(event));
+        }
+        return split;
+    }
+
+    private CalendarBatch part(CalendarBatch[] split, int part)
+    {
+        if (split[part] == null)
+        {
+            split[part] = new CalendarBatch(this.committer);
+        }
+        return split[part];
+    }
+
+    private CalendarBatch set(Event event, EventField field, Object value)
+    {
+        this.checkOpen();
+        EnumMap<EventField, Object> fields = this.changes.get(event);
+        if (fields == null)
+        {
+            fields = new EnumMap<>(EventField.class);
+            this.changes.put(event, fields);
+            this.edited.add(event);
+        }
+        fields.put(field, value);
+        return this;
+    }
+
+    private void checkOpen()
+    {
+        if (this.committed)
+        {
+            throw new IllegalStateException("The batch has already been committed");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * CalendarChange.java
+ * Purpose: One versioned change to a Calendar, as recorded by a ChangeFeed
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.UUID;
+
+/**
+ * A change to a calendar: an event or tag added, updated or removed, or the calendar's name or
+ * description updated. Every change carries the version it brought the calendar to, so a client
+ * that has applied everything up to a version can ask its feed for only the changes after it.
+ * <p>
+ * Changes refer to the live event or tag rather than a copy, so a client reads the current values
+ * when it applies the change; applying the changes since a version in order always ends with the
+ * calendar's current state.
+ */
+public class CalendarChange
+{
+    // Instance variables
+    private final long version;
+    private final long timestamp;
+    private final ChangeType type;
+    private final UUID id;
+    private final Object subject;
+    private final EventField field;
+
+    /**
+     * Constructs a new CalendarChange.
+     *
+     * @param version the version of the calendar after the change
+     * @param timestamp the time of the change, in milliseconds since the epoch
+     * @param type the kind of change
+     * @param id the unique ID of the event or tag changed, or of the calendar for details
+     * @param subject the event, tag or calendar changed
+     * @param field the field of the event changed, or null for other changes
+     */
+    CalendarChange(long version, long timestamp, ChangeType type, UUID id, Object subject, EventField field)
+    {
+        this.version = version;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.id = id;
+        this.subject = subject;
+        this.field = field;
+    }
+
+    /**
+     * Returns the version of the calendar after the change.
+     *
+     * @return the version of the calendar after the change
+     */
+    public long getVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * Returns the time of the change, in milliseconds since the epoch.
+     *
+     * @return the time of the change
+     */
+    public long getTimestamp()
+    {
+        return this.timestamp;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return the kind of change
+     */
+    public ChangeType getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Returns the unique ID of the event or tag changed, or of the calendar for details.
+     *
+     * @return the unique ID of what was changed
+     */
+    public UUID getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the event changed, or null if the change was not to an event.
+     *
+     * @return the event changed
+     */
+    public EventInterface getEvent()
+    {
+        return this.subject instanceof EventInterface event ? event : null;
+    }
+
+    /**
+     * Returns the tag changed, or null if the change was not to a tag.
+     *
+     * @return the tag changed
+     */
+    public TagInterface getTag()
+    {
+        return this.subject instanceof TagInterface tag ? tag : null;
+    }
+
+    /**
+     * Returns the field of the event changed by an update, or null for other changes.
+     *
+     * @return the field of the event changed
+     */
+    public EventField getField()
+    {
+        return this.field;
+    }
+
+    /**
+     * Returns a string representation of this change.
+     *
+     * @return a string representation of this change
+     */
+    @Override
+    public String toString()
+    {
+        return this.field == null
+                ? String.format("{version: %d, type: %s, id: %s}", this.version, this.type, this.id)
+                : String.format("{version: %d, type: %s, id: %s, field: %s}", this.version, this.type, this.id, this.field);
+    }
+}
@@ -0,0 +1,776 @@
+/**
+ * CalendarFile.java
+ * Purpose: Compact, versioned binary file format for Calendars with memory-mapped loading
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Reads and writes calendars in a compact binary format.
+ * <p>
+ * A file starts with a fixed header followed by a string table (each distinct string is stored
+ * once, as UTF-8), a table of fixed-size tag records, a table of fixed-size event records in
+ * calendar order, the event record numbers sorted by start time, the tag references of every
+ * event, and the recurrence rules. Timestamps are stored as epoch seconds and nanoseconds and
+ * UUIDs as two longs. Audit logs and listeners are not stored.
+ * <p>
+ * Opening a file maps it into memory instead of reading it, so only the header is decoded up
+ * front. Events, tags and strings are decoded when they are first asked for, and range queries
+ * binary search the sorted start times directly in the mapped file.
+ */
+public class CalendarFile implements Closeable
+{
+    // File format constants
+    private static final int MAGIC = 0x4144434C;
+    private static final short VERSION = 1;
+    private static final int TIME_SIZE = 12;
+    private static final int TAG_SIZE = 16 + 4 + 4 + TIME_SIZE * 2;
+    private static final int EVENT_SIZE = 4 + 16 + 4 * 3 + TIME_SIZE * 4 + 4 * 3;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 16 + 4 + 4 + TIME_SIZE * 2 + 4 * 6 + 8 + 8 * 7;
+    private static final byte KIND_EVENT = 0;
+    private static final byte KIND_TASK = 1;
+    private static final byte KIND_RECURRING = 2;
+    private static final int ZONE_FLAG = 0x80;
+
+    // Offsets of the fields within an event record
+    private static final int EVENT_KIND = 0;
+    private static final int EVENT_FLAGS = 1;
+    private static final int EVENT_ID = 4;
+    private static final int EVENT_TITLE = 20;
+    private static final int EVENT_DESCRIPTION = 24;
+    private static final int EVENT_LOCATION = 28;
+    private static final int EVENT_START = 32;
+    private static final int EVENT_END = 44;
+    private static final int EVENT_CREATED = 56;
+    private static final int EVENT_MODIFIED = 68;
+    private static final int EVENT_TAG_START = 80;
+    private static final int EVENT_TAG_COUNT = 84;
+    private static final int EVENT_RULE = 88;
+
+    // Instance variables
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final UUID id;
+    private final int stringCount;
+    private final int tagCount;
+    private final int eventCount;
+    private final int indexedCount;
+    private final int calendarTagStart;
+    private final int calendarTagCount;
+    private final long maxDurationSeconds;
+    private final int stringOffsetsPosition;
+    private final int stringDataPosition;
+    private final int tagsPosition;
+    private final int eventsPosition;
+    private final int orderPosition;
+    private final int tagRefsPosition;
+    private final int rulesPosition;
+    private final String[] strings;
+    private final Tag[] tags;
+
+    /**
+     * Maps an existing calendar file and validates its header.
+     *
+     * @param channel the open channel of the file
+     * @throws IOException if the file cannot be mapped or is not a calendar file
+     */
+    private CalendarFile(FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("Calendar file is too large to map: " + size + " bytes");
+        }
+        if (size < HEADER_SIZE)
+        {
+            throw new IOException("Not a calendar file: truncated header");
+        }
+
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (this.buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a calendar file: bad magic number");
+        }
+        if (this.buffer.getShort(4) != VERSION)
+        {
+            throw new IOException("Unsupported calendar file version " + this.buffer.getShort(4));
+        }
+
+        this.id = new UUID(this.buffer.getLong(8), this.buffer.getLong(16));
+        int position = 24 + 4 + 4 + TIME_SIZE * 2;
+        this.stringCount = this.buffer.getInt(position);
+        this.tagCount = this.buffer.getInt(position + 4);
+        this.eventCount = this.buffer.getInt(position + 8);
+        this.indexedCount = this.buffer.getInt(position + 12);
+        this.calendarTagStart = this.buffer.getInt(position + 16);
+        this.calendarTagCount = this.buffer.getInt(position + 20);
+        this.maxDurationSeconds = this.buffer.getLong(position + 24);
+        position += 32;
+        this.stringOffsetsPosition = (int) this.buffer.getLong(position);
+        this.stringDataPosition = (int) this.buffer.getLong(position + 8);
+        this.tagsPosition = (int) this.buffer.getLong(position + 16);
+        this.eventsPosition = (int) this.buffer.getLong(position + 24);
+        this.orderPosition = (int) this.buffer.getLong(position + 32);
+        this.tagRefsPosition = (int) this.buffer.getLong(position + 40);
+        this.rulesPosition = (int) this.buffer.getLong(position + 48);
+        if (this.rulesPosition > size || this.eventsPosition + (long) this.eventCount * EVENT_SIZE > size)
+        {
+            throw new IOException("Not a calendar file: truncated tables");
+        }
+
+        this.strings = new String[this.stringCount];
+        this.tags = new Tag[this.tagCount];
+    }
+
+    /**
+     * Opens a calendar file by mapping it into memory. Nothing but the header is decoded until
+     * it is asked for.
+     *
+     * @param path the path of the file to open
+     * @return the opened calendar file
+     * @throws IOException if the file cannot be read or is not a calendar file
+     */
+    public static CalendarFile open(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            return new CalendarFile(channel);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a whole calendar from a file.
+     *
+     * @param path the path of the file to read
+     * @return the calendar stored in the file
+     * @throws IOException if the file cannot be read or is not a calendar file
+     */
+    public static Calendar load(Path path) throws IOException
+    {
+        try (CalendarFile file = open(path))
+        {
+            return file.toCalendar();
+        }
+    }
+
+    /**
+     * Writes a calendar to a file, replacing any existing file only once the new one is complete.
+     *
+     * @param calendar the calendar to write
+     * @param path the path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(CalendarInterface calendar, Path path) throws IOException
+    {
+        ArrayList<EventInterface> events = calendar.getEvents();
+
+        // Collect every distinct tag and string, and the tag references of the calendar and its events
+        IdentityHashMap<TagInterface, Integer> tagIndexes = new IdentityHashMap<>();
+        ArrayList<TagInterface> tags = new ArrayList<>();
+        HashMap<String, Integer> stringIndexes = new HashMap<>();
+        ArrayList<byte[]> strings = new ArrayList<>();
+        ArrayList<Integer> tagRefs = new ArrayList<>();
+
+        int calendarName = intern(calendar.getName(), stringIndexes, strings);
+        int calendarDescription = intern(calendar.getDescription(), stringIndexes, strings);
+        for (TagInterface tag : calendar.getTags())
+        {
+            tagRefs.add(internTag(tag, tagIndexes, tags, stringIndexes, strings));
+        }
+
+        int[][] eventFields = new int[events.size()][];
+        ByteArrayOutputStream rules = new ByteArrayOutputStream();
+        DataOutputStream ruleOutput = new DataOutputStream(rules);
+        long maxDuration = 0;
+        int indexed = 0;
+        for (int i = 0; i < events.size(); i++)
+        {
+            EventInterface event = events.get(i);
+            int tagStart = tagRefs.size();
+            for (Tag tag : event.getTags())
+            {
+                tagRefs.add(internTag(tag, tagIndexes, tags, stringIndexes, strings));
+            }
+
+            int rule = -1;
+            if (event instanceof RecurringEvent recurring)
+            {
+                rule = ruleOutput.size();
+                writeRule(ruleOutput, recurring.getRule());
+            }
+            else
+            {
+                indexed++;
+                Duration duration = event.getDuration();
+                maxDuration = Math.max(maxDuration, duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0));
+            }
+
+            eventFields[i] = new int[] {
+                    intern(event.getTitle(), stringIndexes, strings),
+                    intern(event.getDescription(), stringIndexes, strings),
+                    intern(event.getLocation(), stringIndexes, strings),
+                    tagStart,
+                    tagRefs.size() - tagStart,
+                    rule
+            };
+        }
+
+        // Sort the record numbers of non-recurring events by start time for range queries
+        Integer[] order = new Integer[indexed];
+        for (int i = 0, j = 0; i < events.size(); i++)
+        {
+            if (!(events.get(i) instanceof RecurringEvent))
+            {
+                order[j++] = i;
+            }
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> events.get(i).getStart()));
+
+        long stringBytes = 0;
+        for (byte[] string : strings)
+        {
+            stringBytes += string.length;
+        }
+        long stringOffsetsPosition = HEADER_SIZE;
+        long stringDataPosition = stringOffsetsPosition + 4L * (strings.size() + 1);
+        long tagsPosition = stringDataPosition + stringBytes;
+        long eventsPosition = tagsPosition + (long) TAG_SIZE * tags.size();
+        long orderPosition = eventsPosition + (long) EVENT_SIZE * events.size();
+        long tagRefsPosition = orderPosition + 4L * indexed;
+        long rulesPosition = tagRefsPosition + 4L * tagRefs.size();
+        if (rulesPosition + rules.size() > Integer.MAX_VALUE)
+        {
+            throw new IOException("Calendar is too large for the calendar file format");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)))
+        {
+            // Header
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeShort(0);
+            writeId(output, calendar.getId());
+            output.writeInt(calendarName);
+            output.writeInt(calendarDescription);
+            writeTime(output, calendar.getCreated());
+            writeTime(output, calendar.getModified());
+            output.writeInt(strings.size());
+            output.writeInt(tags.size());
+            output.writeInt(events.size());
+            output.writeInt(indexed);
+            output.writeInt(0);
+            output.writeInt(calendar.getTags().size());
+            output.writeLong(maxDuration);
+            output.writeLong(stringOffsetsPosition);
+            output.writeLong(stringDataPosition);
+            output.writeLong(tagsPosition);
+            output.writeLong(eventsPosition);
+            output.writeLong(orderPosition);
+            output.writeLong(tagRefsPosition);
+            output.writeLong(rulesPosition);
+
+            // String table
+            int offset = 0;
+            for (byte[] string : strings)
+            {
+                output.writeInt(offset);
+                offset += string.length;
+            }
+            output.writeInt(offset);
+            for (byte[] string : strings)
+            {
+                output.write(string);
+            }
+
+            // Tags
+            for (TagInterface tag : tags)
+            {
+                writeId(output, tag.getId());
+                output.writeInt(intern(tag.getName(), stringIndexes, strings));
+                output.writeInt(intern(tag.getDescription(), stringIndexes, strings));
+                writeTime(output, tag.getCreated());
+                writeTime(output, tag.getModified());
+            }
+
+            // Events
+            for (int i = 0; i < events.size(); i++)
+            {
+                EventInterface event = events.get(i);
+                int[] fields = eventFields[i];
+                output.writeByte(event instanceof RecurringEvent ? KIND_RECURRING : event instanceof TaskInterface ? KIND_TASK : KIND_EVENT);
+                output.writeByte(event instanceof TaskInterface task && task.isCompleted() ? 1 : 0);
+                output.writeShort(0);
+                writeId(output, event.getId());
+                output.writeInt(fields[0]);
+                output.writeInt(fields[1]);
+                output.writeInt(fields[2]);
+                writeTime(output, event.getStart());
+                writeTime(output, event.getEnd());
+                writeTime(output, event.getCreated());
+                writeTime(output, event.getModified());
+                output.writeInt(fields[3]);
+                output.writeInt(fields[4]);
+                output.writeInt(fields[5]);
+            }
+
+            // Sorted order, tag references and recurrence rules
+            for (Integer record : order)
+            {
+                output.writeInt(record);
+            }
+            for (Integer tagRef : tagRefs)
+            {
+                output.writeInt(tagRef);
+            }
+            rules.writeTo(output);
+
+            // The file must be on disk before it replaces the old one, or a crash could leave an
+            // empty or partly written file in its place
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the unique ID of the stored calendar.
+     *
+     * @return the unique ID of the stored calendar
+     */
+    public UUID getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the name of the stored calendar.
+     *
+     * @return the name of the stored calendar
+     */
+    public String getName()
+    {
+        return this.string(this.buffer.getInt(24));
+    }
+
+    /**
+     * Returns the description of the stored calendar.
+     *
+     * @return the description of the stored calendar
+     */
+    public String getDescription()
+    {
+        return this.string(this.buffer.getInt(28));
+    }
+
+    /**
+     * Returns the date and time the stored calendar was created.
+     *
+     * @return the date and time the stored calendar was created
+     */
+    public LocalDateTime getCreated()
+    {
+        return this.time(32);
+    }
+
+    /**
+     * Returns the date and time the stored calendar was last modified.
+     *
+     * @return the date and time the stored calendar was last modified
+     */
+    public LocalDateTime getModified()
+    {
+        return this.time(32 + TIME_SIZE);
+    }
+
+    /**
+     * Returns the number of events in the stored calendar.
+     *
+     * @return the number of events in the stored calendar
+     */
+    public int getEventCount()
+    {
+        return this.eventCount;
+    }
+
+    /**
+     * Decodes the event at the given position in the stored calendar. Each call returns a new
+     * event object; tags are shared between the events decoded from the same file.
+     *
+     * @param index the position of the event in the stored calendar
+     * @return the decoded event
+     */
+    public EventInterface getEvent(int index)
+    {
+        if (index < 0 || index >= this.eventCount)
+        {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        int record = this.eventsPosition + index * EVENT_SIZE;
+        UUID eventId = new UUID(this.buffer.getLong(record + EVENT_ID), this.buffer.getLong(record + EVENT_ID + 8));
+        String title = this.string(this.buffer.getInt(record + EVENT_TITLE));
+        String description = this.string(this.buffer.getInt(record + EVENT_DESCRIPTION));
+        String location = this.string(this.buffer.getInt(record + EVENT_LOCATION));
+        LocalDateTime start = this.time(record + EVENT_START);
+        LocalDateTime end = this.time(record + EVENT_END);
+        LocalDateTime created = this.time(record + EVENT_CREATED);
+        LocalDateTime modified = this.time(record + EVENT_MODIFIED);
+
+        Event event = switch (this.buffer.get(record + EVENT_KIND))
+        {
+            case KIND_TASK -> new Task(eventId, title, description, location, start, created, modified, this.buffer.get(record + EVENT_FLAGS) != 0);
+            case KIND_RECURRING -> new RecurringEvent(eventId, title, description, location, start, end, created, modified, this.rule(this.rulesPosition + this.buffer.getInt(record + EVENT_RULE)));
+            default -> new Event(eventId, title, description, location, start, end, created, modified);
+        };
+
+        int tagStart = this.buffer.getInt(record + EVENT_TAG_START);
+        int tagCount = this.buffer.getInt(record + EVENT_TAG_COUNT);
+        if (tagCount > 0)
+        {
+            ArrayList<Tag> eventTags = event.getTags();
+            for (int i = 0; i < tagCount; i++)
+            {
+                eventTags.add(this.tag(this.buffer.getInt(this.tagRefsPosition + 4 * (tagStart + i))));
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Returns the tags of the stored calendar.
+     *
+     * @return the tags of the stored calendar
+     */
+    public ArrayList<TagInterface> getTags()
+    {
+        ArrayList<TagInterface> calendarTags = new ArrayList<>(this.calendarTagCount);
+        for (int i = 0; i < this.calendarTagCount; i++)
+        {
+            calendarTags.add(this.tag(this.buffer.getInt(this.tagRefsPosition + 4 * (this.calendarTagStart + i))));
+        }
+        return calendarTags;
+    }
+
+    /**
+     * Decodes the events overlapping the half-open range [from, to), ordered by start time.
+     * Start times are binary searched in the mapped file, so only the matching events (and the
+     * recurring events, whose occurrences are expanded) are decoded.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     */
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<EventInterface> events = new ArrayList<>();
+        if (!from.isBefore(to))
+        {
+            return events;
+        }
+
+        LocalDateTime earliest = from.minusSeconds(this.maxDurationSeconds);
+        int low = 0;
+        int high = this.indexedCount;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (this.compareStart(this.record(middle), earliest) < 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        for (int i = low; i < this.indexedCount; i++)
+        {
+            int index = this.buffer.getInt(this.orderPosition + 4 * i);
+            int record = this.eventsPosition + index * EVENT_SIZE;
+            if (this.compareStart(record, to) >= 0)
+            {
+                break;
+            }
+            if (EventIntervalTree.overlaps(this.time(record + EVENT_START), this.time(record + EVENT_END), from, to))
+            {
+                events.add(this.getEvent(index));
+            }
+        }
+
+        if (this.indexedCount < this.eventCount)
+        {
+            ArrayList<Iterator<EventInterface>> sources = new ArrayList<>();
+            sources.add(events.iterator());
+            for (int i = 0; i < this.eventCount; i++)
+            {
+                if (this.buffer.get(this.eventsPosition + i * EVENT_SIZE + EVENT_KIND) == KIND_RECURRING)
+                {
+                    sources.add(((RecurringEvent) this.getEvent(i)).getOccurrences(from, to));
+                }
+            }
+            ArrayList<EventInterface> merged = new ArrayList<>(events.size());
+            new MergingIterator(sources).forEachRemaining(merged::add);
+            return merged;
+        }
+        return events;
+    }
+
+    /**
+     * Decodes the whole stored calendar.
+     *
+     * @return the stored calendar
+     */
+    public Calendar toCalendar()
+    {
+        ArrayList<EventInterface> events = new ArrayList<>(this.eventCount);
+        for (int i = 0; i < this.eventCount; i++)
+        {
+            events.add(this.getEvent(i));
+        }
+        return new Calendar(this.id, this.getName(), this.getDescription(), this.getCreated(), this.getModified(), events, this.getTags());
+    }
+
+    /**
+     * Closes the file. Objects already decoded from it remain usable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.channel.close();
+    }
+
+    /**
+     * Returns the position of the event record at the given position in start order.
+     */
+    private int record(int sorted)
+    {
+        return this.eventsPosition + this.buffer.getInt(this.orderPosition + 4 * sorted) * EVENT_SIZE;
+    }
+
+    /**
+     * Compares the start time of an event record with a time without decoding the record.
+     */
+    private int compareStart(int record, LocalDateTime time)
+    {
+        int result = Long.compare(this.buffer.getLong(record + EVENT_START), time.toEpochSecond(ZoneOffset.UTC));
+        return result != 0 ? result : Integer.compare(this.buffer.getInt(record + EVENT_START + 8), time.getNano());
+    }
+
+    private String string(int index)
+    {
+        if (index < 0)
+        {
+            return null;
+        }
+
+        String string = this.strings[index];
+        if (string == null)
+        {
+            int start = this.buffer.getInt(this.stringOffsetsPosition + 4 * index);
+            int end = this.buffer.getInt(this.stringOffsetsPosition + 4 * (index + 1));
+            byte[] bytes = new byte[end - start];
+            this.buffer.get(this.stringDataPosition + start, bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            this.strings[index] = string;
+        }
+        return string;
+    }
+
+    private Tag tag(int index)
+    {
+        Tag tag = this.tags[index];
+        if (tag == null)
+        {
+            int record = this.tagsPosition + index * TAG_SIZE;
+            tag = new Tag(
+                    new UUID(this.buffer.getLong(record), this.buffer.getLong(record + 8)),
+                    this.string(this.buffer.getInt(record + 16)),
+                    this.string(this.buffer.getInt(record + 20)),
+                    this.time(record + 24),
+                    this.time(record + 24 + TIME_SIZE)
+            );
+            this.tags[index] = tag;
+        }
+        return tag;
+    }
+
+    private LocalDateTime time(int position)
+    {
+        return LocalDateTime.ofEpochSecond(this.buffer.getLong(position), this.buffer.getInt(position + 8), ZoneOffset.UTC);
+    }
+
+    private RecurrenceRule rule(int position)
+    {
+        return readRule(this.buffer.duplicate().position(position));
+    }
+
+    /**
+     * Reads a recurrence rule written by writeRule, advancing the buffer past it.
+     *
+     * @param input the buffer to read from
+     * @return the rule that was read
+     */
+    static RecurrenceRule readRule(ByteBuffer input)
+    {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.values()[input.get()], input.getInt());
+        rule.setCount(input.getInt());
+        boolean hasUntil = input.get() != 0;
+        LocalDateTime until = LocalDateTime.ofEpochSecond(input.getLong(), input.getInt(), ZoneOffset.UTC);
+        rule.setUntil(hasUntil ? until : null);
+        int mask = input.get();
+        if ((mask & ZONE_FLAG) != 0)
+        {
+            byte[] zone = new byte[input.getShort() & 0xFFFF];
+            input.get(zone);
+            rule.setZone(ZoneId.of(new String(zone, StandardCharsets.UTF_8)));
+        }
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values())
+        {
+            if ((mask & (1 << day.ordinal())) != 0)
+            {
+                days.add(day);
+            }
+        }
+        rule.setDays(days);
+        for (int i = input.getInt(); i > 0; i--)
+        {
+            rule.addException(LocalDateTime.ofEpochSecond(input.getLong(), input.getInt(), ZoneOffset.UTC));
+        }
+        return rule;
+    }
+
+    /**
+     * Writes a recurrence rule in the calendar file encoding.
+     *
+     * @param output the stream to write to
+     * @param rule the rule to write
+     * @throws IOException if the rule cannot be written
+     */
+    static void writeRule(DataOutputStream output, RecurrenceRule rule) throws IOException
+    {
+        output.writeByte(rule.getFrequency().ordinal());
+        output.writeInt(rule.getInterval());
+        output.writeInt(rule.getCount());
+        output.writeByte(rule.getUntil() == null ? 0 : 1);
+        writeTime(output, rule.getUntil() == null ? LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC) : rule.getUntil());
+        int mask = 0;
+        for (DayOfWeek day : rule.getDays())
+        {
+            mask |= 1 << day.ordinal();
+        }
+        if (rule.getZone() != null)
+        {
+            mask |= ZONE_FLAG;
+        }
+        output.writeByte(mask);
+        if (rule.getZone() != null)
+        {
+            output.writeUTF(rule.getZone().getId());
+        }
+        output.writeInt(rule.getExceptions().size());
+        for (LocalDateTime exception : rule.getExceptions())
+        {
+            writeTime(output, exception);
+        }
+    }
+
+    private static int intern(String string, HashMap<String, Integer> indexes, ArrayList<byte[]> strings)
+    {
+        if (string == null)
+        {
+            return -1;
+        }
+
+        Integer index = indexes.get(string);
+        if (index == null)
+        {
+            index = strings.size();
+            indexes.put(string, index);
+            strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private static int internTag(TagInterface tag, IdentityHashMap<TagInterface, Integer> indexes, ArrayList<TagInterface> tags,
+                                 HashMap<String, Integer> stringIndexes, ArrayList<byte[]> strings)
+    {
+        Integer index = indexes.get(tag);
+        if (index == null)
+        {
+            index = tags.size();
+            indexes.put(tag, index);
+            tags.add(tag);
+            intern(tag.getName(), stringIndexes, strings);
+            intern(tag.getDescription(), stringIndexes, strings);
+        }
+        return index;
+    }
+
+    /**
+     * Writes a UUID as its most and least significant bits.
+     *
+     * @param output the stream to write to
+     * @param id the UUID to write
+     * @throws IOException if the UUID cannot be written
+     */
+    static void writeId(DataOutputStream output, UUID id) throws IOException
+    {
+        output.writeLong(id.getMostSignificantBits());
+        output.writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Writes a date and time as epoch seconds and nanoseconds.
+     *
+     * @param output the stream to write to
+     * @param time the date and time to write
+     * @throws IOException if the date and time cannot be written
+     */
+    static void writeTime(DataOutputStream output, LocalDateTime time) throws IOException
+    {
+        output.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        output.writeInt(time.getNano());
+    }
+}
@@ -8,6 +8,8 @@ package com.adalyia.calendar;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.UUID;
 
 public interface CalendarInterface
@@ -19,7 +21,12 @@ public interface CalendarInterface
     LocalDateTime getCreated();
     LocalDateTime getModified();
     ArrayList<EventInterface> getEvents();
+    EventInterface getEvent(UUID id);
     ArrayList<TagInterface> getTags();
+    ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to);
+    Iterator<EventInterface> getEventIterator(LocalDateTime from, LocalDateTime to);
+    ArrayList<EventInterface> getEventsTagged(TagQuery query);
+    ArrayList<EventInterface> search(String query, int limit);
 
 
     // Setters for Calendar properties
@@ -28,5 +35,29 @@ public interface CalendarInterface
     void setEvents(ArrayList<EventInterface> events);
     void addEvent(EventInterface event);
     void removeEvent(EventInterface event);
+    EventInterface removeEvent(UUID id);
     void setTags(ArrayList<TagInterface> tags);
+
+    // Change notification for Calendar properties and events
+    void addListener(CalendarListener listener);
+    void removeListener(CalendarListener listener);
+
+    // Streaming queries over Calendar events
+    default EventQuery query()
+    {
+        return new EventQuery(this);
+    }
+
+    /**
+     * Returns an iterator over every event in the calendar, ordered by start time, with each
+     * recurring event returned once, at its own start, rather than once per occurrence.
+     *
+     * @return an iterator over every event in the calendar
+     */
+    default Iterator<EventInterface> getEventIterator()
+    {
+        ArrayList<EventInterface> events = this.getEvents();
+        events.sort(Comparator.comparing(EventInterface::getStart));
+        return events.iterator();
+    }
 }
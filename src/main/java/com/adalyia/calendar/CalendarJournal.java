@@ -0,0 +1,831 @@
+/**
+ * CalendarJournal.java
+ * Purpose: Durable append-only journal of Calendar changes with checkpointing and crash recovery
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Records every change made to a calendar in an append-only journal so that the calendar can be
+ * rebuilt after a crash.
+ * <p>
+ * The journal directory holds checkpoints ({@code checkpoint-N.cal}, a {@link CalendarFile}
+ * snapshot of the calendar after change N) and journal segments ({@code journal-N.log}, the
+ * changes from N onwards). Each change is a length-prefixed, checksummed binary record. A
+ * background thread writes pending records and forces them to disk together, so changes made
+ * while one {@code fsync} is in progress share the next one.
+ * <p>
+ * Opening a journal loads the newest checkpoint and replays the records after it, discarding a
+ * torn record at the end of the journal. A checkpoint is written whenever the journal grows past
+ * the checkpoint threshold, after which older checkpoints and segments are deleted.
+ */
+public class CalendarJournal implements CalendarListener, Closeable
+{
+    // Record types
+    private static final byte ADD_EVENT = 1;
+    private static final byte REMOVE_EVENT = 2;
+    private static final byte EVENT_FIELD = 3;
+    private static final byte CALENDAR_TAGS = 4;
+    private static final byte CALENDAR_DETAILS = 5;
+
+    private static final int FRAME_SIZE = 4 + 4 + 8;
+    private static final long DEFAULT_CHECKPOINT_THRESHOLD = 64L << 20;
+
+    /**
+     * A growable byte buffer that can be written to disk without copying.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream
+    {
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        private RecordBuffer(int size)
+        {
+            super(size);
+        }
+
+        private ByteBuffer view()
+        {
+            return ByteBuffer.wrap(this.buf, 0, this.count);
+        }
+    }
+
+    // Instance variables
+    private final Path directory;
+    private final Calendar calendar;
+    private final ReentrantLock lock;
+    private final Condition pendingData;
+    private final Condition durable;
+    private final Thread writer;
+    private RecordBuffer pending;
+    private RecordBuffer spare;
+    private FileChannel segment;
+    private long appendedSequence;
+    private long durableSequence;
+    private long bytesSinceCheckpoint;
+    private long checkpointThreshold;
+    private boolean synchronous;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Constructs a journal for a calendar whose changes up to the given sequence number are
+     * already stored in the journal directory.
+     *
+     * @param directory the journal directory
+     * @param calendar the calendar to record
+     * @param sequence the sequence number of the last stored change
+     * @throws IOException if the journal segment cannot be opened
+     */
+    private CalendarJournal(Path directory, Calendar calendar, long sequence) throws IOException
+    {
+        this.directory = directory;
+        this.calendar = calendar;
+        this.lock = new ReentrantLock();
+        this.pendingData = this.lock.newCondition();
+        this.durable = this.lock.newCondition();
+        this.pending = new RecordBuffer(1 << 16);
+        this.spare = new RecordBuffer(1 << 16);
+        this.appendedSequence = sequence;
+        this.durableSequence = sequence;
+        this.checkpointThreshold = DEFAULT_CHECKPOINT_THRESHOLD;
+        this.segment = this.openSegment(sequence + 1);
+        this.writer = new Thread(this::writeLoop, "calendar-journal-" + calendar.getId());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the journal in the given directory and starts recording changes to its calendar.
+     * If the directory holds a checkpoint, the calendar is recovered from it and the changes
+     * recorded after it; otherwise the given calendar is checkpointed and recorded from now on.
+     *
+     * @param directory the journal directory
+     * @param initial the calendar to record if the directory does not hold one yet
+     * @return the opened journal
+     * @throws IOException if the journal cannot be read or written
+     */
+    public static CalendarJournal open(Path directory, Calendar initial) throws IOException
+    {
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> checkpoints = list(directory, "checkpoint-", ".cal");
+        if (checkpoints.isEmpty())
+        {
+            CalendarJournal journal = new CalendarJournal(directory, initial, 0);
+            journal.checkpoint();
+            initial.addListener(journal);
+            return journal;
+        }
+
+        long checkpoint = checkpoints.lastKey();
+        Calendar calendar = CalendarFile.load(checkpoints.lastEntry().getValue());
+        long sequence = replay(directory, calendar, checkpoint);
+        CalendarJournal journal = new CalendarJournal(directory, calendar, sequence);
+        if (sequence > checkpoint)
+        {
+            journal.checkpoint();
+        }
+        calendar.addListener(journal);
+        return journal;
+    }
+
+    /**
+     * Returns the calendar being recorded, which after recovery is the recovered calendar.
+     *
+     * @return the calendar being recorded
+     */
+    public Calendar getCalendar()
+    {
+        return this.calendar;
+    }
+
+    /**
+     * Returns the sequence number of the last change that has been forced to disk.
+     *
+     * @return the sequence number of the last durable change
+     */
+    public long getDurableSequence()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.durableSequence;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets whether each change waits until it has been forced to disk before the mutator returns.
+     * Changes made concurrently still share a single {@code fsync}.
+     *
+     * @param synchronous whether changes wait until they are durable
+     */
+    public void setSynchronous(boolean synchronous)
+    {
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Sets the number of journal bytes written since the last checkpoint that triggers a new one.
+     *
+     * @param checkpointThreshold the journal size that triggers a checkpoint, in bytes
+     */
+    public void setCheckpointThreshold(long checkpointThreshold)
+    {
+        this.checkpointThreshold = checkpointThreshold;
+    }
+
+    /**
+     * Waits until every change recorded so far has been forced to disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public void sync() throws IOException
+    {
+        this.lock.lock();
+        try
+        {
+            this.awaitDurable(this.appendedSequence);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the calendar, then deletes the checkpoints and journal segments it
+     * makes obsolete. Must be called from the thread that modifies the calendar.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void checkpoint() throws IOException
+    {
+        long sequence;
+        this.lock.lock();
+        try
+        {
+            this.awaitDurable(this.appendedSequence);
+            sequence = this.appendedSequence;
+            FileChannel previous = this.segment;
+            this.segment = this.openSegment(sequence + 1);
+            previous.close();
+            this.bytesSinceCheckpoint = 0;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        CalendarFile.save(this.calendar, this.directory.resolve(name("checkpoint-", sequence, ".cal")));
+        for (var entry : list(this.directory, "checkpoint-", ".cal").entrySet())
+        {
+            if (entry.getKey() < sequence)
+            {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+        for (var entry : list(this.directory, "journal-", ".log").entrySet())
+        {
+            if (entry.getKey() <= sequence)
+            {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Stops recording changes, waits for pending changes to reach the disk and closes the journal.
+     *
+     * @throws IOException if pending changes could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.calendar.removeListener(this);
+        this.lock.lock();
+        try
+        {
+            this.closed = true;
+            this.pendingData.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        try
+        {
+            this.writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        this.segment.close();
+        if (this.failure != null)
+        {
+            throw this.failure;
+        }
+    }
+
+    @Override
+    public void eventAdded(CalendarInterface calendar, EventInterface event)
+    {
+        RecordBuffer record = new RecordBuffer(256);
+        try
+        {
+            record.data.writeByte(ADD_EVENT);
+            CalendarFile.writeTime(record.data, calendar.getModified());
+            writeEvent(record.data, event);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void eventRemoved(CalendarInterface calendar, EventInterface event)
+    {
+        RecordBuffer record = new RecordBuffer(32);
+        try
+        {
+            record.data.writeByte(REMOVE_EVENT);
+            CalendarFile.writeTime(record.data, calendar.getModified());
+            CalendarFile.writeId(record.data, event.getId());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void eventChanged(CalendarInterface calendar, EventInterface event, EventField field, Object oldValue)
+    {
+        RecordBuffer record = new RecordBuffer(64);
+        try
+        {
+            record.data.writeByte(EVENT_FIELD);
+            CalendarFile.writeTime(record.data, event.getModified());
+            CalendarFile.writeId(record.data, event.getId());
+            record.data.writeByte(field.ordinal());
+            switch (field)
+            {
+                case TITLE -> writeString(record.data, event.getTitle());
+                case DESCRIPTION -> writeString(record.data, event.getDescription());
+                case LOCATION -> writeString(record.data, event.getLocation());
+                case START -> CalendarFile.writeTime(record.data, event.getStart());
+                case END -> CalendarFile.writeTime(record.data, event.getEnd());
+                case TAGS -> writeTags(record.data, event.getTags());
+                case RECURRENCE -> CalendarFile.writeRule(record.data, ((RecurringEvent) event).getRule());
+                case COMPLETED -> record.data.writeBoolean(((TaskInterface) event).isCompleted());
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void tagsChanged(CalendarInterface calendar)
+    {
+        RecordBuffer record = new RecordBuffer(128);
+        try
+        {
+            record.data.writeByte(CALENDAR_TAGS);
+            CalendarFile.writeTime(record.data, calendar.getModified());
+            writeTags(record.data, calendar.getTags());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void detailsChanged(CalendarInterface calendar)
+    {
+        RecordBuffer record = new RecordBuffer(128);
+        try
+        {
+            record.data.writeByte(CALENDAR_DETAILS);
+            CalendarFile.writeTime(record.data, calendar.getModified());
+            writeString(record.data, calendar.getName());
+            writeString(record.data, calendar.getDescription());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    /**
+     * Frames a record with its length, checksum and sequence number and queues it for the writer,
+     * checkpointing afterwards if the journal has grown past the threshold.
+     */
+    private void append(RecordBuffer record)
+    {
+        boolean checkpoint;
+        this.lock.lock();
+        try
+        {
+            if (this.failure != null)
+            {
+                throw new UncheckedIOException(this.failure);
+            }
+            if (this.closed)
+            {
+                throw new IllegalStateException("Journal is closed");
+            }
+
+            long sequence = ++this.appendedSequence;
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+            crc.update(record.view());
+            DataOutputStream output = this.pending.data;
+            output.writeInt(8 + record.size());
+            output.writeInt((int) crc.getValue());
+            output.writeLong(sequence);
+            record.writeTo(output);
+            this.bytesSinceCheckpoint += FRAME_SIZE + record.size();
+            this.pendingData.signal();
+
+            if (this.synchronous)
+            {
+                this.awaitDurable(sequence);
+            }
+            checkpoint = this.bytesSinceCheckpoint > this.checkpointThreshold;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        if (checkpoint)
+        {
+            try
+            {
+                this.checkpoint();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Waits, holding the lock, until the given change has been forced to disk.
+     */
+    private void awaitDurable(long sequence) throws IOException
+    {
+        while (this.durableSequence < sequence && this.failure == null)
+        {
+            this.durable.awaitUninterruptibly();
+        }
+        if (this.failure != null)
+        {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Runs on the writer thread: repeatedly takes every pending record, writes them to the
+     * current segment and forces them to disk with a single call.
+     */
+    private void writeLoop()
+    {
+        while (true)
+        {
+            RecordBuffer batch;
+            FileChannel channel;
+            long sequence;
+            this.lock.lock();
+            try
+            {
+                while (this.pending.size() == 0 && !this.closed)
+                {
+                    this.pendingData.awaitUninterruptibly();
+                }
+                if (this.pending.size() == 0)
+                {
+                    return;
+                }
+
+                batch = this.pending;
+                this.pending = this.spare;
+                this.spare = batch;
+                channel = this.segment;
+                sequence = this.appendedSequence;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            IOException error = null;
+            try
+            {
+                ByteBuffer bytes = batch.view();
+                while (bytes.hasRemaining())
+                {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+            catch (IOException e)
+            {
+                error = e;
+            }
+
+            this.lock.lock();
+            try
+            {
+                batch.reset();
+                if (error != null)
+                {
+                    this.failure = error;
+                }
+                else
+                {
+                    this.durableSequence = sequence;
+                }
+                this.durable.signalAll();
+                if (error != null)
+                {
+                    return;
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private FileChannel openSegment(long start) throws IOException
+    {
+        FileChannel channel = FileChannel.open(this.directory.resolve(name("journal-", start, ".log")),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    /**
+     * Replays the journal segments onto a calendar loaded from a checkpoint, truncating a torn
+     * record left at the end of the journal by a crash.
+     *
+     * @return the sequence number of the last change replayed
+     */
+    private static long replay(Path directory, Calendar calendar, long sequence) throws IOException
+    {
+        HashMap<UUID, EventInterface> events = new HashMap<>();
+        HashMap<UUID, Tag> tags = new HashMap<>();
+        for (TagInterface tag : calendar.getTags())
+        {
+            if (tag instanceof Tag known)
+            {
+                tags.put(known.getId(), known);
+            }
+        }
+        for (EventInterface event : calendar.getEvents())
+        {
+            events.put(event.getId(), event);
+            for (Tag tag : event.getTags())
+            {
+                tags.put(tag.getId(), tag);
+            }
+        }
+
+        for (Path path : list(directory, "journal-", ".log").values())
+        {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                ByteBuffer input = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+                while (input.hasRemaining() && channel.read(input) >= 0)
+                {
+                    // Keep reading until the whole segment is in memory
+                }
+                input.flip();
+                int valid = 0;
+                while (input.remaining() >= FRAME_SIZE)
+                {
+                    int length = input.getInt(valid);
+                    int checksum = input.getInt(valid + 4);
+                    if (length < 8 || valid + 8L + length > input.limit())
+                    {
+                        break;
+                    }
+
+                    CRC32 crc = new CRC32();
+                    crc.update(input.duplicate().position(valid + 8).limit(valid + 8 + length));
+                    if ((int) crc.getValue() != checksum)
+                    {
+                        break;
+                    }
+
+                    long recordSequence = input.getLong(valid + 8);
+                    ByteBuffer record = input.duplicate().position(valid + 16).limit(valid + 8 + length);
+                    if (recordSequence > sequence)
+                    {
+                        apply(calendar, events, tags, record);
+                        sequence = recordSequence;
+                    }
+                    valid += 8 + length;
+                    input.position(valid);
+                }
+
+                if (valid < channel.size())
+                {
+                    channel.truncate(valid);
+                    channel.force(true);
+                    break;
+                }
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Applies a single journal record to the calendar being recovered.
+     */
+    private static void apply(Calendar calendar, HashMap<UUID, EventInterface> events, HashMap<UUID, Tag> tags, ByteBuffer input) throws IOException
+    {
+        try
+        {
+            byte type = input.get();
+            LocalDateTime modified = readTime(input);
+            switch (type)
+            {
+                case ADD_EVENT ->
+                {
+                    EventInterface event = readEvent(input, tags);
+                    events.put(event.getId(), event);
+                    calendar.addEvent(event);
+                    calendar.setModified(modified);
+                }
+                case REMOVE_EVENT ->
+                {
+                    EventInterface event = events.remove(new UUID(input.getLong(), input.getLong()));
+                    if (event != null)
+                    {
+                        calendar.removeEvent(event);
+                    }
+                    calendar.setModified(modified);
+                }
+                case EVENT_FIELD ->
+                {
+                    EventInterface event = events.get(new UUID(input.getLong(), input.getLong()));
+                    EventField field = EventField.values()[input.get()];
+                    if (event == null)
+                    {
+                        return;
+                    }
+                    switch (field)
+                    {
+                        case TITLE -> event.setTitle(readString(input));
+                        case DESCRIPTION -> event.setDescription(readString(input));
+                        case LOCATION -> event.setLocation(readString(input));
+                        case START, END -> ((Event) event).restoreTime(field, readTime(input));
+                        case TAGS -> event.setTags(readTags(input, tags));
+                        case RECURRENCE -> ((RecurringEvent) event).setRule(CalendarFile.readRule(input));
+                        case COMPLETED -> ((TaskInterface) event).setCompleted(input.get() != 0);
+                    }
+                    if (event instanceof Event restored)
+                    {
+                        restored.setModified(modified);
+                    }
+                }
+                case CALENDAR_TAGS ->
+                {
+                    calendar.setTags(new ArrayList<>(readTags(input, tags)));
+                    calendar.setModified(modified);
+                }
+                case CALENDAR_DETAILS ->
+                {
+                    calendar.setName(readString(input));
+                    calendar.setDescription(readString(input));
+                    calendar.setModified(modified);
+                }
+                default -> throw new IOException("Unknown journal record type " + type);
+            }
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException e)
+        {
+            throw new IOException("Malformed journal record", e);
+        }
+    }
+
+    private static void writeEvent(DataOutputStream output, EventInterface event) throws IOException
+    {
+        output.writeByte(event instanceof RecurringEvent ? 2 : event instanceof Task ? 1 : 0);
+        output.writeBoolean(event instanceof TaskInterface task && task.isCompleted());
+        CalendarFile.writeId(output, event.getId());
+        writeString(output, event.getTitle());
+        writeString(output, event.getDescription());
+        writeString(output, event.getLocation());
+        CalendarFile.writeTime(output, event.getStart());
+        CalendarFile.writeTime(output, event.getEnd());
+        CalendarFile.writeTime(output, event.getCreated());
+        CalendarFile.writeTime(output, event.getModified());
+        writeTags(output, event.getTags());
+        if (event instanceof RecurringEvent recurring)
+        {
+            CalendarFile.writeRule(output, recurring.getRule());
+        }
+    }
+
+    private static EventInterface readEvent(ByteBuffer input, HashMap<UUID, Tag> tags)
+    {
+        byte kind = input.get();
+        boolean completed = input.get() != 0;
+        UUID id = new UUID(input.getLong(), input.getLong());
+        String title = readString(input);
+        String description = readString(input);
+        String location = readString(input);
+        LocalDateTime start = readTime(input);
+        LocalDateTime end = readTime(input);
+        LocalDateTime created = readTime(input);
+        LocalDateTime modified = readTime(input);
+        ArrayList<Tag> eventTags = readTags(input, tags);
+
+        Event event = switch (kind)
+        {
+            case 1 -> new Task(id, title, description, location, start, created, modified, completed);
+            case 2 -> new RecurringEvent(id, title, description, location, start, end, created, modified, CalendarFile.readRule(input));
+            default -> new Event(id, title, description, location, start, end, created, modified);
+        };
+        event.getTags().addAll(eventTags);
+        return event;
+    }
+
+    private static void writeTags(DataOutputStream output, ArrayList<? extends TagInterface> tags) throws IOException
+    {
+        output.writeInt(tags.size());
+        for (TagInterface tag : tags)
+        {
+            CalendarFile.writeId(output, tag.getId());
+            writeString(output, tag.getName());
+            writeString(output, tag.getDescription());
+            CalendarFile.writeTime(output, tag.getCreated());
+            CalendarFile.writeTime(output, tag.getModified());
+        }
+    }
+
+    private static ArrayList<Tag> readTags(ByteBuffer input, HashMap<UUID, Tag> tags)
+    {
+        int count = input.getInt();
+        ArrayList<Tag> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            UUID id = new UUID(input.getLong(), input.getLong());
+            String name = readString(input);
+            String description = readString(input);
+            LocalDateTime created = readTime(input);
+            LocalDateTime modified = readTime(input);
+            result.add(tags.computeIfAbsent(id, key -> new Tag(key, name, description, created, modified)));
+        }
+        return result;
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        if (string == null)
+        {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer input)
+    {
+        int length = input.getInt();
+        if (length < 0)
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime readTime(ByteBuffer input)
+    {
+        return LocalDateTime.ofEpochSecond(input.getLong(), input.getInt(), ZoneOffset.UTC);
+    }
+
+    private static String name(String prefix, long sequence, String suffix)
+    {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    /**
+     * Returns the files in the directory with the given prefix and suffix, keyed by the
+     * sequence number in their name.
+     */
+    private static TreeMap<Long, Path> list(Path directory, String prefix, String suffix) throws IOException
+    {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory))
+        {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(suffix))
+                {
+                    try
+                    {
+                        files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        // Not one of ours
+                    }
+                }
+            });
+        }
+        return files;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * CalendarListener.java
+ * Purpose: Listener notified when a Calendar or one of its Tasks/Events is modified
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public interface CalendarListener
+{
+    /**
+     * Called after an event has been added to the calendar.
+     *
+     * @param calendar the calendar the event was added to
+     * @param event the event that was added
+     */
+    default void eventAdded(CalendarInterface calendar, EventInterface event)
+    {
+    }
+
+    /**
+     * Called after an event has been removed from the calendar.
+     *
+     * @param calendar the calendar the event was removed from
+     * @param event the event that was removed
+     */
+    default void eventRemoved(CalendarInterface calendar, EventInterface event)
+    {
+    }
+
+    /**
+     * Called after a field of one of the calendar's events has been changed.
+     *
+     * @param calendar the calendar containing the event
+     * @param event the event that was changed
+     * @param field the field that was changed
+     * @param oldValue the value of the field before the change
+     */
+    default void eventChanged(CalendarInterface calendar, EventInterface event, EventField field, Object oldValue)
+    {
+    }
+
+    /**
+     * Called after the calendar's tags have been replaced.
+     *
+     * @param calendar the calendar whose tags were replaced
+     */
+    default void tagsChanged(CalendarInterface calendar)
+    {
+    }
+
+    /**
+     * Called after the calendar's name or description has been changed.
+     *
+     * @param calendar the calendar that was changed
+     */
+    default void detailsChanged(CalendarInterface calendar)
+    {
+    }
+}
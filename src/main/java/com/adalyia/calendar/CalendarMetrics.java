@@ -0,0 +1,225 @@
+/**
+ * CalendarMetrics.java
+ * Purpose: Operational metrics for Calendars & Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times what every Calendar and Event in the JVM does: events added, removed and
+ * modified, the latency of each {@link CalendarOperation}, and gauges of the size and audit logs
+ * of the calendars passed to {@link #watch}. Operations slower than the slow threshold are also
+ * recorded as JDK Flight Recorder events.
+ * <p>
+ * Metrics are off until {@link #enable} is called. While they are off, an operation costs one
+ * extra read of a volatile field. Counters and histograms are lock-free, so metrics can be left
+ * on under load. Values are read by passing a {@link MetricsExporter} to {@link #export}.
+ */
+public final class CalendarMetrics
+{
+    private static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis(10);
+
+    /**
+     * The metrics in use, or null while metrics are off
+     */
+    private static volatile CalendarMetrics active;
+
+    // Instance variables
+    private final LongAdder added;
+    private final LongAdder removed;
+    private final LongAdder modified;
+    private final LongAdder slow;
+    private final EnumMap<CalendarOperation, LatencyHistogram> latencies;
+    private final CopyOnWriteArrayList<WeakReference<CalendarInterface>> watched;
+    private volatile long slowThresholdNanos;
+
+    private CalendarMetrics()
+    {
+        this.added = new LongAdder();
+        this.removed = new LongAdder();
+        this.modified = new LongAdder();
+        this.slow = new LongAdder();
+        this.latencies = new EnumMap<>(CalendarOperation.class);
+        for (CalendarOperation operation : CalendarOperation.values())
+        {
+            this.latencies.put(operation, new LatencyHistogram());
+        }
+        this.watched = new CopyOnWriteArrayList<>();
+        this.slowThresholdNanos = DEFAULT_SLOW_THRESHOLD.toNanos();
+    }
+
+    /**
+     * Turns metrics on, if they are not on already, and returns them.
+     *
+     * @return the metrics in use
+     */
+    public static synchronized CalendarMetrics enable()
+    {
+        if (active == null)
+        {
+            active = new CalendarMetrics();
+        }
+        return active;
+    }
+
+    /**
+     * Turns metrics off. Metrics enabled again later start from zero.
+     */
+    public static synchronized void disable()
+    {
+        active = null;
+    }
+
+    /**
+     * Returns whether metrics are on.
+     *
+     * @return whether metrics are on
+     */
+    public static boolean isEnabled()
+    {
+        return active != null;
+    }
+
+    /**
+     * Returns the metrics in use, or null while metrics are off.
+     */
+    static CalendarMetrics active()
+    {
+        return active;
+    }
+
+    /**
+     * Returns the latency above which an operation is recorded as a slow operation event.
+     *
+     * @return the slow operation threshold
+     */
+    public Duration getSlowThreshold()
+    {
+        return Duration.ofNanos(this.slowThresholdNanos);
+    }
+
+    /**
+     * Sets the latency above which an operation is recorded as a slow operation event. The
+     * default is 10 milliseconds.
+     *
+     * @param threshold the new slow operation threshold
+     */
+    public void setSlowThreshold(Duration threshold)
+    {
+        this.slowThresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * Adds gauges of the number of events in a calendar and of the changes held in their audit
+     * logs. The calendar is only weakly referenced, and its gauges go once it is collected.
+     *
+     * @param calendar the calendar to watch
+     */
+    public void watch(CalendarInterface calendar)
+    {
+        this.watched.add(new WeakReference<>(calendar));
+    }
+
+    /**
+     * Stops the gauges added for a calendar by watch.
+     *
+     * @param calendar the calendar to stop watching
+     */
+    public void unwatch(CalendarInterface calendar)
+    {
+        this.watched.removeIf(reference -> reference.get() == null || reference.get() == calendar);
+    }
+
+    /**
+     * Passes the current value of every metric to an exporter. The gauges of watched calendars
+     * are computed here, by reading each calendar's events, so exporting should not be done on
+     * the thread that modifies a calendar unless that calendar is thread-safe or idle.
+     *
+     * @param exporter the exporter to pass the metrics to
+     */
+    public void export(MetricsExporter exporter)
+    {
+        exporter.counter("calendar.events.added", this.added.sum());
+        exporter.counter("calendar.events.removed", this.removed.sum());
+        exporter.counter("calendar.events.modified", this.modified.sum());
+        exporter.counter("calendar.operations.slow", this.slow.sum());
+        for (CalendarOperation operation : CalendarOperation.values())
+        {
+            this.latencies.get(operation).export("calendar." + operation.getMetricName() + ".latency", exporter);
+        }
+
+        this.watched.removeIf(reference -> reference.get() == null);
+        for (WeakReference<CalendarInterface> reference : this.watched)
+        {
+            CalendarInterface calendar = reference.get();
+            if (calendar == null)
+            {
+                continue;
+            }
+
+            long entries = 0;
+            int events = 0;
+            for (EventInterface event : calendar.getEvents())
+            {
+                entries += event instanceof Event e ? e.getAuditSize() : event.getAuditEntries().size();
+                events++;
+            }
+            exporter.gauge("calendar." + calendar.getId() + ".events", events);
+            exporter.gauge("calendar." + calendar.getId() + ".audit.entries", entries);
+        }
+    }
+
+    /**
+     * Counts events added to a calendar.
+     */
+    void added(int count)
+    {
+        this.added.add(count);
+    }
+
+    /**
+     * Counts events removed from a calendar.
+     */
+    void removed(int count)
+    {
+        this.removed.add(count);
+    }
+
+    /**
+     * Counts a modification of an event.
+     */
+    void modified()
+    {
+        this.modified.increment();
+    }
+
+    /**
+     * Records the latency of an operation that started at the given System.nanoTime, and
+     * records a slow operation event if it took longer than the threshold.
+     */
+    void timed(CalendarOperation operation, long started, CalendarInterface calendar, int events)
+    {
+        long elapsed = System.nanoTime() - started;
+        this.latencies.get(operation).record(elapsed);
+        if (elapsed > this.slowThresholdNanos)
+        {
+            this.slow.increment();
+            SlowOperationEvent event = new SlowOperationEvent();
+            if (event.isEnabled())
+            {
+                event.operation = operation.getMetricName();
+                event.calendar = String.valueOf(calendar.getId());
+                event.events = events;
+                event.elapsed = elapsed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * CalendarOperation.java
+ * Purpose: Enumeration of the Calendar operations timed by CalendarMetrics
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.Locale;
+
+public enum CalendarOperation
+{
+    ADD_EVENT,
+    REMOVE_EVENT,
+    SET_EVENTS,
+    BATCH,
+    EVENT_CHANGE,
+    RANGE_QUERY,
+    TAG_QUERY,
+    SEARCH,
+    TASK_QUERY;
+
+    /**
+     * Returns the name of the operation as used in metric names, such as add-event.
+     *
+     * @return the metric name of the operation
+     */
+    public String getMetricName()
+    {
+        return this.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
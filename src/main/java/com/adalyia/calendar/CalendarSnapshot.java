@@ -0,0 +1,437 @@
+/**
+ * CalendarSnapshot.java
+ * Purpose: Read-only, point-in-time view of a Calendar
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * A calendar frozen as it was when {@link Calendar#snapshot()} was called. A snapshot never
+ * changes, whatever is later done to the calendar, so a report can read it for as long as it
+ * needs without blocking the calendar's writers or being disturbed by them, and it can be read
+ * from any thread.
+ * <p>
+ * The events of a snapshot are copies made when each event last changed, and they share the
+ * calendar's tags. Copies carry no audit log, which is read from the calendar's own events. The
+ * events must not be modified, and every method that would modify the snapshot throws
+ * UnsupportedOperationException.
+ * <p>
+ * Range, tag and text queries are answered from indexes built from the snapshot's events the
+ * first time each kind of query is made, so the first query of each kind takes time proportional
+ * to the number of events.
+ */
+public final class CalendarSnapshot implements CalendarInterface
+{
+    // Instance variables
+    private final UUID id;
+    private final String name;
+    private final String description;
+    private final LocalDateTime created;
+    private final LocalDateTime modified;
+    private final ArrayList<TagInterface> tags;
+    private final PersistentEventMap events;
+    private EventIntervalTree index;
+    private ArrayList<RecurringEvent> recurring;
+    private TagIndex tagIndex;
+    private SearchIndex searchIndex;
+
+    /**
+     * Constructs a new CalendarSnapshot.
+     *
+     * @param id the unique ID of the calendar
+     * @param name the name of the calendar
+     * @param description the description of the calendar
+     * @param created the date and time the calendar was created
+     * @param modified the date and time the calendar was last modified
+     * @param tags the tags in the calendar, which must not be modified afterwards
+     * @param events the frozen copies of the events in the calendar
+     */
+    CalendarSnapshot(UUID id, String name, String description, LocalDateTime created, LocalDateTime modified,
+                     ArrayList<TagInterface> tags, PersistentEventMap events)
+    {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.created = created;
+        this.modified = modified;
+        this.tags = tags;
+        this.events = events;
+    }
+
+    /**
+     * Returns a frozen copy of an event, sharing its tags.
+     *
+     * @param event the event to copy
+     * @return a copy of the event
+     */
+    static EventInterface freeze(EventInterface event)
+    {
+        Event copy;
+        if (event instanceof RecurringEvent series)
+        {
+            RecurrenceRule rule = series.getRule();
+            RecurrenceRule frozen = new RecurrenceRule(rule.getFrequency(), rule.getInterval());
+            frozen.setCount(rule.getCount());
+            frozen.setUntil(rule.getUntil());
+            frozen.setDays(rule.getDays());
+            for (LocalDateTime exception : rule.getExceptions())
+            {
+                frozen.addException(exception);
+            }
+            copy = new RecurringEvent(event.getId(), event.getTitle(), event.getDescription(), event.getLocation(),
+                    event.getStart(), event.getEnd(), event.getCreated(), event.getModified(), frozen);
+        }
+        else if (event instanceof TaskInterface task)
+        {
+            copy = new Task(event.getId(), event.getTitle(), event.getDescription(), event.getLocation(),
+                    event.getStart(), event.getCreated(), event.getModified(), task.isCompleted());
+        }
+        else
+        {
+            copy = new Event(event.getId(), event.getTitle(), event.getDescription(), event.getLocation(),
+                    event.getStart(), event.getEnd(), event.getCreated(), event.getModified());
+        }
+        copy.getTags().addAll(event.getTags());
+        return copy;
+    }
+
+    /**
+     * Returns the frozen copies of the events in the calendar.
+     */
+    PersistentEventMap getEventMap()
+    {
+        return this.events;
+    }
+
+    /**
+     * Returns the tags in the calendar, without copying them.
+     */
+    ArrayList<TagInterface> getTagList()
+    {
+        return this.tags;
+    }
+
+    /**
+     * Returns the unique ID of the calendar.
+     *
+     * @return the unique ID of the calendar
+     */
+    @Override
+    public UUID getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the name of the calendar.
+     *
+     * @return the name of the calendar
+     */
+    @Override
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Returns the description of the calendar.
+     *
+     * @return the description of the calendar
+     */
+    @Override
+    public String getDescription()
+    {
+        return this.description;
+    }
+
+    /**
+     * Returns the date and time the calendar was created.
+     *
+     * @return the date and time the calendar was created
+     */
+    @Override
+    public LocalDateTime getCreated()
+    {
+        return this.created;
+    }
+
+    /**
+     * Returns the date and time the calendar was last modified before the snapshot.
+     *
+     * @return the date and time the calendar was last modified
+     */
+    @Override
+    public LocalDateTime getModified()
+    {
+        return this.modified;
+    }
+
+    /**
+     * Returns the events in the calendar, in the order they were added.
+     *
+     * @return the events in the calendar
+     */
+    @Override
+    public ArrayList<EventInterface> getEvents()
+    {
+        return this.events.events();
+    }
+
+    /**
+     * Returns the event with the given unique ID.
+     *
+     * @param id the unique ID of the event
+     * @return the event with the given ID, or null if there was none in the calendar
+     */
+    @Override
+    public EventInterface getEvent(UUID id)
+    {
+        PersistentEventMap.Entry entry = this.events.get(id);
+        return entry == null ? null : entry.event;
+    }
+
+    /**
+     * Returns the tags in the calendar.
+     *
+     * @return the tags in the calendar
+     */
+    @Override
+    public ArrayList<TagInterface> getTags()
+    {
+        return new ArrayList<>(this.tags);
+    }
+
+    /**
+     * Returns the events overlapping the half-open range [from, to), ordered by start time,
+     * as Calendar does.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<EventInterface> events = new ArrayList<>();
+        this.getEventIterator(from, to).forEachRemaining(events::add);
+        return events;
+    }
+
+    /**
+     * Returns a lazy iterator over the events overlapping the half-open range [from, to),
+     * ordered by start time.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the events overlapping the range
+     */
+    @Override
+    public synchronized Iterator<EventInterface> getEventIterator(LocalDateTime from, LocalDateTime to)
+    {
+        if (this.index == null)
+        {
+            ArrayList<EventInterface> timed = new ArrayList<>(this.events.size());
+            this.recurring = new ArrayList<>();
+            for (EventInterface event : this.events.events())
+            {
+                if (event instanceof RecurringEvent series)
+                {
+                    this.recurring.add(series);
+                }
+                else
+                {
+                    timed.add(event);
+                }
+            }
+            this.index = new EventIntervalTree();
+            this.index.addAll(timed);
+        }
+        if (this.recurring.isEmpty())
+        {
+            return this.index.iterator(from, to);
+        }
+
+        ArrayList<Iterator<EventInterface>> sources = new ArrayList<>(this.recurring.size() + 1);
+        sources.add(this.index.iterator(from, to));
+        for (RecurringEvent series : this.recurring)
+        {
+            sources.add(series.getOccurrences(from, to));
+        }
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Returns the events matching a tag query.
+     *
+     * @param query the tag query to match
+     * @return the events matching the query
+     */
+    @Override
+    public synchronized ArrayList<EventInterface> getEventsTagged(TagQuery query)
+    {
+        if (this.tagIndex == null)
+        {
+            this.tagIndex = new TagIndex();
+            for (EventInterface event : this.events.events())
+            {
+                this.tagIndex.add(event);
+            }
+        }
+        return this.tagIndex.query(query);
+    }
+
+    /**
+     * Returns the events whose title, description or location contain every word of the query,
+     * best match first, as Calendar does.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events, best match first
+     */
+    @Override
+    public synchronized ArrayList<EventInterface> search(String query, int limit)
+    {
+        if (this.searchIndex == null)
+        {
+            this.searchIndex = new SearchIndex();
+            for (EventInterface event : this.events.events())
+            {
+                this.searchIndex.add(event);
+            }
+        }
+        return this.searchIndex.search(query, limit);
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param name the new name of the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setName(String name)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param description the new description of the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setDescription(String description)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param events the new events in the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setEvents(ArrayList<EventInterface> events)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param event the event to add to the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addEvent(EventInterface event)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param event the event to remove from the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeEvent(EventInterface event)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param id the unique ID of the event to remove
+     * @return nothing
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public EventInterface removeEvent(UUID id)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot cannot be modified.
+     *
+     * @param tags the new tags in the calendar
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setTags(ArrayList<TagInterface> tags)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot never changes.
+     *
+     * @param listener the listener to register
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addListener(CalendarListener listener)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, as a snapshot never changes.
+     *
+     * @param listener the listener to unregister
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeListener(CalendarListener listener)
+    {
+        throw readOnly();
+    }
+
+    /**
+     * Returns a string representation of this snapshot.
+     *
+     * @return a string representation of this snapshot
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{id: %s, name: %s, description: %s, created: %s, modified: %s, events: %s, tags: %s}",
+                this.id, this.name, this.description, this.created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.modified.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.getEvents(), this.tags);
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("Calendar snapshots are read-only");
+    }
+}
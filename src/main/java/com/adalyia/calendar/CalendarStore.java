@@ -0,0 +1,672 @@
+/**
+ * CalendarStore.java
+ * Purpose: Sharded container of many Calendars, persisted per shard and loaded on demand
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Holds many calendars, such as one per user of a service, and lets many threads use them at once.
+ * <p>
+ * Calendars are spread over a fixed number of shards by their ID. Each shard has its own lock, so
+ * threads using calendars in different shards never wait for each other. A calendar is only used
+ * through {@link #read} and {@link #write}, which hold its shard's lock while the calendar is in
+ * use; the calendars themselves are not thread-safe and should not be kept once read or write
+ * returns.
+ * <p>
+ * A store opened on a directory keeps each shard in a subdirectory, with one {@link CalendarFile}
+ * per calendar. Calendars are loaded the first time they are used, and each shard keeps the
+ * calendars it has loaded in least recently used order. When the estimated size of a shard's
+ * loaded calendars exceeds its part of the memory budget, the least recently used are written
+ * back, if they have been changed, and dropped until it fits again. A directory must always be
+ * opened with the same number of shards. A store without a directory keeps every calendar in
+ * memory.
+ * <p>
+ * Queries over every calendar, such as {@link #getEventsBetween}, are run on each shard in
+ * parallel and the results combined. They take each calendar's shard lock only while that
+ * calendar is queried, so they see each calendar at some point during the query, and return the
+ * calendars' own events, which must not be modified.
+ */
+public class CalendarStore implements Closeable
+{
+    private static final int DEFAULT_SHARDS = 64;
+
+    /**
+     * The estimated memory used by an empty calendar, in bytes
+     */
+    private static final long CALENDAR_BYTES = 4096;
+
+    /**
+     * The estimated memory used by each event of a calendar and its entries in the calendar's
+     * indexes, in bytes
+     */
+    private static final long EVENT_BYTES = 1024;
+
+    private static final String FILE_SUFFIX = ".cal";
+
+    /**
+     * A calendar loaded into memory.
+     */
+    private static final class Loaded
+    {
+        private final Calendar calendar;
+        private long bytes;
+        private boolean dirty;
+
+        private Loaded(Calendar calendar, boolean dirty)
+        {
+            this.calendar = calendar;
+            this.bytes = estimate(calendar);
+            this.dirty = dirty;
+        }
+    }
+
+    /**
+     * One shard of the store, holding the calendars whose IDs hash to it.
+     */
+    private static final class Shard
+    {
+        private final ReentrantLock lock;
+        private final Path directory;
+        private final HashSet<UUID> ids;
+        private final LinkedHashMap<UUID, Loaded> loaded;
+        private long bytes;
+
+        private Shard(Path directory)
+        {
+            this.lock = new ReentrantLock();
+            this.directory = directory;
+            this.ids = new HashSet<>();
+            this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    // Instance variables
+    private final long shardBudget;
+    private final Shard[] shards;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new, empty store keeping every calendar in memory, with the default number of
+     * shards.
+     */
+    public CalendarStore()
+    {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * Constructs a new, empty store keeping every calendar in memory.
+     *
+     * @param shards the number of shards to spread the calendars over
+     */
+    public CalendarStore(int shards)
+    {
+        this.shardBudget = Long.MAX_VALUE;
+        this.shards = new Shard[checkShards(shards)];
+        for (int i = 0; i < shards; i++)
+        {
+            this.shards[i] = new Shard(null);
+        }
+        this.executor = newExecutor(shards);
+    }
+
+    /**
+     * Opens a store persisted in a directory, creating the directory if it does not exist. Only
+     * the names of the calendar files are read; calendars are loaded when first used.
+     *
+     * @param directory the directory holding the store's calendars
+     * @param shards the number of shards to spread the calendars over
+     * @param memoryBudget the estimated memory, in bytes, the loaded calendars may use
+     * @throws IOException if the directory cannot be read, or holds calendars written with a
+     *                     different number of shards
+     */
+    public CalendarStore(Path directory, int shards, long memoryBudget) throws IOException
+    {
+        if (memoryBudget <= 0)
+        {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+
+        this.shardBudget = Math.max(1, memoryBudget / checkShards(shards));
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++)
+        {
+            Shard shard = new Shard(directory.resolve("shard-" + i));
+            Files.createDirectories(shard.directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(shard.directory, "*" + FILE_SUFFIX))
+            {
+                for (Path file : files)
+                {
+                    String name = file.getFileName().toString();
+                    UUID id = UUID.fromString(name.substring(0, name.length() - FILE_SUFFIX.length()));
+                    if (this.indexOf(id) != i)
+                    {
+                        throw new IOException("Calendar " + id + " is in the wrong shard; was the store written with a different number of shards?");
+                    }
+                    shard.ids.add(id);
+                }
+            }
+            this.shards[i] = shard;
+        }
+        this.executor = newExecutor(shards);
+    }
+
+    /**
+     * Returns the number of calendars in the store.
+     *
+     * @return the number of calendars in the store
+     */
+    public int size()
+    {
+        int size = 0;
+        for (Shard shard : this.shards)
+        {
+            shard.lock.lock();
+            try
+            {
+                size += shard.ids.size();
+            }
+            finally
+            {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of calendars currently loaded into memory.
+     *
+     * @return the number of loaded calendars
+     */
+    public int getLoadedCount()
+    {
+        int count = 0;
+        for (Shard shard : this.shards)
+        {
+            shard.lock.lock();
+            try
+            {
+                count += shard.loaded.size();
+            }
+            finally
+            {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the unique IDs of the calendars in the store.
+     *
+     * @return the unique IDs of the calendars in the store
+     */
+    public ArrayList<UUID> getIds()
+    {
+        ArrayList<UUID> ids = new ArrayList<>();
+        for (Shard shard : this.shards)
+        {
+            shard.lock.lock();
+            try
+            {
+                ids.addAll(shard.ids);
+            }
+            finally
+            {
+                shard.lock.unlock();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns whether the store holds the calendar with the given unique ID.
+     *
+     * @param id the unique ID of the calendar
+     * @return whether the store holds the calendar
+     */
+    public boolean contains(UUID id)
+    {
+        Shard shard = this.shards[this.indexOf(id)];
+        shard.lock.lock();
+        try
+        {
+            return shard.ids.contains(id);
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a calendar to the store, replacing any calendar with the same unique ID. The store
+     * takes ownership of the calendar, which should only be used through read and write from
+     * then on.
+     *
+     * @param calendar the calendar to add
+     * @throws IOException if calendars had to be written back to make room and could not be
+     */
+    public void add(Calendar calendar) throws IOException
+    {
+        Shard shard = this.shards[this.indexOf(calendar.getId())];
+        shard.lock.lock();
+        try
+        {
+            Loaded replaced = shard.loaded.remove(calendar.getId());
+            if (replaced != null)
+            {
+                shard.bytes -= replaced.bytes;
+            }
+            Loaded loaded = new Loaded(calendar, true);
+            shard.ids.add(calendar.getId());
+            shard.loaded.put(calendar.getId(), loaded);
+            shard.bytes += loaded.bytes;
+            this.evict(shard);
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a calendar from the store, deleting its file.
+     *
+     * @param id the unique ID of the calendar to remove
+     * @return whether the store held the calendar
+     * @throws IOException if the calendar's file cannot be deleted
+     */
+    public boolean remove(UUID id) throws IOException
+    {
+        Shard shard = this.shards[this.indexOf(id)];
+        shard.lock.lock();
+        try
+        {
+            if (!shard.ids.remove(id))
+            {
+                return false;
+            }
+            Loaded removed = shard.loaded.remove(id);
+            if (removed != null)
+            {
+                shard.bytes -= removed.bytes;
+            }
+            if (shard.directory != null)
+            {
+                Files.deleteIfExists(this.pathOf(shard, id));
+            }
+            return true;
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Reads a calendar while holding its shard's lock, loading it if it is not in memory.
+     *
+     * @param id the unique ID of the calendar
+     * @param reader reads the calendar, which must not be modified or kept
+     * @param <T> the type of the result
+     * @return the result of the reader, or null if the store does not hold the calendar
+     * @throws IOException if the calendar cannot be loaded, or others written back to make room
+     */
+    public <T> T read(UUID id, Function<? super Calendar, T> reader) throws IOException
+    {
+        Shard shard = this.shards[this.indexOf(id)];
+        shard.lock.lock();
+        try
+        {
+            Loaded loaded = this.load(shard, id);
+            return loaded == null ? null : reader.apply(loaded.calendar);
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Modifies a calendar while holding its shard's lock, loading it if it is not in memory. The
+     * calendar is written back when it is dropped from memory or the store is flushed.
+     *
+     * @param id the unique ID of the calendar
+     * @param writer modifies the calendar, which must not be kept
+     * @return whether the store holds the calendar
+     * @throws IOException if the calendar cannot be loaded, or others written back to make room
+     */
+    public boolean write(UUID id, Consumer<? super Calendar> writer) throws IOException
+    {
+        Shard shard = this.shards[this.indexOf(id)];
+        shard.lock.lock();
+        try
+        {
+            Loaded loaded = this.load(shard, id);
+            if (loaded == null)
+            {
+                return false;
+            }
+            loaded.dirty = true;
+            try
+            {
+                writer.accept(loaded.calendar);
+            }
+            finally
+            {
+                long bytes = estimate(loaded.calendar);
+                shard.bytes += bytes - loaded.bytes;
+                loaded.bytes = bytes;
+            }
+            this.evict(shard);
+            return true;
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a query against every calendar in the store, each shard in parallel, and returns
+     * everything the query returned. Calendars not in memory are loaded in turn, and may push
+     * others out of memory.
+     *
+     * @param query queries a calendar, which must not be modified or kept
+     * @param <T> the type of the results
+     * @return the results of the query over every calendar
+     * @throws IOException if a calendar cannot be loaded, or others written back to make room
+     */
+    public <T> ArrayList<T> query(Function<? super Calendar, ? extends Collection<? extends T>> query) throws IOException
+    {
+        ArrayList<T> results = new ArrayList<>();
+        for (ArrayList<Collection<? extends T>> found : this.<Collection<? extends T>>fanOut(query::apply))
+        {
+            for (Collection<? extends T> collection : found)
+            {
+                results.addAll(collection);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the events of every calendar overlapping the half-open range [from, to), ordered
+     * by start time.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     * @throws IOException if a calendar cannot be loaded, or others written back to make room
+     */
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to) throws IOException
+    {
+        ArrayList<Iterator<EventInterface>> sources = new ArrayList<>();
+        int size = 0;
+        for (ArrayList<ArrayList<EventInterface>> found : this.fanOut(calendar -> calendar.getEventsBetween(from, to)))
+        {
+            for (ArrayList<EventInterface> list : found)
+            {
+                if (!list.isEmpty())
+                {
+                    size += list.size();
+                    sources.add(list.iterator());
+                }
+            }
+        }
+
+        ArrayList<EventInterface> events = new ArrayList<>(size);
+        new MergingIterator(sources).forEachRemaining(events::add);
+        return events;
+    }
+
+    /**
+     * Returns the events of every calendar matching a tag query.
+     *
+     * @param query the tag query to match
+     * @return the events matching the query
+     * @throws IOException if a calendar cannot be loaded, or others written back to make room
+     */
+    public ArrayList<EventInterface> getEventsTagged(TagQuery query) throws IOException
+    {
+        return this.query(calendar -> calendar.getEventsTagged(query));
+    }
+
+    /**
+     * Writes back every loaded calendar that has been changed since it was loaded or last
+     * written. Does nothing for a store without a directory.
+     *
+     * @throws IOException if a calendar cannot be written
+     */
+    public void flush() throws IOException
+    {
+        for (Shard shard : this.shards)
+        {
+            shard.lock.lock();
+            try
+            {
+                for (Map.Entry<UUID, Loaded> entry : shard.loaded.entrySet())
+                {
+                    this.save(shard, entry.getKey(), entry.getValue());
+                }
+            }
+            finally
+            {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes back every changed calendar and stops the threads used for queries.
+     *
+     * @throws IOException if a calendar cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            this.flush();
+        }
+        finally
+        {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs a query against every calendar, one task per shard, and returns the results of each
+     * shard's calendars.
+     */
+    private <T> ArrayList<ArrayList<T>> fanOut(Function<? super Calendar, T> query) throws IOException
+    {
+        ArrayList<Future<ArrayList<T>>> futures = new ArrayList<>(this.shards.length);
+        for (Shard shard : this.shards)
+        {
+            futures.add(this.executor.submit(() -> this.queryShard(shard, query)));
+        }
+
+        ArrayList<ArrayList<T>> results = new ArrayList<>(futures.size());
+        try
+        {
+            for (Future<ArrayList<T>> future : futures)
+            {
+                results.add(future.get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while querying the store", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException io)
+            {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime)
+            {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            for (Future<ArrayList<T>> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private <T> ArrayList<T> queryShard(Shard shard, Function<? super Calendar, T> query) throws IOException
+    {
+        ArrayList<UUID> ids;
+        shard.lock.lock();
+        try
+        {
+            ids = new ArrayList<>(shard.ids);
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+
+        ArrayList<T> results = new ArrayList<>(ids.size());
+        for (UUID id : ids)
+        {
+            shard.lock.lock();
+            try
+            {
+                Loaded loaded = this.load(shard, id);
+                if (loaded != null)
+                {
+                    results.add(query.apply(loaded.calendar));
+                }
+            }
+            finally
+            {
+                shard.lock.unlock();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns a loaded calendar, loading it from its file if needed, or null if the shard does
+     * not hold it. Must be called with the shard's lock held.
+     */
+    private Loaded load(Shard shard, UUID id) throws IOException
+    {
+        Loaded loaded = shard.loaded.get(id);
+        if (loaded != null || !shard.ids.contains(id))
+        {
+            return loaded;
+        }
+
+        loaded = new Loaded(CalendarFile.load(this.pathOf(shard, id)), false);
+        shard.loaded.put(id, loaded);
+        shard.bytes += loaded.bytes;
+        this.evict(shard);
+        return loaded;
+    }
+
+    /**
+     * Drops the least recently used calendars of a shard, writing back those that have changed,
+     * until the shard fits its budget. The most recently used calendar is always kept. Must be
+     * called with the shard's lock held.
+     */
+    private void evict(Shard shard) throws IOException
+    {
+        if (shard.directory == null)
+        {
+            return;
+        }
+
+        Iterator<Map.Entry<UUID, Loaded>> eldest = shard.loaded.entrySet().iterator();
+        while (shard.bytes > this.shardBudget && shard.loaded.size() > 1)
+        {
+            Map.Entry<UUID, Loaded> entry = eldest.next();
+            this.save(shard, entry.getKey(), entry.getValue());
+            eldest.remove();
+            shard.bytes -= entry.getValue().bytes;
+        }
+    }
+
+    /**
+     * Writes a loaded calendar back to its file if it has changed. Must be called with the
+     * shard's lock held.
+     */
+    private void save(Shard shard, UUID id, Loaded loaded) throws IOException
+    {
+        if (shard.directory != null && loaded.dirty)
+        {
+            CalendarFile.save(loaded.calendar, this.pathOf(shard, id));
+            loaded.dirty = false;
+        }
+    }
+
+    private Path pathOf(Shard shard, UUID id)
+    {
+        return shard.directory.resolve(id + FILE_SUFFIX);
+    }
+
+    private int indexOf(UUID id)
+    {
+        int hash = id.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % this.shards.length;
+    }
+
+    private static long estimate(Calendar calendar)
+    {
+        return CALENDAR_BYTES + EVENT_BYTES * calendar.size();
+    }
+
+    private static int checkShards(int shards)
+    {
+        if (shards < 1)
+        {
+            throw new IllegalArgumentException("There must be at least one shard");
+        }
+        return shards;
+    }
+
+    private static ExecutorService newExecutor(int shards)
+    {
+        int threads = Math.min(shards, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, task ->
+        {
+            Thread thread = new Thread(task, "calendar-store-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * ChangeFeed.java
+ * Purpose: Versioned log of the changes made to a Calendar, for incremental sync
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Numbers every change made to a calendar with a version that increases by one per change, and
+ * keeps the most recent changes in a bounded in-memory log. A client that has applied every
+ * change up to some version catches up by asking for {@link #changesSince} that version, rather
+ * than reading the whole calendar again, or receives each change as it happens by adding a
+ * {@link ChangeListener}.
+ * <p>
+ * When the changes a client needs have already fallen out of the log, changesSince returns null
+ * and the client must read the whole calendar. It should read {@link #getVersion} before reading
+ * the calendar's events and resume from that version: changes made while it was reading are then
+ * replayed, and replaying is safe, since an added or updated event is applied by its current
+ * state and a removal of an event already gone does nothing.
+ * <p>
+ * Tags have no change notification of their own, so a renamed tag is reported the next time the
+ * calendar's tags are set, by comparing each tag's modified time with the one last seen.
+ * <p>
+ * A feed is thread-safe, and may be attached to a ConcurrentCalendar.
+ */
+public final class ChangeFeed implements CalendarListener, AutoCloseable
+{
+    /**
+     * The number of changes kept when no capacity is given
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    // Instance variables
+    private final CalendarInterface calendar;
+    private final CalendarChange[] log;
+    private final CopyOnWriteArrayList<ChangeListener> listeners;
+    private final HashMap<UUID, LocalDateTime> tags;
+    private long version;
+
+    /**
+     * Constructs a new ChangeFeed keeping the default number of changes, and attaches it to a
+     * calendar.
+     *
+     * @param calendar the calendar to record the changes of
+     */
+    public ChangeFeed(CalendarInterface calendar)
+    {
+        this(calendar, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ChangeFeed and attaches it to a calendar.
+     *
+     * @param calendar the calendar to record the changes of
+     * @param capacity the number of most recent changes to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ChangeFeed(CalendarInterface calendar, int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.calendar = calendar;
+        this.log = new CalendarChange[capacity];
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.tags = new HashMap<>();
+        synchronized (this)
+        {
+            for (TagInterface tag : calendar.getTags())
+            {
+                this.tags.put(tag.getId(), tag.getModified());
+            }
+        }
+        calendar.addListener(this);
+    }
+
+    /**
+     * Returns the calendar this feed records the changes of.
+     *
+     * @return the calendar
+     */
+    public CalendarInterface getCalendar()
+    {
+        return this.calendar;
+    }
+
+    /**
+     * Returns the version of the calendar, which is the version of the latest change, or 0 if
+     * nothing has changed since the feed was attached.
+     *
+     * @return the current version
+     */
+    public synchronized long getVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * Returns the lowest version that changesSince can still answer. Clients at an older version
+     * must read the whole calendar.
+     *
+     * @return the oldest version a client can sync from
+     */
+    public synchronized long getOldestVersion()
+    {
+        return Math.max(0, this.version - this.log.length);
+    }
+
+    /**
+     * Returns the changes made after a version, oldest first.
+     *
+     * @param version the version the client has applied every change up to
+     * @return the changes after the version, or null if some have already been dropped from the log
+     * @throws IllegalArgumentException if the version is negative or later than the current version
+     */
+    public synchronized ArrayList<CalendarChange> changesSince(long version)
+    {
+        if (version < 0 || version > this.version)
+        {
+            throw new IllegalArgumentException("Unknown version: " + version);
+        }
+        if (version < this.getOldestVersion())
+        {
+            return null;
+        }
+
+        ArrayList<CalendarChange> changes = new ArrayList<>((int) (this.version - version));
+        for (long v = version + 1; v <= this.version; v++)
+        {
+            changes.add(this.log[(int) ((v - 1) % this.log.length)]);
+        }
+        return changes;
+    }
+
+    /**
+     * Adds a listener to be notified of each change after it is recorded. Listeners are notified
+     * in version order, while the feed is locked, so they should return quickly.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(ChangeListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by addListener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(ChangeListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Detaches the feed from its calendar. The changes already recorded can still be read.
+     */
+    @Override
+    public void close()
+    {
+        this.calendar.removeListener(this);
+    }
+
+    @Override
+    public synchronized void eventAdded(CalendarInterface calendar, EventInterface event)
+    {
+        this.record(ChangeType.EVENT_ADDED, event.getId(), event, null);
+    }
+
+    @Override
+    public synchronized void eventRemoved(CalendarInterface calendar, EventInterface event)
+    {
+        this.record(ChangeType.EVENT_REMOVED, event.getId(), event, null);
+    }
+
+    @Override
+    public synchronized void eventChanged(CalendarInterface calendar, EventInterface event, EventField field, Object oldValue)
+    {
+        this.record(ChangeType.EVENT_UPDATED, event.getId(), event, field);
+    }
+
+    @Override
+    public synchronized void tagsChanged(CalendarInterface calendar)
+    {
+        HashMap<UUID, LocalDateTime> previous = new HashMap<>(this.tags);
+        this.tags.clear();
+        for (TagInterface tag : calendar.getTags())
+        {
+            boolean known = previous.containsKey(tag.getId());
+            LocalDateTime seen = previous.remove(tag.getId());
+            this.tags.put(tag.getId(), tag.getModified());
+            if (!known)
+            {
+                this.record(ChangeType.TAG_ADDED, tag.getId(), tag, null);
+            }
+            else if (!Objects.equals(seen, tag.getModified()))
+            {
+                this.record(ChangeType.TAG_UPDATED, tag.getId(), tag, null);
+            }
+        }
+        for (Map.Entry<UUID, LocalDateTime> removed : previous.entrySet())
+        {
+            this.record(ChangeType.TAG_REMOVED, removed.getKey(), null, null);
+        }
+    }
+
+    @Override
+    public synchronized void detailsChanged(CalendarInterface calendar)
+    {
+        this.record(ChangeType.DETAILS_UPDATED, calendar.getId(), calendar, null);
+    }
+
+    private void record(ChangeType type, UUID id, Object subject, EventField field)
+    {
+        this.version++;
+        CalendarChange change = new CalendarChange(this.version, System.currentTimeMillis(), type, id, subject, field);
+        this.log[(int) ((this.version - 1) % this.log.length)] = change;
+        for (ChangeListener listener : this.listeners)
+        {
+            listener.changed(change);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * ChangeListener.java
+ * Purpose: Listener notified of each change recorded by a ChangeFeed
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+@FunctionalInterface
+public interface ChangeListener
+{
+    /**
+     * Called after a change has been recorded, in version order.
+     *
+     * @param change the change that was recorded
+     */
+    void changed(CalendarChange change);
+}
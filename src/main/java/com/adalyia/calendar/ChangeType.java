@@ -0,0 +1,18 @@
+/**
+ * ChangeType.java
+ * Purpose: Enumeration of the kinds of change recorded by a ChangeFeed
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public enum ChangeType
+{
+    EVENT_ADDED,
+    EVENT_UPDATED,
+    EVENT_REMOVED,
+    TAG_ADDED,
+    TAG_UPDATED,
+    TAG_REMOVED,
+    DETAILS_UPDATED
+}
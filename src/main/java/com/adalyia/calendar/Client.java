@@ -8,10 +8,12 @@
  * - Add missing methods to Tag object
  * - Add missing methods to Task object
  * - Cleanup toString methods for Calendar, Tag, and Task objects
- * - (Optional) Add save/load functionality to Calendar object
  */
 package com.adalyia.calendar;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Objects;
@@ -25,7 +27,7 @@ public class Client
         Calendar calendar = createCalendarMenu();
         String input = "";
         do {
-            optionsMenu(calendar);
+            calendar = optionsMenu(calendar);
             System.out.print("Would you like to continue? (y/n): ");
             input = scanner.nextLine();
         } while (input.equalsIgnoreCase("y"));
@@ -40,7 +42,7 @@ public class Client
         return new Calendar(name, description);
     }
 
-    public static void optionsMenu(Calendar calendar)
+    public static Calendar optionsMenu(Calendar calendar)
     {
         System.out.println("Options:");
         System.out.println("1. Add a task");
@@ -48,7 +50,9 @@ public class Client
         System.out.println("3. Add a tag");
         System.out.println("4. View tasks/events");
         System.out.println("5. View tags");
-        System.out.println("6. Exit");
+        System.out.println("6. Save calendar");
+        System.out.println("7. Load calendar");
+        System.out.println("8. Exit");
 
         String input = Integer.toString(promptInt("Enter the number of the option you would like to select: "));
 
@@ -74,10 +78,38 @@ public class Client
             case 4 ->
             {
                 // View tasks/events
-                System.out.println(calendar.getEvents());
+                try {
+                    new AgendaRenderer(System.out, AgendaFormat.TEXT, AgendaLayout.DAY).render(calendar);
+                } catch (IOException e) {
+                    System.out.println("Could not display the calendar: " + e.getMessage());
+                }
             }
             case 5 -> System.out.println(calendar.getTags());
             case 6 ->
+            {
+                // Save calendar
+                System.out.print("Enter the file to save the calendar to: ");
+                String file = scanner.nextLine();
+                try {
+                    CalendarFile.save(calendar, Path.of(file));
+                    System.out.println("Calendar saved.");
+                } catch (IOException | InvalidPathException e) {
+                    System.out.println("Could not save the calendar: " + e.getMessage());
+                }
+            }
+            case 7 ->
+            {
+                // Load calendar
+                System.out.print("Enter the file to load the calendar from: ");
+                String file = scanner.nextLine();
+                try {
+                    calendar = CalendarFile.load(Path.of(file));
+                    System.out.println("Loaded calendar " + calendar.getName() + ".");
+                } catch (IOException | InvalidPathException e) {
+                    System.out.println("Could not load the calendar: " + e.getMessage());
+                }
+            }
+            case 8 ->
             {
                 // Exit
                 System.out.println("Goodbye!");
@@ -87,9 +119,10 @@ public class Client
             default ->
             {
                 System.out.println("Invalid input. Please try again.");
-                optionsMenu(calendar);
+                return optionsMenu(calendar);
             }
         }
+        return calendar;
     }
 
     public static Task taskPrompt()
@@ -140,7 +173,8 @@ public class Client
         int day = promptInt("\tEnter the day (whole number): ");
         int hour = promptInt("\tEnter the hour (whole number): ");
         int minute = promptInt("\tEnter the minute (whole number): ");
-        return LocalDateTime.of(year, month, day, hour, minute);
+        // Times are entered in the local time zone, which is only converted in canonical UTC mode
+        return TimeZoneView.systemDefault().toStored(LocalDateTime.of(year, month, day, hour, minute));
     }
 
     public static int promptInt(String prompt)
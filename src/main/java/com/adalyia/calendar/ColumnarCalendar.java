@@ -0,0 +1,1377 @@
+/**
+ * ColumnarCalendar.java
+ * Purpose: Calendar storing its Tasks & Events column by column in primitive arrays
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * A calendar for very large numbers of events, which stores them column by column rather than as
+ * objects. Every event is a row: its ID is held in two long arrays, its times in long arrays as
+ * microseconds since the epoch, its text in string arrays, its kind and completion in a byte
+ * array, and its tags as small ordinals into the calendar's own table of tags. Range scans and
+ * aggregations such as {@link #countEventsBetween} and {@link #getTotalDuration} run down the
+ * start and end columns without touching any object.
+ * <p>
+ * Events are copied in by addEvent and setEvents; the objects passed in are not kept or tracked.
+ * Every method that returns events returns a lightweight view of its row, made afresh for each
+ * call and not kept by the calendar; views of the same event are equal. Views can be modified
+ * like ordinary events, which writes straight to the columns. A view's getTags returns a copy, so
+ * tags must be changed through setTags, and audit logs are not kept. A view finds its row again
+ * by ID if the rows are compacted, and once its event is removed it can only report its ID.
+ * Recurring events are few and keep their own rules, so they are stored as objects and expanded
+ * at query time, as in Calendar.
+ * <p>
+ * Removed rows are only marked as deleted, and are compacted away once they outnumber the live
+ * ones.
+ */
+public class ColumnarCalendar implements CalendarInterface
+{
+    private static final byte TASK = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte DELETED = 4;
+    private static final int[] NO_TAGS = new int[0];
+    private static final int MIN_COMPACTION = 1024;
+
+    // Instance variables
+    private final UUID id;
+    private String name;
+    private String description;
+    private final LocalDateTime created;
+    private LocalDateTime modified;
+    private ArrayList<TagInterface> tags;
+
+    // Columns
+    private long[] idMost;
+    private long[] idLeast;
+    private long[] starts;
+    private long[] ends;
+    private long[] createdTimes;
+    private long[] modifiedTimes;
+    private String[] titles;
+    private String[] descriptions;
+    private String[] locations;
+    private byte[] flags;
+    private int[][] tagOrdinals;
+    private int rows;
+    private int deleted;
+    private int modCount;
+
+    // Indexes
+    private final ArrayList<Tag> tagTable;
+    private final HashMap<UUID, Integer> tagNumbers;
+    private final HashMap<UUID, CompressedBitmap> tagRows;
+    private final HashMap<UUID, Integer> rowsById;
+    private CompressedBitmap liveRows;
+    private final ArrayList<RecurringEvent> recurring;
+    private final TagIndex recurringTags;
+    private final HashMap<UUID, ArrayList<EventListener>> eventListeners;
+    private final EventListener forwarder;
+    private final ArrayList<CalendarListener> listeners;
+
+    /**
+     * Constructs a new, empty ColumnarCalendar.
+     *
+     * @param name the name of the calendar
+     * @param description the description of the calendar
+     */
+    public ColumnarCalendar(String name, String description)
+    {
+        this.id = UUID.randomUUID();
+        this.name = name;
+        this.description = description;
+        this.created = TimeZoneView.now();
+        this.modified = this.created;
+        this.tags = new ArrayList<>();
+        this.allocate(16);
+        this.tagTable = new ArrayList<>();
+        this.tagNumbers = new HashMap<>();
+        this.tagRows = new HashMap<>();
+        this.rowsById = new HashMap<>();
+        this.liveRows = new CompressedBitmap();
+        this.recurring = new ArrayList<>();
+        this.recurringTags = new TagIndex();
+        this.eventListeners = new HashMap<>();
+        this.forwarder = this::recurringEventChanged;
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * Returns the unique ID of the calendar.
+     *
+     * @return the unique ID of the calendar
+     */
+    @Override
+    public UUID getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the name of the calendar.
+     *
+     * @return the name of the calendar
+     */
+    @Override
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Returns the description of the calendar.
+     *
+     * @return the description of the calendar
+     */
+    @Override
+    public String getDescription()
+    {
+        return this.description;
+    }
+
+    /**
+     * Returns the date and time the calendar was created.
+     *
+     * @return the date and time the calendar was created
+     */
+    @Override
+    public LocalDateTime getCreated()
+    {
+        return this.created;
+    }
+
+    /**
+     * Returns the date and time the calendar was last modified.
+     *
+     * @return the date and time the calendar was last modified
+     */
+    @Override
+    public LocalDateTime getModified()
+    {
+        return this.modified;
+    }
+
+    /**
+     * Returns views of the events in the calendar, in the order they were added, followed by the
+     * recurring events. Changes to the list returned do not affect the calendar.
+     *
+     * @return the events in the calendar
+     */
+    @Override
+    public ArrayList<EventInterface> getEvents()
+    {
+        ArrayList<EventInterface> events = new ArrayList<>(this.size());
+        for (int row = 0; row < this.rows; row++)
+        {
+            if ((this.flags[row] & DELETED) == 0)
+            {
+                events.add(this.view(row));
+            }
+        }
+        events.addAll(this.recurring);
+        return events;
+    }
+
+    /**
+     * Returns the view of the event with the given unique ID.
+     *
+     * @param id the unique ID of the event
+     * @return the event with the given ID, or null if there is none in the calendar
+     */
+    @Override
+    public EventInterface getEvent(UUID id)
+    {
+        Integer row = this.rowsById.get(id);
+        if (row != null)
+        {
+            return this.view(row);
+        }
+        for (RecurringEvent series : this.recurring)
+        {
+            if (series.getId().equals(id))
+            {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the tags in the calendar.
+     *
+     * @return the tags in the calendar
+     */
+    @Override
+    public ArrayList<TagInterface> getTags()
+    {
+        return this.tags;
+    }
+
+    /**
+     * Returns the number of events in the calendar.
+     *
+     * @return the number of events in the calendar
+     */
+    public int size()
+    {
+        return this.rows - this.deleted + this.recurring.size();
+    }
+
+    /**
+     * Returns the events overlapping the half-open range [from, to), ordered by start time.
+     * Zero-duration events such as tasks are included when their time lies within the range,
+     * and recurring events contribute one occurrence for each time they repeat within it.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<EventInterface> events = new ArrayList<>();
+        this.getEventIterator(from, to).forEachRemaining(events::add);
+        return events;
+    }
+
+    /**
+     * Returns an iterator over the events overlapping the half-open range [from, to), ordered by
+     * start time. The matching rows are found with one pass over the start and end columns, and
+     * views are only created as the iterator reaches them. The calendar must not be modified
+     * while the iterator is in use.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the events overlapping the range
+     */
+    @Override
+    public Iterator<EventInterface> getEventIterator(LocalDateTime from, LocalDateTime to)
+    {
+        int[] matches = this.scan(bound(from), bound(to));
+        Iterator<EventInterface> rows = new RowIterator(matches);
+        if (this.recurring.isEmpty())
+        {
+            return rows;
+        }
+
+        ArrayList<Iterator<EventInterface>> sources = new ArrayList<>(this.recurring.size() + 1);
+        sources.add(rows);
+        for (RecurringEvent series : this.recurring)
+        {
+            sources.add(series.getOccurrences(from, to));
+        }
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Returns the number of events overlapping the half-open range [from, to), counting every
+     * occurrence of recurring events. No views are created.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the number of events overlapping the range
+     */
+    public int countEventsBetween(LocalDateTime from, LocalDateTime to)
+    {
+        long start = bound(from);
+        long end = bound(to);
+        int count = 0;
+        for (int row = 0; row < this.rows; row++)
+        {
+            if (overlaps(this.starts[row], this.ends[row], start, end) && (this.flags[row] & DELETED) == 0)
+            {
+                count++;
+            }
+        }
+        for (RecurringEvent series : this.recurring)
+        {
+            for (Iterator<EventInterface> occurrences = series.getOccurrences(from, to); occurrences.hasNext(); occurrences.next())
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total time scheduled within the half-open range [from, to): the sum of the
+     * parts of every event and occurrence that lie within the range. Overlapping events are each
+     * counted in full. No views are created.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the total time scheduled within the range
+     */
+    public Duration getTotalDuration(LocalDateTime from, LocalDateTime to)
+    {
+        long start = bound(from);
+        long end = bound(to);
+        long micros = 0;
+        for (int row = 0; row < this.rows; row++)
+        {
+            long rowStart = this.starts[row];
+            long rowEnd = this.ends[row];
+            if (rowStart < end && rowEnd > start && (this.flags[row] & DELETED) == 0)
+            {
+                micros += Math.min(rowEnd, end) - Math.max(rowStart, start);
+            }
+        }
+
+        Duration total = Duration.of(micros, java.time.temporal.ChronoUnit.MICROS);
+        for (RecurringEvent series : this.recurring)
+        {
+            for (Iterator<EventInterface> occurrences = series.getOccurrences(from, to); occurrences.hasNext(); )
+            {
+                EventInterface occurrence = occurrences.next();
+                LocalDateTime clippedStart = occurrence.getStart().isAfter(from) ? occurrence.getStart() : from;
+                LocalDateTime clippedEnd = occurrence.getEnd().isBefore(to) ? occurrence.getEnd() : to;
+                if (clippedEnd.isAfter(clippedStart))
+                {
+                    total = total.plus(Duration.between(clippedStart, clippedEnd));
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the events matching a tag query, in the order they were added, followed by the
+     * matching recurring events.
+     *
+     * @param query the tag query to match
+     * @return the events matching the query
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsTagged(TagQuery query)
+    {
+        CompressedBitmap matches = query.evaluate(new TagQuery.Source()
+        {
+            @Override
+            public CompressedBitmap get(UUID tag)
+            {
+                CompressedBitmap rows = tagRows.get(tag);
+                return rows == null ? new CompressedBitmap() : rows;
+            }
+
+            @Override
+            public CompressedBitmap all()
+            {
+                return liveRows;
+            }
+        });
+
+        ArrayList<EventInterface> events = new ArrayList<>(matches.cardinality());
+        matches.forEach(row -> events.add(this.view(row)));
+        events.addAll(this.recurringTags.query(query));
+        return events;
+    }
+
+    /**
+     * Returns the events whose title, description or location contain every word of the query,
+     * best match first. Each query word matches the words it is a prefix of. The calendar keeps
+     * no text index, so this scans the text columns; matches are ranked by how often and how
+     * prominently the words appear.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events, best match first
+     */
+    @Override
+    public ArrayList<EventInterface> search(String query, int limit)
+    {
+        ArrayList<String> terms = new ArrayList<>();
+        SearchIndex.tokenize(query, terms::add);
+        ArrayList<EventInterface> results = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0)
+        {
+            return results;
+        }
+
+        PriorityQueue<SearchIndex.Hit> best = new PriorityQueue<>((a, b) -> Double.compare(a.score(), b.score()));
+        for (int row = 0; row < this.rows; row++)
+        {
+            if ((this.flags[row] & DELETED) == 0)
+            {
+                int score = score(terms, this.titles[row], this.descriptions[row], this.locations[row]);
+                if (score > 0 && (best.size() < limit || score > best.peek().score()))
+                {
+                    best.add(new SearchIndex.Hit(this.view(row), score));
+                    if (best.size() > limit)
+                    {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        for (RecurringEvent series : this.recurring)
+        {
+            int score = score(terms, series.getTitle(), series.getDescription(), series.getLocation());
+            if (score > 0 && (best.size() < limit || score > best.peek().score()))
+            {
+                best.add(new SearchIndex.Hit(series, score));
+                if (best.size() > limit)
+                {
+                    best.poll();
+                }
+            }
+        }
+
+        while (!best.isEmpty())
+        {
+            results.add(best.poll().event());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * Sets the name of the calendar.
+     *
+     * @param name the new name of the calendar
+     */
+    @Override
+    public void setName(String name)
+    {
+        this.name = name;
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.detailsChanged(this);
+        }
+    }
+
+    /**
+     * Sets the description of the calendar.
+     *
+     * @param description the new description of the calendar
+     */
+    @Override
+    public void setDescription(String description)
+    {
+        this.description = description;
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.detailsChanged(this);
+        }
+    }
+
+    /**
+     * Replaces the events in the calendar with copies of the given events.
+     *
+     * @param events the new events in the calendar
+     * @throws IllegalArgumentException if any event is an occurrence of a recurring event
+     */
+    @Override
+    public void setEvents(ArrayList<EventInterface> events)
+    {
+        for (EventInterface event : events)
+        {
+            EventOccurrence.checkAddable(event);
+        }
+
+        // Views of this calendar are about to lose their rows, so copy them out first
+        ArrayList<EventInterface> incoming = new ArrayList<>(events.size());
+        for (EventInterface event : events)
+        {
+            incoming.add(event instanceof EventView view && view.calendar == this ? view.detach() : event);
+        }
+
+        ArrayList<EventInterface> removed = this.listeners.isEmpty() ? null : this.getEvents();
+        for (RecurringEvent series : this.recurring)
+        {
+            series.removeListener(this.forwarder);
+        }
+        this.recurring.clear();
+        this.recurringTags.clear();
+        this.tagRows.clear();
+        this.rowsById.clear();
+        this.eventListeners.clear();
+        this.liveRows = new CompressedBitmap();
+        this.rows = 0;
+        this.deleted = 0;
+        this.allocate(Math.max(16, incoming.size()));
+        this.modCount++;
+
+        ArrayList<EventInterface> added = new ArrayList<>(incoming.size());
+        for (EventInterface event : incoming)
+        {
+            added.add(this.append(event));
+        }
+        this.modified = TimeZoneView.now();
+        if (removed != null)
+        {
+            for (CalendarListener listener : this.listeners)
+            {
+                for (EventInterface event : removed)
+                {
+                    listener.eventRemoved(this, event);
+                }
+                for (EventInterface event : added)
+                {
+                    listener.eventAdded(this, event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a copy of an event to the calendar. Recurring events are kept as they are. An event
+     * already in the calendar with the same unique ID is replaced.
+     *
+     * @param event the event to add to the calendar
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring event
+     */
+    @Override
+    public void addEvent(EventInterface event)
+    {
+        EventOccurrence.checkAddable(event);
+        EventInterface replaced = this.getEvent(event.getId());
+        if (replaced == event)
+        {
+            return;
+        }
+        if (event instanceof EventView view && view.calendar == this)
+        {
+            // The view reads the row that is about to be removed, so copy it out first
+            event = view.detach();
+        }
+        if (replaced != null)
+        {
+            this.removeEvent(event.getId());
+        }
+
+        EventInterface added = this.append(event);
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.eventAdded(this, added);
+        }
+    }
+
+    /**
+     * Removes an event from the calendar, found by its unique ID.
+     *
+     * @param event the event to remove from the calendar
+     */
+    @Override
+    public void removeEvent(EventInterface event)
+    {
+        this.removeEvent(event.getId());
+    }
+
+    /**
+     * Removes the event with the given unique ID from the calendar. Its view can only report
+     * its ID after this.
+     *
+     * @param id the unique ID of the event to remove
+     * @return the event removed, or null if there was none in the calendar
+     */
+    @Override
+    public EventInterface removeEvent(UUID id)
+    {
+        EventInterface removed = this.remove(id);
+        if (removed != null)
+        {
+            this.modified = TimeZoneView.now();
+            for (CalendarListener listener : this.listeners)
+            {
+                listener.eventRemoved(this, removed);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Sets the tags in the calendar.
+     *
+     * @param tags the new tags in the calendar
+     */
+    @Override
+    public void setTags(ArrayList<TagInterface> tags)
+    {
+        this.tags = tags;
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.tagsChanged(this);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified whenever the calendar or one of its events is modified.
+     *
+     * @param listener the listener to register
+     */
+    @Override
+    public void addListener(CalendarListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addListener.
+     *
+     * @param listener the listener to unregister
+     */
+    @Override
+    public void removeListener(CalendarListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns a string representation of this calendar.
+     *
+     * @return a string representation of this calendar
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{id: %s, name: %s, description: %s, created: %s, modified: %s, events: %s, tags: %s}",
+                this.id, this.name, this.description, this.created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.modified.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.getEvents(), this.tags);
+    }
+
+    /**
+     * Copies an event into a new row, or keeps a recurring event as it is, and returns the event
+     * as it is now held by the calendar. Any event with the same ID is dropped first.
+     */
+    private EventInterface append(EventInterface event)
+    {
+        if (event instanceof RecurringEvent series)
+        {
+            this.remove(series.getId());
+            this.recurring.add(series);
+            this.recurringTags.add(series);
+            series.addListener(this.forwarder);
+            this.modCount++;
+            return series;
+        }
+
+        // Encode the times first, so an event out of range changes nothing
+        long start = encode(event.getStart());
+        long end = encode(event.getEnd());
+        long created = encode(event.getCreated());
+        long modified = encode(event.getModified());
+        this.remove(event.getId());
+        if (this.rows == this.starts.length)
+        {
+            this.allocate(this.rows * 2);
+        }
+
+        int row = this.rows++;
+        UUID eventId = event.getId();
+        this.idMost[row] = eventId.getMostSignificantBits();
+        this.idLeast[row] = eventId.getLeastSignificantBits();
+        this.starts[row] = start;
+        this.ends[row] = end;
+        this.createdTimes[row] = created;
+        this.modifiedTimes[row] = modified;
+        this.titles[row] = event.getTitle();
+        this.descriptions[row] = event.getDescription();
+        this.locations[row] = event.getLocation();
+        this.flags[row] = event instanceof TaskInterface task ? (byte) (TASK | (task.isCompleted() ? COMPLETED : 0)) : 0;
+        this.fileTags(row, event.getTags());
+        this.liveRows.add(row);
+        this.rowsById.put(eventId, row);
+        this.modCount++;
+        return this.view(row);
+    }
+
+    /**
+     * Resizes every column, keeping the rows in use, or replaces them with empty columns when no
+     * rows are in use.
+     */
+    private void allocate(int capacity)
+    {
+        if (this.rows == 0)
+        {
+            this.idMost = null;
+            this.idLeast = null;
+            this.starts = null;
+            this.ends = null;
+            this.createdTimes = null;
+            this.modifiedTimes = null;
+            this.titles = null;
+            this.descriptions = null;
+            this.locations = null;
+            this.flags = null;
+            this.tagOrdinals = null;
+        }
+        this.idMost = this.idMost == null ? new long[capacity] : Arrays.copyOf(this.idMost, capacity);
+        this.idLeast = this.idLeast == null ? new long[capacity] : Arrays.copyOf(this.idLeast, capacity);
+        this.starts = this.starts == null ? new long[capacity] : Arrays.copyOf(this.starts, capacity);
+        this.ends = this.ends == null ? new long[capacity] : Arrays.copyOf(this.ends, capacity);
+        this.createdTimes = this.createdTimes == null ? new long[capacity] : Arrays.copyOf(this.createdTimes, capacity);
+        this.modifiedTimes = this.modifiedTimes == null ? new long[capacity] : Arrays.copyOf(this.modifiedTimes, capacity);
+        this.titles = this.titles == null ? new String[capacity] : Arrays.copyOf(this.titles, capacity);
+        this.descriptions = this.descriptions == null ? new String[capacity] : Arrays.copyOf(this.descriptions, capacity);
+        this.locations = this.locations == null ? new String[capacity] : Arrays.copyOf(this.locations, capacity);
+        this.flags = this.flags == null ? new byte[capacity] : Arrays.copyOf(this.flags, capacity);
+        this.tagOrdinals = this.tagOrdinals == null ? new int[capacity][] : Arrays.copyOf(this.tagOrdinals, capacity);
+    }
+
+    /**
+     * Moves the live rows down over the deleted ones. Views find their new rows by ID.
+     */
+    private void compact()
+    {
+        int live = 0;
+        for (int row = 0; row < this.rows; row++)
+        {
+            if ((this.flags[row] & DELETED) != 0)
+            {
+                continue;
+            }
+
+            this.idMost[live] = this.idMost[row];
+            this.idLeast[live] = this.idLeast[row];
+            this.starts[live] = this.starts[row];
+            this.ends[live] = this.ends[row];
+            this.createdTimes[live] = this.createdTimes[row];
+            this.modifiedTimes[live] = this.modifiedTimes[row];
+            this.titles[live] = this.titles[row];
+            this.descriptions[live] = this.descriptions[row];
+            this.locations[live] = this.locations[row];
+            this.flags[live] = this.flags[row];
+            this.tagOrdinals[live] = this.tagOrdinals[row];
+            live++;
+        }
+        Arrays.fill(this.titles, live, this.rows, null);
+        Arrays.fill(this.descriptions, live, this.rows, null);
+        Arrays.fill(this.locations, live, this.rows, null);
+        Arrays.fill(this.tagOrdinals, live, this.rows, null);
+        this.rows = live;
+        this.deleted = 0;
+
+        this.tagRows.clear();
+        this.liveRows = new CompressedBitmap();
+        for (int row = 0; row < live; row++)
+        {
+            this.liveRows.add(row);
+            this.rowsById.put(new UUID(this.idMost[row], this.idLeast[row]), row);
+            for (int ordinal : this.tagOrdinals[row])
+            {
+                this.tagRows.computeIfAbsent(this.tagTable.get(ordinal).getId(), key -> new CompressedBitmap()).add(row);
+            }
+        }
+    }
+
+    /**
+     * Returns the rows overlapping the range, ordered by start time.
+     */
+    private int[] scan(long from, long to)
+    {
+        int[] matches = new int[16];
+        int count = 0;
+        for (int row = 0; row < this.rows; row++)
+        {
+            if (overlaps(this.starts[row], this.ends[row], from, to) && (this.flags[row] & DELETED) == 0)
+            {
+                if (count == matches.length)
+                {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+
+        matches = Arrays.copyOf(matches, count);
+        this.sortByStart(matches, new int[count], 0, count);
+        return matches;
+    }
+
+    /**
+     * Sorts rows by start time with a stable merge sort, so rows starting together keep the
+     * order they were added in.
+     */
+    private void sortByStart(int[] rows, int[] buffer, int from, int to)
+    {
+        if (to - from < 2)
+        {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        this.sortByStart(rows, buffer, from, middle);
+        this.sortByStart(rows, buffer, middle, to);
+        if (this.starts[rows[middle - 1]] <= this.starts[rows[middle]])
+        {
+            return;
+        }
+
+        System.arraycopy(rows, from, buffer, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++)
+        {
+            if (right == to || (left < middle && this.starts[buffer[left]] <= this.starts[buffer[right]]))
+            {
+                rows[i] = buffer[left++];
+            }
+            else
+            {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Removes the event with the given ID, marking its row as deleted, and returns it.
+     */
+    private EventInterface remove(UUID eventId)
+    {
+        Integer row = this.rowsById.remove(eventId);
+        if (row == null)
+        {
+            for (int i = 0; i < this.recurring.size(); i++)
+            {
+                RecurringEvent series = this.recurring.get(i);
+                if (series.getId().equals(eventId))
+                {
+                    this.recurring.remove(i);
+                    this.recurringTags.remove(series);
+                    series.removeListener(this.forwarder);
+                    this.modCount++;
+                    return series;
+                }
+            }
+            return null;
+        }
+
+        EventView removed = this.view(row);
+        this.unfileTags(row);
+        this.flags[row] |= DELETED;
+        this.liveRows.remove(row);
+        this.eventListeners.remove(eventId);
+        this.deleted++;
+        this.modCount++;
+        if (this.deleted > MIN_COMPACTION && this.deleted > this.rows - this.deleted)
+        {
+            this.compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a new view of a row.
+     */
+    private EventView view(int row)
+    {
+        return (this.flags[row] & TASK) != 0 ? new TaskView(this, row) : new EventView(this, row);
+    }
+
+    private void fileTags(int row, List<Tag> eventTags)
+    {
+        if (eventTags.isEmpty())
+        {
+            this.tagOrdinals[row] = NO_TAGS;
+            return;
+        }
+
+        int[] ordinals = new int[eventTags.size()];
+        for (int i = 0; i < ordinals.length; i++)
+        {
+            Tag tag = eventTags.get(i);
+            Integer ordinal = this.tagNumbers.get(tag.getId());
+            if (ordinal == null)
+            {
+                ordinal = this.tagTable.size();
+                this.tagTable.add(tag);
+                this.tagNumbers.put(tag.getId(), ordinal);
+            }
+            ordinals[i] = ordinal;
+            this.tagRows.computeIfAbsent(tag.getId(), key -> new CompressedBitmap()).add(row);
+        }
+        this.tagOrdinals[row] = ordinals;
+    }
+
+    private void unfileTags(int row)
+    {
+        for (int ordinal : this.tagOrdinals[row])
+        {
+            UUID tagId = this.tagTable.get(ordinal).getId();
+            CompressedBitmap tagged = this.tagRows.get(tagId);
+            if (tagged != null)
+            {
+                tagged.remove(row);
+                if (tagged.isEmpty())
+                {
+                    this.tagRows.remove(tagId);
+                }
+            }
+        }
+        this.tagOrdinals[row] = NO_TAGS;
+    }
+
+    /**
+     * Notifies the listeners of a view's event and of the calendar that a field has changed.
+     */
+    private void fireChanged(EventView view, EventField field, Object oldValue)
+    {
+        ArrayList<EventListener> registered = this.eventListeners.get(view.getId());
+        if (registered != null)
+        {
+            for (int i = 0; i < registered.size(); i++)
+            {
+                registered.get(i).eventChanged(view, field, oldValue);
+            }
+        }
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.eventChanged(this, view, field, oldValue);
+        }
+    }
+
+    /**
+     * Keeps the tag index of the recurring events in sync and passes their changes on to the
+     * calendar's listeners.
+     */
+    private void recurringEventChanged(EventInterface event, EventField field, Object oldValue)
+    {
+        if (field == EventField.TAGS)
+        {
+            this.recurringTags.update(event);
+        }
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.eventChanged(this, event, field, oldValue);
+        }
+    }
+
+    private static int score(ArrayList<String> terms, String title, String description, String location)
+    {
+        int score = 0;
+        for (String term : terms)
+        {
+            int termScore = 3 * count(term, title) + count(term, description) + 2 * count(term, location);
+            if (termScore == 0)
+            {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    private static int count(String term, String text)
+    {
+        int[] count = {0};
+        SearchIndex.tokenize(text, word ->
+        {
+            if (word.startsWith(term))
+            {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private static boolean overlaps(long start, long end, long from, long to)
+    {
+        return start < to && (end > from || (start == end && start >= from));
+    }
+
+    /**
+     * Encodes a time as microseconds since the epoch, treating it as UTC.
+     *
+     * @throws TimeBoundsException if the time is too far from the epoch to be held in microseconds
+     */
+    private static long encode(LocalDateTime time)
+    {
+        try
+        {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000L), time.getNano() / 1000);
+        }
+        catch (ArithmeticException e)
+        {
+            throw new TimeBoundsException("Time is out of range: " + time);
+        }
+    }
+
+    /**
+     * Encodes the bound of a range, clamping times too far from the epoch to the first or last
+     * microsecond the columns can hold.
+     */
+    private static long bound(LocalDateTime time)
+    {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds > Long.MAX_VALUE / 1_000_000L - 1)
+        {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < Long.MIN_VALUE / 1_000_000L + 1)
+        {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000L + time.getNano() / 1000;
+    }
+
+    private static LocalDateTime decode(long micros)
+    {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Creates views of a sorted set of rows as it is iterated.
+     */
+    private final class RowIterator implements Iterator<EventInterface>
+    {
+        private final int[] matches;
+        private final int expectedModCount;
+        private int position;
+
+        private RowIterator(int[] matches)
+        {
+            this.matches = matches;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.position < this.matches.length;
+        }
+
+        @Override
+        public EventInterface next()
+        {
+            if (this.position >= this.matches.length)
+            {
+                throw new NoSuchElementException();
+            }
+            if (modCount != this.expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            return view(this.matches[this.position++]);
+        }
+    }
+
+    /**
+     * A view of one row of a ColumnarCalendar as an event. Reads and writes go straight to the
+     * calendar's columns.
+     */
+    static class EventView implements EventInterface
+    {
+        // Instance variables
+        private final ColumnarCalendar calendar;
+        private final long idMost;
+        private final long idLeast;
+        private int row;
+
+        private EventView(ColumnarCalendar calendar, int row)
+        {
+            this.calendar = calendar;
+            this.row = row;
+            this.idMost = calendar.idMost[row];
+            this.idLeast = calendar.idLeast[row];
+        }
+
+        /**
+         * Returns the row of the event, failing if it has been removed from the calendar. The row
+         * is checked against the ID columns, and looked up again if the rows have been compacted
+         * or replaced since the view was made.
+         */
+        int row()
+        {
+            ColumnarCalendar columns = this.calendar;
+            int current = this.row;
+            if (current < columns.rows && columns.idMost[current] == this.idMost && columns.idLeast[current] == this.idLeast
+                    && (columns.flags[current] & DELETED) == 0)
+            {
+                return current;
+            }
+
+            Integer found = columns.rowsById.get(this.getId());
+            if (found == null)
+            {
+                throw new IllegalStateException("The event has been removed from the calendar");
+            }
+            this.row = found;
+            return this.row;
+        }
+
+        @Override
+        public UUID getId()
+        {
+            return new UUID(this.idMost, this.idLeast);
+        }
+
+        @Override
+        public String getTitle()
+        {
+            return this.calendar.titles[this.row()];
+        }
+
+        @Override
+        public String getDescription()
+        {
+            return this.calendar.descriptions[this.row()];
+        }
+
+        @Override
+        public String getLocation()
+        {
+            return this.calendar.locations[this.row()];
+        }
+
+        @Override
+        public LocalDateTime getStart()
+        {
+            return decode(this.calendar.starts[this.row()]);
+        }
+
+        @Override
+        public LocalDateTime getEnd()
+        {
+            return decode(this.calendar.ends[this.row()]);
+        }
+
+        @Override
+        public LocalDateTime getCreated()
+        {
+            return decode(this.calendar.createdTimes[this.row()]);
+        }
+
+        @Override
+        public LocalDateTime getModified()
+        {
+            return decode(this.calendar.modifiedTimes[this.row()]);
+        }
+
+        @Override
+        public Duration getDuration()
+        {
+            int current = this.row();
+            return Duration.of(this.calendar.ends[current] - this.calendar.starts[current], java.time.temporal.ChronoUnit.MICROS);
+        }
+
+        @Override
+        public Duration getReminder()
+        {
+            return Duration.between(TimeZoneView.now(), this.getStart());
+        }
+
+        /**
+         * Returns a copy of the tags for the event. Tags are changed with setTags.
+         *
+         * @return a copy of the tags for the event
+         */
+        @Override
+        public ArrayList<Tag> getTags()
+        {
+            int[] ordinals = this.calendar.tagOrdinals[this.row()];
+            ArrayList<Tag> eventTags = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals)
+            {
+                eventTags.add(this.calendar.tagTable.get(ordinal));
+            }
+            return eventTags;
+        }
+
+        /**
+         * Returns an empty list, as the columnar calendar does not keep audit logs.
+         *
+         * @return an empty list
+         */
+        @Override
+        public ArrayList<String> getAuditLog()
+        {
+            return new ArrayList<>();
+        }
+
+        /**
+         * Returns an empty list, as the columnar calendar does not keep audit logs.
+         *
+         * @return an empty list
+         */
+        @Override
+        public List<AuditEntry> getAuditEntries()
+        {
+            return List.of();
+        }
+
+        @Override
+        public void setTitle(String title)
+        {
+            int current = this.row();
+            String oldTitle = this.calendar.titles[current];
+            this.calendar.titles[current] = title;
+            this.touch(current, EventField.TITLE, oldTitle);
+        }
+
+        @Override
+        public void setDescription(String description)
+        {
+            int current = this.row();
+            String oldDescription = this.calendar.descriptions[current];
+            this.calendar.descriptions[current] = description;
+            this.touch(current, EventField.DESCRIPTION, oldDescription);
+        }
+
+        @Override
+        public void setLocation(String location)
+        {
+            int current = this.row();
+            String oldLocation = this.calendar.locations[current];
+            this.calendar.locations[current] = location;
+            this.touch(current, EventField.LOCATION, oldLocation);
+        }
+
+        @Override
+        public void setStart(LocalDateTime start)
+        {
+            int current = this.row();
+            long encoded = encode(start);
+            boolean task = (this.calendar.flags[current] & TASK) != 0;
+            if (!task && encoded > this.calendar.ends[current])
+            {
+                throw new TimeBoundsException("Start time cannot be after end time");
+            }
+
+            // Tasks have no duration, so their end moves with their start
+            LocalDateTime oldStart = decode(this.calendar.starts[current]);
+            this.calendar.starts[current] = encoded;
+            if (task)
+            {
+                this.calendar.ends[current] = encoded;
+            }
+            this.touch(current, EventField.START, oldStart);
+        }
+
+        @Override
+        public void setEnd(LocalDateTime end)
+        {
+            int current = this.row();
+            if ((this.calendar.flags[current] & TASK) != 0)
+            {
+                this.setStart(end);
+                return;
+            }
+            long encoded = encode(end);
+            if (encoded < this.calendar.starts[current])
+            {
+                throw new TimeBoundsException("End time cannot be before start time");
+            }
+
+            LocalDateTime oldEnd = decode(this.calendar.ends[current]);
+            this.calendar.ends[current] = encoded;
+            this.touch(current, EventField.END, oldEnd);
+        }
+
+        @Override
+        public void setTags(ArrayList<Tag> tags)
+        {
+            int current = this.row();
+            ArrayList<Tag> oldTags = this.getTags();
+            this.calendar.unfileTags(current);
+            this.calendar.fileTags(current, tags);
+            this.touch(current, EventField.TAGS, oldTags);
+        }
+
+        @Override
+        public void addListener(EventListener listener)
+        {
+            this.calendar.eventListeners.computeIfAbsent(this.getId(), key -> new ArrayList<>()).add(listener);
+        }
+
+        @Override
+        public void removeListener(EventListener listener)
+        {
+            UUID eventId = this.getId();
+            ArrayList<EventListener> registered = this.calendar.eventListeners.get(eventId);
+            if (registered != null && registered.remove(listener) && registered.isEmpty())
+            {
+                this.calendar.eventListeners.remove(eventId);
+            }
+        }
+
+        /**
+         * Returns a standalone copy of the event, not backed by the calendar.
+         */
+        EventInterface detach()
+        {
+            int current = this.row();
+            ColumnarCalendar columns = this.calendar;
+            Event copy = (columns.flags[current] & TASK) != 0
+                    ? new Task(this.getId(), columns.titles[current], columns.descriptions[current], columns.locations[current], this.getStart(), this.getCreated(), this.getModified(), (columns.flags[current] & COMPLETED) != 0)
+                    : new Event(this.getId(), columns.titles[current], columns.descriptions[current], columns.locations[current], this.getStart(), this.getEnd(), this.getCreated(), this.getModified());
+            copy.getTags().addAll(this.getTags());
+            return copy;
+        }
+
+        /**
+         * Records the modification of a row and notifies the listeners.
+         */
+        void touch(int current, EventField field, Object oldValue)
+        {
+            this.calendar.modifiedTimes[current] = encode(TimeZoneView.now());
+            this.calendar.fireChanged(this, field, oldValue);
+        }
+
+        /**
+         * Two views are equal when they show the same event of the same calendar.
+         *
+         * @param o the object to compare to this view
+         * @return whether the object is a view of the same event
+         */
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof EventView view && view.calendar == this.calendar && view.idMost == this.idMost && view.idLeast == this.idLeast;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode(this.calendar) + Long.hashCode(this.idMost ^ this.idLeast);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("{id: %s, title: %s, start: %s, end: %s}", this.getId(), this.getTitle(), this.getStart(), this.getEnd());
+        }
+    }
+
+    /**
+     * A view of a task row of a ColumnarCalendar.
+     */
+    static final class TaskView extends EventView implements TaskInterface
+    {
+        private TaskView(ColumnarCalendar calendar, int row)
+        {
+            super(calendar, row);
+        }
+
+        @Override
+        public boolean isCompleted()
+        {
+            return (super.calendar.flags[this.row()] & COMPLETED) != 0;
+        }
+
+        @Override
+        public void setCompleted(boolean completed)
+        {
+            int current = this.row();
+            boolean oldCompleted = (super.calendar.flags[current] & COMPLETED) != 0;
+            super.calendar.flags[current] = (byte) (completed ? super.calendar.flags[current] | COMPLETED : super.calendar.flags[current] & ~COMPLETED);
+            this.touch(current, EventField.COMPLETED, oldCompleted);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/**
+ * CompressedBitmap.java
+ * Purpose: Compressed set of non-negative integers used by the Calendar tag index
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative ints in the style of a Roaring bitmap. The values are split into chunks
+ * of 65536 by their high 16 bits, and each chunk is stored as a sorted array of its low 16 bits
+ * while it holds at most 4096 values, or as a plain 8KB bitmap once it holds more. Sparse sets
+ * therefore cost two bytes per value and dense sets one bit per value, and intersections, unions
+ * and differences work a chunk at a time, a word at a time for dense chunks.
+ */
+class CompressedBitmap
+{
+    /**
+     * The number of values above which a chunk is stored as a bitmap rather than an array
+     */
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    // Instance variables
+    private char[] keys;
+    private Object[] chunks;
+    private int[] cardinalities;
+    private int size;
+
+    /**
+     * Constructs a new, empty bitmap.
+     */
+    CompressedBitmap()
+    {
+        this.keys = new char[4];
+        this.chunks = new Object[4];
+        this.cardinalities = new int[4];
+    }
+
+    /**
+     * Returns whether the bitmap contains the given value.
+     *
+     * @param value the value to look for
+     * @return whether the bitmap contains the value
+     */
+    boolean contains(int value)
+    {
+        int position = this.find((char) (value >>> 16));
+        if (position < 0)
+        {
+            return false;
+        }
+
+        char low = (char) value;
+        Object chunk = this.chunks[position];
+        if (chunk instanceof long[] words)
+        {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, this.cardinalities[position], low) >= 0;
+    }
+
+    /**
+     * Adds a value to the bitmap.
+     *
+     * @param value the value to add, which must not be negative
+     */
+    void add(int value)
+    {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int position = this.find(key);
+        if (position < 0)
+        {
+            position = -position - 1;
+            this.insertChunk(position, key, new char[4], 0);
+        }
+
+        int cardinality = this.cardinalities[position];
+        Object chunk = this.chunks[position];
+        if (chunk instanceof long[] words)
+        {
+            if ((words[low >>> 6] & (1L << low)) == 0)
+            {
+                words[low >>> 6] |= 1L << low;
+                this.cardinalities[position]++;
+            }
+            return;
+        }
+
+        char[] values = (char[]) chunk;
+        int index = Arrays.binarySearch(values, 0, cardinality, low);
+        if (index >= 0)
+        {
+            return;
+        }
+        index = -index - 1;
+
+        if (cardinality == ARRAY_LIMIT)
+        {
+            long[] words = toWords(values, cardinality);
+            words[low >>> 6] |= 1L << low;
+            this.chunks[position] = words;
+        }
+        else
+        {
+            if (cardinality == values.length)
+            {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+                this.chunks[position] = values;
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+        }
+        this.cardinalities[position]++;
+    }
+
+    /**
+     * Removes a value from the bitmap.
+     *
+     * @param value the value to remove
+     */
+    void remove(int value)
+    {
+        int position = this.find((char) (value >>> 16));
+        if (position < 0)
+        {
+            return;
+        }
+
+        char low = (char) value;
+        int cardinality = this.cardinalities[position];
+        Object chunk = this.chunks[position];
+        if (chunk instanceof long[] words)
+        {
+            if ((words[low >>> 6] & (1L << low)) == 0)
+            {
+                return;
+            }
+            words[low >>> 6] &= ~(1L << low);
+            if (--cardinality == ARRAY_LIMIT)
+            {
+                this.chunks[position] = toValues(words, cardinality);
+            }
+        }
+        else
+        {
+            char[] values = (char[]) chunk;
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index < 0)
+            {
+                return;
+            }
+            System.arraycopy(values, index + 1, values, index, --cardinality - index);
+        }
+
+        if (cardinality == 0)
+        {
+            this.removeChunk(position);
+        }
+        else
+        {
+            this.cardinalities[position] = cardinality;
+        }
+    }
+
+    /**
+     * Returns the number of values in the bitmap.
+     *
+     * @return the number of values in the bitmap
+     */
+    int cardinality()
+    {
+        int cardinality = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            cardinality += this.cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns whether the bitmap is empty.
+     *
+     * @return whether the bitmap is empty
+     */
+    boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns a new bitmap holding the values in both this bitmap and the other.
+     *
+     * @param other the bitmap to intersect with
+     * @return the intersection of the two bitmaps
+     */
+    CompressedBitmap and(CompressedBitmap other)
+    {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < other.size)
+        {
+            if (this.keys[i] < other.keys[j])
+            {
+                i++;
+            }
+            else if (this.keys[i] > other.keys[j])
+            {
+                j++;
+            }
+            else
+            {
+                long[] words = this.words(i);
+                long[] others = other.words(j);
+                for (int w = 0; w < WORDS; w++)
+                {
+                    words[w] &= others[w];
+                }
+                result.append(this.keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values in either this bitmap or the other.
+     *
+     * @param other the bitmap to unite with
+     * @return the union of the two bitmaps
+     */
+    CompressedBitmap or(CompressedBitmap other)
+    {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size || j < other.size)
+        {
+            if (j == other.size || (i < this.size && this.keys[i] < other.keys[j]))
+            {
+                result.append(this.keys[i], this.words(i++));
+            }
+            else if (i == this.size || this.keys[i] > other.keys[j])
+            {
+                result.append(other.keys[j], other.words(j++));
+            }
+            else
+            {
+                long[] words = this.words(i);
+                long[] others = other.words(j);
+                for (int w = 0; w < WORDS; w++)
+                {
+                    words[w] |= others[w];
+                }
+                result.append(this.keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values in this bitmap but not in the other.
+     *
+     * @param other the bitmap whose values are excluded
+     * @return the difference of the two bitmaps
+     */
+    CompressedBitmap andNot(CompressedBitmap other)
+    {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            while (j < other.size && other.keys[j] < this.keys[i])
+            {
+                j++;
+            }
+
+            long[] words = this.words(i);
+            if (j < other.size && other.keys[j] == this.keys[i])
+            {
+                long[] others = other.words(j);
+                for (int w = 0; w < WORDS; w++)
+                {
+                    words[w] &= ~others[w];
+                }
+            }
+            result.append(this.keys[i], words);
+        }
+        return result;
+    }
+
+    /**
+     * Passes every value in the bitmap to the consumer, in ascending order.
+     *
+     * @param consumer the consumer to pass the values to
+     */
+    void forEach(IntConsumer consumer)
+    {
+        for (int i = 0; i < this.size; i++)
+        {
+            int high = this.keys[i] << 16;
+            Object chunk = this.chunks[i];
+            if (chunk instanceof long[] words)
+            {
+                for (int w = 0; w < WORDS; w++)
+                {
+                    for (long word = words[w]; word != 0; word &= word - 1)
+                    {
+                        consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    }
+                }
+            }
+            else
+            {
+                char[] values = (char[]) chunk;
+                for (int v = 0; v < this.cardinalities[i]; v++)
+                {
+                    consumer.accept(high | values[v]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the chunk with the given key, or (-(insertion point) - 1).
+     */
+    private int find(char key)
+    {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /**
+     * Returns a copy of the given chunk as a bitmap, whatever its representation.
+     */
+    private long[] words(int position)
+    {
+        Object chunk = this.chunks[position];
+        return chunk instanceof long[] words ? words.clone() : toWords((char[]) chunk, this.cardinalities[position]);
+    }
+
+    /**
+     * Appends the chunk held in the given words after the existing chunks, choosing its
+     * representation by cardinality and dropping it if it is empty.
+     */
+    private void append(char key, long[] words)
+    {
+        int cardinality = 0;
+        for (long word : words)
+        {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality > 0)
+        {
+            this.insertChunk(this.size, key, cardinality > ARRAY_LIMIT ? words : toValues(words, cardinality), cardinality);
+        }
+    }
+
+    private void insertChunk(int position, char key, Object chunk, int cardinality)
+    {
+        if (this.size == this.keys.length)
+        {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.chunks = Arrays.copyOf(this.chunks, this.size * 2);
+            this.cardinalities = Arrays.copyOf(this.cardinalities, this.size * 2);
+        }
+        System.arraycopy(this.keys, position, this.keys, position + 1, this.size - position);
+        System.arraycopy(this.chunks, position, this.chunks, position + 1, this.size - position);
+        System.arraycopy(this.cardinalities, position, this.cardinalities, position + 1, this.size - position);
+        this.keys[position] = key;
+        this.chunks[position] = chunk;
+        this.cardinalities[position] = cardinality;
+        this.size++;
+    }
+
+    private void removeChunk(int position)
+    {
+        this.size--;
+        System.arraycopy(this.keys, position + 1, this.keys, position, this.size - position);
+        System.arraycopy(this.chunks, position + 1, this.chunks, position, this.size - position);
+        System.arraycopy(this.cardinalities, position + 1, this.cardinalities, position, this.size - position);
+        this.chunks[this.size] = null;
+    }
+
+    private static long[] toWords(char[] values, int cardinality)
+    {
+        long[] words = new long[WORDS];
+        for (int i = 0; i < cardinality; i++)
+        {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static char[] toValues(long[] words, int cardinality)
+    {
+        char[] values = new char[cardinality];
+        int index = 0;
+        for (int w = 0; w < WORDS; w++)
+        {
+            for (long word = words[w]; word != 0; word &= word - 1)
+            {
+                values[index++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+}
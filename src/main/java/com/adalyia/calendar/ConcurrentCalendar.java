@@ -0,0 +1,740 @@
+/**
+ * ConcurrentCalendar.java
+ * Purpose: Thread-safe Calendar shared between many threads
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A calendar that can be read and modified by many threads at once.
+ * <p>
+ * Events are spread over a fixed number of stripes by their ID. Each stripe is an ordinary
+ * Calendar, with its own indexes, guarded by its own StampedLock, so writers touching different
+ * stripes never wait for each other and readers never wait for anything but a writer on the
+ * stripe they are reading. Queries visit the stripes one at a time and merge the results.
+ * <p>
+ * Changes spanning several stripes, made by setEvents and by committing a {@link #batch()}, also
+ * hold a lock that queries over every stripe check, so such queries see all of a spanning change
+ * or none of it. Queries read that lock optimistically, without writing to it, and only take it
+ * and run again when a spanning change was made while they ran. Changes to a single stripe never
+ * wait on that lock.
+ * <p>
+ * Everything handed out is a snapshot: getEvents, getTags and the query methods return lists the
+ * caller owns, and getEventIterator iterates over a copy, so iterating never throws
+ * ConcurrentModificationException. The list returned by getEvents is rebuilt only after the
+ * events have changed. The name, description and modified time are volatile and read without
+ * locking.
+ * <p>
+ * Events themselves are not thread-safe. Once an event has been added, it should only be modified
+ * through {@link #updateEvent(EventInterface, Consumer)}, which holds the lock of its stripe while
+ * the change is made and indexed. Listeners are called once the change is made and the stripe's
+ * lock released, so they may call back into the calendar, and may be called from several threads
+ * at once.
+ */
+public class ConcurrentCalendar implements CalendarInterface
+{
+    private static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * One stripe of the calendar, holding the events whose IDs hash to it.
+     */
+    private static final class Stripe
+    {
+        private final Calendar calendar;
+        private final StampedLock lock;
+
+        private Stripe(Calendar calendar)
+        {
+            this.calendar = calendar;
+            this.lock = new StampedLock();
+        }
+    }
+
+    /**
+     * The events of every stripe, collected after the given number of changes.
+     */
+    private record Snapshot(long version, List<EventInterface> events)
+    {
+    }
+
+    // Instance variables
+    private final UUID id;
+    private final LocalDateTime created;
+    private volatile String name;
+    private volatile String description;
+    private volatile LocalDateTime modified;
+    private volatile ArrayList<TagInterface> tags;
+    private volatile Snapshot snapshot;
+    private final AtomicLong version;
+    private final Stripe[] stripes;
+    private final StampedLock spanning;
+    private final CopyOnWriteArrayList<CalendarListener> listeners;
+    private final ThreadLocal<ArrayList<Consumer<CalendarListener>>> notifications;
+
+    /**
+     * Constructs a new, empty ConcurrentCalendar with the default number of stripes.
+     *
+     * @param name the name of the calendar
+     * @param description the description of the calendar
+     */
+    public ConcurrentCalendar(String name, String description)
+    {
+        this(name, description, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a new, empty ConcurrentCalendar. More stripes let more writers work at once at
+     * the cost of more work per query.
+     *
+     * @param name the name of the calendar
+     * @param description the description of the calendar
+     * @param stripes the number of stripes to spread the events over
+     */
+    public ConcurrentCalendar(String name, String description, int stripes)
+    {
+        if (stripes < 1)
+        {
+            throw new IllegalArgumentException("There must be at least one stripe");
+        }
+
+        this.id = UUID.randomUUID();
+        this.name = name;
+        this.description = description;
+        this.created = TimeZoneView.now();
+        this.modified = this.created;
+        this.tags = new ArrayList<>();
+        this.version = new AtomicLong();
+        this.snapshot = new Snapshot(0, List.of());
+        this.stripes = new Stripe[stripes];
+        this.spanning = new StampedLock();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.notifications = new ThreadLocal<>();
+
+        CalendarListener forwarder = new Forwarder();
+        for (int i = 0; i < stripes; i++)
+        {
+            this.stripes[i] = new Stripe(new Calendar(name, description));
+            this.stripes[i].calendar.addListener(forwarder);
+        }
+    }
+
+    /**
+     * Returns the unique ID of the calendar.
+     *
+     * @return the unique ID of the calendar
+     */
+    @Override
+    public UUID getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the name of the calendar.
+     *
+     * @return the name of the calendar
+     */
+    @Override
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Returns the description of the calendar.
+     *
+     * @return the description of the calendar
+     */
+    @Override
+    public String getDescription()
+    {
+        return this.description;
+    }
+
+    /**
+     * Returns the date and time the calendar was created.
+     *
+     * @return the date and time the calendar was created
+     */
+    @Override
+    public LocalDateTime getCreated()
+    {
+        return this.created;
+    }
+
+    /**
+     * Returns the date and time the calendar was last modified.
+     *
+     * @return the date and time the calendar was last modified
+     */
+    @Override
+    public LocalDateTime getModified()
+    {
+        return this.modified;
+    }
+
+    /**
+     * Returns a snapshot of the events in the calendar, grouped by stripe. Changes to the list
+     * returned do not affect the calendar.
+     *
+     * @return a snapshot of the events in the calendar
+     */
+    @Override
+    public ArrayList<EventInterface> getEvents()
+    {
+        Snapshot snapshot = this.snapshot;
+        long version = this.version.get();
+        if (snapshot.version() != version)
+        {
+            ArrayList<EventInterface> collected = this.readSpanning(() ->
+            {
+                ArrayList<EventInterface> events = new ArrayList<>();
+                for (Stripe stripe : this.stripes)
+                {
+                    read(stripe, calendar -> events.addAll(calendar.getEvents()));
+                }
+                return events;
+            });
+
+            // A change made while collecting leaves the version behind, so the next call rebuilds
+            snapshot = new Snapshot(version, List.copyOf(collected));
+            this.snapshot = snapshot;
+        }
+        return new ArrayList<>(snapshot.events());
+    }
+
+    /**
+     * Returns the event with the given unique ID, looking only in the stripe it belongs to.
+     *
+     * @param id the unique ID of the event
+     * @return the event with the given ID, or null if there is none in the calendar
+     */
+    @Override
+    public EventInterface getEvent(UUID id)
+    {
+        return read(this.stripes[this.indexOf(id)], calendar -> calendar.getEvent(id));
+    }
+
+    /**
+     * Returns a snapshot of the tags in the calendar. Changes to the list returned do not affect
+     * the calendar.
+     *
+     * @return a snapshot of the tags in the calendar
+     */
+    @Override
+    public ArrayList<TagInterface> getTags()
+    {
+        return new ArrayList<>(this.tags);
+    }
+
+    /**
+     * Returns the events overlapping the half-open range [from, to), ordered by start time.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the events overlapping the range
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsBetween(LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<ArrayList<EventInterface>> found = this.readSpanning(() ->
+        {
+            ArrayList<ArrayList<EventInterface>> lists = new ArrayList<>(this.stripes.length);
+            for (Stripe stripe : this.stripes)
+            {
+                lists.add(read(stripe, calendar -> calendar.getEventsBetween(from, to)));
+            }
+            return lists;
+        });
+
+        ArrayList<Iterator<EventInterface>> sources = new ArrayList<>(found.size());
+        int size = 0;
+        for (ArrayList<EventInterface> list : found)
+        {
+            size += list.size();
+            sources.add(list.iterator());
+        }
+
+        ArrayList<EventInterface> events = new ArrayList<>(size);
+        new MergingIterator(sources).forEachRemaining(events::add);
+        return events;
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the events overlapping the half-open range
+     * [from, to), ordered by start time. The calendar may be modified while it is in use.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the events overlapping the range
+     */
+    @Override
+    public Iterator<EventInterface> getEventIterator(LocalDateTime from, LocalDateTime to)
+    {
+        return this.getEventsBetween(from, to).iterator();
+    }
+
+    /**
+     * Returns the events matching a tag query, grouped by stripe.
+     *
+     * @param query the tag query to match
+     * @return the events matching the query
+     */
+    @Override
+    public ArrayList<EventInterface> getEventsTagged(TagQuery query)
+    {
+        return this.readSpanning(() ->
+        {
+            ArrayList<EventInterface> events = new ArrayList<>();
+            for (Stripe stripe : this.stripes)
+            {
+                events.addAll(read(stripe, calendar -> calendar.getEventsTagged(query)));
+            }
+            return events;
+        });
+    }
+
+    /**
+     * Returns the events whose title, description or location contain every word of the query,
+     * best match first. How rare each word is is first counted across every stripe, then each
+     * stripe ranks its own events by those counts, so the scores of different stripes compare,
+     * and the best of each are merged.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events, best match first
+     */
+    @Override
+    public ArrayList<EventInterface> search(String query, int limit)
+    {
+        ArrayList<SearchIndex.Hit> hits = this.readSpanning(() ->
+        {
+            SearchIndex.Frequencies frequencies = new SearchIndex.Frequencies();
+            for (Stripe stripe : this.stripes)
+            {
+                read(stripe, calendar ->
+                {
+                    calendar.countSearchTerms(query, frequencies);
+                    return null;
+                });
+            }
+
+            ArrayList<SearchIndex.Hit> ranked = new ArrayList<>();
+            for (Stripe stripe : this.stripes)
+            {
+                ranked.addAll(read(stripe, calendar -> calendar.rank(query, limit, frequencies)));
+            }
+            return ranked;
+        });
+        hits.sort(Comparator.comparingDouble(SearchIndex.Hit::score).reversed());
+
+        ArrayList<EventInterface> events = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++)
+        {
+            events.add(hits.get(i).event());
+        }
+        return events;
+    }
+
+    /**
+     * Sets the name of the calendar.
+     *
+     * @param name the new name of the calendar
+     */
+    @Override
+    public void setName(String name)
+    {
+        this.name = name;
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.detailsChanged(this);
+        }
+    }
+
+    /**
+     * Sets the description of the calendar.
+     *
+     * @param description the new description of the calendar
+     */
+    @Override
+    public void setDescription(String description)
+    {
+        this.description = description;
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.detailsChanged(this);
+        }
+    }
+
+    /**
+     * Replaces the events in the calendar. Every stripe is locked while the events are replaced,
+     * so readers see either the old events or the new ones.
+     *
+     * @param events the new events in the calendar
+     * @throws IllegalArgumentException if any event is an occurrence of a recurring event
+     */
+    @Override
+    public void setEvents(ArrayList<EventInterface> events)
+    {
+        // Check every event before any stripe is replaced
+        for (EventInterface event : events)
+        {
+            EventOccurrence.checkAddable(event);
+        }
+        ArrayList<ArrayList<EventInterface>> distributed = new ArrayList<>(this.stripes.length);
+        for (int i = 0; i < this.stripes.length; i++)
+        {
+            distributed.add(new ArrayList<>());
+        }
+        for (EventInterface event : events)
+        {
+            distributed.get(this.indexOf(event.getId())).add(event);
+        }
+
+        ArrayList<Consumer<CalendarListener>> queued = this.queueNotifications();
+        long spanningStamp = this.spanning.writeLock();
+        long[] stamps = new long[this.stripes.length];
+        for (int i = 0; i < this.stripes.length; i++)
+        {
+            stamps[i] = this.stripes[i].lock.writeLock();
+        }
+        try
+        {
+            for (int i = 0; i < this.stripes.length; i++)
+            {
+                this.stripes[i].calendar.setEvents(distributed.get(i));
+            }
+            this.changed();
+        }
+        finally
+        {
+            for (int i = this.stripes.length - 1; i >= 0; i--)
+            {
+                this.stripes[i].lock.unlockWrite(stamps[i]);
+            }
+            this.spanning.unlockWrite(spanningStamp);
+            this.fireNotifications(queued);
+        }
+    }
+
+    /**
+     * Returns a new batch of changes to the calendar. Committing it locks the stripes it touches
+     * and applies each stripe's share of the batch as one change, so queries over the whole
+     * calendar see all of the batch or none of it.
+     *
+     * @return a new batch of changes to the calendar
+     */
+    public CalendarBatch batch()
+    {
+        return new CalendarBatch(this::commit);
+    }
+
+    /**
+     * Adds an event to the calendar.
+     *
+     * @param event the event to add to the calendar
+     */
+    @Override
+    public void addEvent(EventInterface event)
+    {
+        this.write(event.getId(), calendar -> calendar.addEvent(event));
+    }
+
+    /**
+     * Removes an event from the calendar.
+     *
+     * @param event the event to remove from the calendar
+     */
+    @Override
+    public void removeEvent(EventInterface event)
+    {
+        this.write(event.getId(), calendar -> calendar.removeEvent(event));
+    }
+
+    /**
+     * Removes the event with the given unique ID from the calendar.
+     *
+     * @param id the unique ID of the event to remove
+     * @return the event removed, or null if there was none in the calendar
+     */
+    @Override
+    public EventInterface removeEvent(UUID id)
+    {
+        EventInterface[] removed = new EventInterface[1];
+        this.write(id, calendar -> removed[0] = calendar.removeEvent(id));
+        return removed[0];
+    }
+
+    /**
+     * Modifies an event in the calendar while holding the lock of its stripe, so that the change
+     * and the reindexing it causes are never seen half done by other threads.
+     *
+     * @param event the event to modify
+     * @param update the modification to make, such as {@code e -> e.setTitle("Lunch")}
+     */
+    public void updateEvent(EventInterface event, Consumer<? super EventInterface> update)
+    {
+        this.write(event.getId(), calendar -> update.accept(event));
+    }
+
+    /**
+     * Sets the tags in the calendar. The calendar keeps its own copy of the list.
+     *
+     * @param tags the new tags in the calendar
+     */
+    @Override
+    public void setTags(ArrayList<TagInterface> tags)
+    {
+        this.tags = new ArrayList<>(tags);
+        this.modified = TimeZoneView.now();
+        for (CalendarListener listener : this.listeners)
+        {
+            listener.tagsChanged(this);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified whenever the calendar or one of its events is modified.
+     * The listener must be thread-safe.
+     *
+     * @param listener the listener to register
+     */
+    @Override
+    public void addListener(CalendarListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addListener.
+     *
+     * @param listener the listener to unregister
+     */
+    @Override
+    public void removeListener(CalendarListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns a string representation of this calendar.
+     *
+     * @return a string representation of this calendar
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{id: %s, name: %s, description: %s, created: %s, modified: %s, events: %s, tags: %s}",
+                this.id, this.name, this.description, this.created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.modified.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), this.getEvents(), this.tags);
+    }
+
+    /**
+     * Runs a read on a stripe while holding its read lock.
+     */
+    private static <T> T read(Stripe stripe, Function<Calendar, T> reader)
+    {
+        long stamp = stripe.lock.readLock();
+        try
+        {
+            return reader.apply(stripe.calendar);
+        }
+        finally
+        {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Applies a batch, split by stripe, while holding the spanning lock and the write locks of
+     * every stripe it touches. The batch's times are checked again once the locks are held, as
+     * its events may have been changed since it was committed, and before any stripe is changed.
+     */
+    private void commit(CalendarBatch batch)
+    {
+        CalendarBatch[] parts = batch.split(this.stripes.length, this::indexOf);
+        LocalDateTime now = TimeZoneView.now();
+        ArrayList<Consumer<CalendarListener>> queued = this.queueNotifications();
+        long spanningStamp = this.spanning.writeLock();
+        long[] stamps = new long[this.stripes.length];
+        for (int i = 0; i < this.stripes.length; i++)
+        {
+            if (parts[i] != null)
+            {
+                stamps[i] = this.stripes[i].lock.writeLock();
+            }
+        }
+        try
+        {
+            batch.checkBounds();
+            for (int i = 0; i < this.stripes.length; i++)
+            {
+                if (parts[i] != null)
+                {
+                    this.stripes[i].calendar.commit(parts[i], now);
+                }
+            }
+            this.changed();
+        }
+        finally
+        {
+            for (int i = this.stripes.length - 1; i >= 0; i--)
+            {
+                if (parts[i] != null)
+                {
+                    this.stripes[i].lock.unlockWrite(stamps[i]);
+                }
+            }
+            this.spanning.unlockWrite(spanningStamp);
+            this.fireNotifications(queued);
+        }
+    }
+
+    /**
+     * Runs a query over several stripes so that it sees all of any spanning change or none of it.
+     * The query first runs under an optimistic read of the spanning lock, and only if a spanning
+     * change was made in the meantime runs again with the lock held. Each stripe is still read
+     * under its own read lock, as a stripe's indexes cannot be walked while they are changed.
+     */
+    private <T> T readSpanning(Supplier<T> reader)
+    {
+        long stamp = this.spanning.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            T result = reader.get();
+            if (this.spanning.validate(stamp))
+            {
+                return result;
+            }
+        }
+
+        stamp = this.spanning.readLock();
+        try
+        {
+            return reader.get();
+        }
+        finally
+        {
+            this.spanning.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a change on the stripe of the event with the given ID while holding its write lock,
+     * then notifies the listeners of it.
+     */
+    private void write(UUID id, Consumer<Calendar> writer)
+    {
+        Stripe stripe = this.stripes[this.indexOf(id)];
+        ArrayList<Consumer<CalendarListener>> queued = this.queueNotifications();
+        long stamp = stripe.lock.writeLock();
+        try
+        {
+            writer.accept(stripe.calendar);
+            this.changed();
+        }
+        finally
+        {
+            stripe.lock.unlockWrite(stamp);
+            this.fireNotifications(queued);
+        }
+    }
+
+    /**
+     * Starts holding back the notifications of changes this thread makes to the stripes, until
+     * they are fired once the locks are released.
+     */
+    private ArrayList<Consumer<CalendarListener>> queueNotifications()
+    {
+        ArrayList<Consumer<CalendarListener>> queued = new ArrayList<>();
+        this.notifications.set(queued);
+        return queued;
+    }
+
+    /**
+     * Stops holding back notifications and passes those held back to the listeners.
+     */
+    private void fireNotifications(ArrayList<Consumer<CalendarListener>> queued)
+    {
+        this.notifications.remove();
+        for (Consumer<CalendarListener> notification : queued)
+        {
+            for (CalendarListener listener : this.listeners)
+            {
+                notification.accept(listener);
+            }
+        }
+    }
+
+    /**
+     * Records that the events have changed, invalidating the snapshot returned by getEvents.
+     * This must be called after the change has been made.
+     */
+    private void changed()
+    {
+        this.version.incrementAndGet();
+        this.modified = TimeZoneView.now();
+    }
+
+    private int indexOf(UUID id)
+    {
+        int hash = id.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % this.stripes.length;
+    }
+
+    /**
+     * Passes the changes made to the stripes on to the calendar's listeners, as changes to
+     * this calendar. Changes made while a stripe is locked are held back until it is unlocked.
+     */
+    private final class Forwarder implements CalendarListener
+    {
+        @Override
+        public void eventAdded(CalendarInterface calendar, EventInterface event)
+        {
+            this.forward(listener -> listener.eventAdded(ConcurrentCalendar.this, event));
+        }
+
+        @Override
+        public void eventRemoved(CalendarInterface calendar, EventInterface event)
+        {
+            this.forward(listener -> listener.eventRemoved(ConcurrentCalendar.this, event));
+        }
+
+        @Override
+        public void eventChanged(CalendarInterface calendar, EventInterface event, EventField field, Object oldValue)
+        {
+            this.forward(listener -> listener.eventChanged(ConcurrentCalendar.this, event, field, oldValue));
+        }
+
+        private void forward(Consumer<CalendarListener> notification)
+        {
+            ArrayList<Consumer<CalendarListener>> queued = notifications.get();
+            if (queued != null)
+            {
+                queued.add(notification);
+                return;
+            }
+
+            for (CalendarListener listener : listeners)
+            {
+                notification.accept(listener);
+            }
+        }
+    }
+}
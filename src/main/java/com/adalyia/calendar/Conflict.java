@@ -0,0 +1,79 @@
+/**
+ * Conflict.java
+ * Purpose: A pair of overlapping Calendar Tasks/Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+
+public class Conflict
+{
+    // Instance variables
+    private final EventInterface first;
+    private final EventInterface second;
+
+    /**
+     * Constructs a new Conflict between two events. The first event is the one that starts first.
+     *
+     * @param first the event that starts first
+     * @param second the event that starts second
+     */
+    public Conflict(EventInterface first, EventInterface second)
+    {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Returns the event that starts first.
+     *
+     * @return the event that starts first
+     */
+    public EventInterface getFirst()
+    {
+        return this.first;
+    }
+
+    /**
+     * Returns the event that starts second.
+     *
+     * @return the event that starts second
+     */
+    public EventInterface getSecond()
+    {
+        return this.second;
+    }
+
+    /**
+     * Returns the start of the overlapping period.
+     *
+     * @return the start of the overlapping period
+     */
+    public LocalDateTime getOverlapStart()
+    {
+        return this.second.getStart();
+    }
+
+    /**
+     * Returns the end of the overlapping period. For a conflict involving a task this equals the start.
+     *
+     * @return the end of the overlapping period
+     */
+    public LocalDateTime getOverlapEnd()
+    {
+        return this.first.getEnd().isBefore(this.second.getEnd()) ? this.first.getEnd() : this.second.getEnd();
+    }
+
+    /**
+     * Returns a string representation of the conflict.
+     *
+     * @return a string representation of the conflict
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{first: %s, second: %s}", this.first.getTitle(), this.second.getTitle());
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * ConflictDetector.java
+ * Purpose: Finds overlapping (double-booked) Calendar Tasks & Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Detects conflicts between events. Events occupy the half-open range [start, end), so an event
+ * ending at 10:00 does not conflict with one starting at 10:00.
+ * <p>
+ * Zero-duration events ({@code start == end}, which includes every {@link Task}) are treated as
+ * instants: they conflict with any event whose range contains their time, but never with other
+ * zero-duration events, since a deadline does not book any time.
+ */
+public class ConflictDetector
+{
+    /**
+     * Orders events by start time, placing events with a duration ahead of zero-duration
+     * events that share the same start, so that instants are checked against every range
+     * that begins at the same time.
+     */
+    private static final Comparator<EventInterface> SWEEP_ORDER =
+            Comparator.comparing(EventInterface::getStart)
+                    .thenComparing(ConflictDetector::isInstant);
+
+    /**
+     * Returns every pair of conflicting events in the given collection.
+     * <p>
+     * The events are sorted by start time once and then swept in order while the events still
+     * in progress are held in a queue ordered by end time, so the whole pass costs
+     * O(n log n + k) for n events and k conflicts.
+     *
+     * @param events the events to check
+     * @return the conflicting pairs, with the earlier-starting event first
+     */
+    public ArrayList<Conflict> findConflicts(Collection<? extends EventInterface> events)
+    {
+        EventInterface[] sorted = events.toArray(new EventInterface[0]);
+        Arrays.sort(sorted, SWEEP_ORDER);
+
+        ArrayList<Conflict> conflicts = new ArrayList<>();
+        PriorityQueue<EventInterface> active = new PriorityQueue<>(Comparator.comparing(EventInterface::getEnd));
+        for (EventInterface event : sorted)
+        {
+            LocalDateTime start = event.getStart();
+            while (!active.isEmpty() && !active.peek().getEnd().isAfter(start))
+            {
+                active.poll();
+            }
+            for (EventInterface other : active)
+            {
+                conflicts.add(new Conflict(other, event));
+            }
+            active.add(event);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns every pair of conflicting events in the given calendar.
+     *
+     * @param calendar the calendar to check
+     * @return the conflicting pairs, with the earlier-starting event first
+     */
+    public ArrayList<Conflict> findConflicts(CalendarInterface calendar)
+    {
+        return this.findConflicts(calendar.getEvents());
+    }
+
+    /**
+     * Returns the events in the calendar that the given event would conflict with if it were added.
+     * The check uses the calendar's range index, so it does not scan the whole calendar. The
+     * candidate itself is ignored if it is already in the calendar.
+     *
+     * @param calendar the calendar to check against
+     * @param candidate the event to check
+     * @return the events the candidate conflicts with, ordered by start time
+     */
+    public ArrayList<EventInterface> findConflicts(CalendarInterface calendar, EventInterface candidate)
+    {
+        LocalDateTime start = candidate.getStart();
+        boolean instant = isInstant(candidate);
+        ArrayList<EventInterface> overlapping = instant
+                ? calendar.getEventsBetween(start, start.plusNanos(1))
+                : calendar.getEventsBetween(start, candidate.getEnd());
+
+        ArrayList<EventInterface> conflicts = new ArrayList<>();
+        for (EventInterface event : overlapping)
+        {
+            if (event != candidate && !(instant && isInstant(event)))
+            {
+                conflicts.add(event);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns whether the given event would conflict with any event in the calendar.
+     *
+     * @param calendar the calendar to check against
+     * @param candidate the event to check
+     * @return whether the candidate conflicts with an event in the calendar
+     */
+    public boolean hasConflicts(CalendarInterface calendar, EventInterface candidate)
+    {
+        return !this.findConflicts(calendar, candidate).isEmpty();
+    }
+
+    /**
+     * Returns whether the given event has no duration.
+     *
+     * @param event the event to check
+     * @return whether the event starts and ends at the same time
+     */
+    static boolean isInstant(EventInterface event)
+    {
+        return event.getStart().equals(event.getEnd());
+    }
+}
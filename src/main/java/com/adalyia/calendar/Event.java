@@ -8,23 +8,33 @@ package com.adalyia.calendar;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 public class Event implements EventInterface, Comparable<Event>
 {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     // Instance variables
     private final UUID id;
     private String title;
     private String description;
     private String location;
-    private LocalDateTime start;
-    private LocalDateTime end;
+    private long startMillis;
+    private int startNanos;
+    private long endMillis;
+    private int endNanos;
     private final LocalDateTime created;
     private LocalDateTime modified;
     private ArrayList<Tag> tags;
-    private ArrayList<String> auditLog;
+    private final AuditLog auditLog;
+    private final ArrayList<EventListener> listeners;
 
 
     /**
@@ -37,17 +47,37 @@ public class Event implements EventInterface, Comparable<Event>
      * @param end The end time of the event
      */
     public Event(String title, String description, String location, LocalDateTime start, LocalDateTime end)
+    {
+        this(UUID.randomUUID(), title, description, location, start, end, TimeZoneView.now(), null);
+    }
+
+    /**
+     * Constructor for Event restoring a previously saved event
+     *
+     * @param id The unique ID of the event
+     * @param title The title of the event
+     * @param description The description of the event
+     * @param location The location of the event
+     * @param start The start time of the event
+     * @param end The end time of the event
+     * @param created The time the event was created
+     * @param modified The time the event was last modified, or null if it has not been modified
+     */
+    Event(UUID id, String title, String description, String location, LocalDateTime start, LocalDateTime end, LocalDateTime created, LocalDateTime modified)
     {
         this.title = title;
         this.description = description;
         this.location = location;
-        this.start = start;
-        this.end = end;
-        this.created = LocalDateTime.now();
-        this.modified = this.created;
-        this.id = UUID.randomUUID();
-        this.auditLog = new ArrayList<>();
+        this.startMillis = millis(start);
+        this.startNanos = nanos(start);
+        this.endMillis = millis(end);
+        this.endNanos = nanos(end);
+        this.created = created;
+        this.modified = modified == null ? this.created : modified;
+        this.id = id;
+        this.auditLog = new AuditLog(AuditLog.DEFAULT_CAPACITY);
         this.tags = new ArrayList<>();
+        this.listeners = new ArrayList<>();
     }
 
     /**
@@ -101,7 +131,7 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public LocalDateTime getStart()
     {
-        return this.start;
+        return time(this.startMillis, this.startNanos);
     }
 
     /**
@@ -112,7 +142,30 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public LocalDateTime getEnd()
     {
-        return this.end;
+        return time(this.endMillis, this.endNanos);
+    }
+
+    /**
+     * Returns the start time of the event, taken as UTC, in milliseconds since the epoch. Event
+     * times are held in this form, with the nanoseconds within the millisecond alongside
+     *
+     * @return The start time of the event in milliseconds since the epoch
+     */
+    @Override
+    public long getStartMillis()
+    {
+        return this.startMillis;
+    }
+
+    /**
+     * Returns the end time of the event, taken as UTC, in milliseconds since the epoch
+     *
+     * @return The end time of the event in milliseconds since the epoch
+     */
+    @Override
+    public long getEndMillis()
+    {
+        return this.endMillis;
     }
 
     /**
@@ -145,7 +198,7 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public Duration getDuration()
     {
-        return Duration.between(this.start, this.end);
+        return Duration.between(this.getStart(), this.getEnd());
     }
 
     /**
@@ -156,7 +209,7 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public Duration getReminder()
     {
-        return Duration.between(LocalDateTime.now(), this.start);
+        return Duration.between(TimeZoneView.now(), this.getStart());
     }
 
     /**
@@ -178,7 +231,49 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public ArrayList<String> getAuditLog()
     {
-        return this.auditLog;
+        return this.auditLog.render();
+    }
+
+    /**
+     * Returns the changes recorded in the audit log, oldest first
+     *
+     * @return The changes recorded in the audit log
+     */
+    @Override
+    public List<AuditEntry> getAuditEntries()
+    {
+        return this.auditLog.getEntries();
+    }
+
+    /**
+     * Returns the maximum number of changes kept in the audit log
+     *
+     * @return The maximum number of changes kept in the audit log
+     */
+    public int getAuditCapacity()
+    {
+        return this.auditLog.getCapacity();
+    }
+
+    /**
+     * Returns the number of changes currently held in the audit log
+     *
+     * @return The number of changes held in the audit log
+     */
+    int getAuditSize()
+    {
+        return this.auditLog.size();
+    }
+
+    /**
+     * Sets the maximum number of changes kept in the audit log. Once the log is full, each change
+     * replaces the oldest one; a capacity of 0 turns the audit log off.
+     *
+     * @param capacity The maximum number of changes to keep
+     */
+    public void setAuditCapacity(int capacity)
+    {
+        this.auditLog.setCapacity(capacity);
     }
 
     /**
@@ -189,15 +284,11 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setTitle(String title)
     {
+        String oldTitle = this.title;
         this.title = title;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] Title changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        title
-                )
-        );
+        this.modified = TimeZoneView.now();
+        this.record(EventField.TITLE, oldTitle, title);
+        this.fireChanged(EventField.TITLE, oldTitle);
     }
 
     /**
@@ -208,15 +299,11 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setDescription(String description)
     {
+        String oldDescription = this.description;
         this.description = description;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] Description changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        description
-                )
-        );
+        this.modified = TimeZoneView.now();
+        this.record(EventField.DESCRIPTION, oldDescription, description);
+        this.fireChanged(EventField.DESCRIPTION, oldDescription);
     }
 
     /**
@@ -227,15 +314,11 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setLocation(String location)
     {
+        String oldLocation = this.location;
         this.location = location;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] Location changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        location
-                )
-        );
+        this.modified = TimeZoneView.now();
+        this.record(EventField.LOCATION, oldLocation, location);
+        this.fireChanged(EventField.LOCATION, oldLocation);
     }
 
     /**
@@ -246,21 +329,19 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setStart(LocalDateTime start)
     {
-        if (start.isAfter(this.end))
+        long startMillis = millis(start);
+        int startNanos = nanos(start);
+        if (compare(startMillis, startNanos, this.endMillis, this.endNanos) > 0)
         {
             throw new TimeBoundsException("Start time cannot be after end time");
         }
 
-        this.start = start;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] Start time changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                )
-        );
-
+        LocalDateTime oldStart = this.getStart();
+        this.startMillis = startMillis;
+        this.startNanos = startNanos;
+        this.modified = TimeZoneView.now();
+        this.record(EventField.START, oldStart, start);
+        this.fireChanged(EventField.START, oldStart);
     }
 
     /**
@@ -271,20 +352,19 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setEnd(LocalDateTime end)
     {
-        if (end.isBefore(this.start))
+        long endMillis = millis(end);
+        int endNanos = nanos(end);
+        if (compare(endMillis, endNanos, this.startMillis, this.startNanos) < 0)
         {
             throw new TimeBoundsException("End time cannot be before start time");
         }
 
-        this.end = end;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] End time changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                )
-        );
+        LocalDateTime oldEnd = this.getEnd();
+        this.endMillis = endMillis;
+        this.endNanos = endNanos;
+        this.modified = TimeZoneView.now();
+        this.record(EventField.END, oldEnd, end);
+        this.fireChanged(EventField.END, oldEnd);
     }
 
     /**
@@ -295,15 +375,169 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public void setTags(ArrayList<Tag> tags)
     {
+        ArrayList<Tag> oldTags = this.tags;
         this.tags = tags;
-        this.modified = LocalDateTime.now();
-        this.auditLog.add(
-                String.format(
-                        "[%s] Tags changed to %s",
-                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                        tags.toString()
-                )
-        );
+        this.modified = TimeZoneView.now();
+        this.record(EventField.TAGS, oldTags, tags);
+        this.fireChanged(EventField.TAGS, oldTags);
+    }
+
+    /**
+     * Applies several changes at once without notifying the listeners, recording them as a single
+     * audit entry. The caller is responsible for checking the new times and notifying the
+     * listeners of each field changed.
+     *
+     * @param changes The new values of the fields to change
+     * @param modified The time of the changes
+     * @return The values of the changed fields before the changes
+     */
+    EnumMap<EventField, Object> apply(EnumMap<EventField, Object> changes, LocalDateTime modified)
+    {
+        EnumMap<EventField, Object> oldValues = new EnumMap<>(EventField.class);
+        for (Map.Entry<EventField, Object> change : changes.entrySet())
+        {
+            oldValues.put(change.getKey(), this.applyField(change.getKey(), change.getValue()));
+        }
+        this.modified = modified;
+        this.auditLog.record(System.currentTimeMillis(), oldValues, new EnumMap<>(changes));
+        CalendarMetrics metrics = CalendarMetrics.active();
+        if (metrics != null)
+        {
+            metrics.modified();
+        }
+        return oldValues;
+    }
+
+    /**
+     * Sets one field of the event without any checks, recording or notification
+     *
+     * @param field The field to set
+     * @param value The new value of the field
+     * @return The value of the field before the change
+     */
+    @SuppressWarnings("unchecked")
+    Object applyField(EventField field, Object value)
+    {
+        Object oldValue;
+        switch (field)
+        {
+            case TITLE ->
+            {
+                oldValue = this.title;
+                this.title = (String) value;
+            }
+            case DESCRIPTION ->
+            {
+                oldValue = this.description;
+                this.description = (String) value;
+            }
+            case LOCATION ->
+            {
+                oldValue = this.location;
+                this.location = (String) value;
+            }
+            case START ->
+            {
+                LocalDateTime start = (LocalDateTime) value;
+                long startMillis = millis(start);
+                oldValue = this.getStart();
+                this.startMillis = startMillis;
+                this.startNanos = nanos(start);
+            }
+            case END ->
+            {
+                LocalDateTime end = (LocalDateTime) value;
+                long endMillis = millis(end);
+                oldValue = this.getEnd();
+                this.endMillis = endMillis;
+                this.endNanos = nanos(end);
+            }
+            case TAGS ->
+            {
+                oldValue = this.tags;
+                this.tags = (ArrayList<Tag>) value;
+            }
+            default -> throw new IllegalArgumentException(field + " cannot be set on " + this.getClass().getSimpleName());
+        }
+        return oldValue;
+    }
+
+    /**
+     * Sets the start or end time of the event without checking it against the other, for use
+     * when replaying saved changes. A batch that moves an event is saved as separate start and
+     * end changes, so the event may be out of bounds until both have been replayed.
+     *
+     * @param field The field to set, START or END
+     * @param time The new time
+     */
+    void restoreTime(EventField field, LocalDateTime time)
+    {
+        Object oldValue = this.applyField(field, time);
+        this.record(field, oldValue, time);
+        this.fireChanged(field, oldValue);
+    }
+
+    /**
+     * Restores the time the event was last modified, for use when replaying saved changes
+     *
+     * @param modified The time the event was last modified
+     */
+    void setModified(LocalDateTime modified)
+    {
+        this.modified = modified;
+    }
+
+    /**
+     * Registers a listener to be notified whenever the event is modified
+     *
+     * @param listener The listener to register
+     */
+    @Override
+    public void addListener(EventListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addListener
+     *
+     * @param listener The listener to unregister
+     */
+    @Override
+    public void removeListener(EventListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Records a change in the audit log
+     *
+     * @param field The field that was changed
+     * @param oldValue The value of the field before the change
+     * @param newValue The value of the field after the change
+     */
+    protected void record(EventField field, Object oldValue, Object newValue)
+    {
+        this.auditLog.record(System.currentTimeMillis(), field, oldValue, newValue);
+        CalendarMetrics metrics = CalendarMetrics.active();
+        if (metrics != null)
+        {
+            metrics.modified();
+        }
+    }
+
+    /**
+     * Notifies the registered listeners that a field of the event has changed
+     *
+     * @param field The field that was changed
+     * @param oldValue The value of the field before the change
+     */
+    protected void fireChanged(EventField field, Object oldValue)
+    {
+        for (int i = 0; i < this.listeners.size(); i++)
+        {
+            this.listeners.get(i).eventChanged(this, field, oldValue);
+        }
     }
 
     /**
@@ -314,7 +548,7 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public String toString()
     {
-        return String.format("{\n\ttitle: %s,\n\tdescription: %s,\n\tlocation: %s,\n\tstart: %s,\n\tend: %s,\n\tcreated: %s,\n\tmodified: %s,\n\tduration: %s,\n\treminder: %s,\n\ttags: %s,\n\tauditLog: %s\n}", this.title, this.description, this.location, this.start.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), this.end.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), this.created.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), this.modified.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), this.getDuration().toString(), this.getReminder().toString(), this.tags.toString(), this.auditLog.toString());
+        return String.format("{\n\ttitle: %s,\n\tdescription: %s,\n\tlocation: %s,\n\tstart: %s,\n\tend: %s,\n\tcreated: %s,\n\tmodified: %s,\n\tduration: %s,\n\treminder: %s,\n\ttags: %s,\n\tauditLog: %s\n}", this.title, this.description, this.location, this.getStart().format(FORMATTER), this.getEnd().format(FORMATTER), this.created.format(FORMATTER), this.modified.format(FORMATTER), this.getDuration().toString(), this.getReminder().toString(), this.tags.toString(), this.auditLog.toString());
     }
 
     /**
@@ -336,7 +570,18 @@ public class Event implements EventInterface, Comparable<Event>
             return false;
         }
 
-        return this.title.equals(e.title) && this.description.equals(e.description) && this.location.equals(e.location) && this.start.equals(e.start) && this.end.equals(e.end) && this.created.equals(e.created) && this.modified.equals(e.modified);
+        return this.title.equals(e.title) && this.description.equals(e.description) && this.location.equals(e.location) && this.startMillis == e.startMillis && this.startNanos == e.startNanos && this.endMillis == e.endMillis && this.endNanos == e.endNanos && this.created.equals(e.created) && this.modified.equals(e.modified);
+    }
+
+    /**
+     * Returns a hash code for the event, consistent with equals
+     *
+     * @return A hash code for the event
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(this.title, this.description, this.location, this.startMillis, this.startNanos, this.endMillis, this.endNanos, this.created, this.modified);
     }
 
     /**
@@ -348,6 +593,57 @@ public class Event implements EventInterface, Comparable<Event>
     @Override
     public int compareTo(Event o)
     {
-        return this.start.isBefore(o.getStart()) ? -1 : (this.start.isAfter(o.getStart()) ? 1 : 0);
+        return compare(this.startMillis, this.startNanos, o.startMillis, o.startNanos);
+    }
+
+    /**
+     * Returns a time, taken as UTC, in milliseconds since the epoch
+     *
+     * @param time The time
+     * @return The time in milliseconds since the epoch
+     * @throws TimeBoundsException if the time is too far from the epoch to be held in milliseconds
+     */
+    private static long millis(LocalDateTime time)
+    {
+        try
+        {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1000L), time.getNano() / 1_000_000);
+        }
+        catch (ArithmeticException e)
+        {
+            throw new TimeBoundsException("Time is out of range: " + time);
+        }
+    }
+
+    /**
+     * Returns the nanoseconds of a time within its millisecond
+     *
+     * @param time The time
+     * @return The nanoseconds within the millisecond
+     */
+    private static int nanos(LocalDateTime time)
+    {
+        return time.getNano() % 1_000_000;
+    }
+
+    /**
+     * Returns the time, taken as UTC, at a number of milliseconds and nanoseconds since the epoch
+     *
+     * @param millis The milliseconds since the epoch
+     * @param nanos The nanoseconds within the millisecond
+     * @return The time
+     */
+    private static LocalDateTime time(long millis, int nanos)
+    {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000 + nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Compares two times held as milliseconds and nanoseconds within the millisecond
+     */
+    private static int compare(long millis, int nanos, long otherMillis, int otherNanos)
+    {
+        int result = Long.compare(millis, otherMillis);
+        return result != 0 ? result : Integer.compare(nanos, otherNanos);
     }
 }
@@ -0,0 +1,19 @@
+/**
+ * EventField.java
+ * Purpose: Enumeration of the mutable fields of Calendar Tasks & Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public enum EventField
+{
+    TITLE,
+    DESCRIPTION,
+    LOCATION,
+    START,
+    END,
+    TAGS,
+    RECURRENCE,
+    COMPLETED
+}
@@ -9,11 +9,12 @@ package com.adalyia.calendar;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public interface EventInterface
 {
-    // Getters for Calendar Task/Event properties
+    // Getters for Calendar Task/Event properties; times are in stored form (see TimeZoneView)
     UUID getId();
     String getTitle();
     String getDescription();
@@ -26,6 +27,18 @@ public interface EventInterface
     Duration getReminder();
     ArrayList<Tag> getTags();
     ArrayList<String> getAuditLog();
+    List<AuditEntry> getAuditEntries();
+
+    // Stored times of Calendar Task/Event properties taken as UTC, in milliseconds since the epoch
+    default long getStartMillis()
+    {
+        return TimeZoneView.toEpochMilli(this.getStart());
+    }
+
+    default long getEndMillis()
+    {
+        return TimeZoneView.toEpochMilli(this.getEnd());
+    }
 
     // Setters for Calendar Task/Event properties
     void setTitle(String title);
@@ -34,4 +47,8 @@ public interface EventInterface
     void setStart(LocalDateTime start);
     void setEnd(LocalDateTime end);
     void setTags(ArrayList<Tag> tags);
+
+    // Change notification for Calendar Task/Event properties
+    void addListener(EventListener listener);
+    void removeListener(EventListener listener);
 }
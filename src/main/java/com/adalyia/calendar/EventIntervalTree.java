@@ -0,0 +1,592 @@
+/**
+ * EventIntervalTree.java
+ * Purpose: Augmented interval tree indexing Calendar events by their time span
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A self-balancing (AVL) binary search tree ordered by event start time, where every node also
+ * records the latest end time found in its subtree. That augmentation lets overlap queries skip
+ * whole subtrees that finish before the queried range begins.
+ * <p>
+ * The tree keeps its own copy of each event's start and end, so it stays well-formed while an
+ * event is being modified; callers must {@link #update(EventInterface)} an event after its times
+ * change.
+ */
+class EventIntervalTree
+{
+    /**
+     * A node of the tree, holding one event and the bounds it was indexed with.
+     */
+    private static final class Node
+    {
+        private final EventInterface event;
+        private final long sequence;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private long startMillis;
+        private long endMillis;
+        private long maxEndMillis;
+        private int height;
+        private Node left;
+        private Node right;
+
+        private Node(EventInterface event, long sequence)
+        {
+            this.event = event;
+            this.sequence = sequence;
+            this.start = event.getStart();
+            this.end = event.getEnd();
+            this.maxEnd = this.end;
+            this.startMillis = event.getStartMillis();
+            this.endMillis = event.getEndMillis();
+            this.maxEndMillis = this.endMillis;
+            this.height = 1;
+        }
+    }
+
+    // Instance variables
+    private final IdentityHashMap<EventInterface, Node> nodes;
+    private Node root;
+    private long nextSequence;
+    private int modCount;
+
+    /**
+     * Constructs a new, empty interval tree.
+     */
+    EventIntervalTree()
+    {
+        this.nodes = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the number of events in the tree.
+     *
+     * @return the number of events in the tree
+     */
+    int size()
+    {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns whether the given event is indexed by the tree.
+     *
+     * @param event the event to look for
+     * @return whether the event is indexed by the tree
+     */
+    boolean contains(EventInterface event)
+    {
+        return this.nodes.containsKey(event);
+    }
+
+    /**
+     * Adds an event to the tree. Adding an event that is already indexed has no effect.
+     *
+     * @param event the event to add
+     */
+    void add(EventInterface event)
+    {
+        if (this.nodes.containsKey(event))
+        {
+            return;
+        }
+
+        Node node = new Node(event, this.nextSequence++);
+        this.nodes.put(event, node);
+        this.root = insert(this.root, node);
+        this.modCount++;
+    }
+
+    /**
+     * Adds several events to the tree. When they are as many as the events already indexed, the
+     * tree is rebuilt perfectly balanced from the sorted events rather than inserted into one
+     * event at a time. Events that are already indexed are skipped.
+     *
+     * @param events the events to add
+     */
+    void addAll(Collection<? extends EventInterface> events)
+    {
+        ArrayList<Node> added = new ArrayList<>(events.size());
+        for (EventInterface event : events)
+        {
+            if (!this.nodes.containsKey(event))
+            {
+                Node node = new Node(event, this.nextSequence++);
+                this.nodes.put(event, node);
+                added.add(node);
+            }
+        }
+        if (added.isEmpty())
+        {
+            return;
+        }
+
+        if (added.size() < this.nodes.size() - added.size())
+        {
+            for (Node node : added)
+            {
+                this.root = insert(this.root, node);
+            }
+        }
+        else
+        {
+            ArrayList<Node> sorted = new ArrayList<>(this.nodes.size());
+            inOrder(this.root, sorted);
+            // Both runs are sorted, so the final sort is a single merge
+            added.sort(EventIntervalTree::compare);
+            sorted.addAll(added);
+            sorted.sort(EventIntervalTree::compare);
+            this.root = build(sorted, 0, sorted.size());
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Removes an event from the tree.
+     *
+     * @param event the event to remove
+     * @return whether the event was indexed by the tree
+     */
+    boolean remove(EventInterface event)
+    {
+        Node node = this.nodes.remove(event);
+        if (node == null)
+        {
+            return false;
+        }
+
+        this.root = delete(this.root, node);
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Re-indexes an event whose start or end time has changed.
+     *
+     * @param event the event to re-index
+     */
+    void update(EventInterface event)
+    {
+        Node node = this.nodes.get(event);
+        if (node == null)
+        {
+            return;
+        }
+
+        this.root = delete(this.root, node);
+        node.start = event.getStart();
+        node.end = event.getEnd();
+        node.maxEnd = node.end;
+        node.startMillis = event.getStartMillis();
+        node.endMillis = event.getEndMillis();
+        node.maxEndMillis = node.endMillis;
+        node.height = 1;
+        node.left = null;
+        node.right = null;
+        this.root = insert(this.root, node);
+        this.modCount++;
+    }
+
+    /**
+     * Removes every event from the tree.
+     */
+    void clear()
+    {
+        this.nodes.clear();
+        this.root = null;
+        this.modCount++;
+    }
+
+    /**
+     * Returns the events overlapping the half-open range [from, to), ordered by start time.
+     * An event overlaps the range when it starts before {@code to} and ends after {@code from};
+     * a zero-duration event (such as a {@link Task}) overlaps when its instant lies within the range.
+     * <p>
+     * Subtrees that end before {@code from} or start at or after {@code to} are never visited, so
+     * the query costs O(log n + k) on typical calendars and O(k log n) in the worst case.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the overlapping events, ordered by start time
+     */
+    ArrayList<EventInterface> query(LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<EventInterface> result = new ArrayList<>();
+        if (from.isBefore(to))
+        {
+            collect(this.root, new Bounds(from, to), result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a lazy iterator over the events overlapping the half-open range [from, to), ordered
+     * by start time. Matching events are located one at a time as the iterator advances, so
+     * callers that stop early only pay for the events they consume. The iterator fails with a
+     * {@link ConcurrentModificationException} if the tree changes while it is in use.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the overlapping events, ordered by start time
+     */
+    Iterator<EventInterface> iterator(LocalDateTime from, LocalDateTime to)
+    {
+        return new RangeIterator(from, to);
+    }
+
+    /**
+     * Returns whether an indexed span overlaps the half-open range [from, to).
+     *
+     * @param start the start of the indexed span
+     * @param end the end of the indexed span
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return whether the span overlaps the range
+     */
+    static boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to)
+    {
+        if (!start.isBefore(to))
+        {
+            return false;
+        }
+        return end.isAfter(from) || (start.equals(end) && !start.isBefore(from));
+    }
+
+    private static void collect(Node node, Bounds bounds, ArrayList<EventInterface> result)
+    {
+        while (node != null && bounds.endsAfterFrom(node))
+        {
+            collect(node.left, bounds, result);
+            if (!bounds.startsBeforeTo(node))
+            {
+                return;
+            }
+            if (bounds.overlaps(node))
+            {
+                result.add(node.event);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * A queried range with its bounds also in epoch milliseconds. Nodes are compared with the
+     * range using the milliseconds, and only when those are equal using the exact times.
+     */
+    private static final class Bounds
+    {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final long fromMillis;
+        private final long toMillis;
+
+        private Bounds(LocalDateTime from, LocalDateTime to)
+        {
+            this.from = from;
+            this.to = to;
+            this.fromMillis = TimeZoneView.toEpochMilli(from);
+            this.toMillis = TimeZoneView.toEpochMilli(to);
+        }
+
+        /**
+         * Returns whether some event in the node's subtree ends at or after the start of the range.
+         */
+        private boolean endsAfterFrom(Node node)
+        {
+            return compare(node.maxEndMillis, node.maxEnd, this.fromMillis, this.from) >= 0;
+        }
+
+        /**
+         * Returns whether the node's event starts before the end of the range.
+         */
+        private boolean startsBeforeTo(Node node)
+        {
+            return compare(node.startMillis, node.start, this.toMillis, this.to) < 0;
+        }
+
+        /**
+         * Returns whether the node's event overlaps the range, as {@link #overlaps} defines it.
+         */
+        private boolean overlaps(Node node)
+        {
+            if (!this.startsBeforeTo(node))
+            {
+                return false;
+            }
+            if (compare(node.endMillis, node.end, this.fromMillis, this.from) > 0)
+            {
+                return true;
+            }
+            return node.startMillis == node.endMillis && node.start.equals(node.end)
+                    && compare(node.startMillis, node.start, this.fromMillis, this.from) >= 0;
+        }
+    }
+
+    /**
+     * Compares two times by their epoch milliseconds, falling back to the times themselves
+     * when the milliseconds are equal.
+     */
+    private static int compare(long millis, LocalDateTime time, long otherMillis, LocalDateTime other)
+    {
+        return millis != otherMillis ? Long.compare(millis, otherMillis) : time.compareTo(other);
+    }
+
+    /**
+     * An in-order traversal of the tree that prunes subtrees outside the queried range.
+     */
+    private final class RangeIterator implements Iterator<EventInterface>
+    {
+        private final Bounds bounds;
+        private final ArrayDeque<Node> stack;
+        private final int expectedModCount;
+        private Node next;
+
+        private RangeIterator(LocalDateTime from, LocalDateTime to)
+        {
+            this.bounds = new Bounds(from, to);
+            this.stack = new ArrayDeque<>();
+            this.expectedModCount = EventIntervalTree.this.modCount;
+            if (from.isBefore(to))
+            {
+                this.descend(EventIntervalTree.this.root);
+            }
+            this.advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.next != null;
+        }
+
+        @Override
+        public EventInterface next()
+        {
+            if (this.next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            if (EventIntervalTree.this.modCount != this.expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+
+            EventInterface event = this.next.event;
+            this.advance();
+            return event;
+        }
+
+        private void descend(Node node)
+        {
+            while (node != null && this.bounds.endsAfterFrom(node))
+            {
+                this.stack.push(node);
+                node = node.left;
+            }
+        }
+
+        private void advance()
+        {
+            this.next = null;
+            while (!this.stack.isEmpty())
+            {
+                Node node = this.stack.pop();
+                if (!this.bounds.startsBeforeTo(node))
+                {
+                    this.stack.clear();
+                    return;
+                }
+                this.descend(node.right);
+                if (this.bounds.overlaps(node))
+                {
+                    this.next = node;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int compare(Node a, Node b)
+    {
+        int result = compare(a.startMillis, a.start, b.startMillis, b.start);
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+    }
+
+    private static Node insert(Node node, Node inserted)
+    {
+        if (node == null)
+        {
+            return inserted;
+        }
+
+        if (compare(inserted, node) < 0)
+        {
+            node.left = insert(node.left, inserted);
+        }
+        else
+        {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, Node deleted)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+
+        if (node == deleted)
+        {
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            if (node.right == null)
+            {
+                return node.left;
+            }
+
+            Node successor = node.right;
+            while (successor.left != null)
+            {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+
+        if (compare(deleted, node) < 0)
+        {
+            node.left = delete(node.left, deleted);
+        }
+        else
+        {
+            node.right = delete(node.right, deleted);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node)
+    {
+        if (node.left == null)
+        {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    /**
+     * Appends the nodes of a subtree to the list in order.
+     */
+    private static void inOrder(Node node, ArrayList<Node> nodes)
+    {
+        while (node != null)
+        {
+            inOrder(node.left, nodes);
+            nodes.add(node);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Builds a balanced subtree from the sorted nodes in [from, to).
+     */
+    private static Node build(ArrayList<Node> nodes, int from, int to)
+    {
+        if (from >= to)
+        {
+            return null;
+        }
+
+        int middle = (from + to) >>> 1;
+        Node node = nodes.get(middle);
+        node.left = build(nodes, from, middle);
+        node.right = build(nodes, middle + 1, to);
+        refresh(node);
+        return node;
+    }
+
+    private static int height(Node node)
+    {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void refresh(Node node)
+    {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.end;
+        long maxEndMillis = node.endMillis;
+        if (node.left != null && compare(node.left.maxEndMillis, node.left.maxEnd, maxEndMillis, maxEnd) > 0)
+        {
+            maxEnd = node.left.maxEnd;
+            maxEndMillis = node.left.maxEndMillis;
+        }
+        if (node.right != null && compare(node.right.maxEndMillis, node.right.maxEnd, maxEndMillis, maxEnd) > 0)
+        {
+            maxEnd = node.right.maxEnd;
+            maxEndMillis = node.right.maxEndMillis;
+        }
+        node.maxEnd = maxEnd;
+        node.maxEndMillis = maxEndMillis;
+    }
+
+    private static Node balance(Node node)
+    {
+        refresh(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1)
+        {
+            if (height(node.left.left) < height(node.left.right))
+            {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1)
+        {
+            if (height(node.right.right) < height(node.right.left))
+            {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node)
+    {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+
+    private static Node rotateRight(Node node)
+    {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+}
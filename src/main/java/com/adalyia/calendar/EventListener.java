@@ -0,0 +1,20 @@
+/**
+ * EventListener.java
+ * Purpose: Listener notified when a Calendar Task/Event is modified
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+@FunctionalInterface
+public interface EventListener
+{
+    /**
+     * Called after a field of the event has been changed.
+     *
+     * @param event the event that was changed
+     * @param field the field that was changed
+     * @param oldValue the value of the field before the change
+     */
+    void eventChanged(EventInterface event, EventField field, Object oldValue);
+}
@@ -0,0 +1,235 @@
+/**
+ * EventOccurrence.java
+ * Purpose: A single, read-only occurrence of a recurring Calendar Event
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A lightweight view of one occurrence of a {@link RecurringEvent}. Occurrences are created on
+ * demand and share every property except their start and end with their series, including the
+ * series' ID. They cannot be modified directly; change the series or its rule instead.
+ */
+public class EventOccurrence implements EventInterface
+{
+    // Instance variables
+    private final RecurringEvent series;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /**
+     * Constructor for EventOccurrence
+     *
+     * @param series The recurring event the occurrence belongs to
+     * @param start The start time of the occurrence
+     */
+    EventOccurrence(RecurringEvent series, LocalDateTime start)
+    {
+        this.series = series;
+        this.start = start;
+        this.end = start.plus(series.getDuration());
+    }
+
+    /**
+     * Returns the recurring event the occurrence belongs to
+     *
+     * @return The recurring event the occurrence belongs to
+     */
+    public RecurringEvent getSeries()
+    {
+        return this.series;
+    }
+
+    @Override
+    public UUID getId()
+    {
+        return this.series.getId();
+    }
+
+    @Override
+    public String getTitle()
+    {
+        return this.series.getTitle();
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return this.series.getDescription();
+    }
+
+    @Override
+    public String getLocation()
+    {
+        return this.series.getLocation();
+    }
+
+    @Override
+    public LocalDateTime getStart()
+    {
+        return this.start;
+    }
+
+    @Override
+    public LocalDateTime getEnd()
+    {
+        return this.end;
+    }
+
+    @Override
+    public LocalDateTime getCreated()
+    {
+        return this.series.getCreated();
+    }
+
+    @Override
+    public LocalDateTime getModified()
+    {
+        return this.series.getModified();
+    }
+
+    @Override
+    public Duration getDuration()
+    {
+        return Duration.between(this.start, this.end);
+    }
+
+    @Override
+    public Duration getReminder()
+    {
+        return Duration.between(TimeZoneView.now(), this.start);
+    }
+
+    @Override
+    public ArrayList<Tag> getTags()
+    {
+        return this.series.getTags();
+    }
+
+    @Override
+    public ArrayList<String> getAuditLog()
+    {
+        return this.series.getAuditLog();
+    }
+
+    @Override
+    public List<AuditEntry> getAuditEntries()
+    {
+        return this.series.getAuditEntries();
+    }
+
+    @Override
+    public void setTitle(String title)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void setDescription(String description)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void setLocation(String location)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void setStart(LocalDateTime start)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void setEnd(LocalDateTime end)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void setTags(ArrayList<Tag> tags)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void addListener(EventListener listener)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    @Override
+    public void removeListener(EventListener listener)
+    {
+        throw new UnsupportedOperationException("Occurrences of a recurring event cannot be modified");
+    }
+
+    /**
+     * Checks that an event can be added to a calendar. Occurrences cannot, as they share their
+     * series' ID and would replace it; calendars call this before changing anything.
+     *
+     * @param event the event to be added
+     * @throws IllegalArgumentException if the event is an occurrence of a recurring event
+     */
+    static void checkAddable(EventInterface event)
+    {
+        if (event instanceof EventOccurrence)
+        {
+            throw new IllegalArgumentException("Occurrences of a recurring event cannot be added to a calendar; add the series instead");
+        }
+    }
+
+    /**
+     * Whether the occurrence is equal to another object
+     *
+     * @param o The object to be compared
+     * @return Whether the object is the same occurrence of the same series
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (o == this)
+        {
+            return true;
+        }
+
+        if (!(o instanceof EventOccurrence occurrence))
+        {
+            return false;
+        }
+
+        return this.series == occurrence.series && this.start.equals(occurrence.start);
+    }
+
+    /**
+     * Returns a hash code for the occurrence
+     *
+     * @return A hash code for the occurrence
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(System.identityHashCode(this.series), this.start);
+    }
+
+    /**
+     * Returns a string representation of the occurrence
+     *
+     * @return A string representation of the occurrence
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{title: %s, start: %s, end: %s}", this.getTitle(), this.start, this.end);
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * EventQuery.java
+ * Purpose: Streaming query over the Tasks & Events of a Calendar
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A query over a calendar's events that publishes its results one at a time, as a
+ * {@link Flow.Publisher}, instead of returning them all in a list. For example, an exporter
+ * streams the work events of a year with
+ * <pre>
+ * calendar.query().between(start, end).tagged(TagQuery.tagged(work)).subscribe(exporter);
+ * </pre>
+ * Nothing is evaluated until the subscriber requests events, and then only as many events are
+ * found as it has requested, plus one to learn whether there are more. The filters are applied to
+ * each event as it is reached, so memory use does not grow with the number of results, and a
+ * subscriber that cancels stops the query without paying for the rest. Without a range, events
+ * are published in the order the calendar returns them from getEvents; with one, ordered by
+ * start time, with one event per occurrence of a recurring event.
+ * <p>
+ * A query is immutable; each method returns a new query, and every subscription runs the query
+ * afresh. Signals are delivered one at a time, on the thread that requests events unless an
+ * executor is given with {@link #on}. A Calendar must not be modified while a subscription to
+ * one of its queries is active; query a ConcurrentCalendar, or a {@link Calendar#snapshot()},
+ * to keep writing while the results are consumed.
+ */
+public final class EventQuery implements Flow.Publisher<EventInterface>
+{
+    // Instance variables
+    private final CalendarInterface calendar;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final TagQuery tags;
+    private final ArrayList<String> terms;
+    private final Executor executor;
+
+    /**
+     * Constructs a new EventQuery matching every event of a calendar.
+     *
+     * @param calendar the calendar to query
+     */
+    EventQuery(CalendarInterface calendar)
+    {
+        this(calendar, null, null, null, new ArrayList<>(), Runnable::run);
+    }
+
+    private EventQuery(CalendarInterface calendar, LocalDateTime from, LocalDateTime to, TagQuery tags,
+                       ArrayList<String> terms, Executor executor)
+    {
+        this.calendar = calendar;
+        this.from = from;
+        this.to = to;
+        this.tags = tags;
+        this.terms = terms;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a query matching only the events of this query overlapping the half-open range
+     * [from, to), ordered by start time.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the narrowed query
+     */
+    public EventQuery between(LocalDateTime from, LocalDateTime to)
+    {
+        return new EventQuery(this.calendar, Objects.requireNonNull(from), Objects.requireNonNull(to), this.tags, this.terms, this.executor);
+    }
+
+    /**
+     * Returns a query matching only the events of this query that also match a tag query.
+     *
+     * @param query the tag query to match
+     * @return the narrowed query
+     */
+    public EventQuery tagged(TagQuery query)
+    {
+        TagQuery tags = this.tags == null ? query : this.tags.and(query);
+        return new EventQuery(this.calendar, this.from, this.to, tags, this.terms, this.executor);
+    }
+
+    /**
+     * Returns a query matching only the events of this query whose title, description or
+     * location contain every word of the text, as a prefix of one of their words, as search does.
+     *
+     * @param text the words to match
+     * @return the narrowed query
+     */
+    public EventQuery matching(String text)
+    {
+        ArrayList<String> terms = new ArrayList<>(this.terms);
+        SearchIndex.tokenize(text, terms::add);
+        return new EventQuery(this.calendar, this.from, this.to, this.tags, terms, this.executor);
+    }
+
+    /**
+     * Returns a query that delivers its signals on the given executor rather than on the thread
+     * requesting events.
+     *
+     * @param executor the executor to deliver signals on
+     * @return the query delivering on the executor
+     */
+    public EventQuery on(Executor executor)
+    {
+        return new EventQuery(this.calendar, this.from, this.to, this.tags, this.terms, Objects.requireNonNull(executor));
+    }
+
+    /**
+     * Subscribes to the results of the query. The query is run for this subscriber alone, and
+     * only as far as it requests.
+     *
+     * @param subscriber the subscriber to publish the results to
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super EventInterface> subscriber)
+    {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new QuerySubscription(subscriber));
+    }
+
+    /**
+     * Returns whether an event passes the query's tag and text filters.
+     */
+    private boolean accepts(EventInterface event)
+    {
+        if (this.tags != null && !this.tags.matches(event))
+        {
+            return false;
+        }
+        for (String term : this.terms)
+        {
+            if (!contains(event.getTitle(), term) && !contains(event.getDescription(), term) && !contains(event.getLocation(), term))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Iterator<EventInterface> source()
+    {
+        if (this.from != null)
+        {
+            return this.calendar.getEventIterator(this.from, this.to);
+        }
+        if (this.calendar instanceof Calendar calendar)
+        {
+            return calendar.iterator();
+        }
+        return this.calendar.getEvents().iterator();
+    }
+
+    private static boolean contains(String text, String term)
+    {
+        boolean[] found = {false};
+        SearchIndex.tokenize(text, word -> found[0] |= word.startsWith(term));
+        return found[0];
+    }
+
+    /**
+     * One subscriber's run of the query. Requests add to the outstanding demand, and a single
+     * drain, on the executor, publishes events while there is demand. A request made while a
+     * drain is running, such as from onNext, is picked up by that drain rather than starting
+     * another, so signals are never concurrent or nested.
+     */
+    private final class QuerySubscription implements Flow.Subscription, Runnable
+    {
+        private final Flow.Subscriber<? super EventInterface> subscriber;
+        private final AtomicLong requested;
+        private final AtomicInteger pending;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private Iterator<EventInterface> source;
+        private EventInterface next;
+
+        private QuerySubscription(Flow.Subscriber<? super EventInterface> subscriber)
+        {
+            this.subscriber = subscriber;
+            this.requested = new AtomicLong();
+            this.pending = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                this.error = new IllegalArgumentException("Requests must be positive, not " + n);
+                this.schedule();
+                return;
+            }
+            this.requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            this.schedule();
+        }
+
+        @Override
+        public void cancel()
+        {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule()
+        {
+            if (this.pending.getAndIncrement() == 0)
+            {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            int missed = 1;
+            do
+            {
+                if (this.cancelled)
+                {
+                    this.source = null;
+                    this.next = null;
+                    return;
+                }
+                if (this.error != null)
+                {
+                    this.fail(this.error);
+                    return;
+                }
+
+                try
+                {
+                    if (this.source == null)
+                    {
+                        this.source = source();
+                        this.next = this.advance();
+                    }
+
+                    long demand = this.requested.get();
+                    long emitted = 0;
+                    while (emitted != demand && this.next != null && !this.cancelled)
+                    {
+                        EventInterface event = this.next;
+                        this.subscriber.onNext(event);
+                        emitted++;
+                        this.next = this.advance();
+                    }
+                    if (this.next == null && !this.cancelled)
+                    {
+                        this.cancelled = true;
+                        this.source = null;
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    if (emitted > 0 && demand != Long.MAX_VALUE)
+                    {
+                        this.requested.addAndGet(-emitted);
+                    }
+                }
+                catch (RuntimeException e)
+                {
+                    this.fail(e);
+                    return;
+                }
+                missed = this.pending.addAndGet(-missed);
+            }
+            while (missed != 0);
+        }
+
+        /**
+         * Returns the next event passing the filters, or null when there are no more.
+         */
+        private EventInterface advance()
+        {
+            while (this.source.hasNext())
+            {
+                EventInterface event = this.source.next();
+                if (accepts(event))
+                {
+                    return event;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Ends the subscription with an error. Once it has ended the drain never runs again.
+         */
+        private void fail(Throwable error)
+        {
+            this.cancelled = true;
+            this.source = null;
+            this.next = null;
+            this.subscriber.onError(error);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * FreeBusyFinder.java
+ * Purpose: Finds free and busy time across several Calendars
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Merges the busy time of several calendars and finds the gaps between them.
+ * <p>
+ * Each calendar is read through its lazy, start-ordered range iterator and the streams are
+ * combined with a k-way merge, so only the events up to the last slot returned are ever
+ * visited and no combined list of events is built. Zero-duration events such as tasks do not
+ * make anyone busy. Working hours are wall-clock times in the finder's time zone, and are
+ * converted to stored form (see {@link TimeZoneView}) day by day, so they follow the zone's
+ * daylight saving changes.
+ */
+public class FreeBusyFinder
+{
+    // Instance variables
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final EnumSet<DayOfWeek> workingDays;
+    private final TimeZoneView zone;
+
+    /**
+     * Constructs a new FreeBusyFinder that considers every hour of every day available.
+     */
+    public FreeBusyFinder()
+    {
+        this.dayStart = null;
+        this.dayEnd = null;
+        this.workingDays = EnumSet.allOf(DayOfWeek.class);
+        this.zone = null;
+    }
+
+    /**
+     * Constructs a new FreeBusyFinder that only returns free time within working hours in the
+     * system time zone.
+     *
+     * @param dayStart the time working hours start each day
+     * @param dayEnd the time working hours end each day
+     * @param workingDays the days of the week that have working hours
+     */
+    public FreeBusyFinder(LocalTime dayStart, LocalTime dayEnd, Set<DayOfWeek> workingDays)
+    {
+        this(dayStart, dayEnd, workingDays, TimeZoneView.systemDefault());
+    }
+
+    /**
+     * Constructs a new FreeBusyFinder that only returns free time within working hours.
+     *
+     * @param dayStart the time working hours start each day
+     * @param dayEnd the time working hours end each day
+     * @param workingDays the days of the week that have working hours
+     * @param zone the time zone of the working hours
+     */
+    public FreeBusyFinder(LocalTime dayStart, LocalTime dayEnd, Set<DayOfWeek> workingDays, TimeZoneView zone)
+    {
+        if (!dayEnd.isAfter(dayStart))
+        {
+            throw new TimeBoundsException("Working hours must end after they start");
+        }
+
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        this.workingDays = workingDays.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(workingDays);
+        this.zone = zone;
+    }
+
+    /**
+     * Returns the periods within [from, to) in which at least one of the calendars is busy.
+     * Overlapping and adjacent events are merged into a single period.
+     *
+     * @param calendars the calendars to check
+     * @param from the inclusive start of the search range
+     * @param to the exclusive end of the search range
+     * @return the busy periods, ordered by start time
+     */
+    public ArrayList<TimeSlot> getBusySlots(Collection<? extends CalendarInterface> calendars, LocalDateTime from, LocalDateTime to)
+    {
+        ArrayList<TimeSlot> busy = new ArrayList<>();
+        BusyIterator iterator = new BusyIterator(calendars, from, to);
+        while (iterator.hasNext())
+        {
+            busy.add(iterator.next());
+        }
+        return busy;
+    }
+
+    /**
+     * Returns the first free slots of the given duration within [from, to) in which none of the
+     * calendars is busy. Each free period yields as many back-to-back slots as fit in it.
+     *
+     * @param calendars the calendars to check
+     * @param from the inclusive start of the search range
+     * @param to the exclusive end of the search range
+     * @param duration the duration of each slot
+     * @param count the maximum number of slots to return
+     * @return up to count free slots, ordered by start time
+     */
+    public ArrayList<TimeSlot> findFreeSlots(Collection<? extends CalendarInterface> calendars, LocalDateTime from, LocalDateTime to, Duration duration, int count)
+    {
+        if (duration.isNegative() || duration.isZero())
+        {
+            throw new IllegalArgumentException("Slot duration must be positive");
+        }
+
+        ArrayList<TimeSlot> slots = new ArrayList<>();
+        BusyIterator busy = new BusyIterator(calendars, from, to);
+        LocalDateTime cursor = from;
+        while (slots.size() < count && busy.hasNext())
+        {
+            TimeSlot next = busy.next();
+            this.addFreeSlots(cursor, next.getStart(), duration, count, slots);
+            cursor = next.getEnd();
+        }
+        this.addFreeSlots(cursor, to, duration, count, slots);
+        return slots;
+    }
+
+    /**
+     * Splits the free period [start, end) into slots of the given duration, keeping only the
+     * parts that fall within working hours. Each day's opening and closing times are built in the
+     * finder's zone and then converted to stored form.
+     */
+    private void addFreeSlots(LocalDateTime start, LocalDateTime end, Duration duration, int count, ArrayList<TimeSlot> slots)
+    {
+        if (this.dayStart == null)
+        {
+            addSlots(start, end, duration, count, slots);
+            return;
+        }
+
+        for (LocalDate day = this.zone.fromStored(start).toLocalDate(); slots.size() < count && this.zone.toStored(day.atStartOfDay()).isBefore(end); day = day.plusDays(1))
+        {
+            if (!this.workingDays.contains(day.getDayOfWeek()))
+            {
+                continue;
+            }
+
+            LocalDateTime open = this.zone.toStored(day.atTime(this.dayStart));
+            LocalDateTime close = this.zone.toStored(day.atTime(this.dayEnd));
+            addSlots(open.isAfter(start) ? open : start, close.isBefore(end) ? close : end, duration, count, slots);
+        }
+    }
+
+    private static void addSlots(LocalDateTime start, LocalDateTime end, Duration duration, int count, ArrayList<TimeSlot> slots)
+    {
+        LocalDateTime slotEnd = start.plus(duration);
+        while (slots.size() < count && !slotEnd.isAfter(end))
+        {
+            slots.add(new TimeSlot(start, slotEnd));
+            start = slotEnd;
+            slotEnd = start.plus(duration);
+        }
+    }
+
+    /**
+     * A single calendar's position within the k-way merge.
+     */
+    private static final class Cursor
+    {
+        private final Iterator<EventInterface> events;
+        private EventInterface current;
+
+        private Cursor(Iterator<EventInterface> events)
+        {
+            this.events = events;
+        }
+
+        private boolean advance()
+        {
+            while (this.events.hasNext())
+            {
+                EventInterface event = this.events.next();
+                if (event.getEnd().isAfter(event.getStart()))
+                {
+                    this.current = event;
+                    return true;
+                }
+            }
+            this.current = null;
+            return false;
+        }
+    }
+
+    /**
+     * Produces the merged busy periods of several calendars, clipped to the search range.
+     */
+    private static final class BusyIterator implements Iterator<TimeSlot>
+    {
+        private final PriorityQueue<Cursor> queue;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private BusyIterator(Collection<? extends CalendarInterface> calendars, LocalDateTime from, LocalDateTime to)
+        {
+            this.queue = new PriorityQueue<>(Math.max(1, calendars.size()), Comparator.comparing((Cursor cursor) -> cursor.current.getStart()));
+            this.from = from;
+            this.to = to;
+            for (CalendarInterface calendar : calendars)
+            {
+                Cursor cursor = new Cursor(calendar.getEventIterator(from, to));
+                if (cursor.advance())
+                {
+                    this.queue.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !this.queue.isEmpty();
+        }
+
+        @Override
+        public TimeSlot next()
+        {
+            if (this.queue.isEmpty())
+            {
+                throw new NoSuchElementException();
+            }
+
+            LocalDateTime start = this.queue.peek().current.getStart();
+            LocalDateTime end = start;
+            while (!this.queue.isEmpty() && !this.queue.peek().current.getStart().isAfter(end))
+            {
+                Cursor cursor = this.queue.poll();
+                if (cursor.current.getEnd().isAfter(end))
+                {
+                    end = cursor.current.getEnd();
+                }
+                if (cursor.advance())
+                {
+                    this.queue.add(cursor);
+                }
+            }
+            return new TimeSlot(start.isBefore(this.from) ? this.from : start, end.isAfter(this.to) ? this.to : end);
+        }
+    }
+}
@@ -0,0 +1,646 @@
+/**
+ * ICalendarReader.java
+ * Purpose: Streaming reader of Calendars in the iCalendar (RFC 5545) format
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Reads VEVENT components as events (or recurring events when they carry a supported RRULE) and
+ * VTODO components as tasks, mapping CATEGORIES to tags.
+ * <p>
+ * The input is read line by line in a single pass and only the properties of the component
+ * currently being read are held in memory, so files of any size can be imported with bounded
+ * memory. Other components, such as VTIMEZONE and VALARM, are skipped. Every time is converted to
+ * stored form (see {@link TimeZoneView}): times in UTC or with a TZID from their zone, and
+ * floating times and dates from the system time zone, so floating times are kept as they are
+ * unless canonical UTC mode is on. Recurrence rules repeat in the zone of their DTSTART.
+ */
+public class ICalendarReader implements Closeable
+{
+    // Instance variables
+    private final BufferedReader in;
+    private final TimeZoneView zone;
+    private final HashMap<String, Tag> tags;
+    private String lookahead;
+    private String calendarName;
+    private String calendarDescription;
+    private int lineNumber;
+
+    /**
+     * Constructs a new ICalendarReader reading from the given reader.
+     *
+     * @param in the reader to read from
+     */
+    public ICalendarReader(Reader in)
+    {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 1 << 16);
+        this.zone = TimeZoneView.systemDefault();
+        this.tags = new HashMap<>();
+    }
+
+    /**
+     * Constructs a new ICalendarReader reading UTF-8 from the given stream.
+     *
+     * @param in the stream to read from
+     */
+    public ICalendarReader(InputStream in)
+    {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the calendar name (X-WR-CALNAME) if it has been read, or null.
+     *
+     * @return the calendar name, or null
+     */
+    public String getCalendarName()
+    {
+        return this.calendarName;
+    }
+
+    /**
+     * Returns the calendar description (X-WR-CALDESC) if it has been read, or null.
+     *
+     * @return the calendar description, or null
+     */
+    public String getCalendarDescription()
+    {
+        return this.calendarDescription;
+    }
+
+    /**
+     * Reads every remaining event into the given calendar. Categories are matched to the
+     * calendar's tags by name, and tags for new categories are added to the calendar.
+     *
+     * @param calendar the calendar to add the events to
+     * @return the number of events read
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public int readInto(CalendarInterface calendar) throws IOException
+    {
+        for (TagInterface tag : calendar.getTags())
+        {
+            if (tag instanceof Tag known && known.getName() != null)
+            {
+                this.tags.putIfAbsent(known.getName(), known);
+            }
+        }
+
+        int known = this.tags.size();
+        int count = 0;
+        for (EventInterface event = this.readEvent(); event != null; event = this.readEvent())
+        {
+            calendar.addEvent(event);
+            count++;
+        }
+
+        if (this.tags.size() > known)
+        {
+            ArrayList<TagInterface> calendarTags = new ArrayList<>(calendar.getTags());
+            for (Tag tag : this.tags.values())
+            {
+                if (!calendarTags.contains(tag))
+                {
+                    calendarTags.add(tag);
+                }
+            }
+            calendar.setTags(calendarTags);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next event or task from the input.
+     *
+     * @return the next event, or null at the end of the input
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public EventInterface readEvent() throws IOException
+    {
+        for (String line = this.nextLine(); line != null; line = this.nextLine())
+        {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT"))
+            {
+                return this.readComponent("VEVENT");
+            }
+            if (line.equalsIgnoreCase("BEGIN:VTODO"))
+            {
+                return this.readComponent("VTODO");
+            }
+            if (startsWithIgnoreCase(line, "X-WR-CALNAME"))
+            {
+                this.calendarName = unescape(value(line));
+            }
+            else if (startsWithIgnoreCase(line, "X-WR-CALDESC"))
+            {
+                this.calendarDescription = unescape(value(line));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if the reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.in.close();
+    }
+
+    /**
+     * Reads the properties of a VEVENT or VTODO up to its END line and builds the event.
+     */
+    private EventInterface readComponent(String component) throws IOException
+    {
+        String uid = null;
+        String title = null;
+        String description = null;
+        String location = null;
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        LocalDateTime due = null;
+        LocalDateTime created = null;
+        LocalDateTime modified = null;
+        Duration duration = null;
+        boolean completed = false;
+        ZoneId startZone = null;
+        String rrule = null;
+        int rruleLine = 0;
+        ArrayList<LocalDateTime> exceptions = new ArrayList<>();
+        ArrayList<Tag> eventTags = new ArrayList<>();
+        int nested = 0;
+        int startLine = this.lineNumber;
+
+        for (String line = this.nextLine(); line != null; line = this.nextLine())
+        {
+            int colon = separator(line);
+            if (colon < 0)
+            {
+                continue;
+            }
+
+            int semicolon = line.indexOf(';');
+            String name = line.substring(0, semicolon >= 0 && semicolon < colon ? semicolon : colon).toUpperCase(Locale.ROOT);
+            String parameters = semicolon >= 0 && semicolon < colon ? line.substring(semicolon + 1, colon) : "";
+            String value = line.substring(colon + 1);
+
+            if (name.equals("BEGIN"))
+            {
+                nested++;
+                continue;
+            }
+            if (name.equals("END"))
+            {
+                if (nested-- > 0)
+                {
+                    continue;
+                }
+                if (!value.equalsIgnoreCase(component))
+                {
+                    throw new IOException("Line " + this.lineNumber + ": expected END:" + component);
+                }
+                break;
+            }
+            if (nested > 0)
+            {
+                continue;
+            }
+
+            try
+            {
+                switch (name)
+                {
+                    case "UID" -> uid = value;
+                    case "SUMMARY" -> title = unescape(value);
+                    case "DESCRIPTION" -> description = unescape(value);
+                    case "LOCATION" -> location = unescape(value);
+                    case "DTSTART" ->
+                    {
+                        start = this.time(value, parameters);
+                        startZone = zone(value, parameters);
+                    }
+                    case "DTEND" -> end = this.time(value, parameters);
+                    case "DUE" -> due = this.time(value, parameters);
+                    case "DURATION" -> duration = duration(value);
+                    case "CREATED" -> created = this.time(value, parameters);
+                    case "LAST-MODIFIED" -> modified = this.time(value, parameters);
+                    case "STATUS" -> completed |= value.equalsIgnoreCase("COMPLETED");
+                    case "COMPLETED" -> completed = true;
+                    case "RRULE" ->
+                    {
+                        rrule = value;
+                        rruleLine = this.lineNumber;
+                    }
+                    case "EXDATE" ->
+                    {
+                        for (String exception : value.split(","))
+                        {
+                            exceptions.add(this.time(exception, parameters));
+                        }
+                    }
+                    case "CATEGORIES" ->
+                    {
+                        for (String category : splitText(value))
+                        {
+                            eventTags.add(this.tags.computeIfAbsent(category, key -> new Tag(key, "")));
+                        }
+                    }
+                    default ->
+                    {
+                        // Unsupported properties are ignored
+                    }
+                }
+            }
+            catch (DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e)
+            {
+                throw new IOException("Line " + this.lineNumber + ": malformed " + name + " value " + value, e);
+            }
+        }
+
+        if (component.equals("VTODO") && due == null)
+        {
+            due = start;
+        }
+        LocalDateTime first = component.equals("VTODO") ? due : start;
+        if (first == null)
+        {
+            throw new IOException("Line " + startLine + ": " + component + " has no start time");
+        }
+        if (created == null)
+        {
+            created = TimeZoneView.now();
+        }
+        if (end == null)
+        {
+            end = duration != null ? first.plus(duration) : first;
+        }
+        if (end.isBefore(first))
+        {
+            throw new TimeBoundsException("Line " + startLine + ": end time cannot be before start time");
+        }
+
+        UUID id = id(uid);
+        Event event;
+        RecurrenceRule rule = null;
+        if (rrule != null)
+        {
+            try
+            {
+                rule = rule(rrule, this);
+            }
+            catch (DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e)
+            {
+                throw new IOException("Line " + rruleLine + ": malformed RRULE value " + rrule, e);
+            }
+        }
+        if (component.equals("VTODO"))
+        {
+            event = new Task(id, title, description, location, first, created, modified, completed);
+        }
+        else if (rule != null)
+        {
+            for (LocalDateTime exception : exceptions)
+            {
+                rule.addException(exception);
+            }
+            rule.setZone(startZone);
+            event = new RecurringEvent(id, title, description, location, first, end, created, modified, rule);
+        }
+        else
+        {
+            event = new Event(id, title, description, location, first, end, created, modified);
+        }
+        event.getTags().addAll(eventTags);
+        return event;
+    }
+
+    /**
+     * Returns the next unfolded content line, or null at the end of the input.
+     */
+    private String nextLine() throws IOException
+    {
+        String line = this.lookahead != null ? this.lookahead : this.in.readLine();
+        this.lookahead = null;
+        if (line == null)
+        {
+            return null;
+        }
+        this.lineNumber++;
+
+        String next = this.in.readLine();
+        if (next == null || next.isEmpty() || (next.charAt(0) != ' ' && next.charAt(0) != '\t'))
+        {
+            this.lookahead = next;
+            return line;
+        }
+
+        StringBuilder unfolded = new StringBuilder(line);
+        while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t'))
+        {
+            unfolded.append(next, 1, next.length());
+            this.lineNumber++;
+            next = this.in.readLine();
+        }
+        this.lookahead = next;
+        return unfolded.toString();
+    }
+
+    /**
+     * Parses a DATE or DATE-TIME value as a stored time.
+     */
+    private LocalDateTime time(String value, String parameters)
+    {
+        value = value.trim();
+        int year = Integer.parseInt(value, 0, 4, 10);
+        int month = Integer.parseInt(value, 4, 6, 10);
+        int day = Integer.parseInt(value, 6, 8, 10);
+        if (value.length() == 8)
+        {
+            return this.zone.toStored(LocalDateTime.of(year, month, day, 0, 0));
+        }
+
+        LocalDateTime time = LocalDateTime.of(year, month, day,
+                Integer.parseInt(value, 9, 11, 10),
+                Integer.parseInt(value, 11, 13, 10),
+                Integer.parseInt(value, 13, 15, 10));
+        return TimeZoneView.of(zone(value, parameters)).toStored(time);
+    }
+
+    /**
+     * Returns the time zone of a DATE or DATE-TIME value: UTC for times ending in Z, the TZID
+     * zone if it is known, and the system time zone for floating times and dates.
+     */
+    private static ZoneId zone(String value, String parameters)
+    {
+        value = value.trim();
+        if (value.length() > 8 && value.endsWith("Z"))
+        {
+            return ZoneOffset.UTC;
+        }
+
+        String tzid = parameter(parameters, "TZID");
+        if (tzid != null && value.length() > 8)
+        {
+            try
+            {
+                return ZoneId.of(tzid);
+            }
+            catch (DateTimeException e)
+            {
+                // Unknown zones are treated as floating times
+            }
+        }
+        return ZoneId.systemDefault();
+    }
+
+    /**
+     * Builds a recurrence rule from an RRULE value, or returns null if the rule uses parts this
+     * calendar cannot represent, in which case only the first occurrence is imported.
+     */
+    private static RecurrenceRule rule(String value, ICalendarReader reader)
+    {
+        RecurrenceFrequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDateTime until = null;
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : value.split(";"))
+        {
+            int equals = part.indexOf('=');
+            if (equals < 0)
+            {
+                continue;
+            }
+
+            String key = part.substring(0, equals).toUpperCase(Locale.ROOT);
+            String argument = part.substring(equals + 1);
+            switch (key)
+            {
+                case "FREQ" ->
+                {
+                    switch (argument.toUpperCase(Locale.ROOT))
+                    {
+                        case "DAILY" -> frequency = RecurrenceFrequency.DAILY;
+                        case "WEEKLY" -> frequency = RecurrenceFrequency.WEEKLY;
+                        case "MONTHLY" -> frequency = RecurrenceFrequency.MONTHLY;
+                        default ->
+                        {
+                            return null;
+                        }
+                    }
+                }
+                case "INTERVAL" -> interval = Integer.parseInt(argument);
+                case "COUNT" -> count = Integer.parseInt(argument);
+                case "UNTIL" -> until = reader.time(argument, "");
+                case "BYDAY" ->
+                {
+                    for (String day : argument.split(","))
+                    {
+                        DayOfWeek weekday = weekday(day);
+                        if (weekday == null)
+                        {
+                            return null;
+                        }
+                        days.add(weekday);
+                    }
+                }
+                case "WKST" ->
+                {
+                    // Weeks always start on Monday
+                }
+                default ->
+                {
+                    return null;
+                }
+            }
+        }
+
+        if (frequency == null || interval < 1 || count < 0 || (!days.isEmpty() && frequency != RecurrenceFrequency.WEEKLY))
+        {
+            return null;
+        }
+
+        RecurrenceRule rule = new RecurrenceRule(frequency, interval);
+        rule.setCount(count);
+        rule.setUntil(until);
+        rule.setDays(days);
+        return rule;
+    }
+
+    /**
+     * Returns the day of a plain BYDAY value such as MO, or null for forms this calendar cannot
+     * represent, such as 1MO or -1FR.
+     */
+    private static DayOfWeek weekday(String day)
+    {
+        return switch (day.trim().toUpperCase(Locale.ROOT))
+        {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> null;
+        };
+    }
+
+    /**
+     * Parses an iCalendar DURATION value such as PT1H30M, P1D or P2W.
+     */
+    private static Duration duration(String value)
+    {
+        String trimmed = value.trim().toUpperCase(Locale.ROOT);
+        boolean negative = trimmed.startsWith("-");
+        if (negative || trimmed.startsWith("+"))
+        {
+            trimmed = trimmed.substring(1);
+        }
+
+        Duration duration = trimmed.endsWith("W")
+                ? Duration.ofDays(7L * Long.parseLong(trimmed.substring(1, trimmed.length() - 1)))
+                : Duration.parse(trimmed);
+        return negative ? duration.negated() : duration;
+    }
+
+    private static UUID id(String uid)
+    {
+        if (uid == null)
+        {
+            return UUID.randomUUID();
+        }
+        try
+        {
+            return UUID.fromString(uid);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return UUID.nameUUIDFromBytes(uid.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Returns the position of the colon separating a property's name and parameters from its
+     * value, skipping colons inside quoted parameter values.
+     */
+    private static int separator(String line)
+    {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (c == '"')
+            {
+                quoted = !quoted;
+            }
+            else if (c == ':' && !quoted)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String parameter(String parameters, String name)
+    {
+        for (String parameter : parameters.split(";"))
+        {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).equalsIgnoreCase(name))
+            {
+                String value = parameter.substring(equals + 1);
+                return value.length() > 1 && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+            }
+        }
+        return null;
+    }
+
+    private static String value(String line)
+    {
+        int colon = separator(line);
+        return colon < 0 ? "" : line.substring(colon + 1);
+    }
+
+    private static boolean startsWithIgnoreCase(String line, String name)
+    {
+        return line.regionMatches(true, 0, name, 0, name.length())
+                && line.length() > name.length()
+                && (line.charAt(name.length()) == ':' || line.charAt(name.length()) == ';');
+    }
+
+    /**
+     * Reverses the escaping of a TEXT value.
+     */
+    private static String unescape(String value)
+    {
+        if (value.indexOf('\\') < 0)
+        {
+            return value;
+        }
+
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length())
+            {
+                char next = value.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            }
+            else
+            {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Splits a comma-separated list of TEXT values, honouring escaped commas.
+     */
+    private static ArrayList<String> splitText(String value)
+    {
+        ArrayList<String> values = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\\')
+            {
+                i++;
+            }
+            else if (c == ',')
+            {
+                values.add(unescape(value.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        values.add(unescape(value.substring(start)));
+        return values;
+    }
+}
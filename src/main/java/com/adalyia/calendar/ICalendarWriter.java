@@ -0,0 +1,428 @@
+/**
+ * ICalendarWriter.java
+ * Purpose: Streaming writer of Calendars in the iCalendar (RFC 5545) format
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Writes events as iCalendar VEVENT components and tasks as VTODO components, with their tags as
+ * CATEGORIES and recurrence rules as RRULE and EXDATE properties.
+ * <p>
+ * Properties are escaped and folded at 75 octets as they are written, character by character,
+ * straight to the underlying writer, so exporting a calendar never builds the document, or even
+ * a whole property, as a string. Event times are written as floating local times, or as UTC
+ * times with a trailing Z in canonical UTC mode (see {@link TimeZoneView}); the creation,
+ * modification and stamp times are always written in UTC. Recurring events whose rule repeats in
+ * a time zone have their times written in that zone, with a TZID, so the series keeps its
+ * wall-clock time wherever it is imported.
+ */
+public class ICalendarWriter implements Closeable, Flushable
+{
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    // Instance variables
+    private final Writer out;
+    private int lineOctets;
+
+    /**
+     * Constructs a new ICalendarWriter writing to the given writer.
+     *
+     * @param out the writer to write to
+     */
+    public ICalendarWriter(Writer out)
+    {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+    }
+
+    /**
+     * Constructs a new ICalendarWriter writing UTF-8 to the given stream.
+     *
+     * @param out the stream to write to
+     */
+    public ICalendarWriter(OutputStream out)
+    {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a whole calendar, including every event in it.
+     *
+     * @param calendar the calendar to write
+     * @throws IOException if the calendar cannot be written
+     */
+    public void writeCalendar(CalendarInterface calendar) throws IOException
+    {
+        this.beginCalendar(calendar.getName(), calendar.getDescription());
+        this.writeEvents(calendar.getEvents().iterator());
+        this.endCalendar();
+    }
+
+    /**
+     * Writes the opening lines of a calendar. Events can then be written one at a time.
+     *
+     * @param name the name of the calendar, or null
+     * @param description the description of the calendar, or null
+     * @throws IOException if the lines cannot be written
+     */
+    public void beginCalendar(String name, String description) throws IOException
+    {
+        this.line("BEGIN", "VCALENDAR");
+        this.line("VERSION", "2.0");
+        this.line("PRODID", "-//Adalyia//Calendar//EN");
+        if (name != null)
+        {
+            this.text("X-WR-CALNAME", name);
+        }
+        if (description != null)
+        {
+            this.text("X-WR-CALDESC", description);
+        }
+    }
+
+    /**
+     * Writes the closing line of a calendar and flushes the output.
+     *
+     * @throws IOException if the line cannot be written
+     */
+    public void endCalendar() throws IOException
+    {
+        this.line("END", "VCALENDAR");
+        this.out.flush();
+    }
+
+    /**
+     * Writes every event returned by the iterator.
+     *
+     * @param events the events to write
+     * @throws IOException if an event cannot be written
+     */
+    public void writeEvents(Iterator<? extends EventInterface> events) throws IOException
+    {
+        while (events.hasNext())
+        {
+            this.writeEvent(events.next());
+        }
+    }
+
+    /**
+     * Writes a single event, or a task as a VTODO component.
+     *
+     * @param event the event to write
+     * @throws IOException if the event cannot be written
+     */
+    public void writeEvent(EventInterface event) throws IOException
+    {
+        boolean task = event instanceof TaskInterface;
+        TimeZoneView zone = null;
+        if (event instanceof RecurringEvent recurring && recurring.getRule().getZone() != null)
+        {
+            zone = TimeZoneView.of(recurring.getRule().getZone());
+        }
+        String component = task ? "VTODO" : "VEVENT";
+        this.line("BEGIN", component);
+        this.line("UID", event.getId().toString());
+        this.utc("DTSTAMP", event.getModified());
+        this.utc("CREATED", event.getCreated());
+        this.utc("LAST-MODIFIED", event.getModified());
+        if (task)
+        {
+            this.stored("DUE", event.getStart());
+            this.line("STATUS", ((TaskInterface) event).isCompleted() ? "COMPLETED" : "NEEDS-ACTION");
+        }
+        else
+        {
+            this.zoned("DTSTART", event.getStart(), zone);
+            this.zoned("DTEND", event.getEnd(), zone);
+        }
+        if (event.getTitle() != null)
+        {
+            this.text("SUMMARY", event.getTitle());
+        }
+        if (event.getDescription() != null)
+        {
+            this.text("DESCRIPTION", event.getDescription());
+        }
+        if (event.getLocation() != null)
+        {
+            this.text("LOCATION", event.getLocation());
+        }
+        this.categories(event.getTags());
+        if (event instanceof RecurringEvent recurring)
+        {
+            this.rule(recurring.getRule(), zone);
+        }
+        this.line("END", component);
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if the writer cannot be flushed
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        this.out.flush();
+    }
+
+    /**
+     * Closes the underlying writer.
+     *
+     * @throws IOException if the writer cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.out.close();
+    }
+
+    private void categories(ArrayList<Tag> tags) throws IOException
+    {
+        if (tags.isEmpty())
+        {
+            return;
+        }
+
+        this.name("CATEGORIES");
+        for (int i = 0; i < tags.size(); i++)
+        {
+            if (i > 0)
+            {
+                this.put(',');
+            }
+            String name = tags.get(i).getName();
+            this.escaped(name == null ? "" : name);
+        }
+        this.endLine();
+    }
+
+    private void rule(RecurrenceRule rule, TimeZoneView zone) throws IOException
+    {
+        this.name("RRULE");
+        this.raw("FREQ=");
+        this.raw(rule.getFrequency().name());
+        if (rule.getInterval() != 1)
+        {
+            this.raw(";INTERVAL=");
+            this.raw(Integer.toString(rule.getInterval()));
+        }
+        if (rule.getCount() > 0)
+        {
+            this.raw(";COUNT=");
+            this.raw(Integer.toString(rule.getCount()));
+        }
+        if (rule.getUntil() != null)
+        {
+            // UNTIL is floating only when DTSTART is, and in UTC otherwise
+            this.raw(";UNTIL=");
+            if (zone == null && !TimeZoneView.isCanonicalUtc())
+            {
+                this.time(rule.getUntil(), false);
+            }
+            else
+            {
+                this.time(TimeZoneView.stored().toUtc(rule.getUntil()), true);
+            }
+        }
+        if (rule.getFrequency() == RecurrenceFrequency.WEEKLY && !rule.getDays().isEmpty())
+        {
+            this.raw(";BYDAY=");
+            boolean first = true;
+            for (DayOfWeek day : rule.getDays())
+            {
+                if (!first)
+                {
+                    this.put(',');
+                }
+                this.raw(WEEKDAYS[day.ordinal()]);
+                first = false;
+            }
+        }
+        this.endLine();
+
+        for (LocalDateTime exception : rule.getExceptions())
+        {
+            this.zoned("EXDATE", exception, zone);
+        }
+    }
+
+    private void line(String name, String value) throws IOException
+    {
+        this.name(name);
+        this.raw(value);
+        this.endLine();
+    }
+
+    private void text(String name, String value) throws IOException
+    {
+        this.name(name);
+        this.escaped(value);
+        this.endLine();
+    }
+
+    /**
+     * Writes a stored time in UTC.
+     */
+    private void utc(String name, LocalDateTime time) throws IOException
+    {
+        this.name(name);
+        this.time(TimeZoneView.stored().toUtc(time), true);
+        this.endLine();
+    }
+
+    /**
+     * Writes a stored time as it is stored: in UTC in canonical mode, and as a floating local
+     * time otherwise.
+     */
+    private void stored(String name, LocalDateTime time) throws IOException
+    {
+        this.name(name);
+        this.time(time, TimeZoneView.isCanonicalUtc());
+        this.endLine();
+    }
+
+    /**
+     * Writes a stored time in a time zone, with a TZID, or as it is stored if the zone is null.
+     */
+    private void zoned(String name, LocalDateTime time, TimeZoneView zone) throws IOException
+    {
+        if (zone == null)
+        {
+            this.stored(name, time);
+            return;
+        }
+        if (zone.getZone() == ZoneOffset.UTC)
+        {
+            this.utc(name, time);
+            return;
+        }
+
+        this.raw(name);
+        this.raw(";TZID=");
+        this.raw(zone.getZone().getId());
+        this.put(':');
+        this.time(zone.fromStored(time), false);
+        this.endLine();
+    }
+
+    private void name(String name) throws IOException
+    {
+        this.raw(name);
+        this.put(':');
+    }
+
+    /**
+     * Writes a date and time in the iCalendar basic format, yyyyMMdd'T'HHmmss, followed by a Z
+     * for UTC times.
+     */
+    private void time(LocalDateTime time, boolean utc) throws IOException
+    {
+        this.digits(time.getYear(), 4);
+        this.digits(time.getMonthValue(), 2);
+        this.digits(time.getDayOfMonth(), 2);
+        this.put('T');
+        this.digits(time.getHour(), 2);
+        this.digits(time.getMinute(), 2);
+        this.digits(time.getSecond(), 2);
+        if (utc)
+        {
+            this.put('Z');
+        }
+    }
+
+    private void digits(int value, int width) throws IOException
+    {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10)
+        {
+            this.put((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private void raw(String value) throws IOException
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            this.put(value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a TEXT value, escaping backslashes, semicolons, commas and line breaks.
+     */
+    private void escaped(String value) throws IOException
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '\\', ';', ',' ->
+                {
+                    this.put('\\');
+                    this.put(c);
+                }
+                case '\n' ->
+                {
+                    this.put('\\');
+                    this.put('n');
+                }
+                case '\r' ->
+                {
+                    // Line breaks are written as \n alone
+                }
+                default -> this.put(c);
+            }
+        }
+    }
+
+    /**
+     * Writes a single character, folding the line first if the character would take it past
+     * 75 octets. Surrogate pairs are never split across lines.
+     */
+    private void put(char c) throws IOException
+    {
+        int octets;
+        if (Character.isHighSurrogate(c))
+        {
+            octets = 4;
+        }
+        else if (Character.isLowSurrogate(c))
+        {
+            octets = 0;
+        }
+        else
+        {
+            octets = c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        if (octets > 0 && this.lineOctets + octets > MAX_LINE_OCTETS)
+        {
+            this.out.write("\r\n ");
+            this.lineOctets = 1;
+        }
+        this.out.write(c);
+        this.lineOctets += octets;
+    }
+
+    private void endLine() throws IOException
+    {
+        this.out.write("\r\n");
+        this.lineOctets = 0;
+    }
+}
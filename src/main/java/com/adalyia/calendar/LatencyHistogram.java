@@ -0,0 +1,67 @@
+/**
+ * LatencyHistogram.java
+ * Purpose: Lock-free histogram of operation latencies for CalendarMetrics
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds with one bucket per power of two, so recording is a
+ * leading-zero count and an atomic increment, and 64 buckets cover every possible latency.
+ */
+class LatencyHistogram
+{
+    static final int BUCKETS = 64;
+
+    // Instance variables
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Constructs a new, empty histogram.
+     */
+    LatencyHistogram()
+    {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    void record(long nanos)
+    {
+        nanos = Math.max(0, nanos);
+        this.buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+        this.count.increment();
+        this.sum.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /**
+     * Passes the histogram to an exporter under the given name.
+     *
+     * @param name the name of the histogram
+     * @param exporter the exporter to pass it to
+     */
+    void export(String name, MetricsExporter exporter)
+    {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            counts[i] = this.buckets.get(i);
+        }
+        exporter.histogram(name, this.count.sum(), this.sum.sum(), this.max.get(), counts);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * MergingIterator.java
+ * Purpose: Merges several start-ordered streams of Calendar events into one
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * A lazy k-way merge of iterators that each return events ordered by start time. Only the
+ * head of every source is held at once, so merging costs O(log k) per event returned.
+ */
+class MergingIterator implements Iterator<EventInterface>
+{
+    /**
+     * A source iterator together with the event at its head.
+     */
+    private static final class Source
+    {
+        private final Iterator<EventInterface> events;
+        private EventInterface head;
+
+        private Source(Iterator<EventInterface> events)
+        {
+            this.events = events;
+        }
+    }
+
+    // Instance variables
+    private final PriorityQueue<Source> queue;
+
+    /**
+     * Constructs a new MergingIterator over the given start-ordered iterators.
+     *
+     * @param sources the iterators to merge
+     */
+    MergingIterator(List<Iterator<EventInterface>> sources)
+    {
+        this.queue = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing((Source source) -> source.head.getStart()));
+        for (Iterator<EventInterface> events : sources)
+        {
+            Source source = new Source(events);
+            if (events.hasNext())
+            {
+                source.head = events.next();
+                this.queue.add(source);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return !this.queue.isEmpty();
+    }
+
+    @Override
+    public EventInterface next()
+    {
+        Source source = this.queue.poll();
+        if (source == null)
+        {
+            throw new NoSuchElementException();
+        }
+
+        EventInterface event = source.head;
+        if (source.events.hasNext())
+        {
+            source.head = source.events.next();
+            this.queue.add(source);
+        }
+        return event;
+    }
+}
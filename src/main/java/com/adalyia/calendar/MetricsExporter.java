@@ -0,0 +1,21 @@
+/**
+ * MetricsExporter.java
+ * Purpose: Interface for passing CalendarMetrics to a monitoring system
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+/**
+ * Receives the current values of every metric when CalendarMetrics.export is called. Implement
+ * this to bridge the metrics to a monitoring system, calling export on a schedule.
+ * <p>
+ * Histograms have 64 buckets of latencies in nanoseconds: bucket 0 counts latencies of 0, and
+ * bucket i counts latencies from 2^(i-1) up to but not including 2^i.
+ */
+public interface MetricsExporter
+{
+    void counter(String name, long value);
+    void gauge(String name, long value);
+    void histogram(String name, long count, long sumNanos, long maxNanos, long[] buckets);
+}
@@ -0,0 +1,331 @@
+/**
+ * PersistentEventMap.java
+ * Purpose: Immutable map of Calendar Tasks & Events by unique ID, sharing structure between versions
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * An immutable hash array mapped trie of events by unique ID. Adding or removing an event returns
+ * a new map that copies only the nodes on the path to the event, at most seven arrays of at most
+ * 32 slots, and shares every other node with the map it was made from. Many versions of a map can
+ * therefore be kept at little more than the cost of one, and a version no longer referenced is
+ * reclaimed by the garbage collector like any other object.
+ * <p>
+ * Each entry carries a sequence number, so the entries can be listed in the order they were
+ * first added even though the trie itself is ordered by hash.
+ */
+final class PersistentEventMap
+{
+    /**
+     * The map with no entries
+     */
+    static final PersistentEventMap EMPTY = new PersistentEventMap(new Branch(0, new Object[0]), 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * An event stored in the map.
+     */
+    static final class Entry
+    {
+        final UUID id;
+        final EventInterface event;
+        final long sequence;
+
+        private Entry(UUID id, EventInterface event, long sequence)
+        {
+            this.id = id;
+            this.event = event;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A node holding, for each 5-bit slice of a hash present below it, either an entry or a
+     * child node. The bitmap has a bit set for each slice present, and the slots are packed in
+     * order of those bits.
+     */
+    private static final class Branch
+    {
+        final int bitmap;
+        final Object[] slots;
+
+        Branch(int bitmap, Object[] slots)
+        {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * A node holding entries whose hashes are identical, once every bit has been used.
+     */
+    private static final class Collision
+    {
+        final Entry[] entries;
+
+        Collision(Entry[] entries)
+        {
+            this.entries = entries;
+        }
+    }
+
+    // Instance variables
+    private final Branch root;
+    private final int size;
+
+    private PersistentEventMap(Branch root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of events in the map.
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the entry of the event with the given unique ID, or null if there is none.
+     */
+    Entry get(UUID id)
+    {
+        int hash = hash(id);
+        Object node = this.root;
+        for (int shift = 0; ; shift += BITS)
+        {
+            if (node instanceof Collision collision)
+            {
+                for (Entry entry : collision.entries)
+                {
+                    if (entry.id.equals(id))
+                    {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+
+            Branch branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((branch.bitmap & bit) == 0)
+            {
+                return null;
+            }
+            Object slot = branch.slots[Integer.bitCount(branch.bitmap & (bit - 1))];
+            if (slot instanceof Entry entry)
+            {
+                return entry.id.equals(id) ? entry : null;
+            }
+            node = slot;
+        }
+    }
+
+    /**
+     * Returns a map with the event stored under its unique ID, replacing any entry already
+     * stored under it.
+     *
+     * @param event the event to store
+     * @param sequence the position of the event when entries are listed in order
+     */
+    PersistentEventMap put(EventInterface event, long sequence)
+    {
+        UUID id = event.getId();
+        Entry entry = new Entry(id, event, sequence);
+        int size = this.get(id) == null ? this.size + 1 : this.size;
+        return new PersistentEventMap((Branch) put(this.root, entry, hash(id), 0), size);
+    }
+
+    /**
+     * Returns a map without the event with the given unique ID, or this map if there is none.
+     */
+    PersistentEventMap remove(UUID id)
+    {
+        if (this.get(id) == null)
+        {
+            return this;
+        }
+        Object root = remove(this.root, id, hash(id), 0);
+        if (root == null)
+        {
+            return EMPTY;
+        }
+        if (root instanceof Entry entry)
+        {
+            return EMPTY.put(entry.event, entry.sequence);
+        }
+        return new PersistentEventMap((Branch) root, this.size - 1);
+    }
+
+    /**
+     * Returns the events in the map in order of their sequence numbers.
+     */
+    ArrayList<EventInterface> events()
+    {
+        ArrayList<Entry> entries = new ArrayList<>(this.size);
+        collect(this.root, entries);
+        entries.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        ArrayList<EventInterface> events = new ArrayList<>(entries.size());
+        for (Entry entry : entries)
+        {
+            events.add(entry.event);
+        }
+        return events;
+    }
+
+    private static Object put(Object node, Entry entry, int hash, int shift)
+    {
+        if (node instanceof Collision collision)
+        {
+            Entry[] entries = collision.entries;
+            for (int i = 0; i < entries.length; i++)
+            {
+                if (entries[i].id.equals(entry.id))
+                {
+                    Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new Collision(copy);
+                }
+            }
+            Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new Collision(copy);
+        }
+
+        Branch branch = (Branch) node;
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        if ((branch.bitmap & bit) == 0)
+        {
+            Object[] slots = new Object[branch.slots.length + 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(branch.slots, index, slots, index + 1, branch.slots.length - index);
+            return new Branch(branch.bitmap | bit, slots);
+        }
+
+        Object slot = branch.slots[index];
+        Object replacement;
+        if (slot instanceof Entry existing)
+        {
+            replacement = existing.id.equals(entry.id)
+                    ? entry
+                    : merge(existing, hash(existing.id), entry, hash, shift + BITS);
+        }
+        else
+        {
+            replacement = put(slot, entry, hash, shift + BITS);
+        }
+        Object[] slots = branch.slots.clone();
+        slots[index] = replacement;
+        return new Branch(branch.bitmap, slots);
+    }
+
+    /**
+     * Returns a node holding two entries whose hashes agree below the given shift.
+     */
+    private static Object merge(Entry a, int hashA, Entry b, int hashB, int shift)
+    {
+        if (shift >= Integer.SIZE)
+        {
+            return new Collision(new Entry[] {a, b});
+        }
+
+        int sliceA = (hashA >>> shift) & MASK;
+        int sliceB = (hashB >>> shift) & MASK;
+        if (sliceA == sliceB)
+        {
+            return new Branch(1 << sliceA, new Object[] {merge(a, hashA, b, hashB, shift + BITS)});
+        }
+        return new Branch((1 << sliceA) | (1 << sliceB), sliceA < sliceB ? new Object[] {a, b} : new Object[] {b, a});
+    }
+
+    /**
+     * Returns the node without the entry, which must be present: an entry when only one is left
+     * and it can move up into the parent, or null when nothing is left.
+     */
+    private static Object remove(Object node, UUID id, int hash, int shift)
+    {
+        if (node instanceof Collision collision)
+        {
+            Entry[] entries = collision.entries;
+            if (entries.length == 2)
+            {
+                return entries[0].id.equals(id) ? entries[1] : entries[0];
+            }
+            Entry[] copy = new Entry[entries.length - 1];
+            for (int i = 0, j = 0; i < entries.length; i++)
+            {
+                if (!entries[i].id.equals(id))
+                {
+                    copy[j++] = entries[i];
+                }
+            }
+            return new Collision(copy);
+        }
+
+        Branch branch = (Branch) node;
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        Object slot = branch.slots[index];
+        Object replacement = slot instanceof Entry ? null : remove(slot, id, hash, shift + BITS);
+        if (replacement == null)
+        {
+            if (branch.slots.length == 1)
+            {
+                return null;
+            }
+            if (branch.slots.length == 2 && branch.slots[1 - index] instanceof Entry other)
+            {
+                return other;
+            }
+            Object[] slots = new Object[branch.slots.length - 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            System.arraycopy(branch.slots, index + 1, slots, index, slots.length - index);
+            return new Branch(branch.bitmap & ~bit, slots);
+        }
+        if (branch.slots.length == 1 && replacement instanceof Entry)
+        {
+            return replacement;
+        }
+        Object[] slots = branch.slots.clone();
+        slots[index] = replacement;
+        return new Branch(branch.bitmap, slots);
+    }
+
+    private static void collect(Object node, ArrayList<Entry> entries)
+    {
+        if (node instanceof Collision collision)
+        {
+            entries.addAll(Arrays.asList(collision.entries));
+            return;
+        }
+        for (Object slot : ((Branch) node).slots)
+        {
+            if (slot instanceof Entry entry)
+            {
+                entries.add(entry);
+            }
+            else
+            {
+                collect(slot, entries);
+            }
+        }
+    }
+
+    private static int hash(UUID id)
+    {
+        int hash = id.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * RecurrenceFrequency.java
+ * Purpose: How often a recurring Calendar Event repeats
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+public enum RecurrenceFrequency
+{
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,439 @@
+/**
+ * RecurrenceRule.java
+ * Purpose: Rule describing when a recurring Calendar Event repeats
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Describes the repetition of an event in the spirit of an iCalendar RRULE: a frequency, an
+ * interval between repetitions, an optional occurrence count and end date, the days of the week
+ * for weekly rules, and the start times of occurrences that have been cancelled.
+ * <p>
+ * Occurrences are never stored. They are computed on demand, starting directly at the first
+ * occurrence that can overlap the requested range, so a rule costs the same memory whether it
+ * repeats ten times or forever.
+ * <p>
+ * A rule with a time zone repeats at the same wall-clock time in that zone: the series is
+ * expanded in the zone and each occurrence is then converted to stored form, so a daily 09:00
+ * meeting in Paris stays at 09:00 in Paris across daylight saving changes. A rule without one is
+ * expanded in stored times directly. The end date and cancelled occurrences are stored times.
+ */
+public class RecurrenceRule
+{
+    // Instance variables
+    private RecurrenceFrequency frequency;
+    private int interval;
+    private int count;
+    private LocalDateTime until;
+    private EnumSet<DayOfWeek> days;
+    private final HashSet<LocalDateTime> exceptions;
+    private TimeZoneView zone;
+
+    /**
+     * Constructs a new RecurrenceRule that repeats forever at the given frequency.
+     *
+     * @param frequency how often the event repeats
+     * @param interval the number of days, weeks or months between repetitions
+     */
+    public RecurrenceRule(RecurrenceFrequency frequency, int interval)
+    {
+        if (interval < 1)
+        {
+            throw new IllegalArgumentException("Interval must be at least 1");
+        }
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = 0;
+        this.until = null;
+        this.days = EnumSet.noneOf(DayOfWeek.class);
+        this.exceptions = new HashSet<>();
+        this.zone = null;
+    }
+
+    /**
+     * Returns how often the event repeats.
+     *
+     * @return how often the event repeats
+     */
+    public RecurrenceFrequency getFrequency()
+    {
+        return this.frequency;
+    }
+
+    /**
+     * Returns the number of days, weeks or months between repetitions.
+     *
+     * @return the number of days, weeks or months between repetitions
+     */
+    public int getInterval()
+    {
+        return this.interval;
+    }
+
+    /**
+     * Returns the maximum number of occurrences, or 0 if the rule is not limited by count.
+     *
+     * @return the maximum number of occurrences
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Returns the last time an occurrence may start, or null if the rule has no end date.
+     *
+     * @return the last time an occurrence may start
+     */
+    public LocalDateTime getUntil()
+    {
+        return this.until;
+    }
+
+    /**
+     * Returns the days of the week a weekly rule repeats on. An empty set repeats on the
+     * weekday of the first occurrence.
+     *
+     * @return the days of the week a weekly rule repeats on
+     */
+    public Set<DayOfWeek> getDays()
+    {
+        return EnumSet.copyOf(this.days);
+    }
+
+    /**
+     * Returns the start times of cancelled occurrences.
+     *
+     * @return the start times of cancelled occurrences
+     */
+    public Set<LocalDateTime> getExceptions()
+    {
+        return new HashSet<>(this.exceptions);
+    }
+
+    /**
+     * Returns the time zone the rule repeats in, or null if it repeats in stored times.
+     *
+     * @return the time zone the rule repeats in
+     */
+    public ZoneId getZone()
+    {
+        return this.zone == null ? null : this.zone.getZone();
+    }
+
+    /**
+     * Sets how often the event repeats.
+     *
+     * @param frequency how often the event repeats
+     */
+    public void setFrequency(RecurrenceFrequency frequency)
+    {
+        this.frequency = frequency;
+    }
+
+    /**
+     * Sets the number of days, weeks or months between repetitions.
+     *
+     * @param interval the number of days, weeks or months between repetitions
+     */
+    public void setInterval(int interval)
+    {
+        if (interval < 1)
+        {
+            throw new IllegalArgumentException("Interval must be at least 1");
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Sets the maximum number of occurrences. Cancelled occurrences still count towards the limit.
+     *
+     * @param count the maximum number of occurrences, or 0 for no limit
+     */
+    public void setCount(int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        this.count = count;
+    }
+
+    /**
+     * Sets the last time an occurrence may start.
+     *
+     * @param until the last time an occurrence may start, or null for no end date
+     */
+    public void setUntil(LocalDateTime until)
+    {
+        this.until = until;
+    }
+
+    /**
+     * Sets the days of the week a weekly rule repeats on.
+     *
+     * @param days the days of the week a weekly rule repeats on
+     */
+    public void setDays(Set<DayOfWeek> days)
+    {
+        this.days = days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days);
+    }
+
+    /**
+     * Sets the time zone the rule repeats in.
+     *
+     * @param zone the time zone the rule repeats in, or null to repeat in stored times
+     */
+    public void setZone(ZoneId zone)
+    {
+        this.zone = zone == null ? null : TimeZoneView.of(zone);
+    }
+
+    /**
+     * Cancels the occurrence starting at the given time.
+     *
+     * @param start the start time of the occurrence to cancel
+     */
+    public void addException(LocalDateTime start)
+    {
+        this.exceptions.add(start);
+    }
+
+    /**
+     * Restores a previously cancelled occurrence.
+     *
+     * @param start the start time of the occurrence to restore
+     */
+    public void removeException(LocalDateTime start)
+    {
+        this.exceptions.remove(start);
+    }
+
+    /**
+     * Returns a lazy iterator over the start times of the occurrences that overlap the half-open
+     * range [from, to), in chronological order. Occurrences that can only end before the range
+     * are skipped arithmetically rather than generated.
+     *
+     * @param first the start of the first occurrence of the series
+     * @param duration the duration of each occurrence
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return an iterator over the start times of the overlapping occurrences
+     */
+    public Iterator<LocalDateTime> getStarts(LocalDateTime first, Duration duration, LocalDateTime from, LocalDateTime to)
+    {
+        return new StartIterator(first, duration, from, to);
+    }
+
+    /**
+     * Returns a string representation of the rule.
+     *
+     * @return a string representation of the rule
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{frequency: %s, interval: %d, count: %d, until: %s, days: %s, exceptions: %s, zone: %s}",
+                this.frequency, this.interval, this.count, this.until, this.days, this.exceptions, this.getZone());
+    }
+
+    /**
+     * Walks the occurrences of the rule from the first one that can overlap the range. Candidates
+     * are generated in the rule's zone and converted to stored times before they are checked.
+     */
+    private final class StartIterator implements Iterator<LocalDateTime>
+    {
+        private final TimeZoneView view;
+        private final LocalDateTime first;
+        private final Duration duration;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final DayOfWeek[] weekdays;
+        private final LocalDate firstWeek;
+        private long step;
+        private int day;
+        private long ordinal;
+        private LocalDateTime next;
+
+        private StartIterator(LocalDateTime first, Duration duration, LocalDateTime from, LocalDateTime to)
+        {
+            this.view = zone;
+            this.first = this.view == null ? first : this.view.fromStored(first);
+            this.duration = duration;
+            this.from = from;
+            this.to = to;
+            this.weekdays = frequency == RecurrenceFrequency.WEEKLY ? days.toArray(new DayOfWeek[0]) : new DayOfWeek[0];
+            this.firstWeek = this.first.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            LocalDateTime earliest = from.minus(duration);
+            if (earliest.isAfter(first))
+            {
+                // The zone's offset can differ from the stored one by up to a day
+                this.skipTo(this.view == null ? earliest : this.view.fromStored(earliest).minusDays(1));
+            }
+            this.advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.next != null;
+        }
+
+        @Override
+        public LocalDateTime next()
+        {
+            if (this.next == null)
+            {
+                throw new NoSuchElementException();
+            }
+
+            LocalDateTime start = this.next;
+            this.advance();
+            return start;
+        }
+
+        /**
+         * Jumps close to the first occurrence starting after the given time, keeping the
+         * occurrence ordinal exact so that count limits still apply.
+         */
+        private void skipTo(LocalDateTime earliest)
+        {
+            if (!earliest.isAfter(this.first))
+            {
+                return;
+            }
+
+            switch (frequency)
+            {
+                case DAILY ->
+                {
+                    this.step = Math.max(0, ChronoUnit.DAYS.between(this.first, earliest) / interval - 1);
+                    this.ordinal = this.step;
+                }
+                case WEEKLY ->
+                {
+                    long weeks = Math.max(0, ChronoUnit.WEEKS.between(this.firstWeek.atStartOfDay(), earliest) / interval - 1);
+                    if (this.weekdays.length == 0)
+                    {
+                        this.step = Math.max(0, ChronoUnit.WEEKS.between(this.first, earliest) / interval - 1);
+                        this.ordinal = this.step;
+                    }
+                    else if (weeks > 0)
+                    {
+                        int firstWeekCount = 0;
+                        for (DayOfWeek weekday : this.weekdays)
+                        {
+                            if (!this.firstWeek.plusDays(weekday.ordinal()).atTime(this.first.toLocalTime()).isBefore(this.first))
+                            {
+                                firstWeekCount++;
+                            }
+                        }
+                        this.step = weeks;
+                        this.ordinal = firstWeekCount + (weeks - 1) * this.weekdays.length;
+                    }
+                }
+                case MONTHLY ->
+                {
+                    this.step = Math.max(0, ChronoUnit.MONTHS.between(this.first, earliest) / interval - 1);
+                    if (this.first.getDayOfMonth() <= 28)
+                    {
+                        this.ordinal = this.step;
+                    }
+                    else
+                    {
+                        for (long skipped = 0; skipped < this.step; skipped++)
+                        {
+                            if (this.first.plusMonths(skipped * interval).getDayOfMonth() == this.first.getDayOfMonth())
+                            {
+                                this.ordinal++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the next candidate occurrence in the series, or null if the step does not
+         * produce one (a weekday before the first occurrence or a missing day of the month).
+         */
+        private LocalDateTime candidate()
+        {
+            switch (frequency)
+            {
+                case DAILY ->
+                {
+                    return this.first.plusDays(this.step++ * interval);
+                }
+                case MONTHLY ->
+                {
+                    LocalDateTime start = this.first.plusMonths(this.step++ * interval);
+                    return start.getDayOfMonth() == this.first.getDayOfMonth() ? start : null;
+                }
+                default ->
+                {
+                    if (this.weekdays.length == 0)
+                    {
+                        return this.first.plusWeeks(this.step++ * interval);
+                    }
+
+                    LocalDateTime start = this.firstWeek.plusWeeks(this.step * interval)
+                            .plusDays(this.weekdays[this.day].ordinal())
+                            .atTime(this.first.toLocalTime());
+                    if (++this.day == this.weekdays.length)
+                    {
+                        this.day = 0;
+                        this.step++;
+                    }
+                    return start.isBefore(this.first) ? null : start;
+                }
+            }
+        }
+
+        private void advance()
+        {
+            this.next = null;
+            while (count == 0 || this.ordinal < count)
+            {
+                LocalDateTime start = this.candidate();
+                if (start == null)
+                {
+                    continue;
+                }
+
+                this.ordinal++;
+                if (this.view != null)
+                {
+                    start = this.view.toStored(start);
+                }
+                if ((until != null && start.isAfter(until)) || !start.isBefore(this.to))
+                {
+                    return;
+                }
+                if (exceptions.contains(start) || !EventIntervalTree.overlaps(start, start.plus(this.duration), this.from, this.to))
+                {
+                    continue;
+                }
+
+                this.next = start;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * RecurringEvent.java
+ * Purpose: Event object for Calendar that repeats according to a RecurrenceRule
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class RecurringEvent extends Event
+{
+    private RecurrenceRule rule;
+
+    /**
+     * Constructor for RecurringEvent
+     *
+     * @param title The title of the event
+     * @param description The description of the event
+     * @param location The location of the event
+     * @param start The start time of the first occurrence
+     * @param end The end time of the first occurrence
+     * @param rule The rule describing when the event repeats
+     */
+    public RecurringEvent(String title, String description, String location, LocalDateTime start, LocalDateTime end, RecurrenceRule rule)
+    {
+        super(title, description, location, start, end);
+        this.rule = rule;
+    }
+
+    /**
+     * Constructor for RecurringEvent restoring a previously saved event
+     *
+     * @param id The unique ID of the event
+     * @param title The title of the event
+     * @param description The description of the event
+     * @param location The location of the event
+     * @param start The start time of the first occurrence
+     * @param end The end time of the first occurrence
+     * @param created The time the event was created
+     * @param modified The time the event was last modified
+     * @param rule The rule describing when the event repeats
+     */
+    RecurringEvent(UUID id, String title, String description, String location, LocalDateTime start, LocalDateTime end, LocalDateTime created, LocalDateTime modified, RecurrenceRule rule)
+    {
+        super(id, title, description, location, start, end, created, modified);
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the rule describing when the event repeats
+     *
+     * @return The rule describing when the event repeats
+     */
+    public RecurrenceRule getRule()
+    {
+        return this.rule;
+    }
+
+    /**
+     * Sets the rule describing when the event repeats
+     *
+     * @param rule The new rule describing when the event repeats
+     */
+    public void setRule(RecurrenceRule rule)
+    {
+        RecurrenceRule oldRule = this.rule;
+        this.rule = rule;
+        this.record(EventField.RECURRENCE, oldRule, rule);
+        this.fireChanged(EventField.RECURRENCE, oldRule);
+    }
+
+    /**
+     * Returns a lazy iterator over the occurrences overlapping the half-open range [from, to),
+     * ordered by start time. Each occurrence is created only when the iterator reaches it.
+     *
+     * @param from The inclusive start of the range
+     * @param to The exclusive end of the range
+     * @return An iterator over the occurrences overlapping the range
+     */
+    public Iterator<EventInterface> getOccurrences(LocalDateTime from, LocalDateTime to)
+    {
+        Iterator<LocalDateTime> starts = this.rule.getStarts(this.getStart(), this.getDuration(), from, to);
+        return new Iterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return starts.hasNext();
+            }
+
+            @Override
+            public EventInterface next()
+            {
+                return new EventOccurrence(RecurringEvent.this, starts.next());
+            }
+        };
+    }
+
+    /**
+     * Returns a lazy stream of the occurrences overlapping the half-open range [from, to),
+     * ordered by start time.
+     *
+     * @param from The inclusive start of the range
+     * @param to The exclusive end of the range
+     * @return A stream of the occurrences overlapping the range
+     */
+    public Stream<EventInterface> streamOccurrences(LocalDateTime from, LocalDateTime to)
+    {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this.getOccurrences(from, to), Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        );
+    }
+}
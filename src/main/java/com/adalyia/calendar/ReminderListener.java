@@ -0,0 +1,21 @@
+/**
+ * ReminderListener.java
+ * Purpose: Listener notified when the reminder for a Calendar Task/Event is due
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+
+@FunctionalInterface
+public interface ReminderListener
+{
+    /**
+     * Called when the reminder for an event is due.
+     *
+     * @param event the event the reminder is for
+     * @param start the start of the event, or of the occurrence of a recurring event, being reminded of
+     */
+    void reminderDue(EventInterface event, LocalDateTime start);
+}
@@ -0,0 +1,594 @@
+/**
+ * ReminderScheduler.java
+ * Purpose: Fires reminders for Calendar Tasks & Events using a hierarchical timing wheel
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a reminder for each scheduled event and passes it to the registered listeners, on an
+ * executor, once the reminder is due.
+ * <p>
+ * Pending reminders are held in a hierarchical timing wheel: four wheels of 256 slots, where a
+ * slot of the first wheel covers one tick, a slot of the second covers 256 ticks, and so on, so
+ * the wheels together span 2^32 ticks (136 years at the default tick of one second). Every slot
+ * is a doubly linked list, so scheduling and cancelling a reminder take constant time however
+ * many are pending. Each tick only looks at one slot of the first wheel; when a wheel completes a
+ * turn, the next slot of the wheel above is emptied into the wheels below.
+ * <p>
+ * Reminders follow their events: changing the start time or recurrence rule of a scheduled event
+ * reschedules its reminder, and a recurring event is reminded of each of its occurrences in turn.
+ * Reminders are never fired early; they fire at the first tick at or after the time they are due.
+ * <p>
+ * Time is read from the given Clock, so that time can be controlled by calling {@link #tick()}
+ * with a clock of one's own instead of starting the scheduler's thread.
+ */
+public class ReminderScheduler implements Closeable
+{
+    private static final int LEVELS = 4;
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /**
+     * A pending reminder, linked into one slot of the wheels. Slot heads are nodes without an
+     * event.
+     */
+    private static final class Node
+    {
+        private final EventInterface event;
+        private final Duration lead;
+        private LocalDateTime start;
+        private long dueTick;
+        private Node previous;
+        private Node next;
+
+        private Node(EventInterface event, Duration lead)
+        {
+            this.event = event;
+            this.lead = lead;
+            this.previous = this;
+            this.next = this;
+        }
+
+        private void unlink()
+        {
+            this.previous.next = this.next;
+            this.next.previous = this.previous;
+            this.previous = this;
+            this.next = this;
+        }
+
+        private void linkBefore(Node head)
+        {
+            this.previous = head.previous;
+            this.next = head;
+            head.previous.next = this;
+            head.previous = this;
+        }
+    }
+
+    /**
+     * A reminder that has become due and is waiting to be passed to the listeners.
+     */
+    private record Due(EventInterface event, LocalDateTime start)
+    {
+    }
+
+    /**
+     * Schedules the events of a watched calendar as they are added and cancels them as they
+     * are removed.
+     */
+    private final class Watcher implements CalendarListener
+    {
+        private final Duration lead;
+
+        private Watcher(Duration lead)
+        {
+            this.lead = lead;
+        }
+
+        @Override
+        public void eventAdded(CalendarInterface calendar, EventInterface event)
+        {
+            schedule(event, this.lead);
+        }
+
+        @Override
+        public void eventRemoved(CalendarInterface calendar, EventInterface event)
+        {
+            cancel(event);
+        }
+    }
+
+    /**
+     * The key of an event's reminder: the event's ID, and for an occurrence of a recurring event,
+     * which shares its series' ID, the start of the occurrence. Any instance of an event, such as
+     * a fresh view of a ColumnarCalendar's row, finds the reminder scheduled for it.
+     */
+    private record Key(UUID id, LocalDateTime occurrence)
+    {
+        private static Key of(EventInterface event)
+        {
+            return new Key(event.getId(), event instanceof EventOccurrence ? event.getStart() : null);
+        }
+    }
+
+    // Instance variables
+    private final Clock clock;
+    private final long tickMillis;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Node[][] wheels;
+    private final Node expired;
+    private final HashMap<Key, Node> nodes;
+    private final IdentityHashMap<CalendarInterface, Watcher> watchers;
+    private final CopyOnWriteArrayList<ReminderListener> listeners;
+    private final EventListener tracker;
+    private long currentTick;
+    private Thread ticker;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new ReminderScheduler using the system clock, a tick of one second, and two
+     * threads of its own to call the listeners on.
+     */
+    public ReminderScheduler()
+    {
+        this(Clock.systemUTC(), Duration.ofSeconds(1), null);
+    }
+
+    /**
+     * Constructs a new ReminderScheduler.
+     *
+     * @param clock the clock to read the current instant from; event times are taken in the zone
+     *              of stored times (see TimeZoneView), so the clock's zone is not used
+     * @param tick the resolution of the scheduler, which reminders may fire up to one tick late
+     * @param executor the executor to call the listeners on, or null to use two threads of the
+     *                 scheduler's own, which are stopped when it is closed
+     */
+    public ReminderScheduler(Clock clock, Duration tick, Executor executor)
+    {
+        if (tick.toMillis() < 1)
+        {
+            throw new IllegalArgumentException("Tick must be at least one millisecond");
+        }
+
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.ownedExecutor = executor == null ? Executors.newFixedThreadPool(2, runnable ->
+        {
+            Thread thread = new Thread(runnable, "reminder-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.executor = executor == null ? this.ownedExecutor : executor;
+        this.wheels = new Node[LEVELS][SLOTS];
+        for (Node[] wheel : this.wheels)
+        {
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                wheel[slot] = new Node(null, null);
+            }
+        }
+        this.expired = new Node(null, null);
+        this.nodes = new HashMap<>();
+        this.watchers = new IdentityHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.tracker = this::eventChanged;
+        this.currentTick = Math.floorDiv(clock.millis(), this.tickMillis);
+    }
+
+    /**
+     * Registers a listener to be called when a reminder is due.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(ReminderListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addListener.
+     *
+     * @param listener the listener to unregister
+     */
+    public void removeListener(ReminderListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Schedules a reminder the given time before the event starts, replacing any reminder already
+     * scheduled for it. For a recurring event, the reminder is for its next occurrence. If the
+     * reminder time has passed but the event has not started yet, the reminder fires at the next
+     * tick.
+     *
+     * @param event the event to remind of
+     * @param lead how long before the event starts to fire the reminder
+     * @return whether a reminder was scheduled, which it is not if the event has already started
+     */
+    public synchronized boolean schedule(EventInterface event, Duration lead)
+    {
+        Key key = Key.of(event);
+        Node node = this.nodes.remove(key);
+        boolean tracked = node != null && node.event == event;
+        if (node != null)
+        {
+            node.unlink();
+            if (!tracked)
+            {
+                this.untrack(node.event);
+            }
+        }
+
+        node = new Node(event, lead);
+        if (!this.place(node, TimeZoneView.stored().toLocal(this.clock.millis())))
+        {
+            if (tracked)
+            {
+                this.untrack(event);
+            }
+            return false;
+        }
+        this.nodes.put(key, node);
+        if (!tracked && !(event instanceof EventOccurrence))
+        {
+            event.addListener(this.tracker);
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the reminder scheduled for an event.
+     *
+     * @param event the event whose reminder to cancel
+     * @return whether a reminder was scheduled for the event
+     */
+    public synchronized boolean cancel(EventInterface event)
+    {
+        Node node = this.nodes.remove(Key.of(event));
+        if (node == null)
+        {
+            return false;
+        }
+
+        node.unlink();
+        this.untrack(node.event);
+        return true;
+    }
+
+    /**
+     * Returns whether a reminder is scheduled for an event.
+     *
+     * @param event the event to look for
+     * @return whether a reminder is scheduled for the event
+     */
+    public synchronized boolean isScheduled(EventInterface event)
+    {
+        return this.nodes.containsKey(Key.of(event));
+    }
+
+    /**
+     * Returns the number of reminders waiting to fire.
+     *
+     * @return the number of reminders waiting to fire
+     */
+    public synchronized int getPendingCount()
+    {
+        return this.nodes.size();
+    }
+
+    /**
+     * Schedules a reminder for every event of a calendar, and keeps doing so for the events added
+     * to it until unwatch is called.
+     *
+     * @param calendar the calendar to watch
+     * @param lead how long before each event starts to fire its reminder
+     */
+    public void watch(CalendarInterface calendar, Duration lead)
+    {
+        Watcher watcher = new Watcher(lead);
+        synchronized (this)
+        {
+            Watcher previous = this.watchers.put(calendar, watcher);
+            if (previous != null)
+            {
+                calendar.removeListener(previous);
+            }
+        }
+        calendar.addListener(watcher);
+        for (EventInterface event : calendar.getEvents())
+        {
+            this.schedule(event, lead);
+        }
+    }
+
+    /**
+     * Stops scheduling reminders for events added to a calendar. Reminders already scheduled are
+     * kept.
+     *
+     * @param calendar the calendar to stop watching
+     */
+    public void unwatch(CalendarInterface calendar)
+    {
+        Watcher watcher;
+        synchronized (this)
+        {
+            watcher = this.watchers.remove(calendar);
+        }
+        if (watcher != null)
+        {
+            calendar.removeListener(watcher);
+        }
+    }
+
+    /**
+     * Starts a thread that advances the scheduler once every tick.
+     */
+    public synchronized void start()
+    {
+        if (this.ticker != null || this.closed)
+        {
+            return;
+        }
+
+        this.ticker = new Thread(() ->
+        {
+            while (!this.closed)
+            {
+                this.tick();
+                try
+                {
+                    Thread.sleep(this.tickMillis);
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+        }, "reminder-scheduler");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Advances the scheduler to the clock's current time, passing the reminders that have become
+     * due to the listeners. This is called by the scheduler's thread once started, and can be
+     * called directly to drive the scheduler from a clock under the caller's control.
+     */
+    public void tick()
+    {
+        ArrayList<Due> due = new ArrayList<>();
+        synchronized (this)
+        {
+            long millis = this.clock.millis();
+            long now = Math.floorDiv(millis, this.tickMillis);
+            LocalDateTime time = TimeZoneView.stored().toLocal(millis);
+            this.drain(this.expired, time, due);
+            while (this.currentTick < now)
+            {
+                if (this.nodes.isEmpty())
+                {
+                    this.currentTick = now;
+                    break;
+                }
+
+                this.currentTick++;
+                for (int level = LEVELS - 1; level > 0; level--)
+                {
+                    if ((this.currentTick & ((1L << (BITS * level)) - 1)) == 0)
+                    {
+                        this.cascade(this.wheels[level][(int) (this.currentTick >>> (BITS * level)) & MASK]);
+                    }
+                }
+                this.drain(this.wheels[0][(int) this.currentTick & MASK], time, due);
+                this.drain(this.expired, time, due);
+            }
+        }
+
+        for (Due reminder : due)
+        {
+            for (ReminderListener listener : this.listeners)
+            {
+                this.executor.execute(() -> listener.reminderDue(reminder.event(), reminder.start()));
+            }
+        }
+    }
+
+    /**
+     * Stops the scheduler's threads, stops watching calendars, and cancels every pending reminder.
+     */
+    @Override
+    public void close()
+    {
+        Thread ticker;
+        ArrayList<Map.Entry<CalendarInterface, Watcher>> watched;
+        synchronized (this)
+        {
+            this.closed = true;
+            ticker = this.ticker;
+            watched = new ArrayList<>(this.watchers.entrySet());
+            this.watchers.clear();
+            for (Iterator<Node> iterator = this.nodes.values().iterator(); iterator.hasNext(); )
+            {
+                Node node = iterator.next();
+                node.unlink();
+                this.untrack(node.event);
+                iterator.remove();
+            }
+        }
+
+        for (Map.Entry<CalendarInterface, Watcher> entry : watched)
+        {
+            entry.getKey().removeListener(entry.getValue());
+        }
+        if (ticker != null)
+        {
+            ticker.interrupt();
+            try
+            {
+                ticker.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (this.ownedExecutor != null)
+        {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Reschedules the reminder of an event whose start time or recurrence rule has changed.
+     */
+    private synchronized void eventChanged(EventInterface event, EventField field, Object oldValue)
+    {
+        if (field != EventField.START && field != EventField.RECURRENCE)
+        {
+            return;
+        }
+
+        Key key = Key.of(event);
+        Node node = this.nodes.get(key);
+        if (node != null)
+        {
+            node.unlink();
+            if (!this.place(node, TimeZoneView.stored().toLocal(this.clock.millis())))
+            {
+                this.nodes.remove(key);
+                this.untrack(node.event);
+            }
+        }
+    }
+
+    /**
+     * Stops following the changes of an event whose reminder is no longer scheduled. Occurrences
+     * of recurring events cannot change and are never followed.
+     */
+    private void untrack(EventInterface event)
+    {
+        if (!(event instanceof EventOccurrence))
+        {
+            event.removeListener(this.tracker);
+        }
+    }
+
+    /**
+     * Finds the next start of the node's event after the given time and links the node into the
+     * wheels at the tick its reminder is due.
+     *
+     * @return whether the event starts again after the given time
+     */
+    private boolean place(Node node, LocalDateTime after)
+    {
+        LocalDateTime start = nextStart(node.event, after);
+        if (start == null)
+        {
+            return false;
+        }
+
+        node.start = start;
+        long dueMillis = TimeZoneView.toEpochMilli(TimeZoneView.stored().toUtc(start.minus(node.lead)));
+        node.dueTick = Math.max(this.currentTick, -Math.floorDiv(-dueMillis, this.tickMillis));
+        this.insert(node);
+        return true;
+    }
+
+    /**
+     * Links a node into the slot it belongs in, given the current tick.
+     */
+    private void insert(Node node)
+    {
+        long delta = node.dueTick - this.currentTick;
+        if (delta <= 0)
+        {
+            node.linkBefore(this.expired);
+            return;
+        }
+
+        long tick = delta < SPAN ? node.dueTick : this.currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && (tick - this.currentTick) >= 1L << (BITS * (level + 1)))
+        {
+            level++;
+        }
+        node.linkBefore(this.wheels[level][(int) (tick >>> (BITS * level)) & MASK]);
+    }
+
+    /**
+     * Empties a slot of an upper wheel into the wheels below it.
+     */
+    private void cascade(Node head)
+    {
+        while (head.next != head)
+        {
+            Node node = head.next;
+            node.unlink();
+            this.insert(node);
+        }
+    }
+
+    /**
+     * Empties a slot whose reminders are due, rescheduling recurring events for their next
+     * occurrence after the current time. Occurrences missed while the clock jumped forward are
+     * skipped rather than reminded of one by one.
+     */
+    private void drain(Node head, LocalDateTime time, ArrayList<Due> due)
+    {
+        while (head.next != head)
+        {
+            Node node = head.next;
+            node.unlink();
+            due.add(new Due(node.event, node.start));
+            if (!(node.event instanceof RecurringEvent) || !this.place(node, node.start.isAfter(time) ? node.start : time))
+            {
+                this.nodes.remove(Key.of(node.event));
+                this.untrack(node.event);
+            }
+        }
+    }
+
+    /**
+     * Returns the first start of an event, or of an occurrence of a recurring event, after the
+     * given time, or null if there is none.
+     */
+    private static LocalDateTime nextStart(EventInterface event, LocalDateTime after)
+    {
+        if (!(event instanceof RecurringEvent series))
+        {
+            return event.getStart().isAfter(after) ? event.getStart() : null;
+        }
+
+        Iterator<EventInterface> occurrences = series.getOccurrences(after, LocalDateTime.MAX);
+        while (occurrences.hasNext())
+        {
+            LocalDateTime start = occurrences.next().getStart();
+            if (start.isAfter(after))
+            {
+                return start;
+            }
+        }
+        return null;
+    }
+}
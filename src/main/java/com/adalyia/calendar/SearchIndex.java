@@ -0,0 +1,386 @@
+/**
+ * SearchIndex.java
+ * Purpose: Full-text index over the text fields of Calendar Tasks & Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * An inverted index from the words of each event's title, description and location to the events
+ * containing them. Every posting holds a weighted count of the word in the event, with words in
+ * the title worth more than words in the location, and those more than words in the description.
+ * <p>
+ * Searches match every query word as a prefix of an indexed word, so "lun" finds "lunch", and
+ * rank the events containing all of them by TF-IDF: the more often a word appears in an event and
+ * the rarer it is across the calendar, the higher the event scores. Exact word matches score
+ * higher than prefix matches. The rarest query word drives the search, so only the events that
+ * contain it are ever looked at.
+ * <p>
+ * The index is updated with the text a field held before each change, so an edit only touches
+ * the postings of the words that were in the old and new text.
+ * <p>
+ * Several indexes can rank their events on a common scale by first counting the query's words
+ * in each of them into one {@link Frequencies}, then ranking each with those counts.
+ */
+class SearchIndex
+{
+    private static final int TITLE_WEIGHT = 3;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    /**
+     * A scored search result.
+     */
+    record Hit(EventInterface event, double score)
+    {
+    }
+
+    /**
+     * The number of events, and of events containing each indexed word, across several indexes.
+     */
+    static final class Frequencies
+    {
+        private final HashMap<String, Integer> words = new HashMap<>();
+        private long events;
+    }
+
+    /**
+     * The postings of one indexed word matching a query word.
+     */
+    private record Match(IdentityHashMap<EventInterface, Integer> postings, double weight)
+    {
+    }
+
+    // Instance variables
+    private final TreeMap<String, IdentityHashMap<EventInterface, Integer>> words;
+    private final IdentityHashMap<EventInterface, Boolean> events;
+
+    /**
+     * Constructs a new, empty search index.
+     */
+    SearchIndex()
+    {
+        this.words = new TreeMap<>();
+        this.events = new IdentityHashMap<>();
+    }
+
+    /**
+     * Adds an event to the index under the words of its current title, description and location.
+     *
+     * @param event the event to add
+     */
+    void add(EventInterface event)
+    {
+        if (this.events.put(event, Boolean.TRUE) == null)
+        {
+            this.post(event, event.getTitle(), TITLE_WEIGHT);
+            this.post(event, event.getDescription(), DESCRIPTION_WEIGHT);
+            this.post(event, event.getLocation(), LOCATION_WEIGHT);
+        }
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param event the event to remove
+     */
+    void remove(EventInterface event)
+    {
+        if (this.events.remove(event) != null)
+        {
+            this.post(event, event.getTitle(), -TITLE_WEIGHT);
+            this.post(event, event.getDescription(), -DESCRIPTION_WEIGHT);
+            this.post(event, event.getLocation(), -LOCATION_WEIGHT);
+        }
+    }
+
+    /**
+     * Reindexes one text field of an event after it has changed.
+     *
+     * @param event the event that changed
+     * @param field the field that changed: the title, description or location
+     * @param oldText the text of the field before the change
+     */
+    void update(EventInterface event, EventField field, String oldText)
+    {
+        if (!this.events.containsKey(event))
+        {
+            return;
+        }
+
+        switch (field)
+        {
+            case TITLE ->
+            {
+                this.post(event, oldText, -TITLE_WEIGHT);
+                this.post(event, event.getTitle(), TITLE_WEIGHT);
+            }
+            case DESCRIPTION ->
+            {
+                this.post(event, oldText, -DESCRIPTION_WEIGHT);
+                this.post(event, event.getDescription(), DESCRIPTION_WEIGHT);
+            }
+            case LOCATION ->
+            {
+                this.post(event, oldText, -LOCATION_WEIGHT);
+                this.post(event, event.getLocation(), LOCATION_WEIGHT);
+            }
+            default ->
+            {
+                // Other fields are not indexed
+            }
+        }
+    }
+
+    /**
+     * Removes every event from the index.
+     */
+    void clear()
+    {
+        this.words.clear();
+        this.events.clear();
+    }
+
+    /**
+     * Returns the events containing every word of the query, best match first.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events, best match first
+     */
+    ArrayList<EventInterface> search(String query, int limit)
+    {
+        ArrayList<Hit> hits = this.rank(query, limit);
+        ArrayList<EventInterface> results = new ArrayList<>(hits.size());
+        for (Hit hit : hits)
+        {
+            results.add(hit.event());
+        }
+        return results;
+    }
+
+    /**
+     * Returns the events containing every word of the query with their scores, best match first.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @return the matching events and their scores, best match first
+     */
+    ArrayList<Hit> rank(String query, int limit)
+    {
+        return this.rank(query, limit, null);
+    }
+
+    /**
+     * Adds this index's events, and the events containing each indexed word the query's words
+     * match, to frequencies counted across several indexes.
+     *
+     * @param query the words to search for
+     * @param frequencies the frequencies to add to
+     */
+    void count(String query, Frequencies frequencies)
+    {
+        frequencies.events += this.events.size();
+        HashSet<String> counted = new HashSet<>();
+        tokenize(query, term ->
+        {
+            for (Map.Entry<String, IdentityHashMap<EventInterface, Integer>> entry : this.prefixed(term).entrySet())
+            {
+                if (counted.add(entry.getKey()))
+                {
+                    frequencies.words.merge(entry.getKey(), entry.getValue().size(), Integer::sum);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the events containing every word of the query with their scores, best match first,
+     * weighing each word by how rare it is across the indexes the frequencies were counted over.
+     * A word indexed since they were counted is weighed by this index alone.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of events to return
+     * @param frequencies the frequencies to weigh words by, or null to use this index's own
+     * @return the matching events and their scores, best match first
+     */
+    ArrayList<Hit> rank(String query, int limit, Frequencies frequencies)
+    {
+        ArrayList<String> terms = new ArrayList<>();
+        tokenize(query, terms::add);
+        ArrayList<Hit> results = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0)
+        {
+            return results;
+        }
+
+        // Expand each query word to the indexed words it is a prefix of
+        ArrayList<ArrayList<Match>> expansions = new ArrayList<>(terms.size());
+        int driver = 0;
+        long fewest = Long.MAX_VALUE;
+        for (String term : terms)
+        {
+            ArrayList<Match> matches = new ArrayList<>();
+            long postings = 0;
+            for (Map.Entry<String, IdentityHashMap<EventInterface, Integer>> entry : this.prefixed(term).entrySet())
+            {
+                double idf = frequencies == null
+                        ? Math.log(1.0 + (double) this.events.size() / entry.getValue().size())
+                        : Math.log(1.0 + (double) Math.max(frequencies.events, this.events.size()) / frequencies.words.getOrDefault(entry.getKey(), entry.getValue().size()));
+                matches.add(new Match(entry.getValue(), entry.getKey().length() == term.length() ? idf : idf * PREFIX_FACTOR));
+                postings += entry.getValue().size();
+            }
+            if (matches.isEmpty())
+            {
+                return results;
+            }
+            if (postings < fewest)
+            {
+                fewest = postings;
+                driver = expansions.size();
+            }
+            expansions.add(matches);
+        }
+
+        // Score the events containing the rarest word, keeping the best in a min-heap
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::score);
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, order);
+        IdentityHashMap<EventInterface, Boolean> seen = new IdentityHashMap<>();
+        for (Match match : expansions.get(driver))
+        {
+            for (EventInterface event : match.postings().keySet())
+            {
+                if (seen.put(event, Boolean.TRUE) != null)
+                {
+                    continue;
+                }
+
+                double score = 0;
+                for (ArrayList<Match> matches : expansions)
+                {
+                    double termScore = score(matches, event);
+                    if (termScore == 0)
+                    {
+                        score = 0;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score > 0 && (best.size() < limit || score > best.peek().score()))
+                {
+                    best.add(new Hit(event, score));
+                    if (best.size() > limit)
+                    {
+                        best.poll();
+                    }
+                }
+            }
+        }
+
+        while (!best.isEmpty())
+        {
+            results.add(best.poll());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     *
+     * @param text the text to split, which may be null
+     * @param consumer the consumer to pass each word to
+     */
+    static void tokenize(String text, Consumer<String> consumer)
+    {
+        if (text == null)
+        {
+            return;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); )
+        {
+            int c = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(c))
+            {
+                if (start < 0)
+                {
+                    start = i;
+                }
+            }
+            else if (start >= 0)
+            {
+                consumer.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += Character.charCount(c);
+        }
+    }
+
+    /**
+     * Returns the indexed words a query word is a prefix of, with their postings.
+     */
+    private NavigableMap<String, IdentityHashMap<EventInterface, Integer>> prefixed(String term)
+    {
+        return this.words.subMap(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Returns the best score of an event among the indexed words matching one query word.
+     */
+    private static double score(ArrayList<Match> matches, EventInterface event)
+    {
+        double best = 0;
+        for (Match match : matches)
+        {
+            Integer count = match.postings().get(event);
+            if (count != null)
+            {
+                best = Math.max(best, (1.0 + Math.log(count)) * match.weight());
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds the given weight to the postings of every word in the text for the event, removing
+     * postings and words whose weight drops to zero.
+     */
+    private void post(EventInterface event, String text, int weight)
+    {
+        tokenize(text, word ->
+        {
+            if (weight > 0)
+            {
+                this.words.computeIfAbsent(word, key -> new IdentityHashMap<>()).merge(event, weight, Integer::sum);
+                return;
+            }
+
+            IdentityHashMap<EventInterface, Integer> postings = this.words.get(word);
+            if (postings != null)
+            {
+                postings.computeIfPresent(event, (key, count) -> count + weight <= 0 ? null : count + weight);
+                if (postings.isEmpty())
+                {
+                    this.words.remove(word);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * SlowOperationEvent.java
+ * Purpose: JDK Flight Recorder event for slow Calendar operations
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a calendar operation takes longer than the slow threshold of CalendarMetrics. It
+ * is only written when metrics are enabled and a recording has the event turned on, which the
+ * default recording settings do.
+ */
+@Name("com.adalyia.calendar.SlowOperation")
+@Label("Slow Calendar Operation")
+@Category("Calendar")
+@Description("A calendar operation that took longer than the configured threshold")
+final class SlowOperationEvent extends jdk.jfr.Event
+{
+    @Label("Operation")
+    String operation;
+
+    @Label("Calendar")
+    String calendar;
+
+    @Label("Events")
+    @Description("The number of events in the calendar when the operation finished")
+    int events;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -8,10 +8,13 @@ package com.adalyia.calendar;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Objects;
 import java.util.UUID;
 
 public class Tag implements TagInterface
 {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     // Instance variables
     private final UUID id;
     private String name;
@@ -27,12 +30,26 @@ public class Tag implements TagInterface
      * @param description the description of the tag
      */
     public Tag(String name, String description)
+    {
+        this(UUID.randomUUID(), name, description, TimeZoneView.now(), null);
+    }
+
+    /**
+     * Constructs a Tag object restoring a previously saved tag.
+     *
+     * @param id the unique ID of the tag
+     * @param name the name of the tag
+     * @param description the description of the tag
+     * @param created the date and time the tag was created
+     * @param modified the date and time the tag was last modified, or null if it has not been modified
+     */
+    Tag(UUID id, String name, String description, LocalDateTime created, LocalDateTime modified)
     {
         this.name = name;
         this.description = description;
-        this.created = LocalDateTime.now();
-        this.modified = this.created;
-        this.id = UUID.randomUUID();
+        this.created = created;
+        this.modified = modified == null ? this.created : modified;
+        this.id = id;
     }
 
     /**
@@ -65,7 +82,7 @@ public class Tag implements TagInterface
     public void setName(String name)
     {
         this.name = name;
-        this.modified = LocalDateTime.now();
+        this.modified = TimeZoneView.now();
     }
 
     /**
@@ -88,7 +105,7 @@ public class Tag implements TagInterface
     public void setDescription(String description)
     {
         this.description = description;
-        this.modified = LocalDateTime.now();
+        this.modified = TimeZoneView.now();
     }
 
     /**
@@ -125,8 +142,8 @@ public class Tag implements TagInterface
                 this.id,
                 this.name,
                 this.description,
-                this.created.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
-                this.modified.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+                this.created.format(FORMATTER),
+                this.modified.format(FORMATTER));
     }
 
     /**
@@ -146,4 +163,15 @@ public class Tag implements TagInterface
         if (!this.name.equals(tag.name)) return false;
         return this.description.equals(tag.description);
     }
+
+    /**
+     * Returns a hash code value for the object, consistent with equals.
+     *
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(this.name, this.description);
+    }
 }
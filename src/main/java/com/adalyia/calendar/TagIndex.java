@@ -0,0 +1,203 @@
+/**
+ * TagIndex.java
+ * Purpose: Inverted index from Tags to the Calendar Tasks & Events carrying them
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.UUID;
+
+/**
+ * Gives every indexed event a small dense ordinal, reusing the ordinals of removed events, and
+ * keeps one compressed bitmap of ordinals per tag ID. Tag queries are then answered with bitmap
+ * intersections, unions and differences instead of walking each event's tag list.
+ * <p>
+ * The index remembers the tag IDs it filed each event under, so an event is always removed from
+ * exactly the bitmaps it was added to. Tags are keyed by ID, so renaming a tag needs no update.
+ */
+class TagIndex implements TagQuery.Source
+{
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+    private static final UUID[] NO_TAGS = new UUID[0];
+
+    // Instance variables
+    private final IdentityHashMap<EventInterface, Integer> ordinals;
+    private final ArrayList<EventInterface> events;
+    private final ArrayList<UUID[]> filed;
+    private final HashMap<UUID, CompressedBitmap> bitmaps;
+    private CompressedBitmap all;
+    private int[] free;
+    private int freeCount;
+
+    /**
+     * Constructs a new, empty tag index.
+     */
+    TagIndex()
+    {
+        this.ordinals = new IdentityHashMap<>();
+        this.events = new ArrayList<>();
+        this.filed = new ArrayList<>();
+        this.bitmaps = new HashMap<>();
+        this.all = new CompressedBitmap();
+        this.free = new int[8];
+    }
+
+    /**
+     * Adds an event to the index under its current tags.
+     *
+     * @param event the event to add
+     */
+    void add(EventInterface event)
+    {
+        if (this.ordinals.containsKey(event))
+        {
+            return;
+        }
+
+        int ordinal;
+        if (this.freeCount > 0)
+        {
+            ordinal = this.free[--this.freeCount];
+            this.events.set(ordinal, event);
+        }
+        else
+        {
+            ordinal = this.events.size();
+            this.events.add(event);
+            this.filed.add(NO_TAGS);
+        }
+        this.ordinals.put(event, ordinal);
+        this.all.add(ordinal);
+        this.file(ordinal, event);
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param event the event to remove
+     */
+    void remove(EventInterface event)
+    {
+        Integer ordinal = this.ordinals.remove(event);
+        if (ordinal == null)
+        {
+            return;
+        }
+
+        this.unfile(ordinal);
+        this.all.remove(ordinal);
+        this.events.set(ordinal, null);
+        if (this.freeCount == this.free.length)
+        {
+            this.free = Arrays.copyOf(this.free, this.freeCount * 2);
+        }
+        this.free[this.freeCount++] = ordinal;
+    }
+
+    /**
+     * Refiles an event under its current tags after they have changed.
+     *
+     * @param event the event whose tags changed
+     */
+    void update(EventInterface event)
+    {
+        Integer ordinal = this.ordinals.get(event);
+        if (ordinal != null)
+        {
+            this.unfile(ordinal);
+            this.file(ordinal, event);
+        }
+    }
+
+    /**
+     * Removes every event from the index.
+     */
+    void clear()
+    {
+        this.ordinals.clear();
+        this.events.clear();
+        this.filed.clear();
+        this.bitmaps.clear();
+        this.all = new CompressedBitmap();
+        this.freeCount = 0;
+    }
+
+    /**
+     * Returns the ordinals of the events carrying the tag with the given ID. The bitmap must not
+     * be modified.
+     *
+     * @param tag the ID of the tag
+     * @return the ordinals of the events carrying the tag
+     */
+    @Override
+    public CompressedBitmap get(UUID tag)
+    {
+        CompressedBitmap bitmap = this.bitmaps.get(tag);
+        return bitmap == null ? EMPTY : bitmap;
+    }
+
+    /**
+     * Returns the ordinals of every indexed event. The bitmap must not be modified.
+     *
+     * @return the ordinals of every indexed event
+     */
+    @Override
+    public CompressedBitmap all()
+    {
+        return this.all;
+    }
+
+    /**
+     * Returns the events matched by a query, in ordinal order.
+     *
+     * @param query the query to evaluate
+     * @return the events matched by the query
+     */
+    ArrayList<EventInterface> query(TagQuery query)
+    {
+        CompressedBitmap matches = query.evaluate(this);
+        ArrayList<EventInterface> result = new ArrayList<>(matches.cardinality());
+        matches.forEach(ordinal -> result.add(this.events.get(ordinal)));
+        return result;
+    }
+
+    private void file(int ordinal, EventInterface event)
+    {
+        ArrayList<Tag> tags = event.getTags();
+        if (tags.isEmpty())
+        {
+            this.filed.set(ordinal, NO_TAGS);
+            return;
+        }
+
+        UUID[] ids = new UUID[tags.size()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = tags.get(i).getId();
+            this.bitmaps.computeIfAbsent(ids[i], id -> new CompressedBitmap()).add(ordinal);
+        }
+        this.filed.set(ordinal, ids);
+    }
+
+    private void unfile(int ordinal)
+    {
+        for (UUID id : this.filed.get(ordinal))
+        {
+            CompressedBitmap bitmap = this.bitmaps.get(id);
+            if (bitmap != null)
+            {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty())
+                {
+                    this.bitmaps.remove(id);
+                }
+            }
+        }
+        this.filed.set(ordinal, NO_TAGS);
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * TagQuery.java
+ * Purpose: Boolean query over the Tags of Calendar Tasks & Events
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.util.UUID;
+
+/**
+ * A combination of tags joined with AND, OR and NOT, evaluated against a calendar's tag index.
+ * For example, the events tagged work and urgent but not cancelled are found with
+ * <pre>
+ * calendar.getEventsTagged(TagQuery.tagged(work).and(TagQuery.tagged(urgent)).andNot(TagQuery.tagged(cancelled)));
+ * </pre>
+ * Tags are matched by their unique ID, so renaming a tag does not change what a query finds.
+ */
+public abstract class TagQuery
+{
+    /**
+     * The bitmaps of event ordinals a query is evaluated against.
+     */
+    interface Source
+    {
+        /**
+         * Returns the ordinals of the events carrying the tag with the given ID. The bitmap must
+         * not be modified.
+         *
+         * @param tag the ID of the tag
+         * @return the ordinals of the events carrying the tag
+         */
+        CompressedBitmap get(UUID tag);
+
+        /**
+         * Returns the ordinals of every event. The bitmap must not be modified.
+         *
+         * @return the ordinals of every event
+         */
+        CompressedBitmap all();
+    }
+
+    /**
+     * Constructs a new TagQuery. Queries are built with the static factory methods.
+     */
+    private TagQuery()
+    {
+    }
+
+    /**
+     * Returns a query matching the events carrying the given tag.
+     *
+     * @param tag the tag to match
+     * @return a query matching the events carrying the tag
+     */
+    public static TagQuery tagged(TagInterface tag)
+    {
+        UUID id = tag.getId();
+        return new TagQuery()
+        {
+            @Override
+            CompressedBitmap evaluate(Source index)
+            {
+                return index.get(id);
+            }
+
+            @Override
+            boolean matches(EventInterface event)
+            {
+                for (Tag tag : event.getTags())
+                {
+                    if (tag.getId().equals(id))
+                    {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public String toString()
+            {
+                return String.valueOf(tag.getName());
+            }
+        };
+    }
+
+    /**
+     * Returns a query matching the events carrying every one of the given tags.
+     *
+     * @param tags the tags to match
+     * @return a query matching the events carrying all the tags
+     */
+    public static TagQuery all(TagInterface... tags)
+    {
+        if (tags.length == 0)
+        {
+            throw new IllegalArgumentException("At least one tag is required");
+        }
+
+        TagQuery query = tagged(tags[0]);
+        for (int i = 1; i < tags.length; i++)
+        {
+            query = query.and(tagged(tags[i]));
+        }
+        return query;
+    }
+
+    /**
+     * Returns a query matching the events carrying at least one of the given tags.
+     *
+     * @param tags the tags to match
+     * @return a query matching the events carrying any of the tags
+     */
+    public static TagQuery any(TagInterface... tags)
+    {
+        if (tags.length == 0)
+        {
+            throw new IllegalArgumentException("At least one tag is required");
+        }
+
+        TagQuery query = tagged(tags[0]);
+        for (int i = 1; i < tags.length; i++)
+        {
+            query = query.or(tagged(tags[i]));
+        }
+        return query;
+    }
+
+    /**
+     * Returns a query matching the events matched by both this query and the other.
+     *
+     * @param other the other query
+     * @return the intersection of the two queries
+     */
+    public TagQuery and(TagQuery other)
+    {
+        TagQuery left = this;
+        return new TagQuery()
+        {
+            @Override
+            CompressedBitmap evaluate(Source index)
+            {
+                return left.evaluate(index).and(other.evaluate(index));
+            }
+
+            @Override
+            boolean matches(EventInterface event)
+            {
+                return left.matches(event) && other.matches(event);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "(" + left + " AND " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * Returns a query matching the events matched by either this query or the other.
+     *
+     * @param other the other query
+     * @return the union of the two queries
+     */
+    public TagQuery or(TagQuery other)
+    {
+        TagQuery left = this;
+        return new TagQuery()
+        {
+            @Override
+            CompressedBitmap evaluate(Source index)
+            {
+                return left.evaluate(index).or(other.evaluate(index));
+            }
+
+            @Override
+            boolean matches(EventInterface event)
+            {
+                return left.matches(event) || other.matches(event);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "(" + left + " OR " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * Returns a query matching the events matched by this query but not by the other.
+     *
+     * @param other the query whose events are excluded
+     * @return the difference of the two queries
+     */
+    public TagQuery andNot(TagQuery other)
+    {
+        TagQuery left = this;
+        return new TagQuery()
+        {
+            @Override
+            CompressedBitmap evaluate(Source index)
+            {
+                return left.evaluate(index).andNot(other.evaluate(index));
+            }
+
+            @Override
+            boolean matches(EventInterface event)
+            {
+                return left.matches(event) && !other.matches(event);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "(" + left + " AND NOT " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * Returns a query matching every event in the calendar not matched by this query.
+     *
+     * @return the complement of this query
+     */
+    public TagQuery not()
+    {
+        TagQuery inner = this;
+        return new TagQuery()
+        {
+            @Override
+            CompressedBitmap evaluate(Source index)
+            {
+                return index.all().andNot(inner.evaluate(index));
+            }
+
+            @Override
+            boolean matches(EventInterface event)
+            {
+                return !inner.matches(event);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "NOT " + inner;
+            }
+        };
+    }
+
+    /**
+     * Returns the ordinals of the events matched by the query. The bitmap returned may be shared
+     * with the index and must not be modified.
+     *
+     * @param index the bitmaps to evaluate the query against
+     * @return the ordinals of the matched events
+     */
+    abstract CompressedBitmap evaluate(Source index);
+
+    /**
+     * Returns whether the query matches a single event, by looking at the event's own tags
+     * rather than an index.
+     *
+     * @param event the event to test
+     * @return whether the query matches the event
+     */
+    abstract boolean matches(EventInterface event);
+}
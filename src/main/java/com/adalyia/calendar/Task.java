@@ -9,6 +9,8 @@
 package com.adalyia.calendar;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.UUID;
 
 public class Task extends Event implements TaskInterface
 {
@@ -29,6 +31,24 @@ public class Task extends Event implements TaskInterface
         this.completed = false;
     }
 
+    /**
+     * Constructor for Task restoring a previously saved task
+     *
+     * @param id          The unique ID of the task
+     * @param title       The title of the task
+     * @param description The description of the task
+     * @param location    The location of the task
+     * @param time        The time of the task
+     * @param created     The time the task was created
+     * @param modified    The time the task was last modified
+     * @param completed   The completion status of the task
+     */
+    Task(UUID id, String title, String description, String location, LocalDateTime time, LocalDateTime created, LocalDateTime modified, boolean completed)
+    {
+        super(id, title, description, location, time, time, created, modified);
+        this.completed = completed;
+    }
+
     /**
      * Returns the completion status of the task
      *
@@ -46,6 +66,61 @@ public class Task extends Event implements TaskInterface
      */
     public void setCompleted(boolean completed)
     {
+        boolean oldCompleted = this.completed;
         this.completed = completed;
+        this.record(EventField.COMPLETED, oldCompleted, completed);
+        this.fireChanged(EventField.COMPLETED, oldCompleted);
+    }
+
+    /**
+     * Sets the time of the task. Tasks have no duration, so the start and end move together.
+     *
+     * @param start The new time of the task
+     */
+    @Override
+    public void setStart(LocalDateTime start)
+    {
+        EnumMap<EventField, Object> changes = new EnumMap<>(EventField.class);
+        changes.put(EventField.START, start);
+        Object oldStart = this.apply(changes, TimeZoneView.now()).get(EventField.START);
+        this.fireChanged(EventField.START, oldStart);
+    }
+
+    /**
+     * Sets the time of the task, as setStart does
+     *
+     * @param end The new time of the task
+     */
+    @Override
+    public void setEnd(LocalDateTime end)
+    {
+        this.setStart(end);
+    }
+
+    /**
+     * Sets one field of the task without any checks, recording or notification. Setting the start
+     * or end of a task sets both, and is recorded as a change to the start.
+     *
+     * @param field The field to set
+     * @param value The new value of the field
+     * @return The value of the field before the change
+     */
+    @Override
+    Object applyField(EventField field, Object value)
+    {
+        if (field == EventField.START || field == EventField.END)
+        {
+            Object oldValue = super.applyField(field, value);
+            super.applyField(field == EventField.START ? EventField.END : EventField.START, value);
+            return oldValue;
+        }
+        if (field != EventField.COMPLETED)
+        {
+            return super.applyField(field, value);
+        }
+
+        boolean oldCompleted = this.completed;
+        this.completed = (Boolean) value;
+        return oldCompleted;
     }
 }
@@ -0,0 +1,180 @@
+/**
+ * TaskIndex.java
+ * Purpose: Due-date index of the Tasks in a Calendar
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Keeps the indexed tasks in two sorted sets, one of pending and one of completed tasks, each
+ * ordered by due time and then by ID. Finding the next tasks due, the overdue tasks or the tasks
+ * completed in a range is then a single descent into the right set followed by a walk over the
+ * k tasks returned, in O(log n + k), instead of a scan of every event.
+ * <p>
+ * The index remembers the due time and state it filed each task under, so a task is always
+ * removed from exactly the place it was added to, even after it has changed. Events that are
+ * not tasks are ignored.
+ */
+class TaskIndex
+{
+    private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.due)
+            .thenComparing(entry -> entry.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * A task as filed in the index. Entries without a task, and with a null ID, are only used
+     * to search the sets, and sort before every task due at the same time.
+     */
+    private static final class Entry
+    {
+        private final LocalDateTime due;
+        private final UUID id;
+        private final EventInterface task;
+        private final boolean completed;
+
+        private Entry(LocalDateTime due, UUID id, EventInterface task, boolean completed)
+        {
+            this.due = due;
+            this.id = id;
+            this.task = task;
+            this.completed = completed;
+        }
+    }
+
+    // Instance variables
+    private final IdentityHashMap<EventInterface, Entry> filed;
+    private final TreeSet<Entry> pending;
+    private final TreeSet<Entry> completed;
+
+    /**
+     * Constructs a new, empty task index.
+     */
+    TaskIndex()
+    {
+        this.filed = new IdentityHashMap<>();
+        this.pending = new TreeSet<>(ORDER);
+        this.completed = new TreeSet<>(ORDER);
+    }
+
+    /**
+     * Adds an event to the index under its current due time and state, if it is a task.
+     *
+     * @param event the event to add
+     */
+    void add(EventInterface event)
+    {
+        if (!(event instanceof TaskInterface task) || this.filed.containsKey(event))
+        {
+            return;
+        }
+
+        Entry entry = new Entry(event.getStart(), event.getId(), event, task.isCompleted());
+        this.filed.put(event, entry);
+        (entry.completed ? this.completed : this.pending).add(entry);
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param event the event to remove
+     */
+    void remove(EventInterface event)
+    {
+        Entry entry = this.filed.remove(event);
+        if (entry != null)
+        {
+            (entry.completed ? this.completed : this.pending).remove(entry);
+        }
+    }
+
+    /**
+     * Re-files a task whose due time or state has changed.
+     *
+     * @param event the changed event
+     */
+    void update(EventInterface event)
+    {
+        if (this.filed.containsKey(event))
+        {
+            this.remove(event);
+            this.add(event);
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    void clear()
+    {
+        this.filed.clear();
+        this.pending.clear();
+        this.completed.clear();
+    }
+
+    /**
+     * Returns the pending tasks due at or after a time, soonest first.
+     *
+     * @param from the earliest due time to include
+     * @param limit the maximum number of tasks to return
+     * @return the pending tasks, soonest first
+     */
+    ArrayList<EventInterface> due(LocalDateTime from, int limit)
+    {
+        return collect(this.pending.tailSet(probe(from), true), limit);
+    }
+
+    /**
+     * Returns the pending tasks due before a time, most overdue first.
+     *
+     * @param now the time the tasks were due before
+     * @param limit the maximum number of tasks to return
+     * @return the overdue tasks, most overdue first
+     */
+    ArrayList<EventInterface> overdue(LocalDateTime now, int limit)
+    {
+        return collect(this.pending.headSet(probe(now), false), limit);
+    }
+
+    /**
+     * Returns the completed tasks due in the half-open range [from, to), earliest first.
+     *
+     * @param from the inclusive start of the range
+     * @param to the exclusive end of the range
+     * @return the completed tasks, earliest first
+     */
+    ArrayList<EventInterface> completed(LocalDateTime from, LocalDateTime to)
+    {
+        if (!from.isBefore(to))
+        {
+            return new ArrayList<>();
+        }
+        return collect(this.completed.subSet(probe(from), true, probe(to), false), Integer.MAX_VALUE);
+    }
+
+    private static Entry probe(LocalDateTime time)
+    {
+        return new Entry(time, null, null, false);
+    }
+
+    private static ArrayList<EventInterface> collect(NavigableSet<Entry> entries, int limit)
+    {
+        ArrayList<EventInterface> tasks = new ArrayList<>(Math.max(0, Math.min(limit, 16)));
+        for (Entry entry : entries)
+        {
+            if (tasks.size() >= limit)
+            {
+                break;
+            }
+            tasks.add(entry.task);
+        }
+        return tasks;
+    }
+}
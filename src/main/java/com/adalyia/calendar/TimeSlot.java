@@ -0,0 +1,103 @@
+/**
+ * TimeSlot.java
+ * Purpose: A half-open period of time on a Calendar
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class TimeSlot
+{
+    // Instance variables
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /**
+     * Constructs a new TimeSlot covering [start, end).
+     *
+     * @param start the inclusive start of the slot
+     * @param end the exclusive end of the slot
+     */
+    public TimeSlot(LocalDateTime start, LocalDateTime end)
+    {
+        if (end.isBefore(start))
+        {
+            throw new TimeBoundsException("End time cannot be before start time");
+        }
+
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns the inclusive start of the slot.
+     *
+     * @return the inclusive start of the slot
+     */
+    public LocalDateTime getStart()
+    {
+        return this.start;
+    }
+
+    /**
+     * Returns the exclusive end of the slot.
+     *
+     * @return the exclusive end of the slot
+     */
+    public LocalDateTime getEnd()
+    {
+        return this.end;
+    }
+
+    /**
+     * Returns the duration of the slot.
+     *
+     * @return the duration of the slot
+     */
+    public Duration getDuration()
+    {
+        return Duration.between(this.start, this.end);
+    }
+
+    /**
+     * Indicates whether some other object is "equal to" this one.
+     *
+     * @param o the reference object with which to compare
+     * @return true if this object covers the same period as the o argument; false otherwise
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TimeSlot slot = (TimeSlot) o;
+        return this.start.equals(slot.start) && this.end.equals(slot.end);
+    }
+
+    /**
+     * Returns a hash code for the slot.
+     *
+     * @return a hash code for the slot
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(this.start, this.end);
+    }
+
+    /**
+     * Returns a string representation of the slot.
+     *
+     * @return a string representation of the slot
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("{start: %s, end: %s}", this.start, this.end);
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * TimeZoneView.java
+ * Purpose: Views of stored Calendar times in a time zone
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shows stored calendar times in a particular time zone, and converts times entered in a zone to
+ * stored form.
+ * <p>
+ * Stored times are local date-times in the system time zone, as they always have been, unless
+ * canonical UTC mode is turned on with {@link #setCanonicalUtc(boolean)}. In that mode every time
+ * a calendar stores is a UTC date-time: event times, created and modified stamps (taken with
+ * {@link #now()}), and times read from iCalendar files. {@link #stored()} returns the view of the
+ * zone stored times are in, so callers can convert either way without knowing the mode. Callers
+ * taking times from users convert them with {@link #toStored(LocalDateTime)}, and each user reads
+ * them through the view of their own zone:
+ * <pre>
+ * TimeZoneView.setCanonicalUtc(true);
+ * TimeZoneView paris = TimeZoneView.of(ZoneId.of("Europe/Paris"));
+ * event.setStart(paris.toStored(LocalDateTime.of(2024, 3, 31, 9, 0)));
+ * ZonedDateTime start = TimeZoneView.of(ZoneId.of("America/New_York")).getStart(event);
+ * </pre>
+ * Canonical mode changes the meaning of every stored time, so it should be turned on before any
+ * events are created or loaded and left on. Callers that never turn it on are unaffected.
+ * <p>
+ * Each view looks up the zone's offset transitions from 1900 to 2100 once, when it is created,
+ * and finds the offset at a time by binary search over their epoch milliseconds rather than
+ * through the zone rules. Views are shared, one per zone.
+ */
+public final class TimeZoneView
+{
+    private static final ConcurrentHashMap<ZoneId, TimeZoneView> VIEWS = new ConcurrentHashMap<>();
+    private static final long CACHED_FROM = LocalDateTime.of(1900, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+    private static final long CACHED_TO = LocalDateTime.of(2101, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1000 - 1;
+    private static final long MIN_SECONDS = Long.MIN_VALUE / 1000 + 1;
+
+    /**
+     * Whether stored times are canonical UTC rather than local to the system time zone
+     */
+    private static volatile boolean canonicalUtc;
+
+    // Instance variables
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long[] transitions;
+    private final ZoneOffset[] offsets;
+
+    private TimeZoneView(ZoneId zone)
+    {
+        this.zone = zone;
+        this.rules = zone.getRules();
+
+        // offsets[i] applies before transitions[i], and the last offset after every transition
+        ArrayList<ZoneOffsetTransition> found = new ArrayList<>();
+        Instant instant = Instant.ofEpochMilli(CACHED_FROM);
+        for (ZoneOffsetTransition transition = this.rules.nextTransition(instant);
+             transition != null && transition.toEpochSecond() * 1000 < CACHED_TO;
+             transition = this.rules.nextTransition(transition.getInstant()))
+        {
+            found.add(transition);
+        }
+        this.transitions = new long[found.size()];
+        this.offsets = new ZoneOffset[found.size() + 1];
+        this.offsets[0] = this.rules.getOffset(instant);
+        for (int i = 0; i < found.size(); i++)
+        {
+            this.transitions[i] = found.get(i).toEpochSecond() * 1000;
+            this.offsets[i + 1] = found.get(i).getOffsetAfter();
+        }
+    }
+
+    /**
+     * Returns the view of a time zone.
+     *
+     * @param zone the time zone
+     * @return the view of the time zone
+     */
+    public static TimeZoneView of(ZoneId zone)
+    {
+        return VIEWS.computeIfAbsent(zone, TimeZoneView::new);
+    }
+
+    /**
+     * Returns the view of the system's default time zone.
+     *
+     * @return the view of the default time zone
+     */
+    public static TimeZoneView systemDefault()
+    {
+        return of(ZoneId.systemDefault());
+    }
+
+    /**
+     * Turns canonical UTC mode on or off. Times already stored keep their values, so the mode
+     * should only be changed before any events are created or loaded.
+     *
+     * @param canonical whether stored times are canonical UTC
+     */
+    public static void setCanonicalUtc(boolean canonical)
+    {
+        canonicalUtc = canonical;
+    }
+
+    /**
+     * Returns whether stored times are canonical UTC. They are local to the system time zone
+     * unless canonical mode has been turned on.
+     *
+     * @return whether stored times are canonical UTC
+     */
+    public static boolean isCanonicalUtc()
+    {
+        return canonicalUtc;
+    }
+
+    /**
+     * Returns the view of the zone stored times are in: UTC in canonical mode, and the system
+     * time zone otherwise.
+     *
+     * @return the view of the zone of stored times
+     */
+    public static TimeZoneView stored()
+    {
+        return canonicalUtc ? of(ZoneOffset.UTC) : systemDefault();
+    }
+
+    /**
+     * Returns the current time in stored form.
+     *
+     * @return the current time in the zone of stored times
+     */
+    public static LocalDateTime now()
+    {
+        return canonicalUtc ? LocalDateTime.now(ZoneOffset.UTC) : LocalDateTime.now();
+    }
+
+    /**
+     * Returns the time zone of the view.
+     *
+     * @return the time zone of the view
+     */
+    public ZoneId getZone()
+    {
+        return this.zone;
+    }
+
+    /**
+     * Returns the zone's offset from UTC at an instant.
+     *
+     * @param epochMilli the instant, in milliseconds since the epoch
+     * @return the offset at the instant
+     */
+    public ZoneOffset getOffset(long epochMilli)
+    {
+        if (epochMilli < CACHED_FROM || epochMilli >= CACHED_TO)
+        {
+            return this.rules.getOffset(Instant.ofEpochMilli(epochMilli));
+        }
+        int index = Arrays.binarySearch(this.transitions, epochMilli);
+        return this.offsets[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    /**
+     * Returns the wall-clock time in the zone at an instant.
+     *
+     * @param epochMilli the instant, in milliseconds since the epoch
+     * @return the local date and time in the zone
+     */
+    public LocalDateTime toLocal(long epochMilli)
+    {
+        ZoneOffset offset = this.getOffset(epochMilli);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMilli, 1000), Math.floorMod(epochMilli, 1000) * 1_000_000, offset);
+    }
+
+    /**
+     * Returns the wall-clock time in the zone of a UTC time.
+     *
+     * @param utc the time in UTC
+     * @return the local date and time in the zone
+     */
+    public LocalDateTime toLocal(LocalDateTime utc)
+    {
+        return utc.plusSeconds(this.getOffset(toEpochMilli(utc)).getTotalSeconds());
+    }
+
+    /**
+     * Converts a wall-clock time in the zone to UTC. A time skipped by a transition is moved
+     * forward by the length of the gap, and a time repeated by one is taken at the earlier
+     * offset, as ZonedDateTime does.
+     *
+     * @param local the local date and time in the zone
+     * @return the same instant in UTC
+     */
+    public LocalDateTime toUtc(LocalDateTime local)
+    {
+        if (this.zone == ZoneOffset.UTC)
+        {
+            return local;
+        }
+        return ZonedDateTime.of(local, this.zone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    /**
+     * Converts a wall-clock time in the zone to stored form. Times entered in the zone of stored
+     * times are returned as they are.
+     *
+     * @param local the local date and time in the zone
+     * @return the same instant in the zone of stored times
+     */
+    public LocalDateTime toStored(LocalDateTime local)
+    {
+        TimeZoneView stored = stored();
+        return stored == this ? local : stored.toLocal(this.toUtc(local));
+    }
+
+    /**
+     * Returns the wall-clock time in the zone of a stored time. Views of the zone of stored times
+     * return it as it is.
+     *
+     * @param time the stored time
+     * @return the local date and time in the zone
+     */
+    public LocalDateTime fromStored(LocalDateTime time)
+    {
+        TimeZoneView stored = stored();
+        return stored == this ? time : this.toLocal(stored.toUtc(time));
+    }
+
+    /**
+     * Returns a stored time in the zone.
+     *
+     * @param time the stored time
+     * @return the same instant in the zone
+     */
+    public ZonedDateTime toZoned(LocalDateTime time)
+    {
+        LocalDateTime utc = stored().toUtc(time);
+        ZoneOffset offset = this.getOffset(toEpochMilli(utc));
+        return ZonedDateTime.ofInstant(utc.plusSeconds(offset.getTotalSeconds()), offset, this.zone);
+    }
+
+    /**
+     * Returns the start of an event in the zone.
+     *
+     * @param event the event
+     * @return the start of the event in the zone
+     */
+    public ZonedDateTime getStart(EventInterface event)
+    {
+        return this.toZoned(event.getStart());
+    }
+
+    /**
+     * Returns the end of an event in the zone.
+     *
+     * @param event the event
+     * @return the end of the event in the zone
+     */
+    public ZonedDateTime getEnd(EventInterface event)
+    {
+        return this.toZoned(event.getEnd());
+    }
+
+    /**
+     * Returns a time, taken as UTC, as milliseconds since the epoch. Stored times are encoded
+     * this way in either mode, which keeps their order. Sub-millisecond precision is truncated,
+     * and times too far from the epoch to fit are clamped to Long.MIN_VALUE and Long.MAX_VALUE,
+     * so callers comparing the results must compare the times themselves when the milliseconds
+     * are equal.
+     *
+     * @param utc the time in UTC
+     * @return the milliseconds since the epoch
+     */
+    public static long toEpochMilli(LocalDateTime utc)
+    {
+        long seconds = utc.toEpochSecond(ZoneOffset.UTC);
+        if (seconds > MAX_SECONDS)
+        {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < MIN_SECONDS)
+        {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1000 + utc.getNano() / 1_000_000;
+    }
+
+    /**
+     * Returns the time, taken as UTC, at a number of milliseconds since the epoch.
+     *
+     * @param epochMilli the milliseconds since the epoch
+     * @return the time in UTC
+     */
+    public static LocalDateTime ofEpochMilli(long epochMilli)
+    {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMilli, 1000), Math.floorMod(epochMilli, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
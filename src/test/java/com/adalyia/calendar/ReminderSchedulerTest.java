@@ -0,0 +1,272 @@
+/**
+ * ReminderSchedulerTest.java
+ * Purpose: Tests of the timing wheel behind ReminderScheduler, driven by a stepped clock
+ * Author: Emily Cohen
+ * Date: 10/18/2026
+ */
+package com.adalyia.calendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every test moves a clock of its own by hand and calls tick() itself, and the listeners are
+ * called on the ticking thread, so nothing depends on the scheduler's threads or on timing.
+ */
+class ReminderSchedulerTest
+{
+    private static final long ORIGIN = Instant.parse("2024-01-15T12:00:00Z").toEpochMilli();
+
+    /**
+     * A clock that only moves when told to.
+     */
+    private static final class SteppedClock extends Clock
+    {
+        private long millis;
+
+        private SteppedClock(long millis)
+        {
+            this.millis = millis;
+        }
+
+        private void advance(Duration duration)
+        {
+            this.millis += duration.toMillis();
+        }
+
+        @Override
+        public ZoneId getZone()
+        {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone)
+        {
+            return this;
+        }
+
+        @Override
+        public long millis()
+        {
+            return this.millis;
+        }
+
+        @Override
+        public Instant instant()
+        {
+            return Instant.ofEpochMilli(this.millis);
+        }
+    }
+
+    /**
+     * A reminder passed to the listener.
+     */
+    private record Fired(EventInterface event, LocalDateTime start)
+    {
+    }
+
+    // Instance variables
+    private SteppedClock clock;
+    private ReminderScheduler scheduler;
+    private ArrayList<Fired> fired;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.clock = new SteppedClock(ORIGIN);
+        this.scheduler = new ReminderScheduler(this.clock, Duration.ofSeconds(1), Runnable::run);
+        this.fired = new ArrayList<>();
+        this.scheduler.addListener((event, start) -> this.fired.add(new Fired(event, start)));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.scheduler.close();
+    }
+
+    @Test
+    void firesAtTheFirstTickAtOrAfterTheReminderIsDue()
+    {
+        Event event = eventAt(Duration.ofMillis(5500));
+        assertTrue(this.scheduler.schedule(event, Duration.ZERO));
+
+        this.step(Duration.ofSeconds(5));
+        assertTrue(this.fired.isEmpty());
+
+        this.step(Duration.ofSeconds(1));
+        assertEquals(1, this.fired.size());
+        assertEquals(event, this.fired.get(0).event());
+        assertEquals(event.getStart(), this.fired.get(0).start());
+        assertFalse(this.scheduler.isScheduled(event));
+    }
+
+    @Test
+    void firesWhenLeadTimeHasAlreadyPassed()
+    {
+        Event event = eventAt(Duration.ofMinutes(5));
+        assertTrue(this.scheduler.schedule(event, Duration.ofMinutes(10)));
+
+        this.step(Duration.ofSeconds(1));
+        assertEquals(1, this.fired.size());
+    }
+
+    @Test
+    void cascadesFromHigherWheels()
+    {
+        // 300 ticks is on the second wheel, and 70,000 on the third
+        Event soon = eventAt(Duration.ofSeconds(300));
+        Event later = eventAt(Duration.ofSeconds(70_000));
+        this.scheduler.schedule(soon, Duration.ZERO);
+        this.scheduler.schedule(later, Duration.ZERO);
+
+        for (int second = 1; second < 300; second++)
+        {
+            this.step(Duration.ofSeconds(1));
+        }
+        assertTrue(this.fired.isEmpty());
+        this.step(Duration.ofSeconds(1));
+        assertEquals(1, this.fired.size());
+        assertEquals(soon, this.fired.get(0).event());
+
+        this.step(Duration.ofSeconds(70_000 - 301));
+        assertEquals(1, this.fired.size());
+        this.step(Duration.ofSeconds(1));
+        assertEquals(2, this.fired.size());
+        assertEquals(later, this.fired.get(1).event());
+    }
+
+    @Test
+    void keepsRemindersBeyondTheSpanOfTheWheels()
+    {
+        // The wheels span 2^32 ticks, about 136 years at a tick of one second
+        Event event = eventAt(Duration.ofDays(365L * 200));
+        assertTrue(this.scheduler.schedule(event, Duration.ZERO));
+
+        this.step(Duration.ofSeconds(1L << 25));
+        assertTrue(this.fired.isEmpty());
+        assertTrue(this.scheduler.isScheduled(event));
+        assertTrue(this.scheduler.cancel(event));
+    }
+
+    @Test
+    void cancelledRemindersNeverFire()
+    {
+        Event event = eventAt(Duration.ofSeconds(10));
+        this.scheduler.schedule(event, Duration.ZERO);
+
+        assertTrue(this.scheduler.cancel(event));
+        assertFalse(this.scheduler.cancel(event));
+        assertFalse(this.scheduler.isScheduled(event));
+        assertEquals(0, this.scheduler.getPendingCount());
+
+        this.step(Duration.ofSeconds(20));
+        assertTrue(this.fired.isEmpty());
+    }
+
+    @Test
+    void remindersAreFoundThroughAnyInstanceOfTheEvent()
+    {
+        ColumnarCalendar calendar = new ColumnarCalendar("Work", null);
+        Event event = eventAt(Duration.ofSeconds(10));
+        calendar.addEvent(event);
+        assertTrue(this.scheduler.schedule(calendar.getEvent(event.getId()), Duration.ZERO));
+
+        assertTrue(this.scheduler.isScheduled(calendar.getEvent(event.getId())));
+        assertTrue(this.scheduler.cancel(calendar.getEvent(event.getId())));
+        assertEquals(0, this.scheduler.getPendingCount());
+    }
+
+    @Test
+    void removingAnEventFromAWatchedCalendarCancelsItsReminder()
+    {
+        Calendar calendar = new Calendar("Work", null);
+        Event kept = eventAt(Duration.ofSeconds(10));
+        Event removed = eventAt(Duration.ofSeconds(10));
+        calendar.addEvent(kept);
+        this.scheduler.watch(calendar, Duration.ZERO);
+        calendar.addEvent(removed);
+        assertEquals(2, this.scheduler.getPendingCount());
+
+        calendar.removeEvent(removed);
+        this.step(Duration.ofSeconds(10));
+        assertEquals(1, this.fired.size());
+        assertEquals(kept, this.fired.get(0).event());
+    }
+
+    @Test
+    void movingAnEventReschedulesItsReminder()
+    {
+        Event event = eventAt(Duration.ofSeconds(10));
+        this.scheduler.schedule(event, Duration.ZERO);
+        event.setStart(event.getStart().plusSeconds(20));
+
+        this.step(Duration.ofSeconds(10));
+        assertTrue(this.fired.isEmpty());
+        this.step(Duration.ofSeconds(20));
+        assertEquals(1, this.fired.size());
+        assertEquals(event.getStart(), this.fired.get(0).start());
+    }
+
+    @Test
+    void recurringEventsAreRemindedOfEachOccurrence()
+    {
+        LocalDateTime start = time(Duration.ofHours(1));
+        RecurringEvent series = new RecurringEvent("Standup", null, null, start, start.plusMinutes(15), new RecurrenceRule(RecurrenceFrequency.DAILY, 1));
+        this.scheduler.schedule(series, Duration.ofMinutes(10));
+
+        this.step(Duration.ofMinutes(50));
+        assertEquals(1, this.fired.size());
+        assertEquals(start, this.fired.get(0).start());
+        assertTrue(this.scheduler.isScheduled(series));
+
+        this.step(Duration.ofDays(1));
+        assertEquals(2, this.fired.size());
+        assertEquals(start.plusDays(1), this.fired.get(1).start());
+
+        // After a jump, the first occurrence missed is reminded of and the rest are skipped
+        this.step(Duration.ofHours(60));
+        assertEquals(3, this.fired.size());
+        assertEquals(start.plusDays(2), this.fired.get(2).start());
+        this.step(Duration.ofHours(12));
+        assertEquals(4, this.fired.size());
+        assertEquals(start.plusDays(4), this.fired.get(3).start());
+    }
+
+    /**
+     * Moves the clock forward and advances the scheduler to it.
+     */
+    private void step(Duration duration)
+    {
+        this.clock.advance(duration);
+        this.scheduler.tick();
+    }
+
+    /**
+     * Returns the stored time the given duration after the origin.
+     */
+    private static LocalDateTime time(Duration offset)
+    {
+        return TimeZoneView.stored().toLocal(ORIGIN + offset.toMillis());
+    }
+
+    private static Event eventAt(Duration offset)
+    {
+        LocalDateTime start = time(offset);
+        return new Event("Reminder", null, null, start, start.plusMinutes(30));
+    }
+}